@@ -0,0 +1,40 @@
+package com.example.vuvisa.components;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.example.vuvisa.services.BatchJobService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks up batch jobs that were queued or running when the application last stopped.
+ * They continue from their last checkpoint. Safe on every node: a job is claimed before it runs, so
+ * only one node takes it.
+ */
+@Component
+@Slf4j
+public class BatchJobResumeRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final BatchJobService batchJobService;
+	private final boolean resumeOnStartup;
+
+	public BatchJobResumeRunner(BatchJobService batchJobService,
+			@Value("${batch.jobs.resume-on-startup:true}") boolean resumeOnStartup) {
+		this.batchJobService = batchJobService;
+		this.resumeOnStartup = resumeOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!resumeOnStartup) {
+			return;
+		}
+		int resumed = batchJobService.resumeInterrupted();
+		if (resumed > 0) {
+			log.info("Resumed {} interrupted batch jobs", resumed);
+		}
+	}
+}
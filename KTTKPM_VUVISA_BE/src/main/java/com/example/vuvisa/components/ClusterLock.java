@@ -0,0 +1,73 @@
+package com.example.vuvisa.components;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * MySQL named locks ({@code GET_LOCK}) for work that must run on one node at a time.
+ * <p>
+ * A named lock belongs to the connection that took it, so that connection is held until the work is done
+ * and the work itself runs on other pooled connections. A node that dies loses its connection and with it
+ * the lock, so there is no lease to expire. Lock names are at most 64 characters.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterLock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Run work while holding the lock, or skip it when another node holds the lock
+     *
+     * @param name the lock name
+     * @param work the work
+     * @return true if the work ran
+     */
+    public boolean tryRun(String name, Runnable work) {
+        return tryCall(name, () -> {
+            work.run();
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Compute a result while holding the lock, or skip it when another node holds the lock
+     *
+     * @param name the lock name
+     * @param work the work; must not return null
+     * @return the result, or empty when the lock was held elsewhere
+     */
+    public <T> Optional<T> tryCall(String name, Supplier<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            if (!query(connection, "SELECT GET_LOCK(?, 0)", name)) {
+                log.debug("Lock {} is held by another node", name);
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(work.get());
+            } finally {
+                query(connection, "SELECT RELEASE_LOCK(?)", name);
+            }
+        });
+    }
+
+    private static boolean query(Connection connection, String sql, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.vuvisa.components;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.services.BatchJobHandler;
+import com.example.vuvisa.services.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Deletes many orders; the result holds the number of deleted orders.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeleteOrdersJobHandler implements BatchJobHandler {
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public BatchJobType getType() {
+        return BatchJobType.DELETE_ORDERS;
+    }
+
+    @Override
+    public int getChunkSize() {
+        return 1000;
+    }
+
+    @Override
+    public void validate(BatchJobRequest request) {
+        if (request.getOrderIds() == null || request.getOrderIds().isEmpty()) {
+            throw new IllegalArgumentException("order_ids is required");
+        }
+    }
+
+    @Override
+    public int countItems(BatchJobRequest request) {
+        return request.getOrderIds().size();
+    }
+
+    @Override
+    public void processChunk(BatchJob job, BatchJobRequest request, int from, int to) throws Exception {
+        int deleted = orderService.deleteOrders(request.getOrderIds().subList(from, to));
+        if (job.getResult() != null) {
+            deleted += objectMapper.readTree(job.getResult()).path("deleted").asInt();
+        }
+        job.setResult(objectMapper.writeValueAsString(Map.of("deleted", deleted)));
+    }
+}
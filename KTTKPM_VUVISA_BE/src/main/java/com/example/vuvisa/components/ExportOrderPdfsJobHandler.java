@@ -0,0 +1,161 @@
+package com.example.vuvisa.components;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.services.BatchJobHandler;
+import com.example.vuvisa.services.OrderService;
+import com.example.vuvisa.utils.PdfStorageUtils;
+import com.example.vuvisa.utils.StreamingPdfMerger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders invoices chunk by chunk into part files under the job's work directory, then merges
+ * the parts into one PDF and uploads it. The result holds the URL of the merged PDF.
+ * Parts are named by their first item, so a resumed chunk overwrites its own part.
+ * <p>
+ * The work directory is local to the node, while the checkpoints are shared: a job resumed on another
+ * node, or after the directory was cleaned, finds parts missing. Before merging, every part the
+ * checkpoints cover is checked and the missing ones are rendered again.
+ */
+@Component
+@Slf4j
+public class ExportOrderPdfsJobHandler implements BatchJobHandler {
+
+    private final OrderService orderService;
+    private final PdfStorageUtils pdfStorageUtils;
+    private final ObjectMapper objectMapper;
+    private final Path workDir;
+
+    public ExportOrderPdfsJobHandler(OrderService orderService, PdfStorageUtils pdfStorageUtils,
+            ObjectMapper objectMapper, @Value("${batch.jobs.work-dir:}") String workDir) {
+        this.orderService = orderService;
+        this.pdfStorageUtils = pdfStorageUtils;
+        this.objectMapper = objectMapper;
+        this.workDir = workDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "vuvisa-batch-jobs")
+                : Path.of(workDir);
+    }
+
+    @Override
+    public BatchJobType getType() {
+        return BatchJobType.EXPORT_ORDER_PDFS;
+    }
+
+    @Override
+    public int getChunkSize() {
+        return 200;
+    }
+
+    @Override
+    public void validate(BatchJobRequest request) {
+        if (request.getOrderIds() == null || request.getOrderIds().isEmpty()) {
+            throw new IllegalArgumentException("order_ids is required");
+        }
+    }
+
+    @Override
+    public int countItems(BatchJobRequest request) {
+        return request.getOrderIds().size();
+    }
+
+    @Override
+    public void processChunk(BatchJob job, BatchJobRequest request, int from, int to) throws Exception {
+        List<Long> orderIds = request.getOrderIds().subList(from, to);
+        movePart(orderService.renderOrderPdfs(orderIds), jobDir(job), from);
+        // Once the part is safely on disk; a crash before the checkpoint renders the chunk again
+        orderService.markOrdersPacking(orderIds);
+    }
+
+    /**
+     * Rendering reads the orders in its own short transactions and the status update runs in another,
+     * so no transaction is held open while a chunk renders
+     */
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public void complete(BatchJob job, BatchJobRequest request) throws Exception {
+        Path jobDir = jobDir(job);
+        int total = countItems(request);
+        List<Path> parts = new ArrayList<>();
+        int regenerated = 0;
+        for (int from = 0; from < total; from += getChunkSize()) {
+            Path part = jobDir.resolve(partName(from));
+            if (!Files.isRegularFile(part)) {
+                // The chunk already moved its orders to PACKING; they may have moved on since
+                Path rendered = orderService.renderOrderPdfs(
+                        request.getOrderIds().subList(from, Math.min(from + getChunkSize(), total)));
+                movePart(rendered, jobDir, from);
+                regenerated++;
+            }
+            parts.add(part);
+        }
+        if (regenerated > 0) {
+            log.warn("Batch job {}: rendered {} of {} parts again, missing from {}", job.getId(), regenerated,
+                    parts.size(), jobDir);
+        }
+
+        Path merged = Files.createTempFile("invoices_job_" + job.getId() + "_", ".pdf");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(merged));
+                 StreamingPdfMerger merger = new StreamingPdfMerger(out)) {
+                for (Path part : parts) {
+                    merger.append(Files.readAllBytes(part));
+                }
+            }
+            String url = pdfStorageUtils.storeMergedPdf(merged, request.getOrderIds());
+            job.setResult(objectMapper.writeValueAsString(Map.of("url", url)));
+        } finally {
+            Files.deleteIfExists(merged);
+        }
+
+        for (Path part : parts) {
+            deleteQuietly(part);
+        }
+        deleteQuietly(jobDir);
+    }
+
+    /**
+     * Move a rendered PDF in as the part starting at {@code from}. It is copied under a temporary name first,
+     * so a crash mid-copy (the renderer's temp file may be on another file system) never leaves a truncated part.
+     */
+    private void movePart(Path rendered, Path jobDir, int from) throws IOException {
+        Files.createDirectories(jobDir);
+        Path incoming = jobDir.resolve(partName(from) + ".tmp");
+        Files.move(rendered, incoming, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(incoming, jobDir.resolve(partName(from)),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String partName(int from) {
+        return String.format("part-%09d.pdf", from);
+    }
+
+    private Path jobDir(BatchJob job) {
+        return workDir.resolve("job-" + job.getId());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
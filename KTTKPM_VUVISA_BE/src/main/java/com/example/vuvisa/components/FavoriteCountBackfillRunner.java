@@ -0,0 +1,42 @@
+package com.example.vuvisa.components;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.example.vuvisa.services.FavoriteCountService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills product.favorite_count once from the favorites when no product has a count yet,
+ * e.g. the first start after the column was introduced. The fill does not wait for other nodes to flush,
+ * so it does not hold up startup; the nightly reconciliation corrects what it counted twice.
+ */
+@Component
+@Slf4j
+public class FavoriteCountBackfillRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final FavoriteCountService favoriteCountService;
+	private final boolean backfillOnStartup;
+
+	public FavoriteCountBackfillRunner(FavoriteCountService favoriteCountService,
+			@Value("${favorite.count.backfill-on-startup:true}") boolean backfillOnStartup) {
+		this.favoriteCountService = favoriteCountService;
+		this.backfillOnStartup = backfillOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!backfillOnStartup || !favoriteCountService.needsBackfill()) {
+			return;
+		}
+		try {
+			long products = favoriteCountService.backfill();
+			log.info("Backfilled favorite counts of {} products", products);
+		} catch (Exception e) {
+			log.error("Favorite count backfill failed: {}", e.getMessage(), e);
+		}
+	}
+}
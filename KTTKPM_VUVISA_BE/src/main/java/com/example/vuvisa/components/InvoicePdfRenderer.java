@@ -0,0 +1,143 @@
+package com.example.vuvisa.components;
+
+import com.example.vuvisa.utils.PdfFontRegistry;
+import com.example.vuvisa.utils.PdfGeneratorUtils;
+import com.example.vuvisa.utils.StreamingPdfMerger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Renders invoice HTML to PDF on the dedicated {@code invoiceRenderExecutor}.
+ * Results are returned in the same order as the input, whatever order the workers finish in.
+ */
+@Component
+@Slf4j
+public class InvoicePdfRenderer {
+
+    private final TaskExecutor renderExecutor;
+    private final int windowSize;
+
+    public InvoicePdfRenderer(
+            @Qualifier("invoiceRenderExecutor") TaskExecutor renderExecutor,
+            @Value("${invoice.render.window-size:32}") int windowSize) {
+        this.renderExecutor = renderExecutor;
+        this.windowSize = Math.max(1, windowSize);
+        // Resolve and parse the invoice fonts at startup rather than on the first invoice, and refuse to start without one
+        log.debug("Invoice fonts: {}", PdfFontRegistry.requireFonts());
+    }
+
+    /**
+     * Render every HTML document to a PDF in parallel
+     *
+     * @param htmlContents HTML documents, already fully rendered
+     * @return PDFs in input order
+     * @throws Exception the first rendering failure, if any
+     */
+    public List<byte[]> renderAll(List<String> htmlContents) throws Exception {
+        if (htmlContents.size() <= 1) {
+            return PdfGeneratorUtils.generatePdfsFromHtmlList(htmlContents);
+        }
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(htmlContents.size());
+        for (String htmlContent : htmlContents) {
+            futures.add(CompletableFuture.supplyAsync(() -> render(htmlContent), renderExecutor));
+        }
+
+        List<byte[]> pdfs = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<byte[]> future : futures) {
+                pdfs.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        log.debug("Rendered {} invoice PDFs in {} ms", pdfs.size(), System.currentTimeMillis() - start);
+        return pdfs;
+    }
+
+    /**
+     * Render many invoices into one merged PDF written to {@code out}.
+     * <p>
+     * At most {@code invoice.render.window-size} invoices are in flight at any time: HTML is taken
+     * on the calling thread just before it is submitted, and each finished PDF is appended to the
+     * merged document (in input order) and dropped. Memory therefore stays flat however many invoices
+     * are exported.
+     *
+     * @param htmlContents the invoice HTML, in output order; read on the calling thread as the window has room,
+     *                     so a caller can load the documents lazily
+     * @param out where the merged PDF is written
+     * @return number of invoices written
+     * @throws Exception the first rendering or merging failure, if any
+     */
+    public int renderMerged(Iterator<String> htmlContents, OutputStream out) throws Exception {
+        if (!htmlContents.hasNext()) {
+            throw new IllegalArgumentException("Nothing to render");
+        }
+
+        long start = System.currentTimeMillis();
+        Deque<CompletableFuture<byte[]>> inFlight = new ArrayDeque<>(windowSize);
+        StreamingPdfMerger merger = new StreamingPdfMerger(out);
+        boolean completed = false;
+        try {
+            while (htmlContents.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < windowSize && htmlContents.hasNext()) {
+                    String htmlContent = htmlContents.next();
+                    inFlight.addLast(CompletableFuture.supplyAsync(() -> render(htmlContent), renderExecutor));
+                }
+                merger.append(inFlight.removeFirst().join());
+            }
+            completed = true;
+        } catch (CompletionException e) {
+            inFlight.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            if (completed) {
+                merger.close();
+            } else {
+                closeQuietly(merger);
+            }
+        }
+
+        log.debug("Rendered and merged {} invoice PDFs in {} ms",
+                merger.getDocumentCount(), System.currentTimeMillis() - start);
+        return merger.getDocumentCount();
+    }
+
+    private void closeQuietly(StreamingPdfMerger merger) {
+        try {
+            merger.close();
+        } catch (RuntimeException e) {
+            // The export already failed; an empty or partial document is discarded anyway
+            log.debug("Ignoring error while closing a failed invoice export: {}", e.getMessage());
+        }
+    }
+
+    private byte[] render(String htmlContent) {
+        try {
+            return PdfGeneratorUtils.generatePdfFromHtml(htmlContent);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+}
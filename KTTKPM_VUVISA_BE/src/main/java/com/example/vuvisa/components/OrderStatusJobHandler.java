@@ -0,0 +1,61 @@
+package com.example.vuvisa.components;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.dtos.responses.BulkOrderStatusResponse;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.services.BatchJobHandler;
+import com.example.vuvisa.services.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the status of many orders; the result sums the counts of every chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStatusJobHandler implements BatchJobHandler {
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public BatchJobType getType() {
+        return BatchJobType.UPDATE_ORDER_STATUS;
+    }
+
+    @Override
+    public int getChunkSize() {
+        return 1000;
+    }
+
+    @Override
+    public void validate(BatchJobRequest request) {
+        if (request.getOrderIds() == null || request.getOrderIds().isEmpty()) {
+            throw new IllegalArgumentException("order_ids is required");
+        }
+        if (request.getStatus() == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+    }
+
+    @Override
+    public int countItems(BatchJobRequest request) {
+        return request.getOrderIds().size();
+    }
+
+    @Override
+    public void processChunk(BatchJob job, BatchJobRequest request, int from, int to) throws Exception {
+        BulkOrderStatusResponse chunk = orderService.updateOrdersStatus(
+                request.getOrderIds().subList(from, to), request.getStatus());
+
+        BulkOrderStatusResponse total = job.getResult() != null
+                ? objectMapper.readValue(job.getResult(), BulkOrderStatusResponse.class)
+                : BulkOrderStatusResponse.builder().status(request.getStatus().name()).build();
+        total.setRequested(total.getRequested() + chunk.getRequested());
+        total.setUpdated(total.getUpdated() + chunk.getUpdated());
+        total.setUnchanged(total.getUnchanged() + chunk.getUnchanged());
+        job.setResult(objectMapper.writeValueAsString(total));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.vuvisa.components;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.vuvisa.repositories.OrderRepository;
+import com.example.vuvisa.services.OrderSummaryService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prepares the order-summary read model on startup: creates the ngram FULLTEXT indexes that
+ * Hibernate cannot declare, then fills the summaries once from existing orders while they are empty.
+ */
+@Component
+@Slf4j
+public class OrderSummaryBackfillRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	// index name -> indexed column
+	private static final Map<String, String> FULLTEXT_INDEXES = Map.of(
+			"ft_order_summary_full_name", "full_name",
+			"ft_order_summary_phone_number", "phone_number",
+			"ft_order_summary_product_names", "product_names");
+
+	private final OrderSummaryService orderSummaryService;
+	private final OrderRepository orderRepository;
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean backfillOnStartup;
+
+	public OrderSummaryBackfillRunner(OrderSummaryService orderSummaryService, OrderRepository orderRepository,
+			JdbcTemplate jdbcTemplate,
+			@Value("${order.summary.backfill-on-startup:true}") boolean backfillOnStartup) {
+		this.orderSummaryService = orderSummaryService;
+		this.orderRepository = orderRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.backfillOnStartup = backfillOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		try {
+			createFullTextIndexes();
+		} catch (Exception e) {
+			log.error("Could not create order summary FULLTEXT indexes: {}", e.getMessage(), e);
+		}
+
+		if (!backfillOnStartup || !orderSummaryService.isEmpty() || orderRepository.count() == 0) {
+			return;
+		}
+		try {
+			long written = orderSummaryService.rebuild();
+			log.info("Backfilled {} order summaries", written);
+		} catch (Exception e) {
+			log.error("Order summary backfill failed: {}", e.getMessage(), e);
+		}
+	}
+
+	private void createFullTextIndexes() {
+		jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+			try (Statement statement = connection.createStatement()) {
+				// Two-letter stopwords ("an", "in", ...) are common in Vietnamese names; index every ngram
+				statement.execute("SET SESSION innodb_ft_enable_stopword = OFF");
+				try {
+					for (Map.Entry<String, String> index : FULLTEXT_INDEXES.entrySet()) {
+						if (!indexExists(statement, index.getKey())) {
+							statement.execute("ALTER TABLE order_summary ADD FULLTEXT INDEX " + index.getKey()
+									+ " (" + index.getValue() + ") WITH PARSER ngram");
+							log.info("Created FULLTEXT index {}", index.getKey());
+						}
+					}
+				} finally {
+					// The connection goes back to the pool
+					statement.execute("SET SESSION innodb_ft_enable_stopword = ON");
+				}
+			}
+			return null;
+		});
+	}
+
+	private static boolean indexExists(Statement statement, String indexName) throws SQLException {
+		try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM information_schema.STATISTICS "
+				+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'order_summary' AND INDEX_NAME = '" + indexName + "'")) {
+			return rs.next() && rs.getInt(1) > 0;
+		}
+	}
+}
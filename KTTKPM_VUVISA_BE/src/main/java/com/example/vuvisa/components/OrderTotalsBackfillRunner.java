@@ -0,0 +1,98 @@
+package com.example.vuvisa.components;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One-off migration that fills subtotal, discount_total and grand_total for orders created before
+ * the columns existed. Follows the rules of {@link com.example.vuvisa.utils.OrderTotals} in SQL,
+ * in chunks of ids, one transaction per chunk. Does nothing once every order has its totals.
+ */
+@Component
+@Slf4j
+public class OrderTotalsBackfillRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private static final int CHUNK_SIZE = 1000;
+
+	private static final String SELECT_CHUNK_SQL =
+			"SELECT id FROM %1$s WHERE grand_total IS NULL AND id > :after ORDER BY id LIMIT :limit";
+	private static final String SUBTOTAL_SQL = "UPDATE %1$s o LEFT JOIN ("
+			+ "SELECT order_id, SUM(price * quantity) AS subtotal FROM %2$s WHERE order_id IN (:ids) GROUP BY order_id) s "
+			+ "ON s.order_id = o.id SET o.subtotal = COALESCE(s.subtotal, 0) WHERE o.id IN (:ids)";
+	private static final String DISCOUNT_SQL = "UPDATE %1$s o LEFT JOIN ("
+			+ "SELECT ov.order_id, ROUND(SUM(CASE WHEN v.discount_amount IS NOT NULL THEN v.discount_amount "
+			+ "ELSE oo.subtotal * COALESCE(v.discount_percentage, 0) / 100 END)) AS discount "
+			+ "FROM %3$s ov JOIN vouchers v ON v.id = ov.voucher_id JOIN %1$s oo ON oo.id = ov.order_id "
+			+ "WHERE ov.order_id IN (:ids) GROUP BY ov.order_id) x ON x.order_id = o.id "
+			+ "SET o.discount_total = LEAST(o.subtotal, GREATEST(0, COALESCE(x.discount, 0))), "
+			+ "o.grand_total = o.subtotal - LEAST(o.subtotal, GREATEST(0, COALESCE(x.discount, 0))) "
+			+ "WHERE o.id IN (:ids)";
+
+	// orders table -> its details and voucher link tables
+	private static final List<String[]> TABLES = List.of(
+			new String[] {"orders", "order_details", "order_vouchers"},
+			new String[] {"orders_archive", "order_details_archive", "order_vouchers_archive"});
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean backfillOnStartup;
+
+	public OrderTotalsBackfillRunner(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			@Value("${order.totals.backfill-on-startup:true}") boolean backfillOnStartup) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.backfillOnStartup = backfillOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!backfillOnStartup) {
+			return;
+		}
+		for (String[] tables : TABLES) {
+			try {
+				long filled = backfill(tables[0], tables[1], tables[2]);
+				if (filled > 0) {
+					log.info("Backfilled totals of {} rows in {}", filled, tables[0]);
+				}
+			} catch (Exception e) {
+				log.error("Order totals backfill failed for {}: {}", tables[0], e.getMessage(), e);
+			}
+		}
+	}
+
+	private long backfill(String orders, String details, String vouchers) {
+		String selectChunk = String.format(SELECT_CHUNK_SQL, orders);
+		String subtotal = String.format(SUBTOTAL_SQL, orders, details);
+		String discount = String.format(DISCOUNT_SQL, orders, details, vouchers);
+
+		long filled = 0;
+		long after = Long.MIN_VALUE;
+		while (true) {
+			List<Long> ids = namedParameterJdbcTemplate.queryForList(selectChunk,
+					new MapSqlParameterSource().addValue("after", after).addValue("limit", CHUNK_SIZE), Long.class);
+			if (ids.isEmpty()) {
+				return filled;
+			}
+			transactionTemplate.executeWithoutResult(status -> {
+				Map<String, Object> params = Map.of("ids", ids);
+				namedParameterJdbcTemplate.update(subtotal, params);
+				namedParameterJdbcTemplate.update(discount, params);
+			});
+			filled += ids.size();
+			after = ids.get(ids.size() - 1);
+		}
+	}
+}
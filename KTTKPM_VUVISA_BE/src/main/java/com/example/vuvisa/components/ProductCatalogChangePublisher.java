@@ -0,0 +1,34 @@
+package com.example.vuvisa.components;
+
+import com.example.vuvisa.events.ProductChangedEvent;
+import com.example.vuvisa.services.ProductCacheStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Tells every node about committed changes to the searchable text of products, so that their search
+ * index and suggestions pick up edits made on this node. Stock, discount and image changes are not sent.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogChangePublisher {
+
+    private final ProductCacheStore store;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleProductChanged(ProductChangedEvent event) {
+        if (!event.isCatalogChanged() || event.getProductIds().isEmpty()) {
+            return;
+        }
+        try {
+            store.publishCatalogChange(event.getProductIds());
+        } catch (RuntimeException e) {
+            // Other nodes catch up with their next scheduled rebuild
+            log.warn("Could not publish the catalog change of products {}: {}", event.getProductIds(), e.getMessage());
+        }
+    }
+}
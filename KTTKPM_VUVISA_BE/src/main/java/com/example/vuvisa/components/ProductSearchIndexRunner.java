@@ -0,0 +1,40 @@
+package com.example.vuvisa.components;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.example.vuvisa.services.ProductSearchService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the catalog search index of this node on startup. Until it is built, searches fall back to
+ * the database.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndexRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final ProductSearchService productSearchService;
+	private final boolean buildOnStartup;
+
+	public ProductSearchIndexRunner(ProductSearchService productSearchService,
+			@Value("${product.search.build-on-startup:true}") boolean buildOnStartup) {
+		this.productSearchService = productSearchService;
+		this.buildOnStartup = buildOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!buildOnStartup || productSearchService.isReady()) {
+			return;
+		}
+		try {
+			productSearchService.rebuild();
+		} catch (Exception e) {
+			log.error("Search index build failed: {}", e.getMessage(), e);
+		}
+	}
+}
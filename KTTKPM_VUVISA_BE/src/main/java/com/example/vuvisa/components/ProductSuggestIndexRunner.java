@@ -0,0 +1,40 @@
+package com.example.vuvisa.components;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.example.vuvisa.services.ProductSuggestService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the search box suggestions of this node on startup. Until they are built, no suggestions are
+ * returned.
+ */
+@Component
+@Slf4j
+public class ProductSuggestIndexRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final ProductSuggestService productSuggestService;
+	private final boolean buildOnStartup;
+
+	public ProductSuggestIndexRunner(ProductSuggestService productSuggestService,
+			@Value("${product.suggest.build-on-startup:true}") boolean buildOnStartup) {
+		this.productSuggestService = productSuggestService;
+		this.buildOnStartup = buildOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!buildOnStartup) {
+			return;
+		}
+		try {
+			productSuggestService.rebuild();
+		} catch (Exception e) {
+			log.error("Search suggestions build failed: {}", e.getMessage(), e);
+		}
+	}
+}
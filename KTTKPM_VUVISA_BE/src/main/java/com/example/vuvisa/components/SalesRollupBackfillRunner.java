@@ -0,0 +1,57 @@
+package com.example.vuvisa.components;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.example.vuvisa.repositories.OrderRepository;
+import com.example.vuvisa.services.SalesRollupService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills the sales rollups once from existing orders when they are still empty,
+ * e.g. the first start after the rollup tables were introduced.
+ * Nodes starting together race for a cluster-wide lock; the others skip the fill, or find it done.
+ */
+@Component
+@Slf4j
+public class SalesRollupBackfillRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private static final String LOCK = "vuvisa:sales-rollup-backfill";
+
+	private final SalesRollupService salesRollupService;
+	private final OrderRepository orderRepository;
+	private final ClusterLock clusterLock;
+	private final boolean backfillOnStartup;
+
+	public SalesRollupBackfillRunner(SalesRollupService salesRollupService, OrderRepository orderRepository,
+			ClusterLock clusterLock, @Value("${sales.rollup.backfill-on-startup:true}") boolean backfillOnStartup) {
+		this.salesRollupService = salesRollupService;
+		this.orderRepository = orderRepository;
+		this.clusterLock = clusterLock;
+		this.backfillOnStartup = backfillOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!backfillOnStartup || !salesRollupService.isEmpty() || orderRepository.count() == 0) {
+			return;
+		}
+		try {
+			// Checked again under the lock: a node that started first may have filled the rollups meanwhile
+			Optional<Long> counted = clusterLock.tryCall(LOCK,
+					() -> salesRollupService.isEmpty() ? salesRollupService.rebuild() : 0L);
+			if (counted.isEmpty()) {
+				log.info("Sales rollup backfill skipped, another node is filling the rollups");
+			} else if (counted.get() > 0) {
+				log.info("Backfilled sales rollups from {} orders", counted.get());
+			}
+		} catch (Exception e) {
+			log.error("Sales rollup backfill failed: {}", e.getMessage(), e);
+		}
+	}
+}
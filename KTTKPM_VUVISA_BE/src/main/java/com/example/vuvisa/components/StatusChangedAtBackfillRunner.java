@@ -0,0 +1,56 @@
+package com.example.vuvisa.components;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.vuvisa.repositories.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One-off migration that sets status_changed_at of orders created before the column existed to
+ * their order date, so stuck-order queries and dwell times have a starting point. Runs in chunks,
+ * one transaction each, and does nothing once every order has the column.
+ */
+@Component
+@Slf4j
+public class StatusChangedAtBackfillRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private static final int CHUNK_SIZE = 5000;
+
+	private final OrderRepository orderRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean backfillOnStartup;
+
+	public StatusChangedAtBackfillRunner(OrderRepository orderRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${order.status-history.backfill-on-startup:true}") boolean backfillOnStartup) {
+		this.orderRepository = orderRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.backfillOnStartup = backfillOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!backfillOnStartup) {
+			return;
+		}
+		try {
+			long filled = 0;
+			int updated;
+			do {
+				updated = transactionTemplate.execute(status -> orderRepository.backfillStatusChangedAt(CHUNK_SIZE));
+				filled += updated;
+			} while (updated == CHUNK_SIZE);
+			if (filled > 0) {
+				log.info("Backfilled status_changed_at of {} orders", filled);
+			}
+		} catch (Exception e) {
+			log.error("status_changed_at backfill failed: {}", e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.vuvisa.components;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.example.vuvisa.repositories.OrderRepository;
+import com.example.vuvisa.services.UserOrderStatsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills the per-user order statistics once from existing orders when they are still empty,
+ * e.g. the first start after the statistics table was introduced.
+ */
+@Component
+@Slf4j
+public class UserOrderStatsBackfillRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final UserOrderStatsService userOrderStatsService;
+	private final OrderRepository orderRepository;
+	private final boolean backfillOnStartup;
+
+	public UserOrderStatsBackfillRunner(UserOrderStatsService userOrderStatsService, OrderRepository orderRepository,
+			@Value("${user.order-stats.backfill-on-startup:true}") boolean backfillOnStartup) {
+		this.userOrderStatsService = userOrderStatsService;
+		this.orderRepository = orderRepository;
+		this.backfillOnStartup = backfillOnStartup;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (!backfillOnStartup || !userOrderStatsService.isEmpty() || orderRepository.count() == 0) {
+			return;
+		}
+		try {
+			long users = userOrderStatsService.rebuild();
+			log.info("Backfilled order statistics of {} users", users);
+		} catch (Exception e) {
+			log.error("User order statistics backfill failed: {}", e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.vuvisa.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated, bounded thread pools for background work that must not run on request threads.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Workers that render and email invoices after an order has committed.
+     * The queue is bounded; when it is full, submissions are rejected and the
+     * delivery stays PENDING until the retry poller picks it up.
+     *
+     * @return the invoice delivery executor
+     */
+    @Bean(name = "invoiceDeliveryExecutor")
+    public ThreadPoolTaskExecutor invoiceDeliveryExecutor(
+            @Value("${invoice.delivery.core-pool-size:2}") int corePoolSize,
+            @Value("${invoice.delivery.max-pool-size:4}") int maxPoolSize,
+            @Value("${invoice.delivery.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("invoice-delivery-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers that turn invoice HTML into PDFs for bulk printing.
+     * Rendering is CPU bound, so the pool defaults to one thread per core. When the
+     * bounded queue is full the submitting thread renders the invoice itself, which
+     * throttles large batches instead of failing them.
+     *
+     * @return the invoice render executor
+     */
+    @Bean(name = "invoiceRenderExecutor")
+    public ThreadPoolTaskExecutor invoiceRenderExecutor(
+            @Value("${invoice.render.pool-size:0}") int poolSize,
+            @Value("${invoice.render.queue-capacity:200}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("invoice-render-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for admin batch jobs. Few threads and a bounded queue: a job that cannot be queued
+     * is marked failed and can be resumed later. Running jobs are not awaited on shutdown; they
+     * stop at their last checkpoint and are resumed on the next start.
+     *
+     * @return the batch job executor
+     */
+    @Bean(name = "batchJobExecutor")
+    public ThreadPoolTaskExecutor batchJobExecutor(
+            @Value("${batch.jobs.pool-size:2}") int poolSize,
+            @Value("${batch.jobs.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("batch-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.vuvisa.configurations;
 
+import java.net.URI;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +12,8 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
 
 @Configuration
 @FieldDefaults(level = AccessLevel.PRIVATE) // Make sure to uncomment this if you want Spring to manage this bean
@@ -24,13 +28,23 @@ public class AwsS3Config {
 	@Value("${aws.region}")
 	String region;
 
+	// Optional endpoint of an S3-compatible stand-in (MinIO, LocalStack) for local runs
+	@Value("${aws.s3.endpoint:}")
+	String endpoint;
+
 	@Bean
 	public S3Client s3Client() {
 		AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
 
-		return S3Client.builder()
+		S3ClientBuilder builder = S3Client.builder()
 				.region(Region.of(region))
-				.credentialsProvider(StaticCredentialsProvider.create(credentials))
-				.build();
+				.credentialsProvider(StaticCredentialsProvider.create(credentials));
+
+		if (endpoint != null && !endpoint.isBlank()) {
+			builder.endpointOverride(URI.create(endpoint))
+					.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+		}
+
+		return builder.build();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.vuvisa.configurations;
+
+import com.example.vuvisa.utils.IdGenerator;
+import com.example.vuvisa.utils.OrderIdGenerator;
+import com.example.vuvisa.utils.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the order id generator. Every app node must use a distinct {@code order.id.node-id}.
+ */
+@Configuration
+@Slf4j
+public class IdGeneratorConfig {
+
+    @Bean
+    public IdGenerator orderIdGenerator(@Value("${order.id.node-id:0}") long nodeId) {
+        IdGenerator generator = new SnowflakeIdGenerator(nodeId);
+        OrderIdGenerator.install(generator);
+        log.info("Order id generator initialised for node {}", nodeId);
+        return generator;
+    }
+}
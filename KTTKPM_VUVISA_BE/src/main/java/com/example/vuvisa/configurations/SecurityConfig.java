@@ -63,6 +63,7 @@ public class SecurityConfig {
 			"/api/v1/products/category/{categoryId}",
 			"/api/v1/products/category/{categoryId}/supplier/{supplierId}",
 			"/api/v1/products/search/{term}",
+			"/api/v1/products/suggest",
 			"/api/v1/categories/by-type",
 			"/api/v1/products/{productId}/related",
 			"/api/v1/products/newest",
@@ -0,0 +1,78 @@
+package com.example.vuvisa.controllers;
+
+import com.example.vuvisa.api_responses.APIResponse;
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.dtos.responses.BatchJobResponse;
+import com.example.vuvisa.services.BatchJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("${api.prefix}/jobs")
+@RequiredArgsConstructor
+public class BatchJobController {
+
+    private final BatchJobService batchJobService;
+
+    @PostMapping
+    public APIResponse<?> submitJob(@RequestBody @Valid BatchJobRequest request) {
+        try {
+            BatchJobResponse job = batchJobService.submit(request);
+            return APIResponse.builder()
+                    .code(202)
+                    .message("Job " + job.getId() + " queued; progress on /topic/jobs/" + job.getId())
+                    .result(job)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error submitting job: {}", e.getMessage(), e);
+            return APIResponse.builder()
+                    .message("Error submitting job: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public APIResponse<?> getJob(@PathVariable Long id) {
+        try {
+            return APIResponse.builder()
+                    .message("Job retrieved successfully")
+                    .result(batchJobService.getJob(id))
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error retrieving job: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @PostMapping("/{id}/cancel")
+    public APIResponse<?> cancelJob(@PathVariable Long id) {
+        try {
+            return APIResponse.builder()
+                    .message("Cancellation requested")
+                    .result(batchJobService.cancel(id))
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error cancelling job: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @PostMapping("/{id}/resume")
+    public APIResponse<?> resumeJob(@PathVariable Long id) {
+        try {
+            return APIResponse.builder()
+                    .message("Job resumed")
+                    .result(batchJobService.resume(id))
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error resuming job: " + e.getMessage())
+                    .build();
+        }
+    }
+}
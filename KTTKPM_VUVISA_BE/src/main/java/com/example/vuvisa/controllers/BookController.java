@@ -54,9 +54,7 @@ public class BookController {
 
     @GetMapping("/{id}")
     public ResponseEntity<BookResponseDTO> getBookById(@PathVariable Long id) {
-        Book book = bookService.getBookById(id);
-        BookResponseDTO dto = bookService.convertToResponseDTO(book);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok(bookService.getBookDTOById(id));
     }
 
 
@@ -3,7 +3,9 @@ package com.example.vuvisa.controllers;
 import com.example.vuvisa.api_responses.APIResponse;
 import com.example.vuvisa.dtos.requests.CartItemDTO;
 import com.example.vuvisa.dtos.responses.CartResponse;
+import com.example.vuvisa.exceptions.IdempotencyConflictException;
 import com.example.vuvisa.services.CartService;
+import com.example.vuvisa.services.IdempotencyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
 
     private final CartService cartService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/{userId}")
     public APIResponse<?> getCartByUserId(@PathVariable Long userId) {
@@ -89,13 +92,21 @@ public class CartController {
     }
 
     @PostMapping("/{userId}/checkout")
-    public APIResponse<?> checkout(@PathVariable Long userId) {
+    public APIResponse<?> checkout(@PathVariable Long userId,
+                                   @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
-            CartResponse cartResponse = cartService.checkout(userId);
+            // A retried checkout with the same key does not place a second order
+            CartResponse cartResponse = idempotencyService.execute("cart.checkout", idempotencyKey, userId,
+                    CartResponse.class, () -> cartService.checkout(userId));
             return APIResponse.builder()
                     .message("Checkout successful")
                     .result(cartResponse)
                     .build();
+        } catch (IdempotencyConflictException e) {
+            return APIResponse.builder()
+                    .code(409)
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
             return APIResponse.builder()
                     .message("Error during checkout: " + e.getMessage())
@@ -54,9 +54,7 @@ public class OfficeSupplieController {
 
     @GetMapping("/{id}")
     public ResponseEntity<OfficeSuppliesResponseDTO> getOfficeSuppliesById(@PathVariable Long id) {
-        OfficeSupplies officeSupplies = officeSupplieService.getOfficeSuppliesById(id);
-        OfficeSuppliesResponseDTO dto = officeSupplieService.convertToResponseDTO(officeSupplies);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok(officeSupplieService.getOfficeSuppliesDTOById(id));
     }
 
     @PostMapping
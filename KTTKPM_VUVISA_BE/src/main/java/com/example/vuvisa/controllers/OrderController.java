@@ -3,15 +3,35 @@ package com.example.vuvisa.controllers;
 import com.example.vuvisa.api_responses.APIResponse;
 import com.example.vuvisa.dtos.requests.OrderDTO;
 import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.requests.SampleOrderGenerationRequest;
 import com.example.vuvisa.dtos.requests.UpdateOrderStatusRequest;
+import com.example.vuvisa.dtos.responses.BulkOrderStatusResponse;
+import com.example.vuvisa.dtos.responses.CursorPageResponse;
 import com.example.vuvisa.dtos.responses.OrderResponse;
+import com.example.vuvisa.dtos.responses.OrderStatusHistoryResponse;
+import com.example.vuvisa.dtos.responses.OrderSummaryResponse;
+import com.example.vuvisa.dtos.responses.StatusDwellResponse;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.exceptions.IdempotencyConflictException;
+import com.example.vuvisa.services.IdempotencyService;
+import com.example.vuvisa.services.InvoiceDeliveryService;
 import com.example.vuvisa.services.OrderService;
-import com.example.vuvisa.utils.PdfGeneratorUtils;
+import com.example.vuvisa.services.OrderStatusHistoryService;
+import com.example.vuvisa.services.OrderSummaryService;
+import com.example.vuvisa.services.SampleDataService;
 import com.example.vuvisa.utils.PdfStorageUtils;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -22,15 +42,28 @@ public class OrderController {
 
     private final OrderService orderService;
     private final PdfStorageUtils pdfStorageUtils;
+    private final InvoiceDeliveryService invoiceDeliveryService;
+    private final SampleDataService sampleDataService;
+    private final IdempotencyService idempotencyService;
+    private final OrderStatusHistoryService orderStatusHistoryService;
+    private final OrderSummaryService orderSummaryService;
 
     @PostMapping
-    public APIResponse<?> createOrder(@RequestBody OrderDTO orderDTO) {
+    public APIResponse<?> createOrder(@RequestBody OrderDTO orderDTO,
+                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
-            OrderResponse orderResponse = orderService.createOrder(orderDTO);
+            // Retries with the same key get the first order back instead of a duplicate
+            OrderResponse orderResponse = idempotencyService.execute("order.create", idempotencyKey, orderDTO,
+                    OrderResponse.class, () -> orderService.createOrder(orderDTO));
             return APIResponse.builder()
                     .message("Order created successfully")
                     .result(orderResponse)
                     .build();
+        } catch (IdempotencyConflictException e) {
+            return APIResponse.builder()
+                    .code(409)
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
             return APIResponse.builder()
                     .message("Error creating order: " + e.getMessage())
@@ -85,6 +118,71 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/{id}/invoice-delivery")
+    public APIResponse<?> getInvoiceDelivery(@PathVariable Long id) {
+        return invoiceDeliveryService.getDelivery(id)
+                .map(delivery -> APIResponse.builder()
+                        .message("Invoice delivery retrieved successfully")
+                        .result(delivery)
+                        .build())
+                .orElseGet(() -> APIResponse.builder()
+                        .code(404)
+                        .message("No invoice delivery found for order " + id)
+                        .build());
+    }
+
+    @GetMapping("/{id}/status-history")
+    public APIResponse<?> getStatusHistory(@PathVariable Long id) {
+        try {
+            List<OrderStatusHistoryResponse> history = orderStatusHistoryService.getHistory(id);
+            return APIResponse.builder()
+                    .message("Order status history retrieved successfully")
+                    .result(history)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error retrieving order status history: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @GetMapping("/status-dwell")
+    public APIResponse<?> getStatusDwell(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minusDays(30);
+            List<StatusDwellResponse> stats = orderStatusHistoryService.getDwellStats(status, start, end);
+            return APIResponse.builder()
+                    .message("Status dwell times retrieved successfully")
+                    .result(stats)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error retrieving status dwell times: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @GetMapping("/stuck")
+    public APIResponse<?> getStuckOrders(@RequestParam OrderStatus status,
+                                         @RequestParam(name = "older_than_hours", defaultValue = "72") long olderThanHours,
+                                         @RequestParam(defaultValue = "50") int limit) {
+        try {
+            List<OrderResponse> orders = orderService.findStuckOrders(status, Duration.ofHours(olderThanHours), limit);
+            return APIResponse.builder()
+                    .message("Stuck orders retrieved successfully")
+                    .result(orders)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error retrieving stuck orders: " + e.getMessage())
+                    .build();
+        }
+    }
+
     @PostMapping("/filter")
     public APIResponse<?> filterOrders(
             @RequestBody OrderFilterRequest filter,
@@ -104,6 +202,59 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/summaries/filter")
+    public APIResponse<?> filterOrderSummaries(
+            @RequestBody(required = false) OrderFilterRequest filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            // Active orders only; /filter is the search that reaches into the archive
+            Page<OrderSummaryResponse> summaries = orderSummaryService.filter(filter, page, size);
+            return APIResponse.builder()
+                    .message("Orders filtered successfully")
+                    .result(summaries)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error filtering orders: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @PostMapping("/summaries/rebuild")
+    public APIResponse<?> rebuildOrderSummaries() {
+        try {
+            long written = orderSummaryService.rebuild();
+            return APIResponse.builder()
+                    .message("Order summaries rebuilt from " + written + " orders")
+                    .result(written)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error rebuilding order summaries: {}", e.getMessage(), e);
+            return APIResponse.builder()
+                    .message("Error rebuilding order summaries: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @PostMapping("/filter/scroll")
+    public APIResponse<?> scrollOrders(
+            @RequestBody(required = false) OrderFilterRequest filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(name = "approximate_total", defaultValue = "false") boolean approximateTotal) {
+        try {
+            CursorPageResponse<OrderResponse> orders = orderService.scrollOrders(filter, cursor, size, approximateTotal);
+            return APIResponse.builder()
+                    .message("Orders filtered successfully")
+                    .result(orders)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error filtering orders: " + e.getMessage())
+                    .build();
+        }
+    }
 
     @PostMapping("/generate-sample-orders")
     public APIResponse<?> generateSampleOrders() {
@@ -120,23 +271,35 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/generate-sample-orders/bulk")
+    public APIResponse<?> generateSampleOrdersBulk(@RequestBody @Valid SampleOrderGenerationRequest request) {
+        try {
+            int created = sampleDataService.generateOrders(request);
+            return APIResponse.builder()
+                    .message("Successfully created " + created + " orders")
+                    .result(created)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error generating sample orders: {}", e.getMessage(), e);
+            return APIResponse.builder()
+                    .message("Error: " + e.getMessage())
+                    .build();
+        }
+    }
+
     @PostMapping("/generate-pdfs")
     public APIResponse<?> generateOrderPdfs(@RequestBody List<Long> orderIds) {
+        Path mergedPdf = null;
         try {
-            List<byte[]> pdfs = orderService.generateOrderPdfs(orderIds);
-
-            if (pdfs.isEmpty()) {
-                return APIResponse.builder()
-                        .message("No PDFs were generated")
-                        .build();
-            }
-
-            // Merge all PDFs into a single PDF
-            byte[] mergedPdf = PdfGeneratorUtils.mergePdfs(pdfs);
+            // Invoices are rendered and merged straight into a temp file, then streamed to S3
+            mergedPdf = orderService.renderOrderPdfs(orderIds);
 
             // Store the merged PDF in S3 and get the URL
             String pdfUrl = pdfStorageUtils.storeMergedPdf(mergedPdf, orderIds);
 
+            // Only printed invoices move their orders on
+            orderService.markOrdersPacking(orderIds);
+
             return APIResponse.builder()
                     .message("PDFs generated and merged successfully")
                     .result(pdfUrl)
@@ -146,6 +309,14 @@ public class OrderController {
             return APIResponse.builder()
                     .message("Error generating PDFs: " + e.getMessage())
                     .build();
+        } finally {
+            if (mergedPdf != null) {
+                try {
+                    Files.deleteIfExists(mergedPdf);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary invoice file {}: {}", mergedPdf, e.getMessage());
+                }
+            }
         }
     }
 
@@ -154,14 +325,14 @@ public class OrderController {
         try {
             log.info("Updating status for orders: {} to {}", request.getOrderIds(), request.getStatus());
 
-            List<OrderResponse> updatedOrders = orderService.updateOrdersStatus(
+            BulkOrderStatusResponse summary = orderService.updateOrdersStatus(
                     request.getOrderIds(),
                     request.getStatus()
             );
 
             return APIResponse.builder()
                     .message("Orders status updated successfully to " + request.getStatus())
-                    .result(updatedOrders)
+                    .result(summary)
                     .build();
 
         } catch (Exception e) {
@@ -175,9 +346,10 @@ public class OrderController {
     @PostMapping("/delete")
     public APIResponse<?> deleteOrders(@RequestBody List<Long> orderIds) {
         try {
-            orderService.deleteOrders(orderIds);
+            int deleted = orderService.deleteOrders(orderIds);
             return APIResponse.builder()
                     .message("Order deleted successfully")
+                    .result(deleted)
                     .build();
         } catch (Exception e) {
             log.error("Error deleting order: {}", e.getMessage(), e);
@@ -1,10 +1,14 @@
 package com.example.vuvisa.controllers;
 
 import com.example.vuvisa.api_responses.APIResponse;
+import com.example.vuvisa.dtos.responses.ProductCacheStatsResponse;
 import com.example.vuvisa.dtos.responses.ProductFavoriteResponse;
+import com.example.vuvisa.dtos.responses.ProductSuggestionResponse;
 import com.example.vuvisa.entities.Product;
 import com.example.vuvisa.enums.CategoryType;
+import com.example.vuvisa.services.ProductDetailCache;
 import com.example.vuvisa.services.ProductService;
+import com.example.vuvisa.services.ProductSuggestService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +30,8 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductDetailCache productDetailCache;
+    private final ProductSuggestService productSuggestService;
 
     @GetMapping
     public ResponseEntity<List<Product>> getAllProducts() {
@@ -88,6 +94,23 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchProducts(name, limit));
     }
 
+    /**
+     * Get completions for the search box, called on every keystroke
+     * @param q Text typed so far
+     * @param limit Maximum number of suggestions (default: 8, at most 20)
+     * @return Most popular product and author names with a word starting with the text
+     */
+    @GetMapping("/suggest")
+    public APIResponse<List<ProductSuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<ProductSuggestionResponse> suggestions = productSuggestService.suggest(q, Math.min(limit, 20));
+        return APIResponse.<List<ProductSuggestionResponse>>builder()
+                .result(suggestions)
+                .message("Get search suggestions successfully")
+                .build();
+    }
+
     @GetMapping("/count")
     public APIResponse<Long> getTotalUserCount() {
         long totalProductCount = productService.getTotalProductCount();
@@ -97,6 +120,18 @@ public class ProductController {
                 .build();
     }
 
+    /**
+     * Get the hit, miss and load counters of the product detail cache on this node
+     * @return cache statistics since startup
+     */
+    @GetMapping("/cache/stats")
+    public APIResponse<ProductCacheStatsResponse> getCacheStats() {
+        return APIResponse.<ProductCacheStatsResponse>builder()
+                .result(productDetailCache.getStats())
+                .message("Product cache statistics retrieved successfully")
+                .build();
+    }
+
     /**
      * Get related products for a given product
      * @param productId ID of the product to find related products for
@@ -162,15 +197,19 @@ public class ProductController {
     }
 
     /**
-     * Get all products with favorite information
+     * Get a page of products with favorite information
      * @param userId ID of the user (optional)
-     * @return List of products with favorite information
+     * @param page Page number (default: 0)
+     * @param size Page size (default: 12, at most 100)
+     * @return Page of products with favorite information
      */
     @GetMapping("/with-favorites")
-    public APIResponse<List<ProductFavoriteResponse>> getAllProductsWithFavoriteInfo(
-            @RequestParam(required = false) Long userId) {
-        List<ProductFavoriteResponse> products = productService.getAllProductsWithFavoriteInfo(userId);
-        return APIResponse.<List<ProductFavoriteResponse>>builder()
+    public APIResponse<Page<ProductFavoriteResponse>> getProductsWithFavoriteInfo(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+        Page<ProductFavoriteResponse> products = productService.getProductsWithFavoriteInfo(userId, page, size);
+        return APIResponse.<Page<ProductFavoriteResponse>>builder()
                 .result(products)
                 .message("Products with favorite information retrieved successfully")
                 .build();
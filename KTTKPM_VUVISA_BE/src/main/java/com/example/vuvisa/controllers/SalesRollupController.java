@@ -0,0 +1,87 @@
+package com.example.vuvisa.controllers;
+
+import com.example.vuvisa.api_responses.APIResponse;
+import com.example.vuvisa.dtos.responses.SalesRollupResponse;
+import com.example.vuvisa.services.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("${api.prefix}/sales-rollups")
+@RequiredArgsConstructor
+public class SalesRollupController {
+
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/daily")
+    public APIResponse<?> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            List<SalesRollupResponse> sales = salesRollupService.getDailySales(start, end);
+            return APIResponse.builder()
+                    .message("Daily sales retrieved successfully")
+                    .result(sales)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error retrieving daily sales: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @GetMapping("/products/top")
+    public APIResponse<?> getTopProducts(@RequestParam(defaultValue = "10") int limit,
+                                         @RequestParam(name = "sort_by", defaultValue = "revenue") String sortBy) {
+        try {
+            List<SalesRollupResponse> products = salesRollupService.getTopProducts(limit, sortBy);
+            return APIResponse.builder()
+                    .message("Top products retrieved successfully")
+                    .result(products)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error retrieving top products: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @GetMapping("/categories")
+    public APIResponse<?> getCategorySales() {
+        try {
+            List<SalesRollupResponse> categories = salesRollupService.getCategorySales();
+            return APIResponse.builder()
+                    .message("Category sales retrieved successfully")
+                    .result(categories)
+                    .build();
+        } catch (Exception e) {
+            return APIResponse.builder()
+                    .message("Error retrieving category sales: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @PostMapping("/rebuild")
+    public APIResponse<?> rebuild() {
+        try {
+            long counted = salesRollupService.rebuild();
+            return APIResponse.builder()
+                    .message("Sales rollups rebuilt from " + counted + " orders")
+                    .result(counted)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error rebuilding sales rollups: {}", e.getMessage(), e);
+            return APIResponse.builder()
+                    .message("Error rebuilding sales rollups: " + e.getMessage())
+                    .build();
+        }
+    }
+}
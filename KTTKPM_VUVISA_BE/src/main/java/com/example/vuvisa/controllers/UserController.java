@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import com.example.vuvisa.api_responses.APIResponse;
 import com.example.vuvisa.dtos.requests.*;
 import com.example.vuvisa.dtos.responses.UserListResponse;
+import com.example.vuvisa.dtos.responses.UserOrderStatsResponse;
 import com.example.vuvisa.dtos.responses.UserResponse;
 import com.example.vuvisa.services.UserService;
 
@@ -84,6 +85,30 @@ public class UserController {
 				.build();
 	}
 
+	@GetMapping("/myinfor/order-stats")
+	public APIResponse<UserOrderStatsResponse> getOrderStatsByToken() {
+		return APIResponse.<UserOrderStatsResponse>builder()
+				.result(userService.getOrderStatsFromToken())
+				.message("Order statistics retrieved successfully")
+				.build();
+	}
+
+	@GetMapping("/{userId}/order-stats")
+	public APIResponse<UserOrderStatsResponse> getOrderStats(@PathVariable Long userId) {
+		return APIResponse.<UserOrderStatsResponse>builder()
+				.result(userService.getOrderStats(userId))
+				.message("Order statistics retrieved successfully")
+				.build();
+	}
+
+	@PostMapping("/order-stats/rebuild")
+	public APIResponse<Long> rebuildOrderStats() {
+		return APIResponse.<Long>builder()
+				.result(userService.rebuildOrderStats())
+				.message("Order statistics rebuilt successfully")
+				.build();
+	}
+
 	@PutMapping("/{userId}")
 	public APIResponse<UserResponse> updateUserDetails(
 			@PathVariable Long userId, @Valid @ModelAttribute UpdateUserRequest updatedUserDTO) throws Exception {
@@ -0,0 +1,37 @@
+package com.example.vuvisa.dtos.requests;
+
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchJobRequest {
+
+    @NotNull
+    @JsonProperty("type")
+    private BatchJobType type;
+
+    // EXPORT_ORDER_PDFS, UPDATE_ORDER_STATUS, DELETE_ORDERS
+    @JsonProperty("order_ids")
+    private List<Long> orderIds;
+
+    // UPDATE_ORDER_STATUS
+    @JsonProperty("status")
+    private OrderStatus status;
+
+    // GENERATE_SAMPLE_ORDERS
+    @Valid
+    @JsonProperty("sample")
+    private SampleOrderGenerationRequest sample;
+}
@@ -35,6 +35,9 @@ public class CreateVoucherRequest {
     @Positive(message = "MAX_USES_INVALID")
     Integer maxUses;
 
+    @Positive(message = "MAX_USES_INVALID")
+    Integer maxUsesPerUser;
+
     @NotNull(message = "START_DATE_REQUIRED")
     @FutureOrPresent(message = "START_DATE_INVALID")
     LocalDate startDate;
@@ -1,6 +1,7 @@
 package com.example.vuvisa.dtos.requests;
 
 import com.example.vuvisa.entities.OrderDetail;
+import com.example.vuvisa.entities.Product;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -34,4 +35,17 @@ public class OrderDetailDTO {
 
     @JsonProperty("stock_quantity")
     private Long stockQuantity;
+
+    public static OrderDetailDTO fromOrderDetail(OrderDetail orderDetail) {
+        Product product = orderDetail.getProduct();
+        return OrderDetailDTO.builder()
+                .orderId(orderDetail.getOrder() != null ? orderDetail.getOrder().getId() : null)
+                .productId(product != null ? product.getId() : null)
+                .productName(product != null ? product.getProductName() : null)
+                .quantity(orderDetail.getQuantity())
+                .price(orderDetail.getPrice())
+                .imageUrl(product != null ? product.getImageUrl() : null)
+                .stockQuantity(product != null ? product.getStockQuantity() : null)
+                .build();
+    }
 }
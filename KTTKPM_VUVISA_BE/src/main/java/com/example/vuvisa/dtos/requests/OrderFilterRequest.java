@@ -38,4 +38,22 @@ public class OrderFilterRequest implements Serializable {
     @JsonProperty("end_date")
     private Date endDate;
 
+    @JsonProperty("min_total")
+    private Long minTotal;
+
+    @JsonProperty("max_total")
+    private Long maxTotal;
+
+    // "order_date" (default) or "grand_total"
+    @JsonProperty("sort_by")
+    private String sortBy;
+
+    // "desc" (default) or "asc"
+    @JsonProperty("sort_direction")
+    private String sortDirection;
+
+    // Archived orders are searched automatically when start_date reaches back into the archive
+    @JsonProperty("include_archived")
+    private Boolean includeArchived;
+
 }
@@ -0,0 +1,56 @@
+package com.example.vuvisa.dtos.requests;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SampleOrderGenerationRequest {
+
+    @Min(1)
+    @JsonProperty("count")
+    private int count;
+
+    // Order dates are spread uniformly over the last N months; 0 = all orders dated now
+    @Min(0)
+    @JsonProperty("months")
+    @Builder.Default
+    private int months = 12;
+
+    @Min(1)
+    @Max(32)
+    @JsonProperty("threads")
+    @Builder.Default
+    private int threads = 4;
+
+    // Orders written per transaction / JDBC batch
+    @Min(1)
+    @Max(50000)
+    @JsonProperty("chunk_size")
+    @Builder.Default
+    private int chunkSize = 2000;
+
+    // Zipf exponent for product popularity; 0 = uniform
+    @DecimalMin("0.0")
+    @JsonProperty("zipf_exponent")
+    @Builder.Default
+    private double zipfExponent = 1.0;
+
+    @Min(1)
+    @Max(20)
+    @JsonProperty("max_items_per_order")
+    @Builder.Default
+    private int maxItemsPerOrder = 3;
+
+    // Fixed seed for reproducible datasets; null = random
+    @JsonProperty("seed")
+    private Long seed;
+}
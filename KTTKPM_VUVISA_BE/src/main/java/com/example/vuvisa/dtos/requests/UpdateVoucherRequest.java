@@ -36,6 +36,9 @@ public class UpdateVoucherRequest {
     @PositiveOrZero(message = "MAX_USES_INVALID")
     private Integer maxUses;
 
+    @Positive(message = "MAX_USES_INVALID")
+    private Integer maxUsesPerUser;
+
     @NotNull(message = "START_DATE_REQUIRED")
     private LocalDate startDate;
 
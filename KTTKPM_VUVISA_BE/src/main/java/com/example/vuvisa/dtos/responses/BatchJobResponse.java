@@ -0,0 +1,56 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.example.vuvisa.enums.BatchJobStatus;
+import com.example.vuvisa.enums.BatchJobType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchJobResponse {
+
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("type")
+    private BatchJobType type;
+
+    @JsonProperty("status")
+    private BatchJobStatus status;
+
+    @JsonProperty("total_items")
+    private Integer totalItems;
+
+    @JsonProperty("processed_items")
+    private Integer processedItems;
+
+    @JsonProperty("percent_complete")
+    private Integer percentComplete;
+
+    // e.g. {"url": ...} for a PDF export or the summed counts of a bulk update
+    @JsonProperty("result")
+    private JsonNode result;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("cancel_requested")
+    private Boolean cancelRequested;
+
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+
+    @JsonProperty("started_at")
+    private LocalDateTime startedAt;
+
+    @JsonProperty("finished_at")
+    private LocalDateTime finishedAt;
+}
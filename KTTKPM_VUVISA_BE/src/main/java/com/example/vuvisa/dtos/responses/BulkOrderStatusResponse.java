@@ -0,0 +1,27 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkOrderStatusResponse {
+    @JsonProperty("status")
+    private String status;
+
+    // Distinct order ids in the request
+    @JsonProperty("requested")
+    private int requested;
+
+    @JsonProperty("updated")
+    private int updated;
+
+    // Orders that already had the requested status
+    @JsonProperty("unchanged")
+    private int unchanged;
+}
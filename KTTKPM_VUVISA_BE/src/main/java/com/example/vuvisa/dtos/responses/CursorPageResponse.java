@@ -0,0 +1,31 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> content;
+
+    @JsonProperty("size")
+    private int size;
+
+    // Opaque cursor for the next page, null on the last page
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    @JsonProperty("has_more")
+    private boolean hasMore;
+
+    // Table statistics estimate, only returned when requested and no filter is applied
+    @JsonProperty("approximate_total")
+    private Long approximateTotal;
+}
@@ -2,6 +2,7 @@ package com.example.vuvisa.dtos.responses;
 
 import com.example.vuvisa.dtos.requests.OrderDetailDTO;
 import com.example.vuvisa.dtos.responses.VoucherResponse;
+import com.example.vuvisa.entities.Order;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,6 +11,7 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
@@ -60,9 +62,51 @@ public class OrderResponse {
     @JsonProperty("order_date")
     private String orderDate;
 
+    @JsonProperty("status_changed_at")
+    private String statusChangedAt;
+
+    @JsonProperty("subtotal")
+    private Long subtotal;
+
+    @JsonProperty("discount_total")
+    private Long discountTotal;
+
+    @JsonProperty("grand_total")
+    private Long grandTotal;
+
     @JsonProperty("order_details")
     private List<OrderDetailDTO> orderDetails;
 
     @JsonProperty("vouchers")
     private Set<VoucherResponse> vouchers;
+
+    public static OrderResponse fromOrder(Order order) {
+        return OrderResponse.builder()
+                .id(order.getId())
+                .userId(order.getUser() != null ? order.getUser().getId() : null)
+                .fullName(order.getFullName())
+                .email(order.getEmail())
+                .phoneNumber(order.getPhoneNumber())
+                .city(order.getCity())
+                .district(order.getDistrict())
+                .ward(order.getWard())
+                .address(order.getAddress())
+                .shippingMethod(order.getShippingMethod() != null ? order.getShippingMethod().name() : null)
+                .paymentMethod(order.getPaymentMethod() != null ? order.getPaymentMethod().name() : null)
+                .discountCode(order.getDiscountCode())
+                .note(order.getNote())
+                .status(order.getStatus() != null ? order.getStatus().name() : null)
+                .orderDate(order.getOrderDate() != null ? String.valueOf(order.getOrderDate()) : null)
+                .statusChangedAt(order.getStatusChangedAt() != null ? String.valueOf(order.getStatusChangedAt()) : null)
+                .subtotal(order.getSubtotal())
+                .discountTotal(order.getDiscountTotal())
+                .grandTotal(order.getGrandTotal())
+                .orderDetails(order.getOrderDetails() == null ? null : order.getOrderDetails().stream()
+                        .map(OrderDetailDTO::fromOrderDetail)
+                        .collect(Collectors.toList()))
+                .vouchers(order.getVouchers() == null ? null : order.getVouchers().stream()
+                        .map(VoucherResponse::fromVoucher)
+                        .collect(Collectors.toSet()))
+                .build();
+    }
 }
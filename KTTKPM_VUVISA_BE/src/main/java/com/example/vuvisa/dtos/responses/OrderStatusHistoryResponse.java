@@ -0,0 +1,45 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.example.vuvisa.entities.OrderStatusHistory;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderStatusHistoryResponse {
+    @JsonProperty("order_id")
+    private Long orderId;
+
+    @JsonProperty("from_status")
+    private String fromStatus;
+
+    @JsonProperty("to_status")
+    private String toStatus;
+
+    @JsonProperty("changed_at")
+    private LocalDateTime changedAt;
+
+    @JsonProperty("actor")
+    private String actor;
+
+    @JsonProperty("dwell_seconds")
+    private Long dwellSeconds;
+
+    public static OrderStatusHistoryResponse fromEntity(OrderStatusHistory history) {
+        return OrderStatusHistoryResponse.builder()
+                .orderId(history.getOrderId())
+                .fromStatus(history.getFromStatus() != null ? history.getFromStatus().name() : null)
+                .toStatus(history.getToStatus().name())
+                .changedAt(history.getChangedAt())
+                .actor(history.getActor())
+                .dwellSeconds(history.getDwellSeconds())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One row of the admin order grid
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderSummaryResponse {
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("user_id")
+    private Long userId;
+
+    @JsonProperty("full_name")
+    private String fullName;
+
+    @JsonProperty("phone_number")
+    private String phoneNumber;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("shipping_method")
+    private String shippingMethod;
+
+    @JsonProperty("payment_method")
+    private String paymentMethod;
+
+    @JsonProperty("order_date")
+    private Date orderDate;
+
+    @JsonProperty("subtotal")
+    private Long subtotal;
+
+    @JsonProperty("discount_total")
+    private Long discountTotal;
+
+    @JsonProperty("grand_total")
+    private Long grandTotal;
+
+    @JsonProperty("item_count")
+    private long itemCount;
+
+    @JsonProperty("product_names")
+    private String productNames;
+}
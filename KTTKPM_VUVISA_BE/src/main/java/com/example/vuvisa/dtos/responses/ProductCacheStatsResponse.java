@@ -0,0 +1,46 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductCacheStatsResponse {
+    @JsonProperty("l1_hits")
+    private long l1Hits;
+
+    @JsonProperty("l1_misses")
+    private long l1Misses;
+
+    @JsonProperty("l1_evictions")
+    private long l1Evictions;
+
+    @JsonProperty("l1_size")
+    private long l1Size;
+
+    @JsonProperty("l2_hits")
+    private long l2Hits;
+
+    @JsonProperty("l2_errors")
+    private long l2Errors;
+
+    @JsonProperty("l2_available")
+    private boolean l2Available;
+
+    @JsonProperty("db_loads")
+    private long dbLoads;
+
+    @JsonProperty("lock_waits")
+    private long lockWaits;
+
+    @JsonProperty("invalidations")
+    private long invalidations;
+
+    @JsonProperty("hit_ratio")
+    private double hitRatio;
+}
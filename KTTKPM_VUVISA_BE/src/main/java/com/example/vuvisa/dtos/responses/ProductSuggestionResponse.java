@@ -0,0 +1,24 @@
+package com.example.vuvisa.dtos.responses;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * One completion for the search box: a product name or an author name
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductSuggestionResponse {
+
+    public static final String PRODUCT = "PRODUCT";
+    public static final String AUTHOR = "AUTHOR";
+
+    String text;
+    // PRODUCT or AUTHOR
+    String type;
+    // Product id or author id, depending on the type
+    Long id;
+}
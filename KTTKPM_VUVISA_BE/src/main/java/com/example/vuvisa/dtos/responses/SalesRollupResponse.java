@@ -0,0 +1,42 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One point of a sales chart: a day, a product or a category
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesRollupResponse {
+    @JsonProperty("date")
+    private LocalDate date;
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    @JsonProperty("category_id")
+    private Long categoryId;
+
+    // Product or category name
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("revenue")
+    private Long revenue;
+
+    @JsonProperty("units")
+    private Long units;
+
+    @JsonProperty("order_count")
+    private Long orderCount;
+}
@@ -0,0 +1,37 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How long orders stayed in a status before moving on, over a time window
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StatusDwellResponse {
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("samples")
+    private long samples;
+
+    @JsonProperty("avg_seconds")
+    private Double avgSeconds;
+
+    @JsonProperty("p50_seconds")
+    private Long p50Seconds;
+
+    @JsonProperty("p90_seconds")
+    private Long p90Seconds;
+
+    @JsonProperty("p99_seconds")
+    private Long p99Seconds;
+
+    @JsonProperty("max_seconds")
+    private Long maxSeconds;
+}
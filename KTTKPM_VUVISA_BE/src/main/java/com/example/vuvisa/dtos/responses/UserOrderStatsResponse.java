@@ -0,0 +1,27 @@
+package com.example.vuvisa.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserOrderStatsResponse {
+    @JsonProperty("user_id")
+    private Long userId;
+
+    @JsonProperty("order_count")
+    private long orderCount;
+
+    @JsonProperty("lifetime_spend")
+    private long lifetimeSpend;
+
+    @JsonProperty("last_order_date")
+    private Date lastOrderDate;
+}
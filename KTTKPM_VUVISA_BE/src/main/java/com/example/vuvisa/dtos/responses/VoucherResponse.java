@@ -35,6 +35,12 @@ public class VoucherResponse {
     @JsonProperty("max_uses")
     private Double maxUses;
 
+    @JsonProperty("used_count")
+    private Integer usedCount;
+
+    @JsonProperty("max_uses_per_user")
+    private Integer maxUsesPerUser;
+
     @JsonProperty("start_date")
     private LocalDate startDate;
 
@@ -50,6 +56,8 @@ public class VoucherResponse {
                 .discountAmount(voucher.getDiscountAmount())
                 .minOrderValue(voucher.getMinOrderValue())
                 .maxUses(voucher.getMaxUses())
+                .usedCount(voucher.getUsedCount() != null ? voucher.getUsedCount() : 0)
+                .maxUsesPerUser(voucher.getMaxUsesPerUser())
                 .startDate(voucher.getStartDate())
                 .endDate(voucher.getEndDate())
                 .build();
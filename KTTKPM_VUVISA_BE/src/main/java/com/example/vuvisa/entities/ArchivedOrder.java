@@ -0,0 +1,154 @@
+package com.example.vuvisa.entities;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.enums.PaymentMethod;
+import com.example.vuvisa.enums.ShippingMethod;
+import jakarta.persistence.*;
+
+import lombok.*;
+
+/**
+ * An order moved out of the orders table by the archiving job.
+ * Same columns as {@link Order}; archived orders are read-only.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+		@Index(name = "idx_orders_archive_order_date_id", columnList = "order_date, id"),
+		@Index(name = "idx_orders_archive_user_order_date", columnList = "user_id, order_date")
+})
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ArchivedOrder {
+
+	@Id
+	private Long id;
+
+	@Column(name = "full_name")
+	private String fullName;
+
+	@Column(name = "email")
+	private String email;
+
+	@Column(name = "phone_number")
+	private String phoneNumber;
+
+	@Column(name = "city")
+	private String city;
+
+	@Column(name = "district")
+	private String district;
+
+	@Column(name = "ward")
+	private String ward;
+
+	@Column(name = "address")
+	private String address;
+
+	@Column(name = "order_date")
+	private Date orderDate;
+
+	@Column(name = "status")
+	@Enumerated(EnumType.STRING)
+	private OrderStatus status;
+
+	@Column(name = "status_changed_at")
+	private Date statusChangedAt;
+
+	@Column(name = "payment_method")
+	@Enumerated(EnumType.STRING)
+	private PaymentMethod paymentMethod;
+
+	@Column(name = "shipping_date")
+	private Date shippingDate;
+
+	@Column(name = "shipping_method")
+	@Enumerated(EnumType.STRING)
+	private ShippingMethod shippingMethod;
+
+	@Column(name = "note")
+	private String note;
+
+	@Column(name = "discount_code")
+	private String discountCode;
+
+	// Tổng tiền tính một lần khi tạo/sửa đơn (đơn vị như price)
+	@Column(name = "subtotal")
+	private Long subtotal;
+
+	@Column(name = "discount_total")
+	private Long discountTotal;
+
+	@Column(name = "grand_total")
+	private Long grandTotal;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "user_id")
+	@ToString.Exclude
+	private User user;
+
+	@OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
+	@ToString.Exclude
+	private List<ArchivedOrderDetail> orderDetails;
+
+	@ManyToMany
+	@JoinTable(
+			name = "order_vouchers_archive",
+			joinColumns = @JoinColumn(name = "order_id"),
+			inverseJoinColumns = @JoinColumn(name = "voucher_id"))
+	@ToString.Exclude
+	private Set<Voucher> vouchers = new HashSet<>();
+
+	/**
+	 * Detached {@link Order} view of this archived order, so the usual mappers can be reused
+	 */
+	public Order toOrder() {
+		Order order = Order.builder()
+				.id(id)
+				.fullName(fullName)
+				.email(email)
+				.phoneNumber(phoneNumber)
+				.city(city)
+				.district(district)
+				.ward(ward)
+				.address(address)
+				.orderDate(orderDate)
+				.status(status)
+				.statusChangedAt(statusChangedAt)
+				.paymentMethod(paymentMethod)
+				.shippingDate(shippingDate)
+				.shippingMethod(shippingMethod)
+				.note(note)
+				.discountCode(discountCode)
+				.subtotal(subtotal)
+				.discountTotal(discountTotal)
+				.grandTotal(grandTotal)
+				.user(user)
+				.vouchers(vouchers)
+				.build();
+
+		List<OrderDetail> details = new ArrayList<>();
+		if (orderDetails != null) {
+			for (ArchivedOrderDetail archived : orderDetails) {
+				details.add(OrderDetail.builder()
+						.id(archived.getId())
+						.quantity(archived.getQuantity())
+						.price(archived.getPrice())
+						.product(archived.getProduct())
+						.order(order)
+						.build());
+			}
+		}
+		order.setOrderDetails(details);
+		return order;
+	}
+}
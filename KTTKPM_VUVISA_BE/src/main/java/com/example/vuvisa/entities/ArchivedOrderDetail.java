@@ -0,0 +1,40 @@
+package com.example.vuvisa.entities;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+/**
+ * An order line moved to the archive together with its {@link ArchivedOrder}.
+ */
+@Entity
+@Table(name = "order_details_archive", indexes = {
+		@Index(name = "idx_order_details_archive_order", columnList = "order_id")
+})
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ArchivedOrderDetail {
+
+	@Id
+	private Long id;
+
+	@Column(name = "quantity")
+	private Long quantity;
+
+	@Column(name = "price")
+	private Long price;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "order_id", nullable = false)
+	@ToString.Exclude
+	private ArchivedOrder order;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "product_id", nullable = false)
+	@ToString.Exclude
+	private Product product;
+}
@@ -0,0 +1,89 @@
+package com.example.vuvisa.entities;
+
+import com.example.vuvisa.enums.BatchJobStatus;
+import com.example.vuvisa.enums.BatchJobType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A long-running admin operation processed in chunks by the batch job workers.
+ * {@code processedItems} is the checkpoint: it is written in the same transaction as each chunk,
+ * so a resumed job continues exactly after the last committed chunk. A node runs a job only while it
+ * holds the lease ({@code owner}, {@code leaseUntil}), which it renews with every chunk.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "batch_jobs",
+        indexes = @Index(name = "idx_batch_jobs_status", columnList = "status"))
+public class BatchJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private BatchJobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private BatchJobStatus status;
+
+    @Column(name = "params", columnDefinition = "MEDIUMTEXT")
+    @ToString.Exclude
+    private String params;
+
+    @Column(name = "total_items")
+    private Integer totalItems;
+
+    @Column(name = "processed_items", nullable = false)
+    private Integer processedItems;
+
+    @Column(name = "result", columnDefinition = "TEXT")
+    private String result;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    // Only written through BatchJobRepository, so saving a running job never clears a cancel request
+    @Column(name = "cancel_requested", insertable = false, updatable = false, columnDefinition = "BIT(1) NOT NULL DEFAULT 0")
+    private Boolean cancelRequested;
+
+    // The node running the job and until when; only written through BatchJobRepository
+    @Column(name = "owner", length = 64, insertable = false, updatable = false)
+    private String owner;
+
+    @Column(name = "lease_until", insertable = false, updatable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (status == null) {
+            status = BatchJobStatus.QUEUED;
+        }
+        if (processedItems == null) {
+            processedItems = 0;
+        }
+    }
+}
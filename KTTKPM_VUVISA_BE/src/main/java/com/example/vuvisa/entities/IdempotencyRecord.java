@@ -0,0 +1,55 @@
+package com.example.vuvisa.entities;
+
+import com.example.vuvisa.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity remembering the outcome of a request sent with an Idempotency-Key header.
+ * The row is claimed before the request runs and completed in the same transaction as its work,
+ * so a key never maps to two executions.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "idempotency_records",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_scope_key", columnNames = {"scope", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "scope", nullable = false, length = 64)
+    private String scope;
+
+    @Column(name = "idempotency_key", nullable = false, length = 128)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_body", columnDefinition = "MEDIUMTEXT")
+    @ToString.Exclude
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
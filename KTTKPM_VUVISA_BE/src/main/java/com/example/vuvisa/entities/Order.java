@@ -1,8 +1,6 @@
 package com.example.vuvisa.entities;
 
 import java.io.Serializable;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -10,6 +8,7 @@ import java.util.Set;
 
 import com.example.vuvisa.enums.PaymentMethod;
 import com.example.vuvisa.enums.ShippingMethod;
+import com.example.vuvisa.utils.OrderIdGenerator;
 import jakarta.persistence.*;
 
 import com.example.vuvisa.enums.OrderStatus;
@@ -18,7 +17,12 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+		@Index(name = "idx_orders_order_date_id", columnList = "order_date, id"),
+		@Index(name = "idx_orders_grand_total", columnList = "grand_total"),
+		@Index(name = "idx_orders_status_changed_at", columnList = "status, status_changed_at"),
+		@Index(name = "idx_orders_user_order_date", columnList = "user_id, order_date")
+})
 @Getter
 @Setter
 @ToString
@@ -33,11 +37,8 @@ public class Order implements Serializable {
 	@PrePersist
 	public void prePersist() {
 		if (id == null) {
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("ddMMyyyyHHmmss");
-			String dateTimeStr = LocalDateTime.now().format(formatter);
-			// thêm 2 số random (00–99)
-			int randomSuffix = (int) (Math.random() * 100);
-			id = Long.parseLong(dateTimeStr + String.format("%02d", randomSuffix));
+			// id theo thời gian + node + sequence, không trùng giữa các luồng/node
+			id = OrderIdGenerator.nextId();
 		}
 	}
 
@@ -70,6 +71,10 @@ public class Order implements Serializable {
 	@Enumerated(EnumType.STRING)
 	private OrderStatus status;
 
+	// Lúc đơn chuyển sang trạng thái hiện tại; lịch sử đầy đủ nằm trong order_status_history
+	@Column(name = "status_changed_at")
+	private Date statusChangedAt;
+
 	@Column(name = "payment_method")
 	@Enumerated(EnumType.STRING)
 	private PaymentMethod paymentMethod;
@@ -87,6 +92,16 @@ public class Order implements Serializable {
 	@Column(name = "discount_code")
 	private String discountCode;
 
+	// Tổng tiền tính một lần khi tạo/sửa đơn (đơn vị như price)
+	@Column(name = "subtotal")
+	private Long subtotal;
+
+	@Column(name = "discount_total")
+	private Long discountTotal;
+
+	@Column(name = "grand_total")
+	private Long grandTotal;
+
 	@ManyToOne
 	@JoinColumn(name = "user_id")
 	private User user;
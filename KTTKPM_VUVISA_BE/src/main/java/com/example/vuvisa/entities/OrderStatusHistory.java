@@ -0,0 +1,52 @@
+package com.example.vuvisa.entities;
+
+import com.example.vuvisa.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One status transition of an order. Rows are only ever inserted.
+ * <p>
+ * dwell_seconds is the time the order spent in from_status before this transition. The
+ * (from_status, changed_at, dwell_seconds) index covers the dwell-time percentile queries, and
+ * order_id is not a foreign key so the timeline survives order deletion and archiving.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_status_history", indexes = {
+        @Index(name = "idx_order_status_history_order", columnList = "order_id, changed_at"),
+        @Index(name = "idx_order_status_history_dwell", columnList = "from_status, changed_at, dwell_seconds")
+})
+public class OrderStatusHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // null for the status an order is created with
+    @Column(name = "from_status")
+    @Enumerated(EnumType.STRING)
+    private OrderStatus fromStatus;
+
+    @Column(name = "to_status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OrderStatus toStatus;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    @Column(name = "actor", length = 100)
+    private String actor;
+
+    @Column(name = "dwell_seconds")
+    private Long dwellSeconds;
+}
@@ -0,0 +1,78 @@
+package com.example.vuvisa.entities;
+
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.enums.PaymentMethod;
+import com.example.vuvisa.enums.ShippingMethod;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Denormalized row of the admin order grid, one per active order.
+ * Written by {@link com.example.vuvisa.services.OrderSummaryService} in the order's own transaction;
+ * archived orders have no summary. full_name, phone_number and product_names also carry ngram
+ * FULLTEXT indexes, created on startup by {@link com.example.vuvisa.components.OrderSummaryBackfillRunner}.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_date", columnList = "order_date, order_id"),
+        @Index(name = "idx_order_summary_status_date", columnList = "status, order_date, order_id"),
+        @Index(name = "idx_order_summary_shipping_date", columnList = "shipping_method, order_date, order_id"),
+        @Index(name = "idx_order_summary_total", columnList = "grand_total, order_id")
+})
+public class OrderSummary {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "full_name")
+    private String fullName;
+
+    @Column(name = "phone_number")
+    private String phoneNumber;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "shipping_method")
+    @Enumerated(EnumType.STRING)
+    private ShippingMethod shippingMethod;
+
+    @Column(name = "payment_method")
+    @Enumerated(EnumType.STRING)
+    private PaymentMethod paymentMethod;
+
+    @Column(name = "order_date")
+    private Date orderDate;
+
+    @Column(name = "subtotal")
+    private Long subtotal;
+
+    @Column(name = "discount_total")
+    private Long discountTotal;
+
+    @Column(name = "grand_total")
+    private Long grandTotal;
+
+    @Column(name = "item_count", nullable = false)
+    private Long itemCount;
+
+    // Distinct product names of the order joined with " | ", capped at group_concat_max_len
+    @Column(name = "product_names", length = 1024)
+    private String productNames;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
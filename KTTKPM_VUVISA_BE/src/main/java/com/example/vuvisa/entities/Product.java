@@ -1,5 +1,6 @@
 package com.example.vuvisa.entities;
 
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -37,6 +38,17 @@ public abstract class Product {
 	@Column(name = "image_url")
 	protected String imageUrl;
 
+	// Maintained with additive updates by FavoriteCountService only; read counts through that service,
+	// which adds what this node has not flushed yet
+	@Column(name = "favorite_count", insertable = false, updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+	@JsonIgnore
+	protected Long favoriteCount;
+
+	// Set by each favorite count flush; the reconciliation leaves recently flushed products alone
+	@Column(name = "favorite_count_flushed_at", insertable = false, updatable = false, columnDefinition = "DATETIME(3)")
+	@JsonIgnore
+	protected Date favoriteCountFlushedAt;
+
 	@ManyToOne
 	@JoinColumn(name = "category_id")
 	protected Category category;
@@ -0,0 +1,36 @@
+package com.example.vuvisa.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * All-time sales totals per product category.
+ * Maintained incrementally by {@link com.example.vuvisa.services.SalesRollupService}; cancelled orders are not counted.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "sales_category_rollup")
+public class SalesCategoryRollup {
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "revenue", nullable = false)
+    private Long revenue;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
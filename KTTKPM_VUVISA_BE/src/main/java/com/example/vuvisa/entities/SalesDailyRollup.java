@@ -0,0 +1,37 @@
+package com.example.vuvisa.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily sales totals, one row per order date.
+ * Maintained incrementally by {@link com.example.vuvisa.services.SalesRollupService}; cancelled orders are not counted.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "sales_daily_rollup")
+public class SalesDailyRollup {
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(name = "revenue", nullable = false)
+    private Long revenue;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
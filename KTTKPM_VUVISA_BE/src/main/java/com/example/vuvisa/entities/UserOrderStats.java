@@ -0,0 +1,38 @@
+package com.example.vuvisa.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Order aggregates of one user, including archived orders.
+ * Maintained incrementally by {@link com.example.vuvisa.services.UserOrderStatsService}; cancelled orders
+ * count as orders but not towards the lifetime spend.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_order_stats")
+public class UserOrderStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "lifetime_spend", nullable = false)
+    private Long lifetimeSpend;
+
+    @Column(name = "last_order_date")
+    private Date lastOrderDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -40,6 +40,14 @@ public class Voucher {
 	@Column(name = "max_uses")
 	private Double maxUses;
 
+	// Số lần đã sử dụng; chỉ được cập nhật bằng câu lệnh UPDATE có điều kiện trong VoucherRepository
+	@Column(name = "used_count", insertable = false, updatable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+	private Integer usedCount;
+
+	// Giới hạn số lần mỗi người dùng được dùng voucher, null = không giới hạn
+	@Column(name = "max_uses_per_user")
+	private Integer maxUsesPerUser;
+
 	@Column(name = "start_date")
 	private LocalDate startDate;
 
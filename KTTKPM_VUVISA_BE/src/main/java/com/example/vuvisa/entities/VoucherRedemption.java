@@ -0,0 +1,46 @@
+package com.example.vuvisa.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger entry for one use of a voucher by one order.
+ * Ids are kept as plain columns so recording a redemption never loads the voucher's orders.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "voucher_redemptions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_voucher_redemptions_voucher_order", columnNames = {"voucher_id", "order_id"}),
+        indexes = @Index(name = "idx_voucher_redemptions_order", columnList = "order_id"))
+public class VoucherRedemption {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "voucher_id", nullable = false)
+    private Long voucherId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "redeemed_at", nullable = false)
+    private LocalDateTime redeemedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (redeemedAt == null) {
+            redeemedAt = LocalDateTime.now();
+        }
+    }
+}
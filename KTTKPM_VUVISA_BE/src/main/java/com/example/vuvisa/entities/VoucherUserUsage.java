@@ -0,0 +1,33 @@
+package com.example.vuvisa.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Per-user usage counter of a voucher, incremented with a conditional update
+ * so the per-user limit holds under concurrent checkouts.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "voucher_user_usage",
+        uniqueConstraints = @UniqueConstraint(name = "uk_voucher_user_usage_voucher_user", columnNames = {"voucher_id", "user_id"}))
+public class VoucherUserUsage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "voucher_id", nullable = false)
+    private Long voucherId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "used_count", nullable = false)
+    private Integer usedCount;
+}
@@ -0,0 +1,16 @@
+package com.example.vuvisa.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+@JsonFormat(shape = JsonFormat.Shape.STRING)
+public enum BatchJobStatus {
+    QUEUED,     // Submitted, waiting for a worker
+    RUNNING,    // A worker is processing chunks
+    COMPLETED,  // Every chunk processed, result available
+    FAILED,     // Stopped by an error; can be resumed from the last checkpoint
+    CANCELLED;  // Stopped on request; can be resumed from the last checkpoint
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.vuvisa.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+@JsonFormat(shape = JsonFormat.Shape.STRING)
+public enum BatchJobType {
+    EXPORT_ORDER_PDFS,      // Render invoices, merge them and upload the merged PDF
+    UPDATE_ORDER_STATUS,    // Set the status of many orders
+    DELETE_ORDERS,          // Delete many orders
+    GENERATE_SAMPLE_ORDERS  // Bulk synthetic orders
+}
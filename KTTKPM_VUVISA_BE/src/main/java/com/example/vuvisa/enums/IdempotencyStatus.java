@@ -0,0 +1,9 @@
+package com.example.vuvisa.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+@JsonFormat(shape = JsonFormat.Shape.STRING)
+public enum IdempotencyStatus {
+    IN_PROGRESS, // Claimed by a request that has not finished yet
+    COMPLETED    // Finished; the stored response is returned for repeats
+}
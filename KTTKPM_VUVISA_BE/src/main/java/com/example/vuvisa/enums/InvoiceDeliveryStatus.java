@@ -0,0 +1,11 @@
+package com.example.vuvisa.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+@JsonFormat(shape = JsonFormat.Shape.STRING)
+public enum InvoiceDeliveryStatus {
+    PENDING,    // Waiting for the first attempt or for the next retry
+    SENDING,    // Claimed by a worker
+    SENT,       // Invoice email delivered
+    FAILED      // Gave up after the maximum number of attempts
+}
@@ -0,0 +1,10 @@
+package com.example.vuvisa.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+@JsonFormat(shape = JsonFormat.Shape.STRING)
+public enum OutboxEventType {
+    ORDER_CREATED,          // A new order was committed
+    ORDER_STATUS_CHANGED,   // An order moved from one status to another
+    ORDER_STATUS_BATCH_CHANGED  // A chunk of orders moved to the same status in one bulk update
+}
@@ -0,0 +1,10 @@
+package com.example.vuvisa.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+@JsonFormat(shape = JsonFormat.Shape.STRING)
+public enum OutboxStatus {
+    PENDING,    // Written with the business transaction, not yet delivered
+    PUBLISHED,  // Delivered to every listener
+    FAILED      // Gave up after the maximum number of attempts
+}
@@ -2,45 +2,90 @@ package com.example.vuvisa.events;
 
 import com.example.vuvisa.entities.CalendarEvent;
 import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.entities.OutboxEvent;
 import com.example.vuvisa.entities.User;
 import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.enums.OutboxEventType;
+import com.example.vuvisa.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * Publisher for application events
+ * Publisher for application events.
+ * Order events go through the transactional outbox and are delivered by {@link OutboxRelay};
+ * the other events are published in-process.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class EventPublisher {
 
+    static final String ORDER_AGGREGATE = "Order";
+
     private final ApplicationEventPublisher publisher;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Publish an event when an order's status changes
+     * Publish an event when an order's status changes.
+     * The event is written to the outbox in the caller's transaction.
      * 
      * @param order the order
      * @param oldStatus the old status
      */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishOrderStatusChangeEvent(Order order, OrderStatus oldStatus) {
-        OrderStatusChangeEvent event = new OrderStatusChangeEvent(order, oldStatus, order.getStatus());
-        publisher.publishEvent(event);
-        log.debug("Published OrderStatusChangeEvent for order #{}: {} -> {}", 
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("oldStatus", oldStatus);
+        payload.put("newStatus", order.getStatus());
+        writeOutbox(order.getId(), OutboxEventType.ORDER_STATUS_CHANGED, payload);
+        log.debug("Queued OrderStatusChangeEvent for order #{}: {} -> {}", 
                 order.getId(), oldStatus, order.getStatus());
     }
 
     /**
-     * Publish an event when a new order is created
+     * Publish one event for a chunk of orders moved to the same status by a bulk update.
+     * The event is written to the outbox in the caller's transaction.
+     *
+     * @param oldStatuses the previous status of each changed order, by order id
+     * @param newStatus the new status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishOrderStatusBatchChangeEvent(Map<Long, OrderStatus> oldStatuses, OrderStatus newStatus) {
+        if (oldStatuses.isEmpty()) {
+            return;
+        }
+        Long firstOrderId = oldStatuses.keySet().iterator().next();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("oldStatuses", oldStatuses);
+        payload.put("newStatus", newStatus);
+        writeOutbox(firstOrderId, OutboxEventType.ORDER_STATUS_BATCH_CHANGED, payload);
+        log.debug("Queued OrderStatusBatchChangeEvent for {} orders -> {}", oldStatuses.size(), newStatus);
+    }
+
+    /**
+     * Publish an event when a new order is created.
+     * The event is written to the outbox in the caller's transaction.
      * 
      * @param order the new order
      */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishNewOrderEvent(Order order) {
-        NewOrderEvent event = new NewOrderEvent(order);
-        publisher.publishEvent(event);
-        log.debug("Published NewOrderEvent for order #{}", order.getId());
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("status", order.getStatus());
+        writeOutbox(order.getId(), OutboxEventType.ORDER_CREATED, payload);
+        log.debug("Queued NewOrderEvent for order #{}", order.getId());
     }
 
     /**
@@ -59,4 +104,17 @@ public class EventPublisher {
         publisher.publishEvent(event);
         log.debug("Published NewSystemEventEvent for system event: {}", title);
     }
+
+    private void writeOutbox(Long orderId, OutboxEventType type, Map<String, Object> payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .aggregateType(ORDER_AGGREGATE)
+                    .aggregateId(orderId)
+                    .eventType(type)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload for order #" + orderId, e);
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.vuvisa.events;
+
+import lombok.Getter;
+
+/**
+ * Event that is published when a user adds or removes a favorite product
+ */
+@Getter
+public class FavoriteChangedEvent {
+    private final Long productId;
+    private final int delta;
+
+    /**
+     * Create a new FavoriteChangedEvent
+     *
+     * @param productId the product that was favorited or unfavorited
+     * @param delta +1 for an added favorite, -1 for a removed one
+     */
+    public FavoriteChangedEvent(Long productId, int delta) {
+        this.productId = productId;
+        this.delta = delta;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.vuvisa.events;
+
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.enums.OrderStatus;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event that is published when a bulk update moves many orders to the same status
+ */
+@Getter
+public class OrderStatusBatchChangeEvent {
+    private final List<Order> orders;
+    private final Map<Long, OrderStatus> oldStatuses;
+    private final OrderStatus newStatus;
+
+    /**
+     * Create a new OrderStatusBatchChangeEvent
+     *
+     * @param orders the orders that changed
+     * @param oldStatuses the previous status of each order, by order id
+     * @param newStatus the new status
+     */
+    public OrderStatusBatchChangeEvent(List<Order> orders, Map<Long, OrderStatus> oldStatuses, OrderStatus newStatus) {
+        this.orders = orders;
+        this.oldStatuses = oldStatuses;
+        this.newStatus = newStatus;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.vuvisa.events;
+
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.entities.OutboxEvent;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.enums.OutboxEventType;
+import com.example.vuvisa.enums.OutboxStatus;
+import com.example.vuvisa.repositories.OrderRepository;
+import com.example.vuvisa.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the transactional outbox and hands each event to the in-process listeners.
+ * <p>
+ * Events are delivered at least once, strictly in outbox id order. When an event fails,
+ * the rest of the batch waits for the next poll so that the events of an order are never
+ * observed out of order. After {@code outbox.relay.max-attempts} failures the event is
+ * parked as FAILED and the relay moves on. Only one node may relay at a time; OutboxRelayScheduler
+ * holds a cluster-wide lock around each poll.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            OrderRepository orderRepository,
+            ApplicationEventPublisher publisher,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Deliver one batch of pending events
+     *
+     * @return number of events delivered
+     */
+    public int relayPendingEvents() {
+        List<OutboxEvent> batch = outboxEventRepository.findByStatusOrderByIdAsc(
+                OutboxStatus.PENDING, PageRequest.of(0, batchSize));
+        List<Long> delivered = new ArrayList<>();
+
+        for (OutboxEvent outboxEvent : batch) {
+            try {
+                // No transaction is open here, so the listeners run synchronously on this thread
+                dispatch(outboxEvent);
+                delivered.add(outboxEvent.getId());
+            } catch (Exception e) {
+                log.error("Outbox event #{} ({} for order #{}) failed: {}", outboxEvent.getId(),
+                        outboxEvent.getEventType(), outboxEvent.getAggregateId(), e.getMessage());
+                if (!recordFailure(outboxEvent.getId(), e)) {
+                    // Keep ordering: the remaining events wait until this one goes through
+                    break;
+                }
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markPublished(delivered, LocalDateTime.now()));
+        }
+        return delivered.size();
+    }
+
+    /**
+     * Remove delivered events that are older than the retention period
+     *
+     * @param before the cut-off time
+     * @return number of deleted events
+     */
+    public int purgePublishedBefore(LocalDateTime before) {
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(before));
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void dispatch(OutboxEvent outboxEvent) throws Exception {
+        if (outboxEvent.getEventType() == OutboxEventType.ORDER_STATUS_BATCH_CHANGED) {
+            dispatchBatch(outboxEvent);
+            return;
+        }
+
+        Order order = orderRepository.findById(outboxEvent.getAggregateId()).orElse(null);
+        if (order == null) {
+            log.warn("Skipping outbox event #{}: order #{} no longer exists",
+                    outboxEvent.getId(), outboxEvent.getAggregateId());
+            return;
+        }
+
+        JsonNode payload = objectMapper.readTree(outboxEvent.getPayload());
+        switch (outboxEvent.getEventType()) {
+            case ORDER_CREATED:
+                publisher.publishEvent(new NewOrderEvent(order));
+                break;
+            case ORDER_STATUS_CHANGED:
+                publisher.publishEvent(new OrderStatusChangeEvent(
+                        order, readStatus(payload, "oldStatus"), readStatus(payload, "newStatus")));
+                break;
+            default:
+                log.warn("Unknown outbox event type {} for event #{}", outboxEvent.getEventType(), outboxEvent.getId());
+        }
+    }
+
+    private void dispatchBatch(OutboxEvent outboxEvent) throws Exception {
+        JsonNode payload = objectMapper.readTree(outboxEvent.getPayload());
+        Map<Long, OrderStatus> oldStatuses = new LinkedHashMap<>();
+        payload.get("oldStatuses").fields().forEachRemaining(entry ->
+                oldStatuses.put(Long.valueOf(entry.getKey()), OrderStatus.valueOf(entry.getValue().asText())));
+
+        // Orders deleted since the update are simply left out
+        List<Order> orders = orderRepository.findAllById(oldStatuses.keySet());
+        if (!orders.isEmpty()) {
+            publisher.publishEvent(new OrderStatusBatchChangeEvent(
+                    orders, oldStatuses, readStatus(payload, "newStatus")));
+        }
+    }
+
+    private OrderStatus readStatus(JsonNode payload, String field) {
+        JsonNode value = payload.get(field);
+        return value == null || value.isNull() ? null : OrderStatus.valueOf(value.asText());
+    }
+
+    /**
+     * @return true if the event was parked as FAILED and the relay may move past it
+     */
+    private boolean recordFailure(Long outboxEventId, Exception error) {
+        Boolean parked = transactionTemplate.execute(status -> outboxEventRepository.findById(outboxEventId)
+                .map(outboxEvent -> {
+                    int attempts = outboxEvent.getAttempts() + 1;
+                    String message = String.valueOf(error.getMessage());
+                    outboxEvent.setAttempts(attempts);
+                    outboxEvent.setLastError(message.substring(0, Math.min(message.length(), 1000)));
+                    if (attempts >= maxAttempts) {
+                        outboxEvent.setStatus(OutboxStatus.FAILED);
+                        return true;
+                    }
+                    return false;
+                })
+                .orElse(true));
+        return Boolean.TRUE.equals(parked);
+    }
+}
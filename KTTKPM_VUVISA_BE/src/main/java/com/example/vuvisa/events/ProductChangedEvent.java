@@ -0,0 +1,34 @@
+package com.example.vuvisa.events;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Event that is published when the details of some products change
+ */
+@Getter
+public class ProductChangedEvent {
+    private final Set<Long> productIds;
+    private final boolean catalogChanged;
+
+    /**
+     * Create a new ProductChangedEvent for a change to the catalog text (name, description or authors)
+     *
+     * @param productIds the products whose details changed
+     */
+    public ProductChangedEvent(Set<Long> productIds) {
+        this(productIds, true);
+    }
+
+    /**
+     * Create a new ProductChangedEvent
+     *
+     * @param productIds the products whose details changed
+     * @param catalogChanged whether searchable text may have changed, as opposed to only stock, discounts or images
+     */
+    public ProductChangedEvent(Set<Long> productIds, boolean catalogChanged) {
+        this.productIds = productIds;
+        this.catalogChanged = catalogChanged;
+    }
+}
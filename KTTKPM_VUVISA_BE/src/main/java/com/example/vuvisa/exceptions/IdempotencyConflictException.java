@@ -0,0 +1,28 @@
+package com.example.vuvisa.exceptions;
+
+/**
+ * Exception thrown when an Idempotency-Key cannot be honoured: the key was already used
+ * with a different request, or the first request with the key is still running elsewhere.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final String idempotencyKey;
+
+    /**
+     * Constructs a new IdempotencyConflictException.
+     *
+     * @param idempotencyKey the key sent by the client
+     * @param message the detail message
+     */
+    public IdempotencyConflictException(String idempotencyKey, String message) {
+        super(message);
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    /**
+     * @return the key sent by the client
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.vuvisa.exceptions;
+
+import java.util.List;
+
+/**
+ * Exception thrown when one or more order lines cannot be reserved because
+ * the product does not have enough stock left.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<Long> productIds;
+
+    /**
+     * Constructs a new InsufficientStockException.
+     *
+     * @param productIds the ids of the products that were short
+     * @param message the detail message
+     */
+    public InsufficientStockException(List<Long> productIds, String message) {
+        super(message);
+        this.productIds = List.copyOf(productIds);
+    }
+
+    /**
+     * @return the ids of the products that were short
+     */
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.vuvisa.exceptions;
+
+/**
+ * Exception thrown when a voucher cannot be redeemed because its global
+ * or per-user usage limit has been reached.
+ */
+public class VoucherUnavailableException extends RuntimeException {
+
+    private final Long voucherId;
+
+    /**
+     * Constructs a new VoucherUnavailableException.
+     *
+     * @param voucherId the id of the voucher
+     * @param message the detail message
+     */
+    public VoucherUnavailableException(Long voucherId, String message) {
+        super(message);
+        this.voucherId = voucherId;
+    }
+
+    /**
+     * @return the id of the voucher that could not be redeemed
+     */
+    public Long getVoucherId() {
+        return voucherId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.vuvisa.listeners;
+
+import com.example.vuvisa.events.NewOrderEvent;
+import com.example.vuvisa.services.InvoiceDeliveryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Listener that starts invoice delivery once a new order has been committed
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceDeliveryListener {
+
+    private final InvoiceDeliveryService invoiceDeliveryService;
+
+    /**
+     * Handle new order events
+     *
+     * @param event the new order event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleNewOrder(NewOrderEvent event) {
+        log.debug("Dispatching invoice delivery for order #{}", event.getOrder().getId());
+        invoiceDeliveryService.dispatch(event.getOrder().getId());
+    }
+}
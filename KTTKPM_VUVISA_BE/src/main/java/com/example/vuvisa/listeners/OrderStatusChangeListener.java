@@ -5,6 +5,7 @@ import com.example.vuvisa.entities.User;
 import com.example.vuvisa.enums.NotificationType;
 import com.example.vuvisa.enums.OrderStatus;
 import com.example.vuvisa.events.NewOrderEvent;
+import com.example.vuvisa.events.OrderStatusBatchChangeEvent;
 import com.example.vuvisa.events.OrderStatusChangeEvent;
 import com.example.vuvisa.services.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +18,8 @@ import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
- * Listener for order status changes to send notifications
+ * Listener for order status changes to send notifications.
+ * Order events are delivered by the outbox relay outside any transaction, hence the fallback execution.
  */
 @Component
 @RequiredArgsConstructor
@@ -31,43 +33,48 @@ public class OrderStatusChangeListener {
      * 
      * @param event the order status change event
      */
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void handleOrderStatusChange(OrderStatusChangeEvent event) {
         Order order = event.getOrder();
         OrderStatus oldStatus = event.getOldStatus();
-        OrderStatus newStatus = order.getStatus();
+        OrderStatus newStatus = event.getNewStatus();
 
         log.info("Order status changed from {} to {} for order #{}", oldStatus, newStatus, order.getId());
 
         // Create notification based on the new status
-        NotificationType notificationType;
-
-        switch (newStatus) {
-            case CONFIRMED:
-                notificationType = NotificationType.ORDER_STATUS_CHANGED;
-                break;
-            case COMPLETED:
-                notificationType = NotificationType.ORDER_COMPLETED;
-                break;
-            case CANCELLED:
-                notificationType = NotificationType.ORDER_CANCELLED;
-                break;
-            default:
-                notificationType = NotificationType.ORDER_STATUS_CHANGED;
-        }
+        NotificationType notificationType = notificationTypeFor(newStatus);
 
         notificationService.createOrderNotification(order, notificationType);
 
         log.info("Notification sent for order #{} status change to {}", order.getId(), newStatus);
     }
 
+    /**
+     * Handle status changes made by a bulk update, one notification per order
+     *
+     * @param event the batch status change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void handleOrderStatusBatchChange(OrderStatusBatchChangeEvent event) {
+        NotificationType notificationType = notificationTypeFor(event.getNewStatus());
+
+        log.info("Bulk status change to {} for {} orders", event.getNewStatus(), event.getOrders().size());
+
+        for (Order order : event.getOrders()) {
+            notificationService.createOrderNotification(order, notificationType);
+        }
+
+        log.info("Notifications sent for {} orders moved to {}", event.getOrders().size(), event.getNewStatus());
+    }
+
     /**
      * Handle new order events
      * 
      * @param event the new order event
      */
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void handleNewOrder(NewOrderEvent event) {
         Order order = event.getOrder();
@@ -78,4 +85,15 @@ public class OrderStatusChangeListener {
 
         log.info("Notification sent for new order #{}", order.getId());
     }
+
+    private NotificationType notificationTypeFor(OrderStatus newStatus) {
+        switch (newStatus) {
+            case COMPLETED:
+                return NotificationType.ORDER_COMPLETED;
+            case CANCELLED:
+                return NotificationType.ORDER_CANCELLED;
+            default:
+                return NotificationType.ORDER_STATUS_CHANGED;
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for orders moved to the archive tables
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long>, JpaSpecificationExecutor<ArchivedOrder> {
+
+    @Query("SELECT MAX(o.orderDate) FROM ArchivedOrder o")
+    Date findLatestOrderDate();
+
+    /**
+     * Load archived orders with their user, details and the products of those details in one statement.
+     *
+     * @param ids the order ids
+     * @return the orders, unordered
+     */
+    @Query("SELECT DISTINCT o FROM ArchivedOrder o LEFT JOIN FETCH o.user "
+            + "LEFT JOIN FETCH o.orderDetails d LEFT JOIN FETCH d.product WHERE o.id IN :ids")
+    List<ArchivedOrder> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Load archived orders with their vouchers in one statement.
+     *
+     * @param ids the order ids
+     * @return the orders, unordered
+     */
+    @Query("SELECT DISTINCT o FROM ArchivedOrder o LEFT JOIN FETCH o.vouchers WHERE o.id IN :ids")
+    List<ArchivedOrder> findWithVouchersByIdIn(@Param("ids") Collection<Long> ids);
+}
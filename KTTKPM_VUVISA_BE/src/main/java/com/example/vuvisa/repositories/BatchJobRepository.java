@@ -0,0 +1,75 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.BatchJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for managing BatchJob entities
+ */
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
+
+    /**
+     * Queued or running jobs that no node holds a live lease on
+     * @return the jobs, oldest first
+     */
+    @Query(value = "SELECT * FROM batch_jobs WHERE status IN ('QUEUED', 'RUNNING') "
+            + "AND (owner IS NULL OR lease_until < NOW(3)) ORDER BY id", nativeQuery = true)
+    List<BatchJob> findClaimable();
+
+    @Query("SELECT j.cancelRequested FROM BatchJob j WHERE j.id = :id")
+    Boolean isCancelRequested(@Param("id") Long id);
+
+    /**
+     * Set or clear the cancel flag of a job
+     * @param id the job id
+     * @param cancelRequested the new flag
+     * @return number of updated jobs
+     */
+    @Modifying
+    @Query(value = "UPDATE batch_jobs SET cancel_requested = :cancelRequested WHERE id = :id", nativeQuery = true)
+    int updateCancelRequested(@Param("id") Long id, @Param("cancelRequested") boolean cancelRequested);
+
+    /**
+     * Take a queued or running job for one node, unless another node holds a live lease on it.
+     * The lease is timed by the database clock, so nodes with skewed clocks agree on it.
+     * @param id the job id
+     * @param owner the node taking the job
+     * @param leaseSeconds how long the lease lasts unless it is renewed
+     * @return 1 if the job was taken, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE batch_jobs SET owner = :owner, lease_until = DATE_ADD(NOW(3), INTERVAL :leaseSeconds SECOND) "
+            + "WHERE id = :id AND status IN ('QUEUED', 'RUNNING') "
+            + "AND (owner IS NULL OR owner = :owner OR lease_until < NOW(3))", nativeQuery = true)
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * Extend the lease of a job this node still holds
+     * @param id the job id
+     * @param owner the node holding the job
+     * @param leaseSeconds how long the lease lasts from now
+     * @return 1 if the lease was extended, 0 if another node has taken the job
+     */
+    @Modifying
+    @Query(value = "UPDATE batch_jobs SET lease_until = DATE_ADD(NOW(3), INTERVAL :leaseSeconds SECOND) "
+            + "WHERE id = :id AND owner = :owner", nativeQuery = true)
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * Give up a job this node holds, so any node may take it at once
+     * @param id the job id
+     * @param owner the node holding the job
+     * @return number of updated jobs
+     */
+    @Modifying
+    @Query(value = "UPDATE batch_jobs SET owner = NULL, lease_until = NULL WHERE id = :id AND owner = :owner",
+            nativeQuery = true)
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,4 +39,8 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     // Count how many users have favorited a product
     @Query("SELECT COUNT(f) FROM Favorite f WHERE f.product.id = :productId")
     Long countUsersByProductId(Long productId);
+
+    // Which of the given products a user has favorited
+    @Query("SELECT f.product.id FROM Favorite f WHERE f.user.id = :userId AND f.product.id IN :productIds")
+    List<Long> findFavoritedProductIds(Long userId, Collection<Long> productIds);
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for managing IdempotencyRecord entities
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Claim a key; does nothing if the key is already taken
+     * @return 1 if this call claimed the key, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_records "
+            + "(scope, idempotency_key, request_hash, status, created_at, updated_at, expires_at) "
+            + "VALUES (:scope, :key, :requestHash, 'IN_PROGRESS', :now, :now, :expiresAt)", nativeQuery = true)
+    int claim(@Param("scope") String scope, @Param("key") String key, @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Take over a claim whose owner stopped without finishing (e.g. the node crashed)
+     * @return 1 if the claim was taken over, 0 if it was completed or refreshed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.updatedAt = :now WHERE r.id = :id "
+            + "AND r.status = com.example.vuvisa.enums.IdempotencyStatus.IN_PROGRESS AND r.updatedAt < :staleBefore")
+    int takeOverStale(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Store the response of a claimed key
+     * @return number of updated records
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.example.vuvisa.enums.IdempotencyStatus.COMPLETED, "
+            + "r.responseBody = :responseBody, r.updatedAt = :now WHERE r.id = :id")
+    int complete(@Param("id") Long id, @Param("responseBody") String responseBody, @Param("now") LocalDateTime now);
+
+    /**
+     * Give up a claim so the key can be used again
+     * @return number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = com.example.vuvisa.enums.IdempotencyStatus.IN_PROGRESS")
+    int release(@Param("id") Long id);
+
+    /**
+     * Delete up to {@code limit} expired records
+     * @return number of deleted records
+     */
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_records WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
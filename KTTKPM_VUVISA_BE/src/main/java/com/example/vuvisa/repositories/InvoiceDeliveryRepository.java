@@ -0,0 +1,65 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.InvoiceDelivery;
+import com.example.vuvisa.enums.InvoiceDeliveryStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for managing InvoiceDelivery entities
+ */
+@Repository
+public interface InvoiceDeliveryRepository extends JpaRepository<InvoiceDelivery, Long> {
+
+    Optional<InvoiceDelivery> findByOrderId(Long orderId);
+
+    /**
+     * Find the ids of deliveries that are due for an attempt
+     * @param status the status to look for
+     * @param now the current time
+     * @param pageable batch size
+     * @return ids of due deliveries, oldest first
+     */
+    @Query("SELECT d.id FROM InvoiceDelivery d WHERE d.status = :status AND d.nextAttemptAt <= :now ORDER BY d.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") InvoiceDeliveryStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim a delivery for a worker. Only one caller can move a row from PENDING to SENDING.
+     * @param id the delivery id
+     * @param now the current time
+     * @return 1 if the delivery was claimed, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE InvoiceDelivery d SET d.status = com.example.vuvisa.enums.InvoiceDeliveryStatus.SENDING, d.updatedAt = :now "
+            + "WHERE d.id = :id AND d.status = com.example.vuvisa.enums.InvoiceDeliveryStatus.PENDING")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Put deliveries whose worker died mid-send back in the queue
+     * @param staleBefore deliveries claimed before this time are considered abandoned
+     * @param now the current time
+     * @return number of deliveries released
+     */
+    @Modifying
+    @Query("UPDATE InvoiceDelivery d SET d.status = com.example.vuvisa.enums.InvoiceDeliveryStatus.PENDING, d.nextAttemptAt = :now, d.updatedAt = :now "
+            + "WHERE d.status = com.example.vuvisa.enums.InvoiceDeliveryStatus.SENDING AND d.updatedAt < :staleBefore")
+    int releaseStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete the deliveries of many orders in one statement
+     * @param orderIds the order ids
+     * @return number of deliveries deleted
+     */
+    @Modifying
+    @Query("DELETE FROM InvoiceDelivery d WHERE d.orderId IN :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -2,10 +2,24 @@ package com.example.vuvisa.repositories;
 
 import com.example.vuvisa.entities.OrderDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface OrderDetailRepository extends JpaRepository<OrderDetail, Long> {
      List<OrderDetail> findByOrderId(Long orderId);
+
+     /**
+      * Delete the details of many orders in one statement.
+      *
+      * @param orderIds the order ids
+      * @return number of details deleted
+      */
+     @Modifying
+     @Query("DELETE FROM OrderDetail d WHERE d.order.id IN :orderIds")
+     int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
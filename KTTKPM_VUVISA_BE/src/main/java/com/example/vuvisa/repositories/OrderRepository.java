@@ -1,12 +1,18 @@
 package com.example.vuvisa.repositories;
 
 import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,6 +20,104 @@ import java.util.UUID;
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
+    /**
+     * Id and status of an order, without loading the entity
+     */
+    interface OrderStatusView {
+        Long getId();
 
+        OrderStatus getStatus();
+    }
 
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.id IN :ids")
+    List<OrderStatusView> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId")
+    Page<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o ORDER BY o.orderDate DESC")
+    List<Long> findAllIds();
+
+    /**
+     * Load orders with their user, details and the products of those details in one statement.
+     *
+     * @param ids the order ids
+     * @return the orders, unordered
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.user "
+            + "LEFT JOIN FETCH o.orderDetails d LEFT JOIN FETCH d.product WHERE o.id IN :ids")
+    List<Order> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Load orders with their vouchers in one statement.
+     * Used after {@link #findWithDetailsByIdIn} to initialise the vouchers of the same orders.
+     *
+     * @param ids the order ids
+     * @return the orders, unordered
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.vouchers WHERE o.id IN :ids")
+    List<Order> findWithVouchersByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Orders that entered a status before the given time and are still in it, longest waiting first.
+     * Served by the (status, status_changed_at) index.
+     *
+     * @param status the status
+     * @param before entered the status before this time
+     * @param pageable max number of orders
+     * @return the order ids
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.statusChangedAt < :before "
+            + "ORDER BY o.statusChangedAt, o.id")
+    List<Long> findIdsStuckInStatus(@Param("status") OrderStatus status, @Param("before") Date before,
+            Pageable pageable);
+
+    /**
+     * Set the status of many orders in one statement.
+     * Orders that already have the status are left untouched.
+     *
+     * @param ids the order ids
+     * @param status the new status
+     * @param changedAt time of the change
+     * @return number of orders updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.statusChangedAt = :changedAt "
+            + "WHERE o.id IN :ids AND o.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status,
+            @Param("changedAt") Date changedAt);
+
+    /**
+     * Give orders written before status_changed_at existed their order date as a starting point.
+     *
+     * @param limit max rows per statement
+     * @return number of orders updated
+     */
+    @Modifying
+    @Query(value = "UPDATE orders SET status_changed_at = order_date WHERE status_changed_at IS NULL LIMIT :limit",
+            nativeQuery = true)
+    int backfillStatusChangedAt(@Param("limit") int limit);
+
+    /**
+     * Remove the voucher links of many orders in one statement.
+     *
+     * @param ids the order ids
+     * @return number of links removed
+     */
+    @Modifying
+    @Query(value = "DELETE FROM order_vouchers WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteVoucherLinksByOrderIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Delete many orders in one statement. Details and voucher links must be removed first.
+     *
+     * @param ids the order ids
+     * @return number of orders deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,76 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.OrderStatusHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderStatusHistoryRepository extends JpaRepository<OrderStatusHistory, Long> {
+
+    List<OrderStatusHistory> findByOrderIdOrderByChangedAtAscIdAsc(Long orderId);
+
+    /**
+     * Dwell-time summary of one status, percentiles by nearest rank
+     */
+    interface DwellView {
+        Long getSamples();
+
+        Double getAvgSeconds();
+
+        Long getP50Seconds();
+
+        Long getP90Seconds();
+
+        Long getP99Seconds();
+
+        Long getMaxSeconds();
+    }
+
+    /**
+     * Record the transition of many orders to a new status in one statement, reading the old status
+     * and the time it was entered from the orders themselves. Must run before the status update, and
+     * skips the same orders that {@link OrderRepository#updateStatusByIdIn} leaves untouched.
+     *
+     * @param ids the order ids
+     * @param toStatus the new status name
+     * @param changedAt time of the transition
+     * @param actor who made the change
+     * @return number of transitions recorded
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_status_history (order_id, from_status, to_status, changed_at, actor, dwell_seconds) "
+            + "SELECT o.id, o.status, :toStatus, :changedAt, :actor, "
+            + "TIMESTAMPDIFF(SECOND, COALESCE(o.status_changed_at, o.order_date), :changedAt) "
+            + "FROM orders o WHERE o.id IN (:ids) AND o.status <> :toStatus", nativeQuery = true)
+    int insertTransitions(@Param("ids") Collection<Long> ids, @Param("toStatus") String toStatus,
+            @Param("changedAt") LocalDateTime changedAt, @Param("actor") String actor);
+
+    /**
+     * Dwell-time percentiles of orders leaving a status within a time window.
+     * Reads only the (from_status, changed_at, dwell_seconds) index and sorts the window once.
+     *
+     * @param status the status name
+     * @param from start of the window, inclusive
+     * @param to end of the window, exclusive
+     * @return the summary; samples is 0 when nothing left the status in the window
+     */
+    @Query(value = "SELECT COUNT(*) AS samples, AVG(t.dwell_seconds) AS avgSeconds, "
+            + "MIN(CASE WHEN t.rn >= CEIL(0.50 * t.n) THEN t.dwell_seconds END) AS p50Seconds, "
+            + "MIN(CASE WHEN t.rn >= CEIL(0.90 * t.n) THEN t.dwell_seconds END) AS p90Seconds, "
+            + "MIN(CASE WHEN t.rn >= CEIL(0.99 * t.n) THEN t.dwell_seconds END) AS p99Seconds, "
+            + "MAX(t.dwell_seconds) AS maxSeconds "
+            + "FROM (SELECT h.dwell_seconds, ROW_NUMBER() OVER (ORDER BY h.dwell_seconds) AS rn, COUNT(*) OVER () AS n "
+            + "FROM order_status_history h WHERE h.from_status = :status "
+            + "AND h.changed_at >= :from AND h.changed_at < :to AND h.dwell_seconds IS NOT NULL) t",
+            nativeQuery = true)
+    DwellView findDwellStats(@Param("status") String status, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+}
@@ -0,0 +1,49 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.OutboxEvent;
+import com.example.vuvisa.enums.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for managing OutboxEvent entities
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find the oldest events with the given status
+     * @param status the status
+     * @param pageable batch size
+     * @return events in insertion order
+     */
+    List<OutboxEvent> findByStatusOrderByIdAsc(OutboxStatus status, Pageable pageable);
+
+    /**
+     * Mark a batch of events as delivered
+     * @param ids the event ids
+     * @param publishedAt the delivery time
+     * @return number of updated events
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.example.vuvisa.enums.OutboxStatus.PUBLISHED, e.publishedAt = :publishedAt "
+            + "WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Delete delivered events older than the given time
+     * @param before the cut-off time
+     * @return number of deleted events
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.example.vuvisa.enums.OutboxStatus.PUBLISHED AND e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,12 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.SalesCategoryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for managing SalesCategoryRollup entities
+ */
+@Repository
+public interface SalesCategoryRollupRepository extends JpaRepository<SalesCategoryRollup, Long> {
+}
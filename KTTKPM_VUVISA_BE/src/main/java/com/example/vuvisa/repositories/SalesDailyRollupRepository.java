@@ -0,0 +1,17 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.SalesDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for managing SalesDailyRollup entities
+ */
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, LocalDate> {
+
+    List<SalesDailyRollup> findBySalesDateBetweenOrderBySalesDateAsc(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,12 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.SalesProductRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for managing SalesProductRollup entities
+ */
+@Repository
+public interface SalesProductRollupRepository extends JpaRepository<SalesProductRollup, Long> {
+}
@@ -0,0 +1,9 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.UserOrderStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, Long> {
+}
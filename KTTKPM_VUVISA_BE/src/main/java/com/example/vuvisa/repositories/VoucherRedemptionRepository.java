@@ -0,0 +1,49 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.VoucherRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for managing VoucherRedemption entities
+ */
+@Repository
+public interface VoucherRedemptionRepository extends JpaRepository<VoucherRedemption, Long> {
+
+    List<VoucherRedemption> findByOrderId(Long orderId);
+
+    long countByVoucherId(Long voucherId);
+
+    /**
+     * Number of uses of a voucher
+     */
+    interface VoucherUses {
+        Long getVoucherId();
+
+        Long getUses();
+    }
+
+    /**
+     * Count the voucher uses of many orders
+     * @param orderIds the order ids
+     * @return uses per voucher, in voucher id order
+     */
+    @Query("SELECT r.voucherId AS voucherId, COUNT(r) AS uses FROM VoucherRedemption r "
+            + "WHERE r.orderId IN :orderIds GROUP BY r.voucherId ORDER BY r.voucherId")
+    List<VoucherUses> countUsesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Delete the redemptions of many orders in one statement
+     * @param orderIds the order ids
+     * @return number of redemptions deleted
+     */
+    @Modifying
+    @Query("DELETE FROM VoucherRedemption r WHERE r.orderId IN :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
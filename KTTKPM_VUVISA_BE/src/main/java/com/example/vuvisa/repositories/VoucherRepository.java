@@ -5,6 +5,9 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.vuvisa.entities.Voucher;
@@ -19,4 +22,40 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long> {
     Page<Voucher> findByCodeContainingIgnoreCase(String code, Pageable pageable);
 
     Page<Voucher> findByDiscountNameContainingIgnoreCase(String discountName, Pageable pageable);
+
+    /**
+     * Count one more use of a voucher, only while it is under its max uses.
+     * The check and the increment happen in one row update, so concurrent checkouts cannot over-redeem.
+     *
+     * @param id the voucher id
+     * @return 1 if the use was counted, 0 if the voucher is used up (or does not exist)
+     */
+    @Modifying
+    @Query(value = "UPDATE vouchers SET used_count = used_count + 1 "
+            + "WHERE id = :id AND (max_uses IS NULL OR used_count < max_uses)",
+            nativeQuery = true)
+    int incrementUsedCount(@Param("id") Long id);
+
+    /**
+     * Give one use back to a voucher
+     *
+     * @param id the voucher id
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query(value = "UPDATE vouchers SET used_count = used_count - 1 WHERE id = :id AND used_count > 0",
+            nativeQuery = true)
+    int decrementUsedCount(@Param("id") Long id);
+
+    /**
+     * Give several uses back to a voucher
+     *
+     * @param id the voucher id
+     * @param uses number of uses
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query(value = "UPDATE vouchers SET used_count = GREATEST(used_count - :uses, 0) WHERE id = :id",
+            nativeQuery = true)
+    int decrementUsedCount(@Param("id") Long id, @Param("uses") long uses);
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.example.vuvisa.repositories;
+
+import com.example.vuvisa.entities.VoucherUserUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repository for managing VoucherUserUsage entities
+ */
+@Repository
+public interface VoucherUserUsageRepository extends JpaRepository<VoucherUserUsage, Long> {
+
+    /**
+     * Make sure the usage row of a user exists, without failing if it already does
+     * @param voucherId the voucher id
+     * @param userId the user id
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO voucher_user_usage (voucher_id, user_id, used_count) VALUES (:voucherId, :userId, 0)",
+            nativeQuery = true)
+    void insertIfMissing(@Param("voucherId") Long voucherId, @Param("userId") Long userId);
+
+    /**
+     * Count one more use for the user, only while the user is under the limit
+     * @param voucherId the voucher id
+     * @param userId the user id
+     * @param limit the per-user limit
+     * @return 1 if the use was counted, 0 if the limit was reached
+     */
+    @Modifying
+    @Query(value = "UPDATE voucher_user_usage SET used_count = used_count + 1 "
+            + "WHERE voucher_id = :voucherId AND user_id = :userId AND used_count < :limit",
+            nativeQuery = true)
+    int incrementIfBelow(@Param("voucherId") Long voucherId, @Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Give one use back to the user
+     * @param voucherId the voucher id
+     * @param userId the user id
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query(value = "UPDATE voucher_user_usage SET used_count = used_count - 1 "
+            + "WHERE voucher_id = :voucherId AND user_id = :userId AND used_count > 0",
+            nativeQuery = true)
+    int decrement(@Param("voucherId") Long voucherId, @Param("userId") Long userId);
+
+    /**
+     * Give back to every user the uses of a voucher made by the given orders, from the redemption ledger.
+     * Must run before the redemptions of those orders are deleted.
+     * @param voucherId the voucher id
+     * @param orderIds the order ids
+     * @return number of usage rows updated
+     */
+    @Modifying
+    @Query(value = "UPDATE voucher_user_usage u JOIN (SELECT user_id, COUNT(*) AS uses FROM voucher_redemptions "
+            + "WHERE voucher_id = :voucherId AND order_id IN (:orderIds) AND user_id IS NOT NULL GROUP BY user_id) r "
+            + "ON r.user_id = u.user_id "
+            + "SET u.used_count = GREATEST(u.used_count - r.uses, 0) WHERE u.voucher_id = :voucherId",
+            nativeQuery = true)
+    int releaseOrders(@Param("voucherId") Long voucherId, @Param("orderIds") Collection<Long> orderIds);
+}
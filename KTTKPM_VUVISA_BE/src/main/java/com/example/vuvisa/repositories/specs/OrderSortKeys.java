@@ -0,0 +1,143 @@
+package com.example.vuvisa.repositories.specs;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Id-only reads for the order specifications, on {@link com.example.vuvisa.entities.Order} and
+ * {@link com.example.vuvisa.entities.ArchivedOrder}. Each row is the id plus the sort columns rather than
+ * the whole order: the sort columns must be selected because the product-name filter makes the query DISTINCT.
+ */
+public final class OrderSortKeys {
+
+    private OrderSortKeys() {
+    }
+
+    /**
+     * Id of an order and the values it is sorted by, one per order of the sort
+     */
+    public record SortKey(Long id, List<Object> values) {
+    }
+
+    /**
+     * @param entityManager entity manager to query with
+     * @param type the order entity
+     * @param spec filter, may be null
+     * @param sort sort of the slice; its properties are selected with the id
+     * @param offset rows to skip
+     * @param limit max rows
+     * @return the keys of one slice in sort order
+     */
+    public static <T> List<SortKey> find(EntityManager entityManager, Class<T> type, Specification<T> spec,
+            Sort sort, long offset, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id"));
+        for (Sort.Order order : sort) {
+            if (!"id".equals(order.getProperty())) {
+                selections.add(root.get(order.getProperty()));
+            }
+        }
+        query.multiselect(selections)
+                .where(predicate != null ? predicate : cb.conjunction())
+                .orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> toKey(tuple, sort))
+                .toList();
+    }
+
+    /**
+     * @return the ids of the keys, in order
+     */
+    public static List<Long> ids(List<SortKey> keys) {
+        return keys.stream().map(SortKey::id).toList();
+    }
+
+    /**
+     * One slice of the union of two key lists, each sorted by {@code sort}, as the database would sort the union.
+     * NULLs come first ascending and last descending, as in MySQL. A key present in both lists, e.g. an order
+     * archived between the two reads, is kept once.
+     *
+     * @param first keys of one table, from its first row
+     * @param second keys of the other table, from its first row
+     * @param sort the sort both lists are in; it must end with a unique property
+     * @param offset position of the slice in the union
+     * @param limit max keys in the slice
+     * @return the keys of the slice in sort order
+     */
+    public static List<SortKey> mergedSlice(List<SortKey> first, List<SortKey> second, Sort sort, long offset, int limit) {
+        Comparator<SortKey> comparator = comparator(sort);
+        Set<Long> seen = new HashSet<>();
+        List<SortKey> slice = new ArrayList<>(limit);
+        long position = 0;
+        int i = 0;
+        int j = 0;
+        while (slice.size() < limit && (i < first.size() || j < second.size())) {
+            SortKey next = j == second.size() || (i < first.size() && comparator.compare(first.get(i), second.get(j)) <= 0)
+                    ? first.get(i++) : second.get(j++);
+            if (seen.add(next.id()) && position++ >= offset) {
+                slice.add(next);
+            }
+        }
+        return slice;
+    }
+
+    private static Comparator<SortKey> comparator(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        return (a, b) -> {
+            for (int k = 0; k < orders.size(); k++) {
+                int compared = compareNullsFirst(a.values().get(k), b.values().get(k));
+                if (compared != 0) {
+                    return orders.get(k).isAscending() ? compared : -compared;
+                }
+            }
+            return 0;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareNullsFirst(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static SortKey toKey(Tuple tuple, Sort sort) {
+        Long id = tuple.get(0, Long.class);
+        List<Object> values = new ArrayList<>();
+        int column = 1;
+        for (Sort.Order order : sort) {
+            values.add("id".equals(order.getProperty()) ? id : tuple.get(column++));
+        }
+        // Sort columns may be null, e.g. grand totals of orders not yet backfilled, so no List.copyOf
+        return new SortKey(id, Collections.unmodifiableList(values));
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.vuvisa.repositories.specs;
 
 import com.example.vuvisa.entities.Order;
-import com.example.vuvisa.entities.OrderDetail;
 import com.example.vuvisa.dtos.requests.OrderFilterRequest;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 
@@ -15,7 +15,11 @@ import java.util.Date;
 import java.util.List;
 
 public class OrderSpecification {
-    public static Specification<Order> filter(OrderFilterRequest filter) {
+    /**
+     * Admin filter; works on {@link Order} and on {@link com.example.vuvisa.entities.ArchivedOrder},
+     * which share their attribute names.
+     */
+    public static <T> Specification<T> filter(OrderFilterRequest filter) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -43,9 +47,15 @@ public class OrderSpecification {
                 Date endDate = filter.getEndDate();
                 predicates.add(cb.lessThanOrEqualTo(root.get("orderDate"), endDate));
             }
+            if (filter.getMinTotal() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("grandTotal"), filter.getMinTotal()));
+            }
+            if (filter.getMaxTotal() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("grandTotal"), filter.getMaxTotal()));
+            }
             // Join with orderDetails and product
             if (filter.getProductName() != null && !filter.getProductName().isEmpty()) {
-                Join<Order, OrderDetail> details = root.join("orderDetails");
+                Join<T, ?> details = root.join("orderDetails");
                 predicates.add(cb.like(cb.lower(details.get("product").get("productName")), "%" + filter.getProductName().toLowerCase() + "%"));
                 query.distinct(true);
             }
@@ -53,4 +63,42 @@ public class OrderSpecification {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Orders of one user; works on {@link Order} and on {@link com.example.vuvisa.entities.ArchivedOrder}.
+     */
+    public static <T> Specification<T> byUser(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    /**
+     * Sort requested by the filter: order date (default) or grand total, newest / largest first unless asc.
+     * Ties are broken by id so pages are stable.
+     */
+    public static Sort sortOf(OrderFilterRequest filter) {
+        Sort.Direction direction = filter != null && "asc".equalsIgnoreCase(filter.getSortDirection())
+                ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String property = filter != null && "grand_total".equalsIgnoreCase(filter.getSortBy()) ? "grandTotal" : "orderDate";
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Keyset predicate for orders sorted by (orderDate desc, id desc): everything strictly after the cursor.
+     * Written as {@code date < :d OR (date = :d AND id < :id)} so MySQL can range-scan the (order_date, id) index.
+     * MySQL sorts orders without a date after every dated one in this order, so they follow any dated cursor,
+     * and a cursor without a date continues among them by id.
+     */
+    public static Specification<Order> before(Date orderDate, Long id) {
+        if (orderDate == null) {
+            return (root, query, cb) -> cb.and(
+                    cb.isNull(root.get("orderDate")),
+                    cb.lessThan(root.get("id"), id));
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("orderDate"), orderDate),
+                cb.and(
+                        cb.equal(root.get("orderDate"), orderDate),
+                        cb.lessThan(root.get("id"), id)),
+                cb.isNull(root.get("orderDate")));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.BatchJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that takes over batch jobs whose node stopped renewing its lease, e.g. because it crashed.
+ * Runs on every node; the claim lets only one of them run each job.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "batch.jobs.resume.enabled", havingValue = "true", matchIfMissing = true)
+public class BatchJobResumeScheduler {
+
+    private final BatchJobService batchJobService;
+
+    /**
+     * Queue the jobs that no node holds
+     */
+    @Scheduled(fixedDelayString = "${batch.jobs.resume.interval-ms:60000}",
+            initialDelayString = "${batch.jobs.resume.interval-ms:60000}")
+    public void resumeAbandonedJobs() {
+        int resumed = batchJobService.resumeInterrupted();
+        if (resumed > 0) {
+            log.info("Took over {} abandoned batch jobs", resumed);
+        }
+    }
+}
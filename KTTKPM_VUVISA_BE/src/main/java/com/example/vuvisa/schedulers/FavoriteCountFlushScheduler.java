@@ -0,0 +1,36 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.FavoriteCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that writes the favorite count changes kept in memory to the database.
+ * Every node counts its own changes, so enable it on every node.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "favorite.count.flush.enabled", havingValue = "true", matchIfMissing = true)
+public class FavoriteCountFlushScheduler {
+
+    private final FavoriteCountService favoriteCountService;
+
+    /**
+     * Flush pending favorite count changes
+     */
+    @Scheduled(fixedDelayString = "${favorite.count.flush.interval-ms:5000}")
+    public void flush() {
+        try {
+            int products = favoriteCountService.flush();
+            if (products > 0) {
+                log.debug("Flushed favorite counts of {} products", products);
+            }
+        } catch (Exception e) {
+            log.error("Favorite count flush failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.FavoriteCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that recomputes product.favorite_count from the favorites, correcting drift of the
+ * write-behind counts (e.g. changes lost when a node crashed before flushing). Runs on every node;
+ * a MySQL named lock lets one of them reconcile at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "favorite.count.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class FavoriteCountReconcileScheduler {
+
+    private final FavoriteCountService favoriteCountService;
+
+    /**
+     * Reconcile once a day, outside business hours
+     */
+    @Scheduled(cron = "${favorite.count.reconcile.cron:0 0 5 * * *}")
+    public void reconcile() {
+        try {
+            favoriteCountService.reconcile();
+        } catch (Exception e) {
+            log.error("Favorite count reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that removes idempotency records past their retention time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyCleanupScheduler {
+
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Remove expired idempotency records every hour
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgeExpiredRecords() {
+        int deleted = idempotencyService.purgeExpired();
+        if (deleted > 0) {
+            log.info("Idempotency cleanup removed {} expired records", deleted);
+        }
+    }
+}
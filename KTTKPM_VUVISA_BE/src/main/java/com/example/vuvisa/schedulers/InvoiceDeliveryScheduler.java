@@ -0,0 +1,29 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.InvoiceDeliveryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that retries invoice deliveries which failed or were never dispatched
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceDeliveryScheduler {
+
+    private final InvoiceDeliveryService invoiceDeliveryService;
+
+    /**
+     * Dispatch deliveries whose next attempt is due
+     */
+    @Scheduled(fixedDelayString = "${invoice.delivery.retry-poll-ms:30000}")
+    public void retryDueDeliveries() {
+        int dispatched = invoiceDeliveryService.dispatchDueDeliveries();
+        if (dispatched > 0) {
+            log.info("Invoice delivery scheduler dispatched {} deliveries", dispatched);
+        }
+    }
+}
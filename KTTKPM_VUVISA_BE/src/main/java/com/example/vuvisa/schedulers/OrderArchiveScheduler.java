@@ -0,0 +1,48 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.components.ClusterLock;
+import com.example.vuvisa.services.OrderArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Scheduler that moves orders older than the retention window to the archive tables.
+ * Runs on every node; a run archives only while it holds a cluster-wide lock, so the other nodes skip it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchiveScheduler {
+
+    private static final String LOCK = "vuvisa:order-archive";
+
+    private final OrderArchiveService orderArchiveService;
+    private final ClusterLock clusterLock;
+
+    @Value("${order.archive.retention-days:365}")
+    private long retentionDays;
+
+    /**
+     * Archive old orders once a day, outside business hours
+     */
+    @Scheduled(cron = "${order.archive.cron:0 0 4 * * *}")
+    public void archiveOldOrders() {
+        Date cutoff = Date.from(Instant.now().minus(Duration.ofDays(retentionDays)));
+        try {
+            if (!clusterLock.tryRun(LOCK, () -> orderArchiveService.archiveOrdersBefore(cutoff))) {
+                log.info("Order archiving skipped, another node is archiving");
+            }
+        } catch (Exception e) {
+            log.error("Order archiving failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.components.ClusterLock;
+import com.example.vuvisa.events.OutboxRelay;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scheduler that drives the transactional outbox relay on every node.
+ * A poll relays only while it holds a cluster-wide lock, so one node at a time delivers and events keep
+ * their id order; the others skip the poll. If the relaying node dies, the next poll elsewhere takes over.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayScheduler {
+
+    private static final String LOCK = "vuvisa:outbox-relay";
+
+    private final OutboxRelay outboxRelay;
+    private final ClusterLock clusterLock;
+
+    @Value("${outbox.relay.retention-days:7}")
+    private long retentionDays;
+
+    /**
+     * Deliver pending outbox events
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:1000}")
+    public void relayPendingEvents() {
+        clusterLock.tryRun(LOCK, () -> {
+            int delivered;
+            do {
+                delivered = outboxRelay.relayPendingEvents();
+                if (delivered > 0) {
+                    log.debug("Outbox relay delivered {} events", delivered);
+                }
+            } while (delivered > 0 && !Thread.currentThread().isInterrupted());
+        });
+    }
+
+    /**
+     * Remove delivered outbox events once a day
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgePublishedEvents() {
+        int deleted = outboxRelay.purgePublishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Outbox cleanup removed {} delivered events", deleted);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.ProductSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that rebuilds the catalog search index from the database. Each node keeps its own index and
+ * only applies its own edits as they happen, so this is how edits made on other nodes (or directly in
+ * the database) become searchable. Enable it on every node.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "product.search.rebuild.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSearchRebuildScheduler {
+
+    private final ProductSearchService productSearchService;
+
+    /**
+     * Rebuild every hour
+     */
+    @Scheduled(cron = "${product.search.rebuild.cron:0 15 * * * *}")
+    public void rebuild() {
+        try {
+            productSearchService.rebuild();
+        } catch (Exception e) {
+            log.error("Search index rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.ProductSuggestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that keeps the search box suggestions of this node up to date. Enable it on every node.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "product.suggest.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSuggestScheduler {
+
+    private final ProductSuggestService productSuggestService;
+
+    /**
+     * Apply the catalog changes made on any node
+     */
+    @Scheduled(fixedDelayString = "${product.suggest.refresh.interval-ms:30000}")
+    public void refresh() {
+        try {
+            int products = productSuggestService.refresh();
+            if (products > 0) {
+                log.debug("Search suggestions refreshed for {} products", products);
+            }
+        } catch (Exception e) {
+            log.error("Search suggestions refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reload popularity and deleted authors every hour
+     */
+    @Scheduled(cron = "${product.suggest.rebuild.cron:0 45 * * * *}")
+    public void rebuild() {
+        try {
+            productSuggestService.rebuild();
+        } catch (Exception e) {
+            log.error("Search suggestions rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
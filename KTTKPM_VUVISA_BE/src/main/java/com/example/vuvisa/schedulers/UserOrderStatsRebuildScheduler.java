@@ -0,0 +1,33 @@
+package com.example.vuvisa.schedulers;
+
+import com.example.vuvisa.services.UserOrderStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler that recomputes the per-user order statistics from scratch, correcting any drift of the
+ * incremental updates (e.g. orders changed by hand in the database). Enable it on one node only.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "user.order-stats.rebuild.enabled", havingValue = "true", matchIfMissing = true)
+public class UserOrderStatsRebuildScheduler {
+
+    private final UserOrderStatsService userOrderStatsService;
+
+    /**
+     * Rebuild once a day, outside business hours
+     */
+    @Scheduled(cron = "${user.order-stats.rebuild.cron:0 30 4 * * *}")
+    public void rebuild() {
+        try {
+            userOrderStatsService.rebuild();
+        } catch (Exception e) {
+            log.error("User order statistics rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
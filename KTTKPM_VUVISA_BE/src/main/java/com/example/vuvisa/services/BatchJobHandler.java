@@ -0,0 +1,50 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobType;
+
+/**
+ * The work behind one {@link BatchJobType}, split into chunks of items by index.
+ */
+public interface BatchJobHandler {
+
+    BatchJobType getType();
+
+    /**
+     * @return items processed per chunk, i.e. per checkpoint
+     */
+    int getChunkSize();
+
+    /**
+     * Reject a request before a job is created for it
+     *
+     * @throws IllegalArgumentException if the request is missing what this job needs
+     */
+    void validate(BatchJobRequest request);
+
+    /**
+     * Number of items of the job, computed once when the job first starts
+     */
+    int countItems(BatchJobRequest request);
+
+    /**
+     * Process items [from, to). For transactional handlers this runs in the transaction that
+     * also saves the checkpoint, so a chunk is either fully done and recorded or not at all.
+     * Changes to {@link BatchJob#setResult(String)} are saved with the checkpoint.
+     */
+    void processChunk(BatchJob job, BatchJobRequest request, int from, int to) throws Exception;
+
+    /**
+     * Called once after the last chunk, e.g. to publish a file built from the chunks
+     */
+    default void complete(BatchJob job, BatchJobRequest request) throws Exception {
+    }
+
+    /**
+     * @return false for work that commits on its own; a crash may then repeat the last chunk
+     */
+    default boolean isTransactional() {
+        return true;
+    }
+}
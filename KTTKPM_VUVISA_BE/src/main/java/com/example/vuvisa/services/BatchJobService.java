@@ -0,0 +1,37 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.dtos.responses.BatchJobResponse;
+
+/**
+ * Runs long admin operations in the background, in checkpointed chunks.
+ * Progress is pushed to {@code /topic/jobs/{id}} after every chunk.
+ */
+public interface BatchJobService {
+
+    /**
+     * Create a job and queue it on the batch job workers
+     *
+     * @return the queued job, with its id
+     */
+    BatchJobResponse submit(BatchJobRequest request) throws Exception;
+
+    BatchJobResponse getJob(Long id) throws Exception;
+
+    /**
+     * Ask a job to stop; it stops before its next chunk
+     */
+    BatchJobResponse cancel(Long id) throws Exception;
+
+    /**
+     * Restart a failed or cancelled job from its last checkpoint
+     */
+    BatchJobResponse resume(Long id) throws Exception;
+
+    /**
+     * Queue again the queued or running jobs that no node holds, e.g. because the node running them stopped
+     *
+     * @return number of jobs queued
+     */
+    int resumeInterrupted();
+}
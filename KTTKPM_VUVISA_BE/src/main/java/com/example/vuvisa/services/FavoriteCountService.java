@@ -0,0 +1,60 @@
+package com.example.vuvisa.services;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Keeps the denormalized favorite count of each product (product.favorite_count).
+ * Changes are counted in memory and written to the database in batches.
+ */
+public interface FavoriteCountService {
+
+    /**
+     * Count a committed change; it reaches the database with the next flush.
+     *
+     * @param productId the product
+     * @param delta +1 for an added favorite, -1 for a removed one
+     */
+    void add(Long productId, long delta);
+
+    /**
+     * @param productId the product
+     * @return the number of users who favorited it, or null if the product does not exist
+     */
+    Long getCount(Long productId);
+
+    /**
+     * @param productIds the products
+     * @return the number of users who favorited each existing product
+     */
+    Map<Long, Long> getCounts(Collection<Long> productIds);
+
+    /**
+     * Write the changes counted since the last flush to the database.
+     *
+     * @return number of products updated
+     */
+    int flush();
+
+    /**
+     * Recompute every count from the favorites table, fixing drift such as changes lost in a crash.
+     * Waits for every node to flush what it held when the drift was measured, and leaves products they
+     * flushed since for a later round. Returns at once when another node is reconciling.
+     *
+     * @return number of products whose count was corrected
+     */
+    long reconcile();
+
+    /**
+     * Fill the counts for the first time, like {@link #reconcile()} but without waiting for the other nodes
+     * to flush. A change another node held at that moment is counted twice until the next reconciliation.
+     *
+     * @return number of products whose count was set
+     */
+    long backfill();
+
+    /**
+     * @return true if no product has a favorite count yet while favorites exist
+     */
+    boolean needsBackfill();
+}
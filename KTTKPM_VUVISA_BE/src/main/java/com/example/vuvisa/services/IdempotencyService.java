@@ -0,0 +1,37 @@
+package com.example.vuvisa.services;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs requests that carry an Idempotency-Key at most once and replays their result for repeats.
+ */
+public interface IdempotencyService {
+
+    String HEADER = "Idempotency-Key";
+
+    /**
+     * Run {@code action} once per (scope, key).
+     * <p>
+     * A repeat with the same key and the same request returns the stored response. Concurrent
+     * repeats on this node wait for the running execution instead of starting their own. The
+     * action runs in a transaction that also stores its response, so the work and the record
+     * commit together. If the action fails, the key is released and may be retried.
+     *
+     * @param scope the operation, e.g. "order.create"
+     * @param key the client key; when blank the action simply runs
+     * @param request the request payload, hashed to detect a key reused for a different request
+     * @param responseType type used to read a stored response back
+     * @param action the work to run
+     * @return the response of the first execution
+     * @throws com.example.vuvisa.exceptions.IdempotencyConflictException if the key was used for
+     *         a different request or is still being processed by another node
+     */
+    <T> T execute(String scope, String key, Object request, Class<T> responseType, Callable<T> action) throws Exception;
+
+    /**
+     * Delete records past their retention time
+     *
+     * @return number of deleted records
+     */
+    int purgeExpired();
+}
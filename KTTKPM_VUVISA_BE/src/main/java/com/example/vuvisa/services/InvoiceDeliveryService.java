@@ -0,0 +1,48 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.entities.InvoiceDelivery;
+import com.example.vuvisa.entities.Order;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Delivers invoice emails outside of the checkout transaction
+ */
+public interface InvoiceDeliveryService {
+
+    /**
+     * Record that the invoice for an order has to be sent.
+     * Runs in the caller's transaction so the record commits together with the order.
+     * @param order the new order
+     * @return the pending delivery
+     */
+    InvoiceDelivery schedule(Order order);
+
+    /**
+     * Hand the invoice for an order to the delivery workers
+     * @param orderId the order ID
+     */
+    void dispatch(Long orderId);
+
+    /**
+     * Hand every delivery that is due for a (re)try to the delivery workers
+     * @return number of deliveries dispatched
+     */
+    int dispatchDueDeliveries();
+
+    /**
+     * Get the delivery record of an order
+     * @param orderId the order ID
+     * @return the delivery, if one was scheduled
+     */
+    Optional<InvoiceDelivery> getDelivery(Long orderId);
+
+    /**
+     * Drop the deliveries of orders that are about to be deleted.
+     * Must run in the deleting transaction. A worker already sending one of them finds the row gone
+     * and records nothing.
+     * @param orderIds the order IDs
+     */
+    void remove(Collection<Long> orderIds);
+}
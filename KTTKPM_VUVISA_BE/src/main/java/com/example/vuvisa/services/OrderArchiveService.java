@@ -0,0 +1,64 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.OrderResponse;
+import com.example.vuvisa.repositories.specs.OrderSortKeys;
+import org.springframework.data.domain.Sort;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves old orders to the archive tables and reads them back.
+ * The active tables only hold orders newer than the retention window, so everyday queries stay small.
+ */
+public interface OrderArchiveService {
+
+    /**
+     * Move every order dated before {@code cutoff}, with its details and voucher links, to the archive.
+     * Runs in chunks, one transaction per chunk.
+     *
+     * @param cutoff orders strictly older than this are archived
+     * @return number of orders archived
+     */
+    int archiveOrdersBefore(Date cutoff);
+
+    /**
+     * @param from start of a date range, or null for an open range
+     * @return true if archived orders may fall inside a range starting at {@code from}
+     */
+    boolean mayHoldOrdersSince(Date from);
+
+    Optional<OrderResponse> findOrder(Long id);
+
+    long countByUserId(Long userId);
+
+    /**
+     * Sort keys of a user's archived orders, from the first
+     *
+     * @param userId the user
+     * @param sort the sort, ending with the id
+     * @param limit max keys
+     * @return the keys in sort order
+     */
+    List<OrderSortKeys.SortKey> findKeysByUserId(Long userId, Sort sort, int limit);
+
+    long count(OrderFilterRequest filter);
+
+    /**
+     * Sort keys of the archived orders matching the admin filter, from the first
+     *
+     * @param filter the admin filter
+     * @param sort the sort, ending with the id
+     * @param limit max keys
+     * @return the keys in sort order
+     */
+    List<OrderSortKeys.SortKey> findKeys(OrderFilterRequest filter, Sort sort, int limit);
+
+    /**
+     * @param ids archived order ids
+     * @return the archived orders among them, in the order of the ids
+     */
+    List<OrderResponse> findOrders(List<Long> ids);
+}
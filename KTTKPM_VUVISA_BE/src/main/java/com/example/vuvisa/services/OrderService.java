@@ -2,11 +2,15 @@ package com.example.vuvisa.services;
 
 import com.example.vuvisa.dtos.requests.OrderDTO;
 import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.BulkOrderStatusResponse;
+import com.example.vuvisa.dtos.responses.CursorPageResponse;
 import com.example.vuvisa.dtos.responses.OrderResponse;
 import com.example.vuvisa.entities.Order;
 import com.example.vuvisa.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,13 +27,42 @@ public interface OrderService {
 
     Page<OrderResponse> filterOrders(OrderFilterRequest filter, int page, int size);
 
+    CursorPageResponse<OrderResponse> scrollOrders(OrderFilterRequest filter, String cursor, int size, boolean approximateTotal);
+
+    /**
+     * Orders that have been in a status for longer than the given time, longest waiting first.
+     *
+     * @param status the status
+     * @param olderThan minimum time spent in the status
+     * @param limit max number of orders, capped at 100
+     * @return the orders
+     */
+    List<OrderResponse> findStuckOrders(OrderStatus status, Duration olderThan, int limit);
+
     int generateSampleOrders(int count) throws Exception;
 
     List<byte[]> generateOrderPdfs(List<Long> orderIds) throws Exception;
 
-    List<OrderResponse> updateOrdersStatus(List<Long> orderIds, OrderStatus status) throws Exception;
+    /**
+     * Render the invoices of the orders into one merged PDF in a temp file, reading the orders in chunks.
+     * Statuses are left alone; call {@link #markOrdersPacking(List)} once the PDF is stored.
+     *
+     * @param orderIds the orders, in invoice order; orders that do not exist are skipped
+     * @return the merged PDF, to be deleted by the caller
+     */
+    Path renderOrderPdfs(List<Long> orderIds) throws Exception;
+
+    /**
+     * Move orders whose invoices were printed to PACKING, in one short transaction
+     *
+     * @param orderIds the orders; orders that no longer exist are skipped
+     * @return number of orders whose status changed
+     */
+    int markOrdersPacking(List<Long> orderIds);
+
+    BulkOrderStatusResponse updateOrdersStatus(List<Long> orderIds, OrderStatus status) throws Exception;
 
-    void deleteOrders(List<Long> orderIds) throws Exception;
+    int deleteOrders(List<Long> orderIds) throws Exception;
 
     OrderResponse updateOrder(Long id, OrderDTO orderDTO) throws Exception;
 }
@@ -0,0 +1,50 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.responses.OrderStatusHistoryResponse;
+import com.example.vuvisa.dtos.responses.StatusDwellResponse;
+import com.example.vuvisa.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Append-only timeline of order status transitions, and the dwell-time statistics read from it.
+ */
+public interface OrderStatusHistoryService {
+
+    /**
+     * Record the transition of many orders to a new status.
+     * Must run in the status-changing transaction, before the orders are updated.
+     *
+     * @param orderIds the orders; those already in the status are skipped
+     * @param toStatus the new status
+     * @param changedAt time of the change, the same value written to the orders
+     * @return number of transitions recorded
+     */
+    int recordTransitions(Collection<Long> orderIds, OrderStatus toStatus, Date changedAt);
+
+    /**
+     * Record one transition of an order whose entity has already been changed.
+     *
+     * @param orderId the order
+     * @param fromStatus the previous status, null when the order is created
+     * @param toStatus the new status
+     * @param since when the order entered the previous status, null if unknown
+     * @param changedAt time of the change
+     */
+    void recordTransition(Long orderId, OrderStatus fromStatus, OrderStatus toStatus, Date since, Date changedAt);
+
+    List<OrderStatusHistoryResponse> getHistory(Long orderId);
+
+    /**
+     * Dwell-time percentiles of orders that left a status within the window.
+     *
+     * @param status one status, or null for every status
+     * @param from start of the window, inclusive
+     * @param to end of the window, exclusive
+     * @return one summary per status
+     */
+    List<StatusDwellResponse> getDwellStats(OrderStatus status, LocalDateTime from, LocalDateTime to);
+}
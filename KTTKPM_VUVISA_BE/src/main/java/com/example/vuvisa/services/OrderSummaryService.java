@@ -0,0 +1,66 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.OrderSummaryResponse;
+import com.example.vuvisa.enums.OrderStatus;
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+
+/**
+ * Order-summary read model behind the admin order grid.
+ */
+public interface OrderSummaryService {
+
+    /**
+     * Rewrite the summaries of the given orders from the orders, their details and products.
+     * Must run in the transaction that created or changed the orders.
+     *
+     * @param orderIds the orders
+     */
+    void refresh(Collection<Long> orderIds);
+
+    /**
+     * Set the status of many summaries, for bulk status changes that touch nothing else.
+     * Must run in the status-changing transaction.
+     *
+     * @param orderIds the orders
+     * @param status the new status
+     */
+    void updateStatus(Collection<Long> orderIds, OrderStatus status);
+
+    /**
+     * Drop the summaries of orders that are about to be deleted.
+     * Must run in the deleting transaction.
+     *
+     * @param orderIds the orders
+     */
+    void remove(Collection<Long> orderIds);
+
+    /**
+     * Admin filter over the summaries, with the same criteria and sort as
+     * {@link com.example.vuvisa.repositories.specs.OrderSpecification}.
+     * <p>
+     * The grid covers the active orders only: the archive job drops the summaries of the orders it moves,
+     * and {@code include_archived} and date ranges reaching back past the retention window are not routed to
+     * the archive. Old orders are searched with {@link OrderService#filterOrders}, which merges the archive in.
+     *
+     * @param filter the filter, may be null
+     * @param page zero-based page
+     * @param size page size
+     * @return the page of summaries
+     */
+    Page<OrderSummaryResponse> filter(OrderFilterRequest filter, int page, int size);
+
+    /**
+     * Rewrite every summary from the orders table, one chunk of orders per transaction.
+     *
+     * @return number of summaries written
+     */
+    long rebuild();
+
+    /**
+     * @return true if no summaries have been written yet
+     */
+    boolean isEmpty();
+}
@@ -0,0 +1,106 @@
+package com.example.vuvisa.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Shared second-level store behind the per-node product detail cache, and the channel through which nodes
+ * tell each other about product changes. Values are JSON strings so every node can read what another node wrote.
+ * Implementations may throw on any call when the store is unreachable; callers treat that as a miss.
+ */
+public interface ProductCacheStore {
+
+    /**
+     * @param key the cache key
+     * @return the stored value, or null when absent
+     */
+    String get(String key);
+
+    /**
+     * Store a value that expires after the given time.
+     *
+     * @param key the cache key
+     * @param value the value
+     * @param ttl time to live
+     */
+    void put(String key, String value, Duration ttl);
+
+    /**
+     * Store a value only if a version key still holds the version read before the value was loaded,
+     * as one atomic step, so a load that raced with a change cannot overwrite the eviction.
+     *
+     * @param key the cache key
+     * @param value the value
+     * @param ttl time to live
+     * @param versionKey the version key guarding the value
+     * @param version the version read by {@link #getVersion} before loading
+     * @return false when the version has moved on and nothing was stored
+     */
+    boolean putIfVersion(String key, String value, Duration ttl, String versionKey, long version);
+
+    /**
+     * @param keys the cache keys to remove
+     */
+    void delete(Collection<String> keys);
+
+    /**
+     * @param versionKey the version key
+     * @return the current version, 0 when it was never incremented
+     */
+    long getVersion(String versionKey);
+
+    /**
+     * Increment version keys, failing any {@link #putIfVersion} of a load that read them before.
+     * Version keys never expire, so a version is never handed out twice.
+     *
+     * @param versionKeys the version keys
+     */
+    void incrementVersions(Collection<String> versionKeys);
+
+    /**
+     * Try to become the only loader of a key.
+     *
+     * @param key the lock key
+     * @param lease how long the lock is held if it is never released
+     * @return a token to release the lock with, or null when another loader holds it
+     */
+    String tryLock(String key, Duration lease);
+
+    /**
+     * Release a lock, if it is still held with the given token.
+     *
+     * @param key the lock key
+     * @param token the token returned by {@link #tryLock}
+     */
+    void unlock(String key, String token);
+
+    /**
+     * Tell every node that the given products changed, so they drop their first-level entries.
+     *
+     * @param productIds the changed products
+     */
+    void publishInvalidation(Collection<Long> productIds);
+
+    /**
+     * Register the handler for invalidations published by any node, this one included.
+     *
+     * @param listener receives the changed product ids
+     */
+    void subscribe(Consumer<Collection<Long>> listener);
+
+    /**
+     * Tell every node that the searchable text (name, description or authors) of the given products changed,
+     * so they update their search structures. Not sent for stock, discount or image changes.
+     *
+     * @param productIds the changed products
+     */
+    void publishCatalogChange(Collection<Long> productIds);
+
+    /**
+     * Register a handler for catalog changes published by any node, this one included.
+     *
+     * @param listener receives the changed product ids
+     */
+    void subscribeCatalogChanges(Consumer<Collection<Long>> listener);
+}
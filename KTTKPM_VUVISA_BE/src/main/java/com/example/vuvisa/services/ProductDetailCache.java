@@ -0,0 +1,48 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.responses.ProductCacheStatsResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache for product detail reads: a per-node Caffeine cache in front of a shared store.
+ * Entries are evicted once a transaction that changed the product commits.
+ */
+public interface ProductDetailCache {
+
+    String PRODUCT = "product";
+    String BOOK = "book";
+    String OFFICE_SUPPLIES = "office-supplies";
+
+    /**
+     * Every namespace a product can be cached under; an eviction clears all of them.
+     */
+    List<String> NAMESPACES = List.of(PRODUCT, BOOK, OFFICE_SUPPLIES);
+
+    /**
+     * Get a cached view of a product, loading it when neither level has it.
+     * The loader runs in a read-only transaction, and only one loader per key runs at a time across nodes.
+     * The returned object is shared between callers and must not be modified.
+     *
+     * @param namespace one of {@link #NAMESPACES}, telling apart views of the same product
+     * @param productId the product id
+     * @param type class of the view
+     * @param loader reads the view from the database; exceptions are passed through and nothing is cached
+     * @return the view
+     */
+    <T> T get(String namespace, Long productId, Class<T> type, Supplier<T> loader);
+
+    /**
+     * Drop the given products from both levels on every node.
+     *
+     * @param productIds the product ids
+     */
+    void evict(Collection<Long> productIds);
+
+    /**
+     * @return hit, miss and load counters since startup
+     */
+    ProductCacheStatsResponse getStats();
+}
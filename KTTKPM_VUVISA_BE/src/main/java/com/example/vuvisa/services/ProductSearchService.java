@@ -0,0 +1,41 @@
+package com.example.vuvisa.services;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+
+/**
+ * Full-text search over the catalog (product name, author names and description), served from an
+ * in-memory index on each node. Diacritics are ignored, so "sach" finds "sách".
+ */
+public interface ProductSearchService {
+
+    /**
+     * @return whether the index has been built and can answer searches
+     */
+    boolean isReady();
+
+    /**
+     * Find the products matching every word of the query, the last word also as a prefix.
+     *
+     * @param query the text typed by the user
+     * @param pageable page number and size; the sort is ignored, hits come best first
+     * @return the ids of the matching products, best first
+     */
+    Page<Long> search(String query, Pageable pageable);
+
+    /**
+     * Build a fresh index from the database and swap it in.
+     *
+     * @return number of products indexed
+     */
+    int rebuild();
+
+    /**
+     * Re-read the given products from the database; products that no longer exist are dropped.
+     *
+     * @param productIds products whose name, description or authors may have changed
+     */
+    void reindex(Collection<Long> productIds);
+}
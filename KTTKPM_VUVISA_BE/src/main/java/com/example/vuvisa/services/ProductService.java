@@ -78,11 +78,13 @@ public interface ProductService {
     com.example.vuvisa.dtos.responses.ProductFavoriteResponse getProductWithFavoriteInfo(Long productId, Long userId);
 
     /**
-     * Get all products with favorite information
+     * Get a page of products with favorite information
      * @param userId ID of the user (optional, can be null)
-     * @return List of products with favorite information
+     * @param page Page number, starting at 0
+     * @param size Page size, at most 100
+     * @return Page of products with favorite information, by ID
      */
-    List<com.example.vuvisa.dtos.responses.ProductFavoriteResponse> getAllProductsWithFavoriteInfo(Long userId);
+    Page<com.example.vuvisa.dtos.responses.ProductFavoriteResponse> getProductsWithFavoriteInfo(Long userId, int page, int size);
 
     /**
      * Get products by category type
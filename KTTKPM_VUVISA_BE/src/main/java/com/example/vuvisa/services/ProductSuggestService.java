@@ -0,0 +1,34 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.responses.ProductSuggestionResponse;
+
+import java.util.List;
+
+/**
+ * Search box completions over product and author names, ranked by how often the products were ordered.
+ * Served from memory on each node, without querying the database.
+ */
+public interface ProductSuggestService {
+
+    /**
+     * @param query the text typed so far; diacritics are ignored
+     * @param limit max number of suggestions
+     * @return the most popular product and author names with a word starting with the query,
+     *         empty until the suggestions have been built
+     */
+    List<ProductSuggestionResponse> suggest(String query, int limit);
+
+    /**
+     * Reload every product and author, with their popularity, and rebuild the suggestions.
+     *
+     * @return number of suggestions
+     */
+    int rebuild();
+
+    /**
+     * Re-read the products changed since the last refresh, with their authors, and update their suggestions.
+     *
+     * @return number of products re-read
+     */
+    int refresh();
+}
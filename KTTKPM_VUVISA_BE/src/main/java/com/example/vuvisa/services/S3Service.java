@@ -1,6 +1,7 @@
 package com.example.vuvisa.services;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 import org.springframework.web.multipart.MultipartFile;
 
@@ -17,4 +18,16 @@ public interface S3Service {
 	 * @throws IOException If an I/O error occurs
 	 */
 	String uploadBytes(byte[] bytes, String fileName, String contentType, String folderPath) throws IOException;
+
+	/**
+	 * Upload a local file to S3 and return the URL.
+	 * Large files are sent as a multipart upload so only one part is held in memory at a time.
+	 * @param file The file to upload
+	 * @param fileName The name of the file
+	 * @param contentType The content type of the file
+	 * @param folderPath The folder path in S3 where the file will be stored
+	 * @return The URL of the uploaded file
+	 * @throws IOException If an I/O error occurs
+	 */
+	String uploadFile(Path file, String fileName, String contentType, String folderPath) throws IOException;
 }
@@ -0,0 +1,55 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.responses.SalesRollupResponse;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the daily, per-product and per-category sales rollups in step with the orders.
+ */
+public interface SalesRollupService {
+
+    /**
+     * Add the current lines of the given orders to the rollups.
+     * Must run in the transaction that created or changed the orders.
+     *
+     * @param orderIds orders that now count as sales
+     */
+    void addOrders(Collection<Long> orderIds);
+
+    /**
+     * Remove the current lines of the given orders from the rollups.
+     * Must run in the transaction that is about to change, cancel or delete the orders.
+     *
+     * @param orderIds orders that no longer count as sales
+     */
+    void removeOrders(Collection<Long> orderIds);
+
+    /**
+     * Rebuild every rollup from the orders table.
+     * Run it while no orders are being written, otherwise concurrent orders may be counted twice.
+     * Also run it after moving products to another category: see {@link #getCategorySales()}.
+     *
+     * @return number of orders counted
+     */
+    long rebuild();
+
+    /**
+     * @return true if the rollups hold no data yet
+     */
+    boolean isEmpty();
+
+    List<SalesRollupResponse> getDailySales(LocalDate from, LocalDate to);
+
+    List<SalesRollupResponse> getTopProducts(int limit, String sortBy);
+
+    /**
+     * Sales per category. Order lines do not record a category, so they are counted in the category their
+     * product has when they are added or removed. After products are moved to another category, their past
+     * sales stay with the old category and later removals subtract from the new one, until {@link #rebuild()}
+     * recounts every line under the current categories.
+     */
+    List<SalesRollupResponse> getCategorySales();
+}
@@ -0,0 +1,18 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.requests.SampleOrderGenerationRequest;
+
+/**
+ * Generates synthetic orders for load and query-plan testing.
+ */
+public interface SampleDataService {
+
+    /**
+     * Write synthetic orders and order details straight through JDBC batches.
+     *
+     * @param request how many orders to create and how to shape them
+     * @return number of orders created
+     * @throws Exception if there are no users or products, or a chunk fails
+     */
+    int generateOrders(SampleOrderGenerationRequest request) throws Exception;
+}
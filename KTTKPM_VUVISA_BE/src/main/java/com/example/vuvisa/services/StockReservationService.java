@@ -0,0 +1,26 @@
+package com.example.vuvisa.services;
+
+import java.util.Map;
+
+/**
+ * Reserves and releases product stock for orders.
+ */
+public interface StockReservationService {
+
+    /**
+     * Atomically decrement the stock of every product in one batch.
+     * Must run inside the caller's transaction so a shortage rolls back every line.
+     *
+     * @param quantities product id -> quantity to reserve
+     * @throws com.example.vuvisa.exceptions.InsufficientStockException if any product is short
+     * @throws com.example.vuvisa.exceptions.ResourceNotFoundException if any product does not exist
+     */
+    void reserve(Map<Long, Long> quantities);
+
+    /**
+     * Give previously reserved stock back to the products in one batch.
+     *
+     * @param quantities product id -> quantity to release
+     */
+    void release(Map<Long, Long> quantities);
+}
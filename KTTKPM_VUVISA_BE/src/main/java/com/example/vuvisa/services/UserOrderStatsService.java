@@ -0,0 +1,62 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.dtos.responses.UserOrderStatsResponse;
+
+import java.util.Collection;
+
+/**
+ * Keeps the per-user order count, lifetime spend and last order date in step with the orders.
+ */
+public interface UserOrderStatsService {
+
+    /**
+     * Count the given orders for their users.
+     * Must run in the transaction that created the orders or changed their user, items or totals.
+     *
+     * @param orderIds orders that now belong to their users
+     */
+    void addOrders(Collection<Long> orderIds);
+
+    /**
+     * Stop counting the given orders for their users.
+     * Must run in the transaction that is about to change or delete the orders.
+     *
+     * @param orderIds orders that no longer belong to their users
+     */
+    void removeOrders(Collection<Long> orderIds);
+
+    /**
+     * Add the totals of orders leaving the cancelled status to their users' lifetime spend.
+     * Must run in the status-changing transaction.
+     *
+     * @param orderIds orders that count towards the spend again
+     */
+    void addSpend(Collection<Long> orderIds);
+
+    /**
+     * Take the totals of cancelled orders out of their users' lifetime spend.
+     * Must run in the status-changing transaction.
+     *
+     * @param orderIds orders that no longer count towards the spend
+     */
+    void removeSpend(Collection<Long> orderIds);
+
+    /**
+     * @param userId the user
+     * @return the statistics, all zero for a user without orders
+     */
+    UserOrderStatsResponse getStats(Long userId);
+
+    /**
+     * Recompute the statistics of every user from the orders and archived orders, one chunk of users
+     * per transaction.
+     *
+     * @return number of users recomputed
+     */
+    long rebuild();
+
+    /**
+     * @return true if no statistics have been stored yet
+     */
+    boolean isEmpty();
+}
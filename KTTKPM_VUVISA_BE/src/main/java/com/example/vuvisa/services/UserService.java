@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
 import com.example.vuvisa.dtos.requests.*;
+import com.example.vuvisa.dtos.responses.UserOrderStatsResponse;
 import com.example.vuvisa.dtos.responses.UserResponse;
 
 public interface UserService {
@@ -40,5 +41,11 @@ public interface UserService {
 	long getTotalUserCount();
 
 	UserResponse notificationInactivedUser(Long userId);
+
+	UserOrderStatsResponse getOrderStats(Long userId);
+
+	UserOrderStatsResponse getOrderStatsFromToken();
+
+	long rebuildOrderStats();
 }
 
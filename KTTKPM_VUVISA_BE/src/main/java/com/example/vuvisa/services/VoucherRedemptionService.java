@@ -0,0 +1,38 @@
+package com.example.vuvisa.services;
+
+import com.example.vuvisa.entities.Voucher;
+
+import java.util.Collection;
+
+/**
+ * Records voucher uses against their global and per-user limits.
+ */
+public interface VoucherRedemptionService {
+
+    /**
+     * Redeem vouchers for an order. Must run inside the caller's transaction so that
+     * a voucher over its limit rolls back the whole order.
+     *
+     * @param vouchers the vouchers applied to the order
+     * @param userId the user placing the order, may be null
+     * @param orderId the order id
+     * @throws com.example.vuvisa.exceptions.VoucherUnavailableException if a voucher is used up
+     */
+    void redeem(Collection<Voucher> vouchers, Long userId, Long orderId);
+
+    /**
+     * Give back the uses an order made of the given vouchers.
+     *
+     * @param voucherIds the vouchers removed from the order
+     * @param orderId the order id
+     */
+    void release(Collection<Long> voucherIds, Long orderId);
+
+    /**
+     * Give back every voucher use made by orders that are about to be deleted and drop their redemptions.
+     * Must run in the deleting transaction.
+     *
+     * @param orderIds the orders
+     */
+    void releaseOrders(Collection<Long> orderIds);
+}
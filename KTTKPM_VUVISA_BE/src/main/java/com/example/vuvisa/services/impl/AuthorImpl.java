@@ -7,11 +7,13 @@ import com.example.vuvisa.dtos.requests.UpdateAuthorRequest;
 import com.example.vuvisa.dtos.responses.AuthorReponse;
 import com.example.vuvisa.entities.Author;
 import com.example.vuvisa.entities.Book;
+import com.example.vuvisa.events.ProductChangedEvent;
 import com.example.vuvisa.repositories.AuthorRepository;
 import com.example.vuvisa.repositories.BookRepository;
 import com.example.vuvisa.services.AuthorService;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,11 +23,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class AuthorImpl implements AuthorService {
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Transactional
     @Override
@@ -68,14 +72,19 @@ public class AuthorImpl implements AuthorService {
             Set<Book> books=(Set<Book>) bookRepository.findAllById(request.getBookIds());
             author.setBooks(books);
         }
-        return AuthorReponse.fromAuthor(authorRepository.save(author));
+        AuthorReponse response = AuthorReponse.fromAuthor(authorRepository.save(author));
+        // The author name is part of the books' searchable text and cached details
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(bookIds(author)));
+        return response;
     }
     @Transactional
     @Override
 
     public void deteleAuthor(Long id){
         Author author=authorRepository.findById(id).orElseThrow(()-> new RuntimeException("Author not found"));
+        Set<Long> bookIds = bookIds(author);
         authorRepository.delete(author);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(bookIds));
     }
     @Override
     public Page<AuthorReponse> getAuthorsByBookId(long bookId, int page){
@@ -88,4 +97,10 @@ public class AuthorImpl implements AuthorService {
         return authorRepository.findByAuthorNameContainingIgnoreCase(name,pageable).map(AuthorReponse::fromAuthor);
     }
 
+    private static Set<Long> bookIds(Author author) {
+        if (author.getBooks() == null) {
+            return new HashSet<>();
+        }
+        return author.getBooks().stream().map(Book::getId).collect(Collectors.toSet());
+    }
 }
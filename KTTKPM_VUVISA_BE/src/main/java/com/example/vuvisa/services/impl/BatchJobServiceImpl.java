@@ -0,0 +1,341 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.dtos.responses.BatchJobResponse;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobStatus;
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.repositories.BatchJobRepository;
+import com.example.vuvisa.services.BatchJobHandler;
+import com.example.vuvisa.services.BatchJobService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batch jobs on a bounded executor.
+ * <p>
+ * A job walks its items chunk by chunk. Each chunk and the new checkpoint
+ * ({@code processed_items}) are committed together, so a job that fails, is cancelled or is cut off
+ * by a shutdown resumes right after the last committed chunk. The cancel flag is read from the
+ * database before every chunk, so a cancel from any node stops the job.
+ * <p>
+ * Every node may dispatch any job: a worker first claims the job with an atomic update of its
+ * owner and lease, and renews the lease in the transaction of every chunk. Only one node runs a job at a
+ * time, and a job whose node died is taken over once its lease has expired.
+ */
+@Service
+@Slf4j
+public class BatchJobServiceImpl implements BatchJobService {
+
+    private static final String TOPIC_PREFIX = "/topic/jobs/";
+
+    private final BatchJobRepository batchJobRepository;
+    private final Map<BatchJobType, BatchJobHandler> handlers = new EnumMap<>(BatchJobType.class);
+    private final TaskExecutor batchJobExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final int leaseSeconds;
+    // Identifies this node as the owner of the jobs it runs
+    private final String owner = UUID.randomUUID().toString();
+    // Jobs queued or running on this node, so a job is never run twice at once here
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public BatchJobServiceImpl(BatchJobRepository batchJobRepository, List<BatchJobHandler> handlers,
+            @Qualifier("batchJobExecutor") TaskExecutor batchJobExecutor,
+            PlatformTransactionManager transactionManager, SimpMessagingTemplate messagingTemplate,
+            ObjectMapper objectMapper, @Value("${batch.jobs.lease-seconds:120}") int leaseSeconds) {
+        this.batchJobRepository = batchJobRepository;
+        handlers.forEach(handler -> this.handlers.put(handler.getType(), handler));
+        this.batchJobExecutor = batchJobExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    @Override
+    public BatchJobResponse submit(BatchJobRequest request) throws Exception {
+        if (request == null || request.getType() == null) {
+            throw new IllegalArgumentException("Job type is required");
+        }
+        handlerFor(request.getType()).validate(request);
+
+        BatchJob job = batchJobRepository.save(BatchJob.builder()
+                .type(request.getType())
+                .params(objectMapper.writeValueAsString(request))
+                .build());
+        dispatch(job.getId());
+        return toResponse(job);
+    }
+
+    @Override
+    public BatchJobResponse getJob(Long id) throws Exception {
+        return toResponse(findJob(id));
+    }
+
+    @Override
+    public BatchJobResponse cancel(Long id) throws Exception {
+        BatchJob job = findJob(id);
+        if (!job.getStatus().isFinished()) {
+            transactionTemplate.executeWithoutResult(status -> batchJobRepository.updateCancelRequested(id, true));
+            job.setCancelRequested(true);
+        }
+        return toResponse(job);
+    }
+
+    @Override
+    public BatchJobResponse resume(Long id) throws Exception {
+        BatchJob job = findJob(id);
+        if (job.getStatus() != BatchJobStatus.FAILED && job.getStatus() != BatchJobStatus.CANCELLED) {
+            throw new Exception("Only failed or cancelled jobs can be resumed, job " + id + " is " + job.getStatus());
+        }
+        BatchJob queued = transactionTemplate.execute(status -> {
+            batchJobRepository.updateCancelRequested(id, false);
+            job.setStatus(BatchJobStatus.QUEUED);
+            job.setError(null);
+            job.setFinishedAt(null);
+            job.setUpdatedAt(LocalDateTime.now());
+            return batchJobRepository.save(job);
+        });
+        dispatch(id);
+        return toResponse(queued);
+    }
+
+    @Override
+    public int resumeInterrupted() {
+        List<BatchJob> interrupted = batchJobRepository.findClaimable();
+        interrupted.forEach(job -> dispatch(job.getId()));
+        return interrupted.size();
+    }
+
+    private void dispatch(Long jobId) {
+        if (!activeJobs.add(jobId)) {
+            return;
+        }
+        try {
+            batchJobExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    activeJobs.remove(jobId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            activeJobs.remove(jobId);
+            finish(jobId, BatchJobStatus.FAILED, "Job queue is full, resume the job later");
+        }
+    }
+
+    /**
+     * Process a job from its checkpoint until it completes, fails, is cancelled or the worker is interrupted.
+     * Does nothing while another node holds the job.
+     */
+    public void run(Long jobId) {
+        Integer claimed = transactionTemplate.execute(status -> batchJobRepository.claim(jobId, owner, leaseSeconds));
+        if (claimed == null || claimed == 0) {
+            log.debug("Batch job {} is finished or held by another node", jobId);
+            return;
+        }
+        try {
+            process(jobId);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> batchJobRepository.releaseLease(jobId, owner));
+        }
+    }
+
+    private void process(Long jobId) {
+        BatchJob job = batchJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus().isFinished()) {
+            return;
+        }
+
+        try {
+            BatchJobHandler handler = handlerFor(job.getType());
+            BatchJobRequest request = objectMapper.readValue(job.getParams(), BatchJobRequest.class);
+
+            if (job.getTotalItems() == null) {
+                job.setTotalItems(handler.countItems(request));
+            }
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+            job.setStatus(BatchJobStatus.RUNNING);
+            job.setUpdatedAt(LocalDateTime.now());
+            job = batchJobRepository.save(job);
+            publish(job);
+
+            while (job.getProcessedItems() < job.getTotalItems()) {
+                if (Boolean.TRUE.equals(batchJobRepository.isCancelRequested(jobId))) {
+                    finish(jobId, BatchJobStatus.CANCELLED, null);
+                    return;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    // Shutting down: the job stays RUNNING and the released lease lets any node resume it
+                    log.info("Batch job {} interrupted at {}/{}", jobId, job.getProcessedItems(), job.getTotalItems());
+                    return;
+                }
+
+                int from = job.getProcessedItems();
+                int to = Math.min(from + handler.getChunkSize(), job.getTotalItems());
+                job = runChunk(handler, job, request, from, to);
+                publish(job);
+            }
+
+            renewLease(jobId);
+            handler.complete(job, request);
+            job.setStatus(BatchJobStatus.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setUpdatedAt(job.getFinishedAt());
+            publish(batchJobRepository.save(job));
+            log.info("Batch job {} ({}) completed {} items", jobId, job.getType(), job.getTotalItems());
+        } catch (LeaseLostException e) {
+            // Another node took the job over; its chunks and final state are its own
+            log.warn("Batch job {} was taken over by another node at {}/{}", jobId, job.getProcessedItems(),
+                    job.getTotalItems());
+        } catch (Exception e) {
+            log.error("Batch job {} failed: {}", jobId, e.getMessage(), e);
+            finish(jobId, BatchJobStatus.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private BatchJob runChunk(BatchJobHandler handler, BatchJob job, BatchJobRequest request, int from, int to)
+            throws Exception {
+        if (!handler.isTransactional()) {
+            renewLease(job.getId());
+            handler.processChunk(job, request, from, to);
+            return saveCheckpoint(job, to);
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                // Locks the job row until the checkpoint commits, so a node claiming it meanwhile waits
+                renewLease(job.getId());
+                try {
+                    handler.processChunk(job, request, from, to);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ChunkFailedException(e);
+                }
+                return saveCheckpoint(job, to);
+            });
+        } catch (ChunkFailedException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * Extend this node's lease on a job, joining the current transaction if there is one
+     */
+    private void renewLease(Long jobId) {
+        Integer renewed = transactionTemplate.execute(status -> batchJobRepository.renewLease(jobId, owner, leaseSeconds));
+        if (renewed == null || renewed == 0) {
+            throw new LeaseLostException(jobId);
+        }
+    }
+
+    private BatchJob saveCheckpoint(BatchJob job, int processedItems) {
+        job.setProcessedItems(processedItems);
+        job.setUpdatedAt(LocalDateTime.now());
+        return batchJobRepository.save(job);
+    }
+
+    /**
+     * Record the final state from a fresh copy, so changes of a rolled back chunk are not saved
+     */
+    private void finish(Long jobId, BatchJobStatus status, String error) {
+        batchJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setUpdatedAt(job.getFinishedAt());
+            publish(batchJobRepository.save(job));
+        });
+    }
+
+    private void publish(BatchJob job) {
+        try {
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + job.getId(), toResponse(job));
+        } catch (Exception e) {
+            log.debug("Could not publish progress of batch job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private BatchJobHandler handlerFor(BatchJobType type) {
+        BatchJobHandler handler = handlers.get(type);
+        if (handler == null) {
+            throw new IllegalArgumentException("No handler for job type " + type);
+        }
+        return handler;
+    }
+
+    private BatchJob findJob(Long id) throws Exception {
+        return batchJobRepository.findById(id)
+                .orElseThrow(() -> new Exception("Batch job not found with id = " + id));
+    }
+
+    private BatchJobResponse toResponse(BatchJob job) {
+        Integer percent = null;
+        if (job.getStatus() == BatchJobStatus.COMPLETED) {
+            percent = 100;
+        } else if (job.getTotalItems() != null) {
+            percent = job.getTotalItems() == 0 ? 0 : (int) (job.getProcessedItems() * 100L / job.getTotalItems());
+        }
+
+        BatchJobResponse.BatchJobResponseBuilder response = BatchJobResponse.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .totalItems(job.getTotalItems())
+                .processedItems(job.getProcessedItems())
+                .percentComplete(percent)
+                .error(job.getError())
+                .cancelRequested(job.getCancelRequested())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt());
+        if (job.getResult() != null) {
+            try {
+                response.result(objectMapper.readTree(job.getResult()));
+            } catch (JsonProcessingException e) {
+                response.result(objectMapper.getNodeFactory().textNode(job.getResult()));
+            }
+        }
+        return response.build();
+    }
+
+    /**
+     * The lease on a job expired and another node claimed it
+     */
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException(Long jobId) {
+            super("Lost the lease on batch job " + jobId);
+        }
+    }
+
+    /**
+     * Carries a checked exception of a chunk out of the transaction callback
+     */
+    private static final class ChunkFailedException extends RuntimeException {
+        ChunkFailedException(Exception cause) {
+            super(cause);
+        }
+    }
+}
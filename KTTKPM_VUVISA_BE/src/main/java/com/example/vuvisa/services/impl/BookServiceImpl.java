@@ -5,10 +5,13 @@ import com.example.vuvisa.dtos.responses.AuthorResponseDTO;
 import com.example.vuvisa.dtos.responses.BookResponseDTO;
 import com.example.vuvisa.dtos.responses.DiscountResponse;
 import com.example.vuvisa.entities.*;
+import com.example.vuvisa.events.ProductChangedEvent;
 import com.example.vuvisa.repositories.*;
 import com.example.vuvisa.services.BookService;
 import com.example.vuvisa.services.CloudinaryService;
+import com.example.vuvisa.services.ProductDetailCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
@@ -31,6 +34,8 @@ public class BookServiceImpl implements BookService {
     private final PublisherRepository publisherRepository;
 
     private final CloudinaryService cloudinaryService;
+    private final ProductDetailCache productDetailCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public List<Book> getAllBooks() {
@@ -61,9 +66,11 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public BookResponseDTO getBookDTOById(Long id) {
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-        return convertToResponseDTO(book);
+        return productDetailCache.get(ProductDetailCache.BOOK, id, BookResponseDTO.class, () -> {
+            Book book = bookRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Book not found"));
+            return convertToResponseDTO(book);
+        });
     }
 
     @Override
@@ -107,7 +114,9 @@ public class BookServiceImpl implements BookService {
     @Override
     public Book createBook(BookRequestDTO bookDTO) {
         Book book = convertToEntity(bookDTO);
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(savedBook.getId())));
+        return savedBook;
     }
 
     @Override
@@ -237,7 +246,9 @@ public class BookServiceImpl implements BookService {
             existingBook.getImageProducts().addAll(newImages);
         }
 
-        return bookRepository.save(existingBook);
+        Book savedBook = bookRepository.save(existingBook);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(id)));
+        return savedBook;
     }
 
 
@@ -262,6 +273,7 @@ public class BookServiceImpl implements BookService {
 
         // Xóa book
         bookRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(id)));
     }
 
     public void processMedia(String mediaUrl) {
@@ -5,6 +5,7 @@ import com.example.vuvisa.dtos.requests.UpdateDiscountRequest;
 import com.example.vuvisa.dtos.responses.DiscountResponse;
 import com.example.vuvisa.entities.Discount;
 import com.example.vuvisa.entities.Product;
+import com.example.vuvisa.events.ProductChangedEvent;
 import com.example.vuvisa.exceptions.AppException;
 import com.example.vuvisa.exceptions.ErrorCode;
 import com.example.vuvisa.repositories.DiscountRepository;
@@ -14,6 +15,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +25,7 @@ import org.springframework.stereotype.Service;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -32,6 +35,7 @@ public class DiscountImpl implements DiscountService {
 
     DiscountRepository discountRepository;
     ProductRepository productRepository;
+    ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public DiscountResponse createDiscount(CreateDiscountRequest createDiscountRequest) throws Exception {
@@ -56,6 +60,7 @@ public class DiscountImpl implements DiscountService {
             Set<Product> products = new HashSet<>(productRepository.findAllById(createDiscountRequest.getProductIds()));
             savedDiscount.setProducts(products);
             savedDiscount = discountRepository.save(savedDiscount);
+            applicationEventPublisher.publishEvent(new ProductChangedEvent(productIds(products), false));
         }
 
         return DiscountResponse.fromDiscount(savedDiscount);
@@ -108,7 +113,9 @@ public class DiscountImpl implements DiscountService {
         Discount discount = discountRepository.findById(discountId)
                 .orElseThrow(() -> new AppException(ErrorCode.DISCOUNT_NOT_FOUND));
 
+        Set<Long> productIds = productIds(discount.getProducts());
         discountRepository.delete(discount);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(productIds, false));
     }
 
     @Override
@@ -118,6 +125,9 @@ public class DiscountImpl implements DiscountService {
         Discount existingDiscount = discountRepository.findById(discountId)
                 .orElseThrow(() -> new AppException(ErrorCode.DISCOUNT_NOT_FOUND));
 
+        // Products losing the discount change as well as the ones keeping or gaining it
+        Set<Long> changedProductIds = productIds(existingDiscount.getProducts());
+
         // Update discount details
         existingDiscount.setDiscountName(updateDiscountRequest.getDiscountName());
         existingDiscount.setDiscountPercentage(updateDiscountRequest.getDiscountPercentage());
@@ -133,6 +143,15 @@ public class DiscountImpl implements DiscountService {
         }
 
         Discount updatedDiscount = discountRepository.save(existingDiscount);
+        changedProductIds.addAll(productIds(updatedDiscount.getProducts()));
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(changedProductIds, false));
         return DiscountResponse.fromDiscount(updatedDiscount);
     }
+
+    private static Set<Long> productIds(Set<Product> products) {
+        if (products == null) {
+            return new HashSet<>();
+        }
+        return products.stream().map(Product::getId).collect(Collectors.toCollection(HashSet::new));
+    }
 }
@@ -0,0 +1,311 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.components.ClusterLock;
+import com.example.vuvisa.events.FavoriteChangedEvent;
+import com.example.vuvisa.services.FavoriteCountService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind favorite counts.
+ * <p>
+ * Committed changes only add to a per-product {@link LongAdder}, which spreads concurrent updates of a
+ * popular product over several cells instead of contending on one row lock. A scheduled flush drains the
+ * adders and applies the sums as additive updates in one transaction, so nodes never overwrite each
+ * other's counts. Reads return the column plus what this node has not flushed yet. Changes still in
+ * memory when a node crashes are lost; the reconciliation recomputes every count from the favorites.
+ * <p>
+ * A change is in the favorites table before it is flushed, so a count recomputed while another node holds
+ * the change would be counted again by that node's flush. Every flush therefore stamps the products it
+ * writes, and the reconciliation measures the drift, waits until every node has flushed what it held, and
+ * corrects only products no flush touched since. A product skipped that way is measured again, a few times
+ * at most. Only one node reconciles at a time, under a MySQL named lock.
+ * <p>
+ * The first fill after the column was introduced does not wait: it writes what it measured to products no
+ * flush touched, so a change another node held at that moment may be counted twice until the next
+ * reconciliation.
+ */
+@Service
+@Slf4j
+public class FavoriteCountServiceImpl implements FavoriteCountService, DisposableBean {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int RECONCILE_CHUNK_SIZE = 5000;
+    private static final int RECONCILE_ROUNDS = 3;
+    private static final String RECONCILE_LOCK = "vuvisa:favorite-count-reconcile";
+
+    private static final String FLUSH_SQL = "UPDATE product SET favorite_count = GREATEST(favorite_count + ?, 0), "
+            + "favorite_count_flushed_at = NOW(3) WHERE id = ?";
+    private static final String COUNTS_SQL = "SELECT id, favorite_count FROM product WHERE id IN (:ids)";
+    private static final String ID_RANGE_SQL = "SELECT COALESCE(MIN(id), 0) AS min_id, COALESCE(MAX(id), -1) AS max_id FROM product";
+    private static final String NOW_SQL = "SELECT NOW(3)";
+    // One statement, so the count and the column are read from the same snapshot
+    private static final String DRIFT_SQL = "SELECT p.id, p.favorite_count, COALESCE(t.c, 0) AS actual FROM product p LEFT JOIN ("
+            + "SELECT f.product_id, COUNT(*) AS c FROM favorites f "
+            + "WHERE f.product_id BETWEEN :from AND :to GROUP BY f.product_id) t ON t.product_id = p.id "
+            + "WHERE p.id BETWEEN :from AND :to AND p.favorite_count <> COALESCE(t.c, 0)";
+    private static final String DRIFT_BY_IDS_SQL = "SELECT p.id, p.favorite_count, COALESCE(t.c, 0) AS actual FROM product p LEFT JOIN ("
+            + "SELECT f.product_id, COUNT(*) AS c FROM favorites f "
+            + "WHERE f.product_id IN (:ids) GROUP BY f.product_id) t ON t.product_id = p.id "
+            + "WHERE p.id IN (:ids) AND p.favorite_count <> COALESCE(t.c, 0)";
+    private static final String CORRECT_SQL = "UPDATE product SET favorite_count = :actual "
+            + "WHERE id = :id AND favorite_count = :seen "
+            + "AND (favorite_count_flushed_at IS NULL OR favorite_count_flushed_at <= :settledBefore)";
+    private static final RowMapper<Drift> DRIFT_MAPPER = (rs, rowNum) ->
+            new Drift(rs.getLong("id"), rs.getLong("favorite_count"), rs.getLong("actual"));
+    private static final String NEEDS_BACKFILL_SQL = "SELECT EXISTS(SELECT 1 FROM favorites) "
+            + "AND NOT EXISTS(SELECT 1 FROM product WHERE favorite_count <> 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterLock clusterLock;
+    private final long settleMillis;
+
+    // Entries stay once created: removing one could race with a concurrent add and lose it
+    private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    public FavoriteCountServiceImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            PlatformTransactionManager transactionManager, ClusterLock clusterLock,
+            @Value("${favorite.count.reconcile.settle-ms:60000}") long settleMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clusterLock = clusterLock;
+        this.settleMillis = settleMillis;
+    }
+
+    @Override
+    public void add(Long productId, long delta) {
+        if (productId != null && delta != 0) {
+            pending.computeIfAbsent(productId, id -> new Pending()).add(delta);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleFavoriteChanged(FavoriteChangedEvent event) {
+        add(event.getProductId(), event.getDelta());
+    }
+
+    @Override
+    public Long getCount(Long productId) {
+        return getCounts(List.of(productId)).get(productId);
+    }
+
+    @Override
+    public Map<Long, Long> getCounts(Collection<Long> productIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return counts;
+        }
+        namedParameterJdbcTemplate.query(COUNTS_SQL, new MapSqlParameterSource("ids", productIds), rs -> {
+            long productId = rs.getLong("id");
+            // Briefly misses what a running flush has drained but not committed yet
+            counts.put(productId, Math.max(0, rs.getLong("favorite_count") + unflushed(productId)));
+        });
+        return counts;
+    }
+
+    @Override
+    public synchronized int flush() {
+        // In id order, so that flushes of different nodes lock the rows in the same order
+        TreeMap<Long, Long> deltas = new TreeMap<>();
+        pending.forEach((productId, changes) -> {
+            // Changes that cancel out are still written, as a stamp the reconciliation must see
+            if (changes.drain()) {
+                deltas.put(productId, changes.delta.sumThenReset());
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> args.add(new Object[]{delta, productId}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < args.size(); from += CHUNK_SIZE) {
+                    jdbcTemplate.batchUpdate(FLUSH_SQL, args.subList(from, Math.min(from + CHUNK_SIZE, args.size())));
+                }
+            });
+        } catch (RuntimeException e) {
+            // Nothing was written; keep the changes for the next flush
+            deltas.forEach((productId, delta) -> pending.computeIfAbsent(productId, id -> new Pending()).add(delta));
+            throw e;
+        }
+        return deltas.size();
+    }
+
+    @Override
+    public long reconcile() {
+        return runReconciliation(RECONCILE_ROUNDS);
+    }
+
+    @Override
+    public long backfill() {
+        return runReconciliation(0);
+    }
+
+    /**
+     * Reconcile under the named lock
+     *
+     * @param rounds how many times to wait for the nodes to flush and correct what was measured; 0 corrects
+     *               once without waiting
+     */
+    private long runReconciliation(int rounds) {
+        return clusterLock.tryCall(RECONCILE_LOCK, () -> reconcileLocked(rounds)).orElseGet(() -> {
+            log.info("Favorite count reconciliation is already running on another node");
+            return 0L;
+        });
+    }
+
+    private long reconcileLocked(int rounds) {
+        Map<String, Object> range = jdbcTemplate.queryForMap(ID_RANGE_SQL);
+        long minId = ((Number) range.get("min_id")).longValue();
+        long maxId = ((Number) range.get("max_id")).longValue();
+
+        // A change another node held when its product was measured is flushed, and stamped, after this
+        Timestamp measuredAt = now();
+        List<Drift> drifts = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += RECONCILE_CHUNK_SIZE) {
+            drifts.addAll(namedParameterJdbcTemplate.query(DRIFT_SQL, new MapSqlParameterSource()
+                    .addValue("from", from)
+                    .addValue("to", from + RECONCILE_CHUNK_SIZE - 1), DRIFT_MAPPER));
+        }
+
+        long corrected = 0;
+        for (int round = 1; !drifts.isEmpty(); round++) {
+            Timestamp settledBefore = measuredAt;
+            if (rounds > 0) {
+                settle();
+                settledBefore = new Timestamp(measuredAt.getTime() - settleMillis);
+            }
+            List<Long> skipped = correct(drifts, settledBefore);
+            corrected += drifts.size() - skipped.size();
+            if (skipped.isEmpty() || round >= rounds) {
+                if (!skipped.isEmpty()) {
+                    log.info("Favorite counts of {} products kept changing; left for the next reconciliation",
+                            skipped.size());
+                }
+                break;
+            }
+            measuredAt = now();
+            drifts = new ArrayList<>();
+            for (int from = 0; from < skipped.size(); from += CHUNK_SIZE) {
+                drifts.addAll(namedParameterJdbcTemplate.query(DRIFT_BY_IDS_SQL, new MapSqlParameterSource(
+                        "ids", skipped.subList(from, Math.min(from + CHUNK_SIZE, skipped.size()))), DRIFT_MAPPER));
+            }
+        }
+        if (corrected > 0) {
+            log.info("Favorite count reconciliation corrected {} products", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * Set the measured counts of products whose column is unchanged and that no flush stamped since
+     * {@code settledBefore}; one short statement per product, so row locks are held only briefly
+     *
+     * @return ids of the products skipped
+     */
+    private List<Long> correct(List<Drift> drifts, Timestamp settledBefore) {
+        List<Long> skipped = new ArrayList<>();
+        for (int from = 0; from < drifts.size(); from += CHUNK_SIZE) {
+            List<Drift> chunk = drifts.subList(from, Math.min(from + CHUNK_SIZE, drifts.size()));
+            MapSqlParameterSource[] args = chunk.stream()
+                    .map(drift -> new MapSqlParameterSource()
+                            .addValue("id", drift.productId())
+                            .addValue("seen", drift.seen())
+                            .addValue("actual", drift.actual())
+                            .addValue("settledBefore", settledBefore))
+                    .toArray(MapSqlParameterSource[]::new);
+            int[] counts = namedParameterJdbcTemplate.batchUpdate(CORRECT_SQL, args);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    skipped.add(chunk.get(i).productId());
+                }
+            }
+        }
+        return skipped;
+    }
+
+    private void settle() {
+        // Long enough for every node to have flushed what it held when the drift was measured
+        try {
+            Thread.sleep(settleMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for favorite count flushes", e);
+        }
+    }
+
+    private Timestamp now() {
+        return jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class);
+    }
+
+    @Override
+    public boolean needsBackfill() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(NEEDS_BACKFILL_SQL, Boolean.class));
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not flush favorite counts on shutdown: {}", e.getMessage(), e);
+        }
+    }
+
+    private long unflushed(long productId) {
+        Pending changes = pending.get(productId);
+        return changes == null ? 0 : changes.delta.sum();
+    }
+
+    /**
+     * Count of a product as stored and as measured from the favorites in the same snapshot
+     */
+    private record Drift(long productId, long seen, long actual) {
+    }
+
+    /**
+     * Unflushed changes of one product: their sum, and whether there were any, even if they cancel out
+     */
+    private static final class Pending {
+
+        private final LongAdder delta = new LongAdder();
+        private final LongAdder changes = new LongAdder();
+
+        void add(long value) {
+            delta.add(value);
+            changes.increment();
+        }
+
+        /**
+         * @return true if there were changes since the last call
+         */
+        boolean drain() {
+            return changes.sumThenReset() != 0;
+        }
+    }
+}
@@ -5,12 +5,15 @@ import com.example.vuvisa.dtos.responses.FavoriteResponse;
 import com.example.vuvisa.entities.Favorite;
 import com.example.vuvisa.entities.Product;
 import com.example.vuvisa.entities.User;
+import com.example.vuvisa.events.FavoriteChangedEvent;
 import com.example.vuvisa.repositories.FavoriteRepository;
 import com.example.vuvisa.repositories.ProductRepository;
 import com.example.vuvisa.repositories.UserRepository;
+import com.example.vuvisa.services.FavoriteCountService;
 import com.example.vuvisa.services.FavoriteService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +27,8 @@ public class FavoriteServiceImpl implements FavoriteService {
     private final FavoriteRepository favoriteRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final FavoriteCountService favoriteCountService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     @Transactional
@@ -49,6 +54,7 @@ public class FavoriteServiceImpl implements FavoriteService {
                 .build();
         
         Favorite savedFavorite = favoriteRepository.save(favorite);
+        applicationEventPublisher.publishEvent(new FavoriteChangedEvent(product.getId(), 1));
         return mapToFavoriteResponse(savedFavorite);
     }
 
@@ -63,6 +69,7 @@ public class FavoriteServiceImpl implements FavoriteService {
         
         if (favoriteRepository.existsByUserAndProduct(user, product)) {
             favoriteRepository.deleteByUserAndProduct(user, product);
+            applicationEventPublisher.publishEvent(new FavoriteChangedEvent(product.getId(), -1));
             return true;
         }
         
@@ -104,12 +111,11 @@ public class FavoriteServiceImpl implements FavoriteService {
 
     @Override
     public Long countProductFavorites(Long productId) {
-        // Check if product exists
-        if (!productRepository.existsById(productId)) {
+        Long count = favoriteCountService.getCount(productId);
+        if (count == null) {
             throw new EntityNotFoundException("Product not found with id: " + productId);
         }
-        
-        return favoriteRepository.countUsersByProductId(productId);
+        return count;
     }
     
     private FavoriteResponse mapToFavoriteResponse(Favorite favorite) {
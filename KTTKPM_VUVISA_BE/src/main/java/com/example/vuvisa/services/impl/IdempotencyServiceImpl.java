@@ -0,0 +1,234 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.entities.IdempotencyRecord;
+import com.example.vuvisa.enums.IdempotencyStatus;
+import com.example.vuvisa.exceptions.IdempotencyConflictException;
+import com.example.vuvisa.repositories.IdempotencyRecordRepository;
+import com.example.vuvisa.services.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency keys backed by a bounded Caffeine cache in front of the idempotency_records table.
+ * <p>
+ * Repeats are answered from the cache, then from the table. Concurrent repeats on one node share
+ * a single in-flight execution. Across nodes the key is claimed with {@code INSERT IGNORE} before
+ * the action runs, and the response is written in the action's own transaction.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper hashMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration retention;
+    private final Duration lease;
+    private final long waitTimeoutSeconds;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${idempotency.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${idempotency.retention-hours:24}") long retentionHours,
+            @Value("${idempotency.lease-seconds:120}") long leaseSeconds,
+            @Value("${idempotency.wait-timeout-seconds:30}") long waitTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        // Same request, same bytes: property and map key order must not depend on the client
+        this.hashMapper = objectMapper.copy();
+        this.hashMapper.setConfig(hashMapper.getSerializationConfig()
+                .with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = Duration.ofHours(retentionHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.waitTimeoutSeconds = waitTimeoutSeconds;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    @Override
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Callable<T> action) throws Exception {
+        if (key == null || key.isBlank()) {
+            return action.call();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(scope, request);
+        String cacheKey = scope + '\n' + key;
+
+        StoredResponse cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(key, cached, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, execution);
+        if (running != null) {
+            // A duplicate arrived while the first request is still running on this node
+            return replay(key, await(key, running), requestHash, responseType);
+        }
+
+        try {
+            Outcome<T> outcome = executeOnce(scope, key, requestHash, responseType, action);
+            completed.put(cacheKey, outcome.stored());
+            execution.complete(outcome.stored());
+            return outcome.result();
+        } catch (Exception e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, execution);
+        }
+    }
+
+    private <T> Outcome<T> executeOnce(String scope, String key, String requestHash, Class<T> responseType,
+            Callable<T> action) throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Boolean claimed = newTransactionTemplate.execute(status ->
+                idempotencyRecordRepository.claim(scope, key, requestHash, now, now.plus(retention)) == 1);
+        IdempotencyRecord record = newTransactionTemplate.execute(status ->
+                        idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key))
+                .orElseThrow(() -> new IdempotencyConflictException(key, "Request with this " + HEADER + " was just released, retry"));
+
+        if (!Boolean.TRUE.equals(claimed)) {
+            StoredResponse existing = new StoredResponse(record.getRequestHash(), record.getResponseBody());
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                return new Outcome<>(replay(key, existing, requestHash, responseType), existing);
+            }
+            checkSameRequest(key, existing, requestHash);
+            Integer takenOver = newTransactionTemplate.execute(status ->
+                    idempotencyRecordRepository.takeOverStale(record.getId(), now, now.minus(lease)));
+            if (takenOver == null || takenOver == 0) {
+                throw new IdempotencyConflictException(key, "Request with this " + HEADER + " is still being processed");
+            }
+            log.warn("Took over stale idempotency claim {} for scope {}", record.getId(), scope);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                T result;
+                try {
+                    result = action.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ActionFailedException(e);
+                }
+                String body = write(result);
+                idempotencyRecordRepository.complete(record.getId(), body, LocalDateTime.now());
+                return new Outcome<>(result, new StoredResponse(requestHash, body));
+            });
+        } catch (RuntimeException e) {
+            // Nothing was committed, so the key may be used again
+            newTransactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.release(record.getId()));
+            throw e instanceof ActionFailedException failed ? (Exception) failed.getCause() : e;
+        }
+    }
+
+    private StoredResponse await(String key, CompletableFuture<StoredResponse> running) throws Exception {
+        try {
+            return running.get(waitTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(key, "Request with this " + HEADER + " is still being processed");
+        }
+    }
+
+    private <T> T replay(String key, StoredResponse stored, String requestHash, Class<T> responseType) throws JsonProcessingException {
+        checkSameRequest(key, stored, requestHash);
+        return stored.body() != null ? objectMapper.readValue(stored.body(), responseType) : null;
+    }
+
+    private void checkSameRequest(String key, StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException(key, HEADER + " was already used for a different request");
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store idempotent response: " + e.getMessage(), e);
+        }
+    }
+
+    private String hash(String scope, Object request) throws JsonProcessingException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(hashMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        Integer deleted;
+        do {
+            deleted = newTransactionTemplate.execute(status ->
+                    idempotencyRecordRepository.deleteExpired(now, PURGE_CHUNK_SIZE));
+            total += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted == PURGE_CHUNK_SIZE);
+        return total;
+    }
+
+    private record StoredResponse(String requestHash, String body) {
+    }
+
+    private record Outcome<T>(T result, StoredResponse stored) {
+    }
+
+    /**
+     * Carries a checked exception of the action out of the transaction callback
+     */
+    private static final class ActionFailedException extends RuntimeException {
+        ActionFailedException(Exception cause) {
+            super(cause);
+        }
+    }
+}
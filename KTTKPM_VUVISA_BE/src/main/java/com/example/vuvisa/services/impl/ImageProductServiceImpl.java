@@ -1,18 +1,22 @@
 package com.example.vuvisa.services.impl;
 
 import com.example.vuvisa.entities.ImageProduct;
+import com.example.vuvisa.events.ProductChangedEvent;
 import com.example.vuvisa.repositories.ImageProductRepository;
 import com.example.vuvisa.services.ImageProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ImageProductServiceImpl implements ImageProductService {
 
     private final ImageProductRepository imageProductRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public List<ImageProduct> getAllImageProducts() {
@@ -27,7 +31,9 @@ public class ImageProductServiceImpl implements ImageProductService {
 
     @Override
     public ImageProduct createImageProduct(ImageProduct imageProduct) {
-        return imageProductRepository.save(imageProduct);
+        ImageProduct savedImageProduct = imageProductRepository.save(imageProduct);
+        publishProductChanged(savedImageProduct);
+        return savedImageProduct;
     }
 
     @Override
@@ -35,11 +41,23 @@ public class ImageProductServiceImpl implements ImageProductService {
         ImageProduct existingImageProduct = getImageProductById(id);
         existingImageProduct.setUrl(imageProduct.getUrl());
         existingImageProduct.setDescription(imageProduct.getDescription());
-        return imageProductRepository.save(existingImageProduct);
+        ImageProduct savedImageProduct = imageProductRepository.save(existingImageProduct);
+        publishProductChanged(savedImageProduct);
+        return savedImageProduct;
     }
 
     @Override
     public void deleteImageProduct(Long id) {
-        imageProductRepository.deleteById(id);
+        imageProductRepository.findById(id).ifPresent(imageProduct -> {
+            imageProductRepository.delete(imageProduct);
+            publishProductChanged(imageProduct);
+        });
+    }
+
+    // Images are part of the cached book and office supplies details
+    private void publishProductChanged(ImageProduct imageProduct) {
+        if (imageProduct.getProduct() != null && imageProduct.getProduct().getId() != null) {
+            applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(imageProduct.getProduct().getId()), false));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.services.ProductCacheStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-process stand-in for the Redis second level, for tests and local runs without Redis
+ * ({@code product.cache.store=local}). Expired entries are dropped when they are read.
+ */
+@Service
+@ConditionalOnProperty(name = "product.cache.store", havingValue = "local")
+public class InMemoryProductCacheStore implements ProductCacheStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final List<Consumer<Collection<Long>>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Collection<Long>>> catalogListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public boolean putIfVersion(String key, String value, Duration ttl, String versionKey, long version) {
+        // Compare and put under the version's map entry, which incrementVersions also updates
+        boolean[] stored = new boolean[1];
+        versions.compute(versionKey, (k, current) -> {
+            if ((current == null ? 0 : current) == version) {
+                put(key, value, ttl);
+                stored[0] = true;
+            }
+            return current;
+        });
+        return stored[0];
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        keys.forEach(entries::remove);
+    }
+
+    @Override
+    public long getVersion(String versionKey) {
+        return versions.getOrDefault(versionKey, 0L);
+    }
+
+    @Override
+    public void incrementVersions(Collection<String> versionKeys) {
+        versionKeys.forEach(versionKey -> versions.merge(versionKey, 1L, Long::sum));
+    }
+
+    @Override
+    public String tryLock(String key, Duration lease) {
+        String token = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        Entry lock = entries.compute(key, (k, current) ->
+                current == null || current.expiresAt() <= now ? new Entry(token, now + lease.toMillis()) : current);
+        return token.equals(lock.value()) ? token : null;
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        entries.computeIfPresent(key, (k, current) -> token.equals(current.value()) ? null : current);
+    }
+
+    @Override
+    public void publishInvalidation(Collection<Long> productIds) {
+        listeners.forEach(listener -> listener.accept(productIds));
+    }
+
+    @Override
+    public void subscribe(Consumer<Collection<Long>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void publishCatalogChange(Collection<Long> productIds) {
+        catalogListeners.forEach(listener -> listener.accept(productIds));
+    }
+
+    @Override
+    public void subscribeCatalogChanges(Consumer<Collection<Long>> listener) {
+        catalogListeners.add(listener);
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.entities.InvoiceDelivery;
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.enums.InvoiceDeliveryStatus;
+import com.example.vuvisa.repositories.InvoiceDeliveryRepository;
+import com.example.vuvisa.repositories.OrderRepository;
+import com.example.vuvisa.services.InvoiceDeliveryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Invoice delivery pipeline.
+ * <p>
+ * createOrder only writes a PENDING {@link InvoiceDelivery} row. After the order commits,
+ * the row is handed to a bounded worker pool which renders the PDF in a short read-only
+ * transaction, talks to SMTP without holding a connection, and records the outcome.
+ * Failures are retried with exponential backoff by {@link #dispatchDueDeliveries()}.
+ */
+@Service
+@Slf4j
+public class InvoiceDeliveryServiceImpl implements InvoiceDeliveryService {
+
+    private final InvoiceDeliveryRepository invoiceDeliveryRepository;
+    private final OrderRepository orderRepository;
+    private final MailServiceImpl mailService;
+    private final TaskExecutor invoiceDeliveryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Value("${invoice.delivery.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${invoice.delivery.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${invoice.delivery.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${invoice.delivery.batch-size:50}")
+    private int batchSize;
+
+    @Value("${invoice.delivery.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+
+    public InvoiceDeliveryServiceImpl(
+            InvoiceDeliveryRepository invoiceDeliveryRepository,
+            OrderRepository orderRepository,
+            MailServiceImpl mailService,
+            @Qualifier("invoiceDeliveryExecutor") TaskExecutor invoiceDeliveryExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.invoiceDeliveryRepository = invoiceDeliveryRepository;
+        this.orderRepository = orderRepository;
+        this.mailService = mailService;
+        this.invoiceDeliveryExecutor = invoiceDeliveryExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public InvoiceDelivery schedule(Order order) {
+        InvoiceDelivery delivery = InvoiceDelivery.builder()
+                .orderId(order.getId())
+                .recipientEmail(order.getEmail())
+                .status(InvoiceDeliveryStatus.PENDING)
+                .build();
+        return invoiceDeliveryRepository.save(delivery);
+    }
+
+    @Override
+    public void dispatch(Long orderId) {
+        invoiceDeliveryRepository.findByOrderId(orderId)
+                .ifPresent(delivery -> submit(delivery.getId()));
+    }
+
+    @Override
+    public int dispatchDueDeliveries() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer released = transactionTemplate.execute(status ->
+                invoiceDeliveryRepository.releaseStale(now.minusMinutes(staleAfterMinutes), now));
+        if (released != null && released > 0) {
+            log.warn("Re-queued {} invoice deliveries abandoned mid-send", released);
+        }
+
+        List<Long> dueIds = invoiceDeliveryRepository.findDueIds(
+                InvoiceDeliveryStatus.PENDING, now, PageRequest.of(0, batchSize));
+        int dispatched = 0;
+        for (Long deliveryId : dueIds) {
+            if (!submit(deliveryId)) {
+                // The pool is saturated; the remaining rows stay PENDING for the next poll
+                break;
+            }
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    @Override
+    public Optional<InvoiceDelivery> getDelivery(Long orderId) {
+        return invoiceDeliveryRepository.findByOrderId(orderId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            invoiceDeliveryRepository.deleteByOrderIdIn(orderIds);
+        }
+    }
+
+    private boolean submit(Long deliveryId) {
+        try {
+            invoiceDeliveryExecutor.execute(() -> deliver(deliveryId));
+            return true;
+        } catch (TaskRejectedException e) {
+            log.warn("Invoice delivery queue is full, delivery #{} will be picked up by the retry poller", deliveryId);
+            return false;
+        }
+    }
+
+    private void deliver(Long deliveryId) {
+        Integer claimed = transactionTemplate.execute(status ->
+                invoiceDeliveryRepository.claim(deliveryId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            // Already sent, or another worker is on it
+            return;
+        }
+
+        InvoiceDelivery delivery = invoiceDeliveryRepository.findById(deliveryId).orElseThrow();
+        try {
+            RenderedInvoice invoice = readOnlyTransactionTemplate.execute(status -> orderRepository
+                    .findById(delivery.getOrderId())
+                    .map(this::render)
+                    .orElse(null));
+
+            if (invoice == null) {
+                markFailed(deliveryId, "Order " + delivery.getOrderId() + " no longer exists", true);
+                return;
+            }
+
+            // No transaction is open here, so a slow SMTP server does not hold a DB connection
+            mailService.sendInvoicePdf(delivery.getRecipientEmail(), invoice.fullName(), invoice.pdf());
+            markSent(deliveryId);
+            log.info("Invoice for order #{} sent to {}", delivery.getOrderId(), delivery.getRecipientEmail());
+        } catch (Exception e) {
+            log.error("Invoice delivery for order #{} failed: {}", delivery.getOrderId(), e.getMessage());
+            markFailed(deliveryId, e.getMessage(), false);
+        }
+    }
+
+    private RenderedInvoice render(Order order) {
+        try {
+            return new RenderedInvoice(order.getFullName(), mailService.renderInvoicePdf(order));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not render invoice: " + e.getMessage(), e);
+        }
+    }
+
+    private void markSent(Long deliveryId) {
+        transactionTemplate.executeWithoutResult(status -> invoiceDeliveryRepository.findById(deliveryId)
+                .ifPresent(delivery -> {
+                    delivery.setStatus(InvoiceDeliveryStatus.SENT);
+                    delivery.setAttempts(delivery.getAttempts() + 1);
+                    delivery.setSentAt(LocalDateTime.now());
+                    delivery.setLastError(null);
+                }));
+    }
+
+    private void markFailed(Long deliveryId, String error, boolean permanent) {
+        transactionTemplate.executeWithoutResult(status -> invoiceDeliveryRepository.findById(deliveryId)
+                .ifPresent(delivery -> {
+                    int attempts = delivery.getAttempts() + 1;
+                    delivery.setAttempts(attempts);
+                    delivery.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+                    if (permanent || attempts >= maxAttempts) {
+                        delivery.setStatus(InvoiceDeliveryStatus.FAILED);
+                        return;
+                    }
+                    // Exponential backoff: initial, 2x, 4x, ... capped at maxBackoffSeconds
+                    long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 20));
+                    delivery.setStatus(InvoiceDeliveryStatus.PENDING);
+                    delivery.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+                }));
+    }
+
+    private record RenderedInvoice(String fullName, byte[] pdf) {
+    }
+}
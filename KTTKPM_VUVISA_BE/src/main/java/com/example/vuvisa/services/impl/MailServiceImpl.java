@@ -2,7 +2,7 @@ package com.example.vuvisa.services.impl;
 
 import com.example.vuvisa.dtos.responses.OrderResponse;
 import com.example.vuvisa.entities.Order;
-import com.example.vuvisa.entities.Voucher;
+import com.example.vuvisa.utils.OrderTotals;
 import com.example.vuvisa.utils.PdfGeneratorUtils;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -26,32 +26,45 @@ public class MailServiceImpl {
 
 
     public void sendInvoiceEmail(Order order, String recipientEmail) throws Exception {
+        sendInvoicePdf(recipientEmail, order.getFullName(), renderInvoicePdf(order));
+    }
+
+    /**
+     * Render the invoice PDF for an order. Needs the order details and vouchers,
+     * so call it while the order is still attached to a session.
+     * @param order the order
+     * @return the invoice as PDF bytes
+     * @throws Exception if rendering fails
+     */
+    public byte[] renderInvoicePdf(Order order) throws Exception {
 
         Context context = new Context();
         context.setVariable("order", order);
 
-        double discountAmount = 0.0;
-        if (order.getVouchers() != null && !order.getVouchers().isEmpty()) {
-            discountAmount = order.getVouchers().stream()
-                    .mapToDouble(Voucher::getDiscountAmount)
-                    .sum();
+        // Totals stored with the order; orders not yet backfilled are computed on the fly
+        if (order.getGrandTotal() == null) {
+            OrderTotals.apply(order);
         }
-        context.setVariable("discountAmount", discountAmount);
-
-        double totalPrice = order.getOrderDetails().stream()
-                .mapToDouble(orderDetail -> orderDetail.getProduct().getPrice() * orderDetail.getQuantity())
-                .sum();
-
-        context.setVariable("totalPrice", totalPrice);
+        context.setVariable("discountAmount", order.getDiscountTotal().doubleValue());
+        context.setVariable("totalPrice", order.getSubtotal().doubleValue());
 
 
         String htmlContent = templateEngine.process("invoice", context);
-        byte[] pdfBytes = PdfGeneratorUtils.generatePdfFromHtml(htmlContent);
+        return PdfGeneratorUtils.generatePdfFromHtml(htmlContent);
+    }
 
+    /**
+     * Send an already rendered invoice PDF over SMTP
+     * @param recipientEmail the recipient
+     * @param fullName the customer name shown in the subject
+     * @param pdfBytes the invoice PDF
+     * @throws Exception if sending fails
+     */
+    public void sendInvoicePdf(String recipientEmail, String fullName, byte[] pdfBytes) throws Exception {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true);
         helper.setTo(recipientEmail);
-        helper.setSubject("Hóa đơn mua hàng vuvisa của: " + order.getFullName());
+        helper.setSubject("Hóa đơn mua hàng vuvisa của: " + fullName);
         helper.setText("Vui lòng xem hóa đơn đính kèm.");
         helper.addAttachment("invoice.pdf", new ByteArrayResource(pdfBytes));
 
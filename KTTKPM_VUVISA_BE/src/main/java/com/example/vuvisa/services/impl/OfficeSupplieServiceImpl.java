@@ -7,13 +7,16 @@ import com.example.vuvisa.entities.Category;
 import com.example.vuvisa.entities.ImageProduct;
 import com.example.vuvisa.entities.OfficeSupplies;
 import com.example.vuvisa.entities.Supplier;
+import com.example.vuvisa.events.ProductChangedEvent;
 import com.example.vuvisa.repositories.CategoryRepository;
 import com.example.vuvisa.repositories.ImageProductRepository;
 import com.example.vuvisa.repositories.OfficeSupplieRepository;
 import com.example.vuvisa.repositories.SupplierRepository;
 import com.example.vuvisa.services.CloudinaryService;
 import com.example.vuvisa.services.OfficeSupplieService;
+import com.example.vuvisa.services.ProductDetailCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -33,6 +36,8 @@ public class OfficeSupplieServiceImpl implements OfficeSupplieService {
     private final CategoryRepository categoryRepository;
     private final SupplierRepository supplierRepository;
     private final CloudinaryService cloudinaryService;
+    private final ProductDetailCache productDetailCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public List<OfficeSupplies> getAllOfficeSupplies() {
@@ -64,9 +69,11 @@ public class OfficeSupplieServiceImpl implements OfficeSupplieService {
 
     @Override
     public OfficeSuppliesResponseDTO getOfficeSuppliesDTOById(Long id) {
-        OfficeSupplies officeSupplies = officeSupplieRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("OfficeSupplies not found"));
-        return convertToResponseDTO(officeSupplies);
+        return productDetailCache.get(ProductDetailCache.OFFICE_SUPPLIES, id, OfficeSuppliesResponseDTO.class, () -> {
+            OfficeSupplies officeSupplies = officeSupplieRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("OfficeSupplies not found"));
+            return convertToResponseDTO(officeSupplies);
+        });
     }
 
     @Override
@@ -98,7 +105,9 @@ public class OfficeSupplieServiceImpl implements OfficeSupplieService {
     @Override
     public OfficeSupplies createOfficeSupplies(OfficeSupplyRequestDTO officeSupplyDTO) {
         OfficeSupplies officeSupplies = convertToEntity(officeSupplyDTO);
-        return officeSupplieRepository.save(officeSupplies);
+        OfficeSupplies savedOfficeSupplies = officeSupplieRepository.save(officeSupplies);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(savedOfficeSupplies.getId())));
+        return savedOfficeSupplies;
     }
 
     @Override
@@ -195,7 +204,9 @@ public class OfficeSupplieServiceImpl implements OfficeSupplieService {
             existingOfficeSupplies.getImageProducts().addAll(newImages);
         }
 
-        return officeSupplieRepository.save(existingOfficeSupplies);
+        OfficeSupplies savedOfficeSupplies = officeSupplieRepository.save(existingOfficeSupplies);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(id)));
+        return savedOfficeSupplies;
     }
 
 
@@ -220,6 +231,7 @@ public class OfficeSupplieServiceImpl implements OfficeSupplieService {
 
         // Xóa book
         officeSupplieRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(id)));
     }
 
     public void processMedia(String mediaUrl) {
@@ -0,0 +1,165 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.OrderResponse;
+import com.example.vuvisa.entities.ArchivedOrder;
+import com.example.vuvisa.repositories.ArchivedOrderRepository;
+import com.example.vuvisa.repositories.specs.OrderSortKeys;
+import com.example.vuvisa.repositories.specs.OrderSpecification;
+import com.example.vuvisa.services.OrderArchiveService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Active/archive split for orders.
+ * <p>
+ * The job copies whole orders (order row, details, voucher links) into the *_archive tables with
+ * {@code INSERT ... SELECT} and deletes them from the active tables in the same transaction, one
+ * chunk at a time, oldest first. Reads on the archive reuse the admin filter specification and map
+ * archived rows back through {@link ArchivedOrder#toOrder()}.
+ */
+@Service
+@Slf4j
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    private static final int ARCHIVE_CHUNK_SIZE = 500;
+
+    // Keep in step with the columns of Order / ArchivedOrder
+    private static final String ORDER_COLUMNS = "id, full_name, email, phone_number, city, district, ward, address, "
+            + "order_date, status, payment_method, shipping_date, shipping_method, note, discount_code, user_id, "
+            + "subtotal, discount_total, grand_total, status_changed_at";
+    private static final String DETAIL_COLUMNS = "id, order_id, product_id, quantity, price";
+
+    private static final String SELECT_CHUNK_SQL =
+            "SELECT id FROM orders WHERE order_date < :cutoff ORDER BY order_date, id LIMIT :limit FOR UPDATE";
+    private static final String COPY_ORDERS_SQL = "INSERT INTO orders_archive (" + ORDER_COLUMNS + ") "
+            + "SELECT " + ORDER_COLUMNS + " FROM orders WHERE id IN (:ids)";
+    private static final String COPY_DETAILS_SQL = "INSERT INTO order_details_archive (" + DETAIL_COLUMNS + ") "
+            + "SELECT " + DETAIL_COLUMNS + " FROM order_details WHERE order_id IN (:ids)";
+    private static final String COPY_VOUCHERS_SQL = "INSERT INTO order_vouchers_archive (order_id, voucher_id) "
+            + "SELECT order_id, voucher_id FROM order_vouchers WHERE order_id IN (:ids)";
+    private static final String DELETE_VOUCHERS_SQL = "DELETE FROM order_vouchers WHERE order_id IN (:ids)";
+    private static final String DELETE_DETAILS_SQL = "DELETE FROM order_details WHERE order_id IN (:ids)";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM orders WHERE id IN (:ids)";
+    // Archived orders leave the admin grid read model
+    private static final String DELETE_SUMMARIES_SQL = "DELETE FROM order_summary WHERE order_id IN (:ids)";
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderArchiveServiceImpl(ArchivedOrderRepository archivedOrderRepository,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate, EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int archiveOrdersBefore(Date cutoff) {
+        long start = System.currentTimeMillis();
+        int archived = 0;
+        Integer moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveChunk(cutoff));
+            archived += moved != null ? moved : 0;
+        } while (moved != null && moved > 0 && !Thread.currentThread().isInterrupted());
+
+        log.info("Archived {} orders older than {} in {} ms", archived, cutoff, System.currentTimeMillis() - start);
+        return archived;
+    }
+
+    private int moveChunk(Date cutoff) {
+        // Row locks keep concurrent updates from changing an order while it is copied
+        List<Long> ids = namedParameterJdbcTemplate.queryForList(SELECT_CHUNK_SQL,
+                new MapSqlParameterSource().addValue("cutoff", cutoff).addValue("limit", ARCHIVE_CHUNK_SIZE),
+                Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Object> params = Map.of("ids", ids);
+        namedParameterJdbcTemplate.update(COPY_ORDERS_SQL, params);
+        namedParameterJdbcTemplate.update(COPY_DETAILS_SQL, params);
+        namedParameterJdbcTemplate.update(COPY_VOUCHERS_SQL, params);
+        namedParameterJdbcTemplate.update(DELETE_VOUCHERS_SQL, params);
+        namedParameterJdbcTemplate.update(DELETE_DETAILS_SQL, params);
+        namedParameterJdbcTemplate.update(DELETE_SUMMARIES_SQL, params);
+        return namedParameterJdbcTemplate.update(DELETE_ORDERS_SQL, params);
+    }
+
+    @Override
+    public boolean mayHoldOrdersSince(Date from) {
+        // Read on every call, so archiving on another node shows at once; MAX is one lookup on the order_date index
+        Date latest = archivedOrderRepository.findLatestOrderDate();
+        return latest != null && (from == null || !latest.before(from));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderResponse> findOrder(Long id) {
+        return load(List.of(id)).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countByUserId(Long userId) {
+        return archivedOrderRepository.count(OrderSpecification.byUser(userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSortKeys.SortKey> findKeysByUserId(Long userId, Sort sort, int limit) {
+        return OrderSortKeys.find(entityManager, ArchivedOrder.class, OrderSpecification.byUser(userId), sort, 0, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count(OrderFilterRequest filter) {
+        return archivedOrderRepository.count(OrderSpecification.filter(filter));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSortKeys.SortKey> findKeys(OrderFilterRequest filter, Sort sort, int limit) {
+        return OrderSortKeys.find(entityManager, ArchivedOrder.class, OrderSpecification.filter(filter), sort, 0, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderResponse> findOrders(List<Long> ids) {
+        return load(ids);
+    }
+
+    private List<OrderResponse> load(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ArchivedOrder> ordersById = new HashMap<>();
+        archivedOrderRepository.findWithDetailsByIdIn(ids).forEach(order -> ordersById.put(order.getId(), order));
+        archivedOrderRepository.findWithVouchersByIdIn(ids);
+
+        return ids.stream()
+                .map(ordersById::get)
+                .filter(Objects::nonNull)
+                .map(order -> OrderResponse.fromOrder(order.toOrder()))
+                .toList();
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.vuvisa.services.impl;
 
+import com.example.vuvisa.components.InvoicePdfRenderer;
 import com.example.vuvisa.dtos.requests.CartItemDTO;
 import com.example.vuvisa.dtos.requests.OrderDTO;
-import com.example.vuvisa.dtos.requests.OrderDetailDTO;
 import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.requests.SampleOrderGenerationRequest;
+import com.example.vuvisa.dtos.responses.BulkOrderStatusResponse;
+import com.example.vuvisa.dtos.responses.CursorPageResponse;
 import com.example.vuvisa.dtos.responses.OrderResponse;
-import com.example.vuvisa.dtos.responses.VoucherResponse;
 import com.example.vuvisa.entities.Order;
 import com.example.vuvisa.entities.OrderDetail;
 import com.example.vuvisa.entities.Product;
@@ -13,72 +15,114 @@ import com.example.vuvisa.entities.User;
 import com.example.vuvisa.entities.Voucher;
 import com.example.vuvisa.enums.OrderStatus;
 import com.example.vuvisa.enums.PaymentMethod;
-import com.example.vuvisa.enums.ShippingMethod;
+import com.example.vuvisa.events.EventPublisher;
 import com.example.vuvisa.repositories.OrderDetailRepository;
 import com.example.vuvisa.repositories.OrderRepository;
 import com.example.vuvisa.repositories.ProductRepository;
 import com.example.vuvisa.repositories.UserRepository;
 import com.example.vuvisa.repositories.VoucherRepository;
+import com.example.vuvisa.repositories.specs.OrderSortKeys;
 import com.example.vuvisa.repositories.specs.OrderSpecification;
+import com.example.vuvisa.services.InvoiceDeliveryService;
+import com.example.vuvisa.services.OrderArchiveService;
 import com.example.vuvisa.services.OrderService;
-import com.example.vuvisa.utils.PdfGeneratorUtils;
+import com.example.vuvisa.services.OrderStatusHistoryService;
+import com.example.vuvisa.services.OrderSummaryService;
+import com.example.vuvisa.services.SalesRollupService;
+import com.example.vuvisa.services.SampleDataService;
+import com.example.vuvisa.services.StockReservationService;
+import com.example.vuvisa.services.UserOrderStatsService;
+import com.example.vuvisa.services.VoucherRedemptionService;
+import com.example.vuvisa.utils.OrderCursor;
+import com.example.vuvisa.utils.OrderTotals;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
-    private final ModelMapper modelMapper;
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int READ_CHUNK_SIZE = 1000;
+    private static final int BULK_CHUNK_SIZE = 1000;
+    // Orders read per transaction by a PDF export; their invoice HTML is held until rendered
+    private static final int EXPORT_CHUNK_SIZE = 200;
+
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final OrderDetailRepository orderDetailRepository;
     private final OrderRepository orderRepository;
     private final VoucherRepository voucherRepository;
-    private final MailServiceImpl mailService;
+    private final InvoiceDeliveryService invoiceDeliveryService;
+    private final EventPublisher eventPublisher;
     private final SpringTemplateEngine templateEngine;
+    private final StockReservationService stockReservationService;
+    private final VoucherRedemptionService voucherRedemptionService;
+    private final SampleDataService sampleDataService;
+    private final SalesRollupService salesRollupService;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderStatusHistoryService orderStatusHistoryService;
+    private final UserOrderStatsService userOrderStatsService;
+    private final OrderSummaryService orderSummaryService;
+    private final InvoicePdfRenderer invoicePdfRenderer;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public OrderResponse createOrder(OrderDTO orderDTO) throws Exception {
 
         User user = userRepository
                 .findById(orderDTO.getUserId())
                 .orElseThrow(() -> new Exception("User not found with id = " + orderDTO.getUserId()));
-        // Check product quantities before creating the order
-        Map<Long, Product> productsToUpdate = new HashMap<>();
-        double totalOrderValue = 0.0;
-        for (CartItemDTO cartItemDTO : orderDTO.getCartItems()) {
-            Long productId = cartItemDTO.getProductId();
-            Long requestedQuantity = cartItemDTO.getQuantity();
-
-            Product product = productRepository
-                    .findById(productId)
-                    .orElseThrow(() -> new Exception("Product not found with id = " + productId));
-
-            // Check if there's enough stock
-            if (product.getStockQuantity() < requestedQuantity) {
-                throw new Exception("Not enough stock for product: " + product.getProductName() + 
-                                   ". Available: " + product.getStockQuantity() + 
-                                   ", Requested: " + requestedQuantity);
-            }
 
-            productsToUpdate.put(productId, product);
-            totalOrderValue += product.getPrice() * requestedQuantity;
+        // Reserve every line in one batched conditional decrement; a shortage rolls the whole order back
+        Map<Long, Long> requestedQuantities = aggregateQuantities(orderDTO.getCartItems());
+        stockReservationService.reserve(requestedQuantities);
+
+        Map<Long, Product> productsById = findProductsById(requestedQuantities.keySet());
+        double totalOrderValue = 0.0;
+        for (Map.Entry<Long, Long> line : requestedQuantities.entrySet()) {
+            totalOrderValue += productsById.get(line.getKey()).getPrice() * line.getValue();
         }
 
         Order order = Order.builder()
@@ -103,8 +147,10 @@ public class OrderServiceImpl implements OrderService {
         } else {
             order.setStatus(OrderStatus.PENDING);
         }
+        order.setStatusChangedAt(order.getOrderDate());
 
         orderRepository.save(order);
+        orderStatusHistoryService.recordTransition(order.getId(), null, order.getStatus(), null, order.getOrderDate());
 
         // Handle vouchers if provided
         if (orderDTO.getVoucherIds() != null && !orderDTO.getVoucherIds().isEmpty()) {
@@ -112,30 +158,23 @@ public class OrderServiceImpl implements OrderService {
 
             // Validate each voucher
             for (Voucher voucher : vouchers) {
-                validateVoucher(voucher, totalOrderValue);
-                voucher.setMaxUses(voucher.getMaxUses() - 1);
-                voucherRepository.save(voucher);
+                validateVoucher(voucher, totalOrderValue, true);
             }
+            // Take one use of each voucher atomically; a used-up voucher rolls the whole order back
+            voucherRedemptionService.redeem(vouchers, user.getId(), order.getId());
 
             order.setVouchers(vouchers);
             orderRepository.save(order);
         }
 
         List<OrderDetail> orderDetails = new ArrayList<>();
-        for (CartItemDTO cartItemDTO : orderDTO.getCartItems()) {
-            Long productId = cartItemDTO.getProductId();
-            Long quantity = cartItemDTO.getQuantity();
-
-            Product product = productsToUpdate.get(productId);
-
-            // Update product stock quantity
-            product.setStockQuantity(product.getStockQuantity() - quantity);
-            productRepository.save(product);
+        for (Map.Entry<Long, Long> line : requestedQuantities.entrySet()) {
+            Product product = productsById.get(line.getKey());
 
             OrderDetail orderDetail = new OrderDetail();
             orderDetail.setOrder(order);
             orderDetail.setProduct(product);
-            orderDetail.setQuantity(quantity);
+            orderDetail.setQuantity(line.getValue());
 
             orderDetail.setPrice(product.getPrice());
             orderDetails.add(orderDetail);
@@ -143,233 +182,492 @@ public class OrderServiceImpl implements OrderService {
 
         order.setOrderDetails(orderDetails);
         orderDetailRepository.saveAll(orderDetails);
-        // Send email with invoice
-
+        // Totals are stored once here so listings and invoices never recompute them
+        OrderTotals.apply(order);
+        orderRepository.save(order);
+        salesRollupService.addOrders(List.of(order.getId()));
+        userOrderStatsService.addOrders(List.of(order.getId()));
+        orderSummaryService.refresh(List.of(order.getId()));
 
-        mailService.sendInvoiceEmail(order, order.getEmail());
+        // The invoice email is sent by the delivery workers after this transaction commits
+        invoiceDeliveryService.schedule(order);
+        eventPublisher.publishNewOrderEvent(order);
 
-        return modelMapper.map(order, OrderResponse.class);
+        return OrderResponse.fromOrder(order);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        // Configure mapping for vouchers
-        modelMapper.typeMap(Order.class, OrderResponse.class)
-                .addMappings(mapper -> mapper.map(src -> src.getVouchers().stream()
-                        .map(VoucherResponse::fromVoucher)
-                        .collect(Collectors.toSet()), OrderResponse::setVouchers));
-
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream().map((order) -> modelMapper.map(order, OrderResponse.class)).toList();
+        return loadOrderResponses(orderRepository.findAllIds());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) throws Exception {
-        Order order = orderRepository
-                .findById(id)
-                .orElseThrow(() -> new Exception("Order not found with id = " + id));
-        modelMapper.typeMap(OrderDetail.class, OrderDetailDTO.class)
-                .addMapping(src -> src.getProduct().getImageUrl(), OrderDetailDTO::setImageUrl)
-                .addMapping(src -> src.getProduct().getStockQuantity(), OrderDetailDTO::setStockQuantity);
-
-        return modelMapper.map(order, OrderResponse.class);
+        List<OrderResponse> orders = loadOrderResponses(List.of(id));
+        if (orders.isEmpty()) {
+            // Old orders live in the archive tables
+            return orderArchiveService.findOrder(id)
+                    .orElseThrow(() -> new Exception("Order not found with id = " + id));
+        }
+        return orders.get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getOrdersByUserId(Long userId, int page, int size) throws Exception {
 
-        User user = userRepository
-                .findById(userId)
-                .orElseThrow(() -> new Exception("User not found with id = " + userId));
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("orderDate").descending());
-        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
+        if (!userRepository.existsById(userId)) {
+            throw new Exception("User not found with id = " + userId);
+        }
 
-        orders.getContent().stream().peek(order -> modelMapper.typeMap(OrderDetail.class, OrderDetailDTO.class)
-                .addMapping(src -> src.getProduct().getImageUrl(), OrderDetailDTO::setImageUrl)
-                .addMapping(src -> src.getProduct().getStockQuantity(), OrderDetailDTO::setStockQuantity)).toList();
-        return orders.map(order -> modelMapper.map(order, OrderResponse.class));
+        Pageable pageable = PageRequest.of(page, size, OrderSpecification.sortOf(null));
+        // Order history reaches into the archive once the user has archived orders
+        long archivedTotal = orderArchiveService.countByUserId(userId);
+        if (archivedTotal == 0) {
+            Page<Long> orderIds = orderRepository.findIdsByUserId(userId, pageable);
+            return new PageImpl<>(loadOrderResponses(orderIds.getContent()), pageable, orderIds.getTotalElements());
+        }
+        Specification<Order> spec = OrderSpecification.byUser(userId);
+        return mergeArchive(pageable, orderRepository.count(spec), archivedTotal,
+                limit -> OrderSortKeys.find(entityManager, Order.class, spec, pageable.getSort(), 0, limit),
+                limit -> orderArchiveService.findKeysByUserId(userId, pageable.getSort(), limit));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getOrders(int page, int size) {
-        // Configure mapping for vouchers
-        modelMapper.typeMap(Order.class, OrderResponse.class)
-                .addMappings(mapper -> mapper.map(src -> src.getVouchers().stream()
-                        .map(VoucherResponse::fromVoucher)
-                        .collect(Collectors.toSet()), OrderResponse::setVouchers));
-
         Pageable pageable = PageRequest.of(page, size, Sort.by("orderDate").ascending());
-        Page<Order> orders = orderRepository.findAll(pageable);
-        return orders.map(order -> modelMapper.map(order, OrderResponse.class));
+        Page<Long> orderIds = orderRepository.findAllIds(pageable);
+        return new PageImpl<>(loadOrderResponses(orderIds.getContent()), pageable, orderIds.getTotalElements());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderResponse> filterOrders(OrderFilterRequest filter, int page, int size) {
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("orderDate").descending());
-        Page<Order> orderPage = orderRepository.findAll(OrderSpecification.filter(filter), pageable);
-        return orderPage.map(order -> modelMapper.map(order, OrderResponse.class));
+        Pageable pageable = PageRequest.of(page, size, OrderSpecification.sortOf(filter));
+        Specification<Order> spec = OrderSpecification.filter(filter);
+
+        // Only searches that reach back past the retention window touch the archive
+        boolean includeArchive = Boolean.TRUE.equals(filter.getIncludeArchived())
+                || filter.getId() != null
+                || (filter.getStartDate() != null && orderArchiveService.mayHoldOrdersSince(filter.getStartDate()));
+        long archivedTotal = includeArchive ? orderArchiveService.count(filter) : 0;
+        if (archivedTotal > 0) {
+            return mergeArchive(pageable, orderRepository.count(spec), archivedTotal,
+                    limit -> OrderSortKeys.find(entityManager, Order.class, spec, pageable.getSort(), 0, limit),
+                    limit -> orderArchiveService.findKeys(filter, pageable.getSort(), limit));
+        }
+
+        // Ids only; loadOrderResponses reads the orders themselves
+        List<Long> ids = OrderSortKeys.ids(OrderSortKeys.find(entityManager, Order.class, spec,
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize()));
+        Page<Long> orderIds = PageableExecutionUtils.getPage(ids, pageable, () -> orderRepository.count(spec));
+        return new PageImpl<>(loadOrderResponses(orderIds.getContent()), pageable, orderIds.getTotalElements());
     }
 
+    /**
+     * Page over active and archived orders as one list in the page's sort. The sort keys of both sides are
+     * read from the start up to the end of the page and merged, so any sort (grand total, ascending dates,
+     * sample orders dated in the past) holds across the two tables. Deep pages read more keys, but keys only.
+     */
+    private Page<OrderResponse> mergeArchive(Pageable pageable, long activeTotal, long archivedTotal,
+            IntFunction<List<OrderSortKeys.SortKey>> activeKeys, IntFunction<List<OrderSortKeys.SortKey>> archivedKeys) {
+        int limit = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        List<OrderSortKeys.SortKey> active = activeKeys.apply(limit);
+        List<OrderSortKeys.SortKey> page = OrderSortKeys.mergedSlice(active, archivedKeys.apply(limit),
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+
+        Set<Long> activeIds = new HashSet<>(OrderSortKeys.ids(active));
+        List<Long> pageIds = OrderSortKeys.ids(page);
+        Map<Long, OrderResponse> ordersById = new HashMap<>();
+        loadOrderResponses(pageIds.stream().filter(activeIds::contains).toList())
+                .forEach(order -> ordersById.put(order.getId(), order));
+        orderArchiveService.findOrders(pageIds.stream().filter(id -> !activeIds.contains(id)).toList())
+                .forEach(order -> ordersById.put(order.getId(), order));
+
+        List<OrderResponse> content = pageIds.stream()
+                .map(ordersById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, activeTotal + archivedTotal);
+    }
 
-    @Override
-    @Transactional
-    public int generateSampleOrders(int count) throws Exception {
-        // Lấy user có ID nhỏ nhất để gán cho order
-        User user = userRepository.findAll().stream().findFirst()
-                .orElseThrow(() -> new Exception("No user found for sample order creation"));
-
-        List<Product> products = productRepository.findAll();
-        if (products.isEmpty()) throw new Exception("No products available to create order items.");
-
-        Random random = new Random();
-
-        for (int i = 0; i < count; i++) {
-            Order order = Order.builder()
-                    .user(user)
-                    .orderDate(new Date())
-                    .status(OrderStatus.PENDING)
-                    .city("Sample City " + i)
-                    .district("Sample District " + i)
-                    .ward("Sample Ward " + i)
-                    .address("123 Sample Address " + i)
-                    .fullName("Customer " + i)
-                    .email("customer" + i + "@example.com")
-                    .phoneNumber("090012345" + (i % 10))
-                    .shippingMethod(ShippingMethod.STANDARD)
-                    .shippingDate(new Date())
-                    .paymentMethod(PaymentMethod.CASH_ON_DELIVERY)
-                    .discountCode(null)
-                    .note("Sample order " + i)
-                    .build();
+    /**
+     * Load orders with their details, products and vouchers in a fixed number of statements
+     * (two per chunk of ids) and map them in the order of the given ids.
+     * Must run inside a transaction so both fetch queries populate the same entity instances.
+     */
+    private List<OrderResponse> loadOrderResponses(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
 
-            orderRepository.save(order);
+        Map<Long, Order> ordersById = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += READ_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + READ_CHUNK_SIZE, orderIds.size()));
+            orderRepository.findWithDetailsByIdIn(chunk).forEach(order -> ordersById.put(order.getId(), order));
+            // Initialises the vouchers of the orders loaded above; kept separate to avoid a details x vouchers product
+            orderRepository.findWithVouchersByIdIn(chunk);
+        }
 
-            List<OrderDetail> orderDetails = new ArrayList<>();
-            int items = 1 + random.nextInt(3); // mỗi đơn hàng 1-3 sản phẩm
-            for (int j = 0; j < items; j++) {
-                Product product = products.get(random.nextInt(products.size()));
-                OrderDetail orderDetail = new OrderDetail();
-                orderDetail.setOrder(order);
-                orderDetail.setProduct(product);
-                orderDetail.setQuantity(1 + random.nextLong(5));
-                orderDetail.setPrice(product.getPrice());
-                orderDetails.add(orderDetail);
-            }
-            order.setOrderDetails(orderDetails);
+        return orderIds.stream()
+                .map(ordersById::get)
+                .filter(Objects::nonNull)
+                .map(OrderResponse::fromOrder)
+                .toList();
+    }
 
-            orderDetailRepository.saveAll(orderDetails);
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> scrollOrders(OrderFilterRequest filter, String cursor, int size,
+            boolean approximateTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+
+        Specification<Order> spec = Specification.where(filter != null ? OrderSpecification.filter(filter) : null);
+        if (cursor != null && !cursor.isBlank()) {
+            OrderCursor after = OrderCursor.decode(cursor);
+            spec = spec.and(OrderSpecification.before(after.orderDate(), after.id()));
         }
-        return count;
+
+        // Fetch one extra key to know whether there is a next page, without a COUNT query
+        List<OrderSortKeys.SortKey> keys = OrderSortKeys.find(entityManager, Order.class, spec,
+                Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id")), 0, pageSize + 1);
+
+        boolean hasMore = keys.size() > pageSize;
+        List<OrderSortKeys.SortKey> page = hasMore ? keys.subList(0, pageSize) : keys;
+
+        return CursorPageResponse.<OrderResponse>builder()
+                .content(loadOrderResponses(OrderSortKeys.ids(page)))
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? cursorAfter(page.get(page.size() - 1)).encode() : null)
+                .approximateTotal(approximateTotal && filter == null ? estimateOrderCount() : null)
+                .build();
+    }
+
+    private static OrderCursor cursorAfter(OrderSortKeys.SortKey key) {
+        return new OrderCursor((Date) key.values().get(0), key.id());
+    }
+
+    private Long estimateOrderCount() {
+        // InnoDB statistics estimate: constant time, unlike COUNT(*) on a large table
+        List<Long> rows = jdbcTemplate.queryForList(
+                "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders'",
+                Long.class);
+        return rows.isEmpty() ? null : rows.get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<OrderResponse> findStuckOrders(OrderStatus status, Duration olderThan, int limit) {
+        Date before = new Date(System.currentTimeMillis() - olderThan.toMillis());
+        int size = Math.max(1, Math.min(limit, MAX_SCROLL_SIZE));
+        return loadOrderResponses(orderRepository.findIdsStuckInStatus(status, before, PageRequest.of(0, size)));
+    }
+
+    @Override
+    public int generateSampleOrders(int count) throws Exception {
+        // Đơn hàng mẫu có ngày đặt là hôm nay, mỗi đơn 1-3 sản phẩm
+        return sampleDataService.generateOrders(SampleOrderGenerationRequest.builder()
+                .count(count)
+                .months(0)
+                .threads(1)
+                .chunkSize(Math.max(1, count))
+                .zipfExponent(0)
+                .maxItemsPerOrder(3)
+                .build());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
     public List<byte[]> generateOrderPdfs(List<Long> orderIds) throws Exception {
-        List<Order> orders = orderRepository.findAllById(orderIds);
+        List<Order> orders = findOrdersInRequestOrder(orderIds);
 
-        if (orders.isEmpty()) {
-            throw new Exception("No orders found with the provided IDs");
+        // Render HTML in this thread: the templates walk lazy associations of the orders
+        List<String> htmlContents = new ArrayList<>();
+        for (Order order : orders) {
+            htmlContents.add(buildInvoiceHtml(order));
         }
 
-        List<String> htmlContents = new ArrayList<>();
+        // HTML -> PDF is the expensive part and runs on the bounded render pool
+        List<byte[]> pdfs = invoicePdfRenderer.renderAll(htmlContents);
 
-        for (Order order : orders) {
-            Context context = new Context();
-            context.setVariable("order", order);
-            // Calculate or retrieve discountAmount - set to 0 if not applicable
-            double discountAmount = 0.0;
-            if (order.getVouchers() != null && !order.getVouchers().isEmpty()) {
-                discountAmount = order.getVouchers().stream()
-                        .mapToDouble(Voucher::getDiscountAmount)
-                        .sum();
-            }
-            context.setVariable("discountAmount", discountAmount);
+        markLoadedOrdersPacking(orders);
+        return pdfs;
+    }
 
+    /**
+     * No transaction spans the export: each chunk of orders is read in its own short read-only transaction,
+     * which ends (and detaches the chunk) once its invoice HTML is built
+     */
+    @Override
+    public Path renderOrderPdfs(List<Long> orderIds) throws Exception {
+        Iterator<String> htmlContents = new InvoiceHtmlIterator(new ArrayList<>(new LinkedHashSet<>(orderIds)));
+        if (!htmlContents.hasNext()) {
+            throw new Exception("No orders found with the provided IDs");
+        }
 
-            double totalPrice = order.getOrderDetails().stream()
-                    .mapToDouble(orderDetail -> orderDetail.getPrice() * orderDetail.getQuantity())
-                    .sum();
+        Path mergedPdf = Files.createTempFile("invoices_", ".pdf");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(mergedPdf))) {
+            invoicePdfRenderer.renderMerged(htmlContents, out);
+        } catch (Exception e) {
+            Files.deleteIfExists(mergedPdf);
+            throw e;
+        }
+        return mergedPdf;
+    }
 
-            context.setVariable("totalPrice", totalPrice);
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int markOrdersPacking(List<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        // Orders deleted since their invoices were rendered are skipped
+        return changeStatuses(ids, readStatuses(ids), OrderStatus.PACKING);
+    }
 
-            String htmlContent = templateEngine.process("invoice", context);
-            htmlContents.add(htmlContent);
+    /**
+     * Invoice HTML of orders in the given order, loaded a chunk at a time as the renderer asks for more.
+     * Orders that no longer exist are skipped.
+     */
+    private final class InvoiceHtmlIterator implements Iterator<String> {
+
+        private final List<Long> orderIds;
+        private final TransactionTemplate readOnly;
+        private final Deque<String> loaded = new ArrayDeque<>();
+        private int next;
+
+        InvoiceHtmlIterator(List<Long> orderIds) {
+            this.orderIds = orderIds;
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+        }
 
-            // cập nhật trang thái order sau khi tạo pdf
-            order.setStatus(OrderStatus.PACKING);
-            orderRepository.save(order);
+        @Override
+        public boolean hasNext() {
+            while (loaded.isEmpty() && next < orderIds.size()) {
+                List<Long> chunk = orderIds.subList(next, Math.min(next + EXPORT_CHUNK_SIZE, orderIds.size()));
+                next += chunk.size();
+                loaded.addAll(readOnly.execute(status -> loadInvoiceHtml(chunk)));
+            }
+            return !loaded.isEmpty();
         }
 
-        return PdfGeneratorUtils.generatePdfsFromHtmlList(htmlContents);
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return loaded.removeFirst();
+        }
     }
 
-    @Override
-    @Transactional
-    public List<OrderResponse> updateOrdersStatus(List<Long> orderIds, OrderStatus status) throws Exception {
-        // Find all orders by their IDs
-        List<Order> orders = orderRepository.findAllById(orderIds);
-
-        // Check if all orders were found
-        if (orders.size() != orderIds.size()) {
-            // Find which order IDs were not found
-            List<Long> foundOrderIds = orders.stream()
-                    .map(Order::getId)
-                    .toList();
+    private List<String> loadInvoiceHtml(List<Long> orderIds) {
+        Map<Long, Order> ordersById = new HashMap<>();
+        orderRepository.findWithDetailsByIdIn(orderIds).forEach(order -> ordersById.put(order.getId(), order));
+        orderRepository.findWithVouchersByIdIn(orderIds);
+        return orderIds.stream()
+                .map(ordersById::get)
+                .filter(Objects::nonNull)
+                .map(this::buildInvoiceHtml)
+                .toList();
+    }
 
-            List<Long> notFoundOrderIds = orderIds.stream()
-                    .filter(id -> !foundOrderIds.contains(id))
-                    .toList();
+    private List<Order> findOrdersInRequestOrder(List<Long> orderIds) throws Exception {
+        List<Order> orders = new ArrayList<>(orderRepository.findAllById(orderIds));
 
-            throw new Exception("The following orders were not found: " + notFoundOrderIds);
+        if (orders.isEmpty()) {
+            throw new Exception("No orders found with the provided IDs");
         }
 
-        // Update the status of each order
-        for (Order order : orders) {
-            order.setStatus(status);
+        // Giữ thứ tự hoá đơn theo danh sách ID được gửi lên
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            position.putIfAbsent(orderIds.get(i), i);
         }
+        orders.sort(Comparator.comparing((Order order) -> position.get(order.getId())));
+        return orders;
+    }
 
-        // Save all updated orders
-        orderRepository.saveAll(orders);
+    private String buildInvoiceHtml(Order order) {
+        Context context = new Context();
+        context.setVariable("order", order);
+        // Totals stored with the order; orders not yet backfilled are computed on the fly
+        if (order.getGrandTotal() == null) {
+            OrderTotals.apply(order);
+        }
+        context.setVariable("discountAmount", order.getDiscountTotal().doubleValue());
+        context.setVariable("totalPrice", order.getSubtotal().doubleValue());
 
-        return orders.stream()
-                .map(order -> modelMapper.map(order, OrderResponse.class))
-                .collect(Collectors.toList());
+        return templateEngine.process("invoice", context);
+    }
+
+    private void markLoadedOrdersPacking(List<Order> orders) {
+        // cập nhật trạng thái order sau khi tạo pdf, một câu lệnh cho cả lô
+        Map<Order, OrderStatus> changed = new LinkedHashMap<>();
+        for (Order order : orders) {
+            if (order.getStatus() != OrderStatus.PACKING) {
+                changed.put(order, order.getStatus());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = changed.keySet().stream().map(Order::getId).toList();
+        Date changedAt = new Date();
+        orderStatusHistoryService.recordTransitions(ids, OrderStatus.PACKING, changedAt);
+        orderRepository.updateStatusByIdIn(ids, OrderStatus.PACKING, changedAt);
+        orderSummaryService.updateStatus(ids, OrderStatus.PACKING);
+        // Cancelled orders that are packed again count towards sales once more
+        List<Long> restored = changed.entrySet().stream()
+                .filter(entry -> entry.getValue() == OrderStatus.CANCELLED)
+                .map(entry -> entry.getKey().getId())
+                .toList();
+        salesRollupService.addOrders(restored);
+        userOrderStatsService.addSpend(restored);
+        // The persistence context was cleared by the bulk update, so these changes are not flushed again
+        changed.forEach((order, oldStatus) -> {
+            order.setStatus(OrderStatus.PACKING);
+            order.setStatusChangedAt(changedAt);
+            eventPublisher.publishOrderStatusChangeEvent(order, oldStatus);
+        });
     }
 
     @Override
-    @Transactional
-    public void deleteOrders(List<Long> orderIds) throws Exception {
+    @Transactional(rollbackFor = Exception.class)
+    public BulkOrderStatusResponse updateOrdersStatus(List<Long> orderIds, OrderStatus status) throws Exception {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        int updated = changeStatuses(ids, findCurrentStatuses(ids), status);
+
+        return BulkOrderStatusResponse.builder()
+                .status(status.name())
+                .requested(ids.size())
+                .updated(updated)
+                .unchanged(ids.size() - updated)
+                .build();
+    }
 
-        // Find all orders by their IDs
-        List<Order> orders = orderRepository.findAllById(orderIds);
+    /**
+     * Move orders to a status in chunks, with their timeline, grid row, rollups and one event per chunk
+     *
+     * @param currentStatuses the status of each order; orders missing from it are skipped
+     * @return number of orders whose status changed
+     */
+    private int changeStatuses(List<Long> ids, Map<Long, OrderStatus> currentStatuses, OrderStatus status) {
+        Date changedAt = new Date();
+
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            // Only orders whose status really changes are updated and reported
+            Map<Long, OrderStatus> changed = new LinkedHashMap<>();
+            for (Long id : ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()))) {
+                OrderStatus oldStatus = currentStatuses.get(id);
+                if (oldStatus != null && oldStatus != status) {
+                    changed.put(id, oldStatus);
+                }
+            }
+            if (changed.isEmpty()) {
+                continue;
+            }
 
-        // Check if all orders were found
-        if (orders.size() != orderIds.size()) {
-            // Find which order IDs were not found
-            List<Long> foundOrderIds = orders.stream()
-                    .map(Order::getId)
-                    .toList();
+            // The timeline reads the old status and its start time, so it is written before the update
+            orderStatusHistoryService.recordTransitions(changed.keySet(), status, changedAt);
+            updated += orderRepository.updateStatusByIdIn(changed.keySet(), status, changedAt);
+            orderSummaryService.updateStatus(changed.keySet(), status);
+            updateSalesRollups(changed, status);
+            eventPublisher.publishOrderStatusBatchChangeEvent(changed, status);
+        }
+        return updated;
+    }
 
-            List<Long> notFoundOrderIds = orderIds.stream()
-                    .filter(id -> !foundOrderIds.contains(id))
-                    .toList();
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int deleteOrders(List<Long> orderIds) throws Exception {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        Map<Long, OrderStatus> currentStatuses = findCurrentStatuses(ids);
+
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            // Take the orders out of the sales rollups while their details still exist
+            salesRollupService.removeOrders(chunk.stream()
+                    .filter(id -> currentStatuses.get(id) != OrderStatus.CANCELLED)
+                    .toList());
+            userOrderStatsService.removeOrders(chunk);
+            orderSummaryService.remove(chunk);
+            // Deleted orders give their voucher uses back, and their queued invoices are not sent
+            voucherRedemptionService.releaseOrders(chunk);
+            invoiceDeliveryService.remove(chunk);
+            orderRepository.deleteVoucherLinksByOrderIdIn(chunk);
+            orderDetailRepository.deleteByOrderIdIn(chunk);
+            deleted += orderRepository.deleteByIdIn(chunk);
+        }
+        return deleted;
+    }
 
+    /**
+     * Move orders in or out of the sales rollups and the users' spend when they enter or leave the cancelled status
+     */
+    private void updateSalesRollups(Map<Long, OrderStatus> oldStatuses, OrderStatus newStatus) {
+        List<Long> affected = oldStatuses.entrySet().stream()
+                .filter(entry -> (entry.getValue() == OrderStatus.CANCELLED) != (newStatus == OrderStatus.CANCELLED))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (newStatus == OrderStatus.CANCELLED) {
+            salesRollupService.removeOrders(affected);
+            userOrderStatsService.removeSpend(affected);
+        } else {
+            salesRollupService.addOrders(affected);
+            userOrderStatsService.addSpend(affected);
+        }
+    }
+
+    /**
+     * Read the current status of every order, failing if any id does not exist
+     */
+    private Map<Long, OrderStatus> findCurrentStatuses(List<Long> ids) throws Exception {
+        Map<Long, OrderStatus> statuses = readStatuses(ids);
+        if (statuses.size() != ids.size()) {
+            List<Long> notFoundOrderIds = ids.stream()
+                    .filter(id -> !statuses.containsKey(id))
+                    .toList();
             throw new Exception("The following orders were not found: " + notFoundOrderIds);
         }
-        // Delete all found orders
-        orderRepository.deleteAll(orders);
+        return statuses;
+    }
 
+    /**
+     * Read the current status of the orders that exist
+     */
+    private Map<Long, OrderStatus> readStatuses(List<Long> ids) {
+        Map<Long, OrderStatus> statuses = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            for (OrderRepository.OrderStatusView view
+                    : orderRepository.findStatusesByIdIn(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size())))) {
+                statuses.put(view.getId(), view.getStatus());
+            }
+        }
+        return statuses;
     }
 
     @Override
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public OrderResponse updateOrder(Long id, OrderDTO orderDTO) throws Exception {
         // Find the order by ID
         Order order = orderRepository
                 .findById(id)
                 .orElseThrow(() -> new Exception("Order not found with id = " + id));
 
+        // Take the order out of the sales rollups before anything changes; it is added back after saving
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            salesRollupService.removeOrders(List.of(order.getId()));
+        }
+        // The user, items and status may all change, so the order is taken out of its user's statistics too
+        userOrderStatsService.removeOrders(List.of(order.getId()));
+
         // Update user if userId is provided
         if (orderDTO.getUserId() != null) {
             User user = userRepository
@@ -389,24 +687,22 @@ public class OrderServiceImpl implements OrderService {
         if (orderDTO.getShippingMethod() != null) order.setShippingMethod(orderDTO.getShippingMethod());
         if (orderDTO.getShippingDate() != null) order.setShippingDate(orderDTO.getShippingDate());
         if (orderDTO.getPaymentMethod() != null) order.setPaymentMethod(orderDTO.getPaymentMethod());
+        OrderStatus oldStatus = order.getStatus();
+        Date statusSince = order.getStatusChangedAt() != null ? order.getStatusChangedAt() : order.getOrderDate();
         if (orderDTO.getStatus() != null) order.setStatus(orderDTO.getStatus());
         if (orderDTO.getDiscountCode() != null) order.setDiscountCode(orderDTO.getDiscountCode());
         if (orderDTO.getNote() != null) order.setNote(orderDTO.getNote());
 
         // Calculate total order value for voucher validation
         double totalOrderValue = 0.0;
+        boolean replaceItems = orderDTO.getCartItems() != null && !orderDTO.getCartItems().isEmpty();
+        Map<Long, Long> requestedQuantities = replaceItems ? aggregateQuantities(orderDTO.getCartItems()) : Map.of();
+        Map<Long, Product> productsById = replaceItems ? findProductsById(requestedQuantities.keySet()) : Map.of();
 
         // If new cart items are provided, calculate based on them
-        if (orderDTO.getCartItems() != null && !orderDTO.getCartItems().isEmpty()) {
-            for (CartItemDTO cartItemDTO : orderDTO.getCartItems()) {
-                Long productId = cartItemDTO.getProductId();
-                Long quantity = cartItemDTO.getQuantity();
-
-                Product product = productRepository
-                        .findById(productId)
-                        .orElseThrow(() -> new Exception("Product not found with id = " + productId));
-
-                totalOrderValue += product.getPrice() * quantity;
+        if (replaceItems) {
+            for (Map.Entry<Long, Long> line : requestedQuantities.entrySet()) {
+                totalOrderValue += productsById.get(line.getKey()).getPrice() * line.getValue();
             }
         } else {
             // Otherwise, calculate based on existing order details
@@ -419,71 +715,54 @@ public class OrderServiceImpl implements OrderService {
         if (orderDTO.getVoucherIds() != null) {
             Set<Voucher> vouchers = new HashSet<>(voucherRepository.findAllById(orderDTO.getVoucherIds()));
 
-            // Validate each voucher
+            Set<Long> currentVoucherIds = order.getVouchers().stream().map(Voucher::getId).collect(Collectors.toSet());
+
+            // Validate each voucher; vouchers already on this order have their use counted
             for (Voucher voucher : vouchers) {
-                validateVoucher(voucher, totalOrderValue);
+                validateVoucher(voucher, totalOrderValue, !currentVoucherIds.contains(voucher.getId()));
             }
 
+            // Redeem vouchers added to the order and give back the ones removed from it
+            Set<Long> newVoucherIds = vouchers.stream().map(Voucher::getId).collect(Collectors.toSet());
+            Long userId = order.getUser() != null ? order.getUser().getId() : null;
+            voucherRedemptionService.release(currentVoucherIds.stream().filter(id -> !newVoucherIds.contains(id)).toList(), order.getId());
+            voucherRedemptionService.redeem(vouchers.stream().filter(voucher -> !currentVoucherIds.contains(voucher.getId())).toList(), userId, order.getId());
+
             order.setVouchers(vouchers);
         }
 
         // Update order details if provided
-        if (orderDTO.getCartItems() != null && !orderDTO.getCartItems().isEmpty()) {
-            // Store the original order details for comparison
-            Map<Long, Long> originalProductQuantities = new HashMap<>();
+        if (replaceItems) {
+            // Work out the per-product quantity difference against the original order details
+            Map<Long, Long> quantityDifferences = new HashMap<>(requestedQuantities);
             for (OrderDetail detail : order.getOrderDetails()) {
-                originalProductQuantities.put(detail.getProduct().getId(), detail.getQuantity());
+                quantityDifferences.merge(detail.getProduct().getId(), -detail.getQuantity(), Long::sum);
             }
 
-            // Check product quantities before updating
-            Map<Long, Product> productsToUpdate = new HashMap<>();
-            for (CartItemDTO cartItemDTO : orderDTO.getCartItems()) {
-                Long productId = cartItemDTO.getProductId();
-                Long requestedQuantity = cartItemDTO.getQuantity();
-
-                Product product = productRepository
-                        .findById(productId)
-                        .orElseThrow(() -> new Exception("Product not found with id = " + productId));
-
-                // Calculate the quantity difference
-                Long originalQuantity = originalProductQuantities.getOrDefault(productId, 0L);
-                Long quantityDifference = requestedQuantity - originalQuantity;
-
-                // Check if there's enough stock if we're increasing the quantity
-                if (quantityDifference > 0 && product.getStockQuantity() < quantityDifference) {
-                    throw new Exception("Not enough stock for product: " + product.getProductName() + 
-                                       ". Available: " + product.getStockQuantity() + 
-                                       ", Additional needed: " + quantityDifference);
+            Map<Long, Long> toReserve = new HashMap<>();
+            Map<Long, Long> toRelease = new HashMap<>();
+            quantityDifferences.forEach((productId, difference) -> {
+                if (difference > 0) {
+                    toReserve.put(productId, difference);
+                } else if (difference < 0) {
+                    toRelease.put(productId, -difference);
                 }
-
-                productsToUpdate.put(productId, product);
-            }
+            });
+            stockReservationService.reserve(toReserve);
+            stockReservationService.release(toRelease);
 
             // Remove existing order details
             orderDetailRepository.deleteAll(order.getOrderDetails());
 
             // Create new order details
             List<OrderDetail> orderDetails = new ArrayList<>();
-            for (CartItemDTO cartItemDTO : orderDTO.getCartItems()) {
-                Long productId = cartItemDTO.getProductId();
-                Long quantity = cartItemDTO.getQuantity();
-
-                Product product = productsToUpdate.get(productId);
-
-                // Calculate the quantity difference
-                Long originalQuantity = originalProductQuantities.getOrDefault(productId, 0L);
-                Long quantityDifference = quantity - originalQuantity;
-
-                // Update product stock quantity
-                if (quantityDifference != 0) {
-                    product.setStockQuantity(product.getStockQuantity() - quantityDifference);
-                    productRepository.save(product);
-                }
+            for (Map.Entry<Long, Long> line : requestedQuantities.entrySet()) {
+                Product product = productsById.get(line.getKey());
 
                 OrderDetail orderDetail = new OrderDetail();
                 orderDetail.setOrder(order);
                 orderDetail.setProduct(product);
-                orderDetail.setQuantity(quantity);
+                orderDetail.setQuantity(line.getValue());
                 orderDetail.setPrice(product.getPrice());
                 orderDetails.add(orderDetail);
             }
@@ -493,13 +772,48 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // Save the updated order
+        OrderTotals.apply(order);
+        boolean statusChanged = oldStatus != order.getStatus();
+        if (statusChanged) {
+            order.setStatusChangedAt(new Date());
+        }
         orderRepository.save(order);
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            salesRollupService.addOrders(List.of(order.getId()));
+        }
+        userOrderStatsService.addOrders(List.of(order.getId()));
+        orderSummaryService.refresh(List.of(order.getId()));
+        if (statusChanged) {
+            orderStatusHistoryService.recordTransition(order.getId(), oldStatus, order.getStatus(), statusSince,
+                    order.getStatusChangedAt());
+            eventPublisher.publishOrderStatusChangeEvent(order, oldStatus);
+        }
 
         // Return the updated order
-        return modelMapper.map(order, OrderResponse.class);
+        return OrderResponse.fromOrder(order);
+    }
+
+    private Map<Long, Long> aggregateQuantities(Set<CartItemDTO> cartItems) {
+        // Sum quantities per product so duplicate cart lines become a single reservation
+        Map<Long, Long> quantities = new LinkedHashMap<>();
+        for (CartItemDTO cartItemDTO : cartItems) {
+            quantities.merge(cartItemDTO.getProductId(), cartItemDTO.getQuantity(), Long::sum);
+        }
+        return quantities;
+    }
+
+    private Map<Long, Product> findProductsById(Collection<Long> productIds) throws Exception {
+        Map<Long, Product> productsById = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        for (Long productId : productIds) {
+            if (!productsById.containsKey(productId)) {
+                throw new Exception("Product not found with id = " + productId);
+            }
+        }
+        return productsById;
     }
 
-    private void validateVoucher(Voucher voucher, double orderValue) throws Exception {
+    private void validateVoucher(Voucher voucher, double orderValue, boolean checkUsage) throws Exception {
         LocalDate currentDate = LocalDate.now();
 
         // Kiểm tra xem voucher có nằm trong khoảng thời gian hợp lệ không
@@ -511,8 +825,9 @@ public class OrderServiceImpl implements OrderService {
             throw new Exception("Voucher " + voucher.getCode() + " đã hết hạn. Có hiệu lực đến: " + voucher.getEndDate());
         }
 
-        // Kiểm tra xem voucher còn lượt sử dụng không
-        if (voucher.getMaxUses() != null && voucher.getOrders().size() >= voucher.getMaxUses()) {
+        // Kiểm tra nhanh lượt sử dụng; giới hạn thực sự được đảm bảo bởi VoucherRedemptionService
+        if (checkUsage && voucher.getMaxUses() != null && voucher.getUsedCount() != null
+                && voucher.getUsedCount() >= voucher.getMaxUses()) {
             throw new Exception("Voucher " + voucher.getCode() + " đã đạt đến giới hạn số lần sử dụng.");
         }
 
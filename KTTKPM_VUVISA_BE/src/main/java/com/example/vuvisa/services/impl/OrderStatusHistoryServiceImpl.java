@@ -0,0 +1,101 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.responses.OrderStatusHistoryResponse;
+import com.example.vuvisa.dtos.responses.StatusDwellResponse;
+import com.example.vuvisa.entities.OrderStatusHistory;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.repositories.OrderStatusHistoryRepository;
+import com.example.vuvisa.services.OrderStatusHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+public class OrderStatusHistoryServiceImpl implements OrderStatusHistoryService {
+    // Changes made outside a request (schedulers, batch jobs) have no authenticated user
+    private static final String SYSTEM_ACTOR = "system";
+
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordTransitions(Collection<Long> orderIds, OrderStatus toStatus, Date changedAt) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        return orderStatusHistoryRepository.insertTransitions(orderIds, toStatus.name(), toLocalDateTime(changedAt),
+                currentActor());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Long orderId, OrderStatus fromStatus, OrderStatus toStatus, Date since,
+            Date changedAt) {
+        orderStatusHistoryRepository.save(OrderStatusHistory.builder()
+                .orderId(orderId)
+                .fromStatus(fromStatus)
+                .toStatus(toStatus)
+                .changedAt(toLocalDateTime(changedAt))
+                .actor(currentActor())
+                .dwellSeconds(since != null
+                        ? TimeUnit.MILLISECONDS.toSeconds(changedAt.getTime() - since.getTime())
+                        : null)
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderStatusHistoryResponse> getHistory(Long orderId) {
+        return orderStatusHistoryRepository.findByOrderIdOrderByChangedAtAscIdAsc(orderId).stream()
+                .map(OrderStatusHistoryResponse::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StatusDwellResponse> getDwellStats(OrderStatus status, LocalDateTime from, LocalDateTime to) {
+        // One index range scan per status rather than one scan partitioned by status
+        List<OrderStatus> statuses = status != null ? List.of(status) : List.of(OrderStatus.values());
+        List<StatusDwellResponse> stats = new ArrayList<>(statuses.size());
+        for (OrderStatus current : statuses) {
+            OrderStatusHistoryRepository.DwellView view =
+                    orderStatusHistoryRepository.findDwellStats(current.name(), from, to);
+            stats.add(StatusDwellResponse.builder()
+                    .status(current.name())
+                    .samples(view.getSamples() != null ? view.getSamples() : 0L)
+                    .avgSeconds(view.getAvgSeconds())
+                    .p50Seconds(view.getP50Seconds())
+                    .p90Seconds(view.getP90Seconds())
+                    .p99Seconds(view.getP99Seconds())
+                    .maxSeconds(view.getMaxSeconds())
+                    .build());
+        }
+        return stats;
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM_ACTOR;
+        }
+        return authentication.getName();
+    }
+}
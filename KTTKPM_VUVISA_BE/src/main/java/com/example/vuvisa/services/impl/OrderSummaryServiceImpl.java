@@ -0,0 +1,236 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.OrderSummaryResponse;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.repositories.OrderSummaryRepository;
+import com.example.vuvisa.services.OrderSummaryService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Order summaries kept in step with set-based upserts and read with plain SQL.
+ * <p>
+ * Every write path rewrites the summaries of the orders it touched inside its own transaction, so
+ * the grid never shows an order that was rolled back. Reads only touch order_summary: equality, range
+ * and sort criteria hit the composite indexes, and the contains-searches on name, phone and product
+ * names use ngram FULLTEXT indexes instead of {@code LIKE '%...%'} over joined tables. Only active orders
+ * have summaries; the archive keeps none, so the grid does not search it.
+ */
+@Service
+@Slf4j
+public class OrderSummaryServiceImpl implements OrderSummaryService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 200;
+    // Matches the server's ngram_token_size; shorter terms cannot be looked up in the FULLTEXT index
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    private static final String REFRESH_SQL = "INSERT INTO order_summary (order_id, user_id, full_name, phone_number, "
+            + "status, shipping_method, payment_method, order_date, subtotal, discount_total, grand_total, item_count, "
+            + "product_names, updated_at) "
+            + "SELECT dt.s_id, dt.s_user, dt.s_name, dt.s_phone, dt.s_status, dt.s_shipping, dt.s_payment, dt.s_date, "
+            + "dt.s_subtotal, dt.s_discount, dt.s_total, dt.s_items, dt.s_products, NOW() FROM ("
+            + "SELECT o.id AS s_id, o.user_id AS s_user, o.full_name AS s_name, o.phone_number AS s_phone, "
+            + "o.status AS s_status, o.shipping_method AS s_shipping, o.payment_method AS s_payment, "
+            + "o.order_date AS s_date, o.subtotal AS s_subtotal, o.discount_total AS s_discount, o.grand_total AS s_total, "
+            + "COALESCE(SUM(d.quantity), 0) AS s_items, "
+            + "GROUP_CONCAT(DISTINCT p.product_name ORDER BY p.product_name SEPARATOR ' | ') AS s_products "
+            + "FROM orders o LEFT JOIN order_details d ON d.order_id = o.id LEFT JOIN product p ON p.id = d.product_id "
+            + "WHERE o.id IN (:ids) GROUP BY o.id) dt "
+            + "ON DUPLICATE KEY UPDATE user_id = dt.s_user, full_name = dt.s_name, phone_number = dt.s_phone, "
+            + "status = dt.s_status, shipping_method = dt.s_shipping, payment_method = dt.s_payment, "
+            + "order_date = dt.s_date, subtotal = dt.s_subtotal, discount_total = dt.s_discount, "
+            + "grand_total = dt.s_total, item_count = dt.s_items, product_names = dt.s_products, updated_at = NOW()";
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE order_summary SET status = :status, updated_at = NOW() WHERE order_id IN (:ids)";
+    private static final String DELETE_SQL = "DELETE FROM order_summary WHERE order_id IN (:ids)";
+    private static final String DELETE_ORPHANS_SQL = "DELETE s FROM order_summary s "
+            + "LEFT JOIN orders o ON o.id = s.order_id WHERE o.id IS NULL";
+    private static final String ORDER_CHUNK_SQL = "SELECT id FROM orders WHERE id > :after ORDER BY id LIMIT :limit";
+
+    private static final String SELECT_COLUMNS = "SELECT order_id, user_id, full_name, phone_number, status, "
+            + "shipping_method, payment_method, order_date, subtotal, discount_total, grand_total, item_count, "
+            + "product_names FROM order_summary";
+
+    private static final RowMapper<OrderSummaryResponse> ROW_MAPPER = (rs, rowNum) -> OrderSummaryResponse.builder()
+            .id(rs.getLong("order_id"))
+            .userId(rs.getObject("user_id", Long.class))
+            .fullName(rs.getString("full_name"))
+            .phoneNumber(rs.getString("phone_number"))
+            .status(rs.getString("status"))
+            .shippingMethod(rs.getString("shipping_method"))
+            .paymentMethod(rs.getString("payment_method"))
+            .orderDate(rs.getTimestamp("order_date"))
+            .subtotal(rs.getObject("subtotal", Long.class))
+            .discountTotal(rs.getObject("discount_total", Long.class))
+            .grandTotal(rs.getObject("grand_total", Long.class))
+            .itemCount(rs.getLong("item_count"))
+            .productNames(rs.getString("product_names"))
+            .build();
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManager entityManager;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderSummaryServiceImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, EntityManager entityManager,
+            OrderSummaryRepository orderSummaryRepository, PlatformTransactionManager transactionManager) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.entityManager = entityManager;
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        // The SQL reads orders and order_details, so pending JPA changes must reach the database first
+        entityManager.flush();
+        forEachChunk(orderIds, chunk -> namedParameterJdbcTemplate.update(REFRESH_SQL, Map.of("ids", chunk)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateStatus(Collection<Long> orderIds, OrderStatus status) {
+        forEachChunk(orderIds, chunk -> namedParameterJdbcTemplate.update(UPDATE_STATUS_SQL,
+                new MapSqlParameterSource().addValue("ids", chunk).addValue("status", status.name())));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Collection<Long> orderIds) {
+        forEachChunk(orderIds, chunk -> namedParameterJdbcTemplate.update(DELETE_SQL, Map.of("ids", chunk)));
+    }
+
+    private static void forEachChunk(Collection<Long> orderIds, Consumer<List<Long>> action) {
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            action.accept(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+    }
+
+    @Override
+    public Page<OrderSummaryResponse> filter(OrderFilterRequest filter, int page, int size) {
+        PageRequest pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (filter != null) {
+            if (filter.getId() != null) {
+                where.append(" AND order_id = :id");
+                params.addValue("id", filter.getId());
+            }
+            if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+                where.append(" AND status IN (:statuses)");
+                params.addValue("statuses", filter.getStatus().stream().map(Enum::name).toList());
+            }
+            if (filter.getShippingMethod() != null && !filter.getShippingMethod().isEmpty()) {
+                where.append(" AND shipping_method IN (:shippingMethods)");
+                params.addValue("shippingMethods", filter.getShippingMethod().stream().map(Enum::name).toList());
+            }
+            if (filter.getStartDate() != null) {
+                where.append(" AND order_date >= :startDate");
+                params.addValue("startDate", filter.getStartDate());
+            }
+            if (filter.getEndDate() != null) {
+                where.append(" AND order_date <= :endDate");
+                params.addValue("endDate", filter.getEndDate());
+            }
+            if (filter.getMinTotal() != null) {
+                where.append(" AND grand_total >= :minTotal");
+                params.addValue("minTotal", filter.getMinTotal());
+            }
+            if (filter.getMaxTotal() != null) {
+                where.append(" AND grand_total <= :maxTotal");
+                params.addValue("maxTotal", filter.getMaxTotal());
+            }
+            appendContains(where, params, "full_name", "fullName", filter.getFullName());
+            appendContains(where, params, "phone_number", "phoneNumber", filter.getPhoneNumber());
+            appendContains(where, params, "product_names", "productName", filter.getProductName());
+        }
+
+        // Same sort as OrderSpecification.sortOf, served by the (column, order_id) indexes
+        String direction = filter != null && "asc".equalsIgnoreCase(filter.getSortDirection()) ? "ASC" : "DESC";
+        String column = filter != null && "grand_total".equalsIgnoreCase(filter.getSortBy()) ? "grand_total" : "order_date";
+
+        Long total = namedParameterJdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_summary" + where, params, Long.class);
+        List<OrderSummaryResponse> rows = total == null || total <= pageable.getOffset() ? List.of()
+                : namedParameterJdbcTemplate.query(SELECT_COLUMNS + where
+                        + " ORDER BY " + column + " " + direction + ", order_id " + direction
+                        + " LIMIT :limit OFFSET :offset",
+                params.addValue("limit", pageable.getPageSize()).addValue("offset", pageable.getOffset()),
+                ROW_MAPPER);
+        return new PageImpl<>(rows, pageable, total != null ? total : 0);
+    }
+
+    /**
+     * Contains-search on one text column: a FULLTEXT phrase match, or a LIKE scan for terms too short
+     * for the ngram index
+     */
+    private static void appendContains(StringBuilder where, MapSqlParameterSource params, String column,
+            String param, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String term = value.trim();
+        if (term.length() >= NGRAM_TOKEN_SIZE) {
+            where.append(" AND MATCH(").append(column).append(") AGAINST (:").append(param).append(" IN BOOLEAN MODE)");
+            // A quoted phrase, so the ngrams must appear next to each other and operators in the term are inert
+            params.addValue(param, '"' + term.replace('"', ' ') + '"');
+        } else {
+            where.append(" AND LOWER(").append(column).append(") LIKE :").append(param);
+            params.addValue(param, "%" + term.toLowerCase() + "%");
+        }
+    }
+
+    @Override
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        long written = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Long> chunk = namedParameterJdbcTemplate.queryForList(ORDER_CHUNK_SQL,
+                    new MapSqlParameterSource().addValue("after", after).addValue("limit", CHUNK_SIZE), Long.class);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    namedParameterJdbcTemplate.update(REFRESH_SQL, Map.of("ids", chunk)));
+            written += chunk.size();
+            after = chunk.get(chunk.size() - 1);
+        }
+        // Summaries of orders deleted or archived without going through the services
+        int orphans = namedParameterJdbcTemplate.getJdbcTemplate().update(DELETE_ORPHANS_SQL);
+
+        log.info("Rebuilt {} order summaries ({} orphans removed) in {} ms",
+                written, orphans, System.currentTimeMillis() - start);
+        return written;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return orderSummaryRepository.count() == 0;
+    }
+}
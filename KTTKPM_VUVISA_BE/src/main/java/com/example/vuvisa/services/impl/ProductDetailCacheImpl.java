@@ -0,0 +1,345 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.responses.ProductCacheStatsResponse;
+import com.example.vuvisa.entities.Product;
+import com.example.vuvisa.events.ProductChangedEvent;
+import com.example.vuvisa.services.ProductCacheStore;
+import com.example.vuvisa.services.ProductDetailCache;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Product detail cache with a Caffeine first level and a shared {@link ProductCacheStore} second level.
+ * <p>
+ * A first-level miss is computed once per key on this node; it reads the second level and, on a miss
+ * there too, takes the store's loader lock so only one node queries MySQL while the others wait briefly
+ * for its result. Loads run in a read-only transaction and are stored as JSON, so what a node keeps is a
+ * detached copy with its lazy collections already read. Second-level TTLs are jittered so entries written
+ * together do not expire together. When the store fails it is skipped for a short while and reads go to
+ * the database.
+ * <p>
+ * Each product has a version in the store, incremented by every eviction before the entries are deleted.
+ * A load reads the version before it queries MySQL and writes its result only if the version is unchanged,
+ * so a node that read the old row cannot put it back after another node's eviction, even when the
+ * invalidation message reaches it late or not at all.
+ */
+@Service
+@Slf4j
+public class ProductDetailCacheImpl implements ProductDetailCache {
+
+    private static final String KEY_PREFIX = "vuvisa:product-detail:v1:";
+    private static final int GENERATION_STRIPES = 64;
+    private static final long LOCK_POLL_MILLIS = 25;
+
+    private final ProductCacheStore store;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Object> l1;
+    private final Duration l2Ttl;
+    private final Duration lockLease;
+    private final long lockWaitMillis;
+    private final long l2RetryMillis;
+
+    // Bumped by every eviction, so a load that read the database before it does not cache what it read
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Errors = new LongAdder();
+    private final LongAdder dbLoads = new LongAdder();
+    private final LongAdder lockWaits = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long l2RetryAt;
+
+    public ProductDetailCacheImpl(ProductCacheStore store, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${product.cache.l1.max-size:10000}") long l1MaxSize,
+            @Value("${product.cache.l1.ttl-seconds:60}") long l1TtlSeconds,
+            @Value("${product.cache.l2.ttl-minutes:30}") long l2TtlMinutes,
+            @Value("${product.cache.l2.retry-seconds:10}") long l2RetrySeconds,
+            @Value("${product.cache.lock.lease-ms:3000}") long lockLeaseMillis,
+            @Value("${product.cache.lock.wait-ms:500}") long lockWaitMillis) {
+        this.store = store;
+        // Product is abstract, so its JSON has to say whether it is a Book or OfficeSupplies
+        this.objectMapper = objectMapper.copy()
+                .addMixIn(Product.class, PolymorphicProduct.class)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Other nodes' edits only reach this level through pub/sub, so keep it short-lived
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(Duration.ofSeconds(l1TtlSeconds))
+                .recordStats()
+                .build();
+        this.l2Ttl = Duration.ofMinutes(l2TtlMinutes);
+        this.l2RetryMillis = Duration.ofSeconds(l2RetrySeconds).toMillis();
+        this.lockLease = Duration.ofMillis(lockLeaseMillis);
+        this.lockWaitMillis = lockWaitMillis;
+        store.subscribe(productIds -> evictLocal(productIds));
+    }
+
+    @Override
+    public <T> T get(String namespace, Long productId, Class<T> type, Supplier<T> loader) {
+        String key = key(namespace, productId);
+        int stripe = stripe(productId);
+        long generation = generations.get(stripe);
+        Object value = l1.get(key, k -> load(k, productId, type, loader, stripe, generation));
+        if (value != null && generations.get(stripe) != generation) {
+            // Evicted while this was loading: serve it to this caller but do not keep it
+            l1.asMap().remove(key, value);
+        }
+        return type.cast(value);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleProductChanged(ProductChangedEvent event) {
+        evict(event.getProductIds());
+    }
+
+    @Override
+    public void evict(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        evictLocal(productIds);
+        invalidations.add(productIds.size());
+
+        List<String> keys = new ArrayList<>(productIds.size() * NAMESPACES.size());
+        List<String> versionKeys = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            for (String namespace : NAMESPACES) {
+                keys.add(key(namespace, productId));
+            }
+            versionKeys.add(versionKey(productId));
+        }
+        // Tried even while the store is marked unavailable; a missed delete lives until the L2 TTL.
+        // The version goes first, or a stale load could still write between the delete and the increment
+        try {
+            store.incrementVersions(versionKeys);
+            store.delete(keys);
+            store.publishInvalidation(productIds);
+        } catch (RuntimeException e) {
+            markL2Failed(e);
+        }
+    }
+
+    @Override
+    public ProductCacheStatsResponse getStats() {
+        CacheStats stats = l1.stats();
+        long requests = stats.requestCount();
+        return ProductCacheStatsResponse.builder()
+                .l1Hits(stats.hitCount())
+                .l1Misses(stats.missCount())
+                .l1Evictions(stats.evictionCount())
+                .l1Size(l1.estimatedSize())
+                .l2Hits(l2Hits.sum())
+                .l2Errors(l2Errors.sum())
+                .l2Available(l2Available())
+                .dbLoads(dbLoads.sum())
+                .lockWaits(lockWaits.sum())
+                .invalidations(invalidations.sum())
+                .hitRatio(requests == 0 ? 0 : (double) (stats.hitCount() + l2Hits.sum()) / requests)
+                .build();
+    }
+
+    private Object load(String key, Long productId, Class<?> type, Supplier<?> loader, int stripe, long generation) {
+        Object cached = decode(readL2(key), type);
+        if (cached != null) {
+            l2Hits.increment();
+            return cached;
+        }
+
+        String lockKey = key + ":lock";
+        String token = tryLockL2(lockKey);
+        try {
+            if (token == null && l2Available()) {
+                // Another node is loading this product; wait for its result instead of querying as well
+                lockWaits.increment();
+                cached = decode(awaitL2(key), type);
+                if (cached != null) {
+                    l2Hits.increment();
+                    return cached;
+                }
+            }
+
+            // Read before the query, so an eviction committed after the row was read changes it
+            long version = readVersion(productId);
+            dbLoads.increment();
+            String json = transactionTemplate.execute(status -> encode(loader.get()));
+            if (json == null) {
+                return null;
+            }
+            if (version >= 0 && generations.get(stripe) == generation) {
+                writeL2(key, json, productId, version);
+            }
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read cached product " + key, e);
+        } finally {
+            if (token != null) {
+                unlockL2(lockKey, token);
+            }
+        }
+    }
+
+    private String awaitL2(String key) {
+        long deadline = System.currentTimeMillis() + lockWaitMillis;
+        while (System.currentTimeMillis() < deadline && l2Available()) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            String json = readL2(key);
+            if (json != null) {
+                return json;
+            }
+        }
+        return null;
+    }
+
+    private void evictLocal(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            generations.incrementAndGet(stripe(productId));
+            for (String namespace : NAMESPACES) {
+                l1.invalidate(key(namespace, productId));
+            }
+        }
+    }
+
+    private String encode(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private Object decode(String json, Class<?> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            // Written by an incompatible version; reload and overwrite it
+            log.warn("Ignoring unreadable cached {}: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String readL2(String key) {
+        if (!l2Available()) {
+            return null;
+        }
+        try {
+            return store.get(key);
+        } catch (RuntimeException e) {
+            markL2Failed(e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the product's version, or -1 when the store is unavailable and nothing should be written
+     */
+    private long readVersion(Long productId) {
+        if (!l2Available()) {
+            return -1;
+        }
+        try {
+            return store.getVersion(versionKey(productId));
+        } catch (RuntimeException e) {
+            markL2Failed(e);
+            return -1;
+        }
+    }
+
+    private void writeL2(String key, String json, Long productId, long version) {
+        if (!l2Available()) {
+            return;
+        }
+        long ttlMillis = l2Ttl.toMillis();
+        long jitter = ThreadLocalRandom.current().nextLong(ttlMillis / 10 + 1);
+        try {
+            if (!store.putIfVersion(key, json, Duration.ofMillis(ttlMillis - jitter), versionKey(productId), version)) {
+                log.debug("Not caching {}: the product changed while it was loading", key);
+            }
+        } catch (RuntimeException e) {
+            markL2Failed(e);
+        }
+    }
+
+    private String tryLockL2(String lockKey) {
+        if (!l2Available()) {
+            return null;
+        }
+        try {
+            return store.tryLock(lockKey, lockLease);
+        } catch (RuntimeException e) {
+            markL2Failed(e);
+            return null;
+        }
+    }
+
+    private void unlockL2(String lockKey, String token) {
+        try {
+            store.unlock(lockKey, token);
+        } catch (RuntimeException e) {
+            // The lease expires on its own
+            markL2Failed(e);
+        }
+    }
+
+    private boolean l2Available() {
+        return System.currentTimeMillis() >= l2RetryAt;
+    }
+
+    private void markL2Failed(RuntimeException e) {
+        l2Errors.increment();
+        if (l2Available()) {
+            log.warn("Product cache store failed, using the database for the next {} ms: {}", l2RetryMillis, e.getMessage());
+        }
+        l2RetryAt = System.currentTimeMillis() + l2RetryMillis;
+    }
+
+    private static String key(String namespace, Long productId) {
+        return KEY_PREFIX + namespace + ":" + productId;
+    }
+
+    private static String versionKey(Long productId) {
+        return KEY_PREFIX + "version:" + productId;
+    }
+
+    private static int stripe(Long productId) {
+        return Long.hashCode(productId) & (GENERATION_STRIPES - 1);
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@class")
+    private abstract static class PolymorphicProduct {
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.events.ProductChangedEvent;
+import com.example.vuvisa.services.ProductCacheStore;
+import com.example.vuvisa.services.ProductSearchService;
+import com.example.vuvisa.utils.InvertedIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an {@link InvertedIndex} of the catalog on this node.
+ * <p>
+ * The index is built in full on startup and on a schedule, into a new instance that is swapped in when
+ * complete, so searches keep being served from the previous one meanwhile. Products changed on this
+ * node are re-read after their transaction commits; changes committed while a rebuild was reading the
+ * catalog are replayed onto the new index. Every node also re-reads the products named in the catalog
+ * changes published through the {@link ProductCacheStore}, so edits made on another node show up within
+ * moments; the scheduled rebuild catches whatever a lost message missed.
+ */
+@Service
+@Slf4j
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    // One row per product and author, in product order, so the author names can be joined while streaming
+    private static final String DOCUMENT_SQL = "SELECT p.id, p.product_name, p.description, a.author_name "
+            + "FROM product p "
+            + "LEFT JOIN book_authors ba ON ba.book_id = p.id "
+            + "LEFT JOIN authors a ON a.id = ba.author_id ";
+    private static final String ALL_DOCUMENTS_SQL = DOCUMENT_SQL + "ORDER BY p.id";
+    private static final String DOCUMENTS_BY_ID_SQL = DOCUMENT_SQL + "WHERE p.id IN (:ids) ORDER BY p.id";
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Null until the first build has completed
+    private volatile InvertedIndex index;
+    // Products changed while a rebuild is running, null otherwise
+    private volatile Set<Long> changedDuringRebuild;
+
+    public ProductSearchServiceImpl(DataSource dataSource, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            ProductCacheStore store) {
+        // MySQL only streams result sets row by row with this fetch size
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        // Changes made on this node come back too; re-reading them again is cheap
+        store.subscribeCatalogChanges(this::reindexQuietly);
+    }
+
+    @Override
+    public boolean isReady() {
+        return index != null;
+    }
+
+    @Override
+    public Page<Long> search(String query, Pageable pageable) {
+        InvertedIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Search index is not built yet");
+        }
+        InvertedIndex.SearchResult result = current.search(query, (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE),
+                pageable.getPageSize());
+        return new PageImpl<>(result.productIds(), pageable, result.totalHits());
+    }
+
+    @Override
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        InvertedIndex fresh = new InvertedIndex();
+        try {
+            DocumentReader reader = new DocumentReader(fresh, null);
+            streamingJdbcTemplate.query(ALL_DOCUMENTS_SQL, reader);
+            reader.finish();
+        } catch (RuntimeException e) {
+            changedDuringRebuild = null;
+            throw e;
+        }
+
+        // Handlers that still see the old index have already recorded their products
+        index = fresh;
+        Set<Long> changed = changedDuringRebuild;
+        changedDuringRebuild = null;
+        if (!changed.isEmpty()) {
+            reindex(changed);
+        }
+        log.info("Built the search index of {} products ({} terms) in {} ms",
+                fresh.size(), fresh.termCount(), System.currentTimeMillis() - start);
+        return fresh.size();
+    }
+
+    @Override
+    public void reindex(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        // Record first, so that a rebuild swapping in its index after this point still replays these products
+        Set<Long> pending = changedDuringRebuild;
+        if (pending != null) {
+            pending.addAll(productIds);
+        }
+        InvertedIndex current = index;
+        if (current == null) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(new HashSet<>(productIds));
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            Set<Long> found = new HashSet<>();
+            DocumentReader reader = new DocumentReader(current, found);
+            namedParameterJdbcTemplate.query(DOCUMENTS_BY_ID_SQL, new MapSqlParameterSource("ids", chunk), reader);
+            reader.finish();
+            for (Long productId : chunk) {
+                if (!found.contains(productId)) {
+                    current.remove(productId);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleProductChanged(ProductChangedEvent event) {
+        // Also applied here, so this node's own edits show up even when the store is unreachable
+        if (event.isCatalogChanged()) {
+            reindexQuietly(event.getProductIds());
+        }
+    }
+
+    private void reindexQuietly(Collection<Long> productIds) {
+        try {
+            reindex(productIds);
+        } catch (RuntimeException e) {
+            // The change is committed; the next scheduled rebuild picks it up
+            log.warn("Could not update the search index for products {}: {}", productIds, e.getMessage());
+        }
+    }
+
+    /**
+     * Joins the author rows of each product and puts the product into the index.
+     * Call {@link #finish()} after the last row.
+     */
+    private static final class DocumentReader implements RowCallbackHandler {
+
+        private final InvertedIndex target;
+        private final Set<Long> indexed;
+        private long productId;
+        private String name;
+        private String description;
+        private StringBuilder authors;
+
+        private DocumentReader(InvertedIndex target, Set<Long> indexed) {
+            this.target = target;
+            this.indexed = indexed;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (authors == null || id != productId) {
+                finish();
+                productId = id;
+                name = rs.getString("product_name");
+                description = rs.getString("description");
+                authors = new StringBuilder();
+            }
+            String author = rs.getString("author_name");
+            if (author != null) {
+                authors.append(author).append(' ');
+            }
+        }
+
+        private void finish() {
+            if (authors == null) {
+                return;
+            }
+            target.put(productId, name, authors.toString(), description);
+            if (indexed != null) {
+                indexed.add(productId);
+            }
+            authors = null;
+        }
+    }
+}
@@ -2,23 +2,30 @@ package com.example.vuvisa.services.impl;
 
 import com.example.vuvisa.dtos.responses.ProductFavoriteResponse;
 import com.example.vuvisa.entities.Product;
-import com.example.vuvisa.entities.User;
 import com.example.vuvisa.enums.CategoryType;
+import com.example.vuvisa.events.ProductChangedEvent;
 import com.example.vuvisa.repositories.FavoriteRepository;
 import com.example.vuvisa.repositories.ProductRepository;
-import com.example.vuvisa.repositories.UserRepository;
+import com.example.vuvisa.services.FavoriteCountService;
+import com.example.vuvisa.services.ProductDetailCache;
+import com.example.vuvisa.services.ProductSearchService;
 import com.example.vuvisa.services.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,7 +34,10 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final FavoriteRepository favoriteRepository;
-    private final UserRepository userRepository;
+    private final FavoriteCountService favoriteCountService;
+    private final ProductDetailCache productDetailCache;
+    private final ProductSearchService productSearchService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public List<Product> getAllProducts() {
@@ -36,13 +46,14 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return productDetailCache.get(ProductDetailCache.PRODUCT, id, Product.class, () -> productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found")));
     }
 
     @Override
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(Set.of(id)));
     }
 
 //    @Override
@@ -65,16 +76,36 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Page<Product> searchProductsByNameOrAuthor(String searchTerm, int page) {
+        if (productSearchService.isReady()) {
+            Page<Long> hits = productSearchService.search(searchTerm, PageRequest.of(page, 12));
+            return new PageImpl<>(findAllInOrder(hits.getContent()), hits.getPageable(), hits.getTotalElements());
+        }
+        // Until the search index is built, e.g. right after startup
         Pageable pageable = PageRequest.of(page, 12, Sort.by("id").ascending());
         return productRepository.findByProductNameContainingOrAuthorNameContaining(searchTerm, pageable);
     }
 
     @Override
     public List<Product> searchProducts(String searchTerm, int limit) {
+        if (productSearchService.isReady()) {
+            return findAllInOrder(productSearchService.search(searchTerm, PageRequest.of(0, limit)).getContent());
+        }
         Pageable pageable = PageRequest.of(0, limit, Sort.by("id").ascending());
         return productRepository.findByProductNameContainingWithLimit(searchTerm, pageable);
     }
 
+    /**
+     * Load products keeping the order of the given ids, skipping ids deleted in the meantime
+     */
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     public Page<Product> getProductsBySupplierIdAndCategory(Long supplierId,Long categoryId, int page) {
         Pageable pageable = PageRequest.of(page, 12);
         return productRepository.findBySupplierIdAndCategoryId(supplierId, categoryId, pageable);
@@ -160,56 +191,33 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ProductFavoriteResponse getProductWithFavoriteInfo(Long productId, Long userId) {
         Product product = getProductById(productId);
-
-        // Get favorite count
-        Long favoriteCount = favoriteRepository.countUsersByProductId(productId);
-
-        // Check if user has favorited this product
-        Boolean isFavorited = false;
-        if (userId != null) {
-            Optional<User> userOptional = userRepository.findById(userId);
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                isFavorited = favoriteRepository.existsByUserAndProduct(user, product);
-            }
-        }
-
-        // Map to response
-        return ProductFavoriteResponse.builder()
-                .productId(product.getId())
-                .productName(product.getProductName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .stockQuantity(product.getStockQuantity())
-                .imageUrl(product.getImageUrl())
-                .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
-                .categoryName(product.getCategory() != null ? product.getCategory().getCategoryName() : null)
-                .favoriteCount(favoriteCount)
-                .isFavorited(isFavorited)
-                .build();
+        return toFavoriteResponses(List.of(product), userId).get(0);
     }
 
     @Override
-    public List<ProductFavoriteResponse> getAllProductsWithFavoriteInfo(Long userId) {
-        List<Product> products = getAllProducts();
-        List<ProductFavoriteResponse> responses = new ArrayList<>();
+    public Page<ProductFavoriteResponse> getProductsWithFavoriteInfo(Long userId, int page, int size) {
+        // Eager associations are batch-fetched 100 at a time, so a page of up to 100 costs one query each
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 100)), Sort.by("id").ascending());
+        Page<Product> products = productRepository.findAll(pageable);
+        return new PageImpl<>(toFavoriteResponses(products.getContent(), userId), pageable, products.getTotalElements());
+    }
+
+    /**
+     * Add favorite counts and the user's favorites to products, with two queries whatever their number
+     */
+    private List<ProductFavoriteResponse> toFavoriteResponses(List<Product> products, Long userId) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toList());
+        Map<Long, Long> favoriteCounts = favoriteCountService.getCounts(productIds);
+        Set<Long> favorited = userId == null
+                ? Set.of()
+                : new HashSet<>(favoriteRepository.findFavoritedProductIds(userId, productIds));
 
+        List<ProductFavoriteResponse> responses = new ArrayList<>(products.size());
         for (Product product : products) {
-            // Get favorite count
-            Long favoriteCount = favoriteRepository.countUsersByProductId(product.getId());
-
-            // Check if user has favorited this product
-            Boolean isFavorited = false;
-            if (userId != null) {
-                Optional<User> userOptional = userRepository.findById(userId);
-                if (userOptional.isPresent()) {
-                    User user = userOptional.get();
-                    isFavorited = favoriteRepository.existsByUserAndProduct(user, product);
-                }
-            }
-
-            // Map to response
-            ProductFavoriteResponse response = ProductFavoriteResponse.builder()
+            responses.add(ProductFavoriteResponse.builder()
                     .productId(product.getId())
                     .productName(product.getProductName())
                     .description(product.getDescription())
@@ -218,13 +226,10 @@ public class ProductServiceImpl implements ProductService {
                     .imageUrl(product.getImageUrl())
                     .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
                     .categoryName(product.getCategory() != null ? product.getCategory().getCategoryName() : null)
-                    .favoriteCount(favoriteCount)
-                    .isFavorited(isFavorited)
-                    .build();
-
-            responses.add(response);
+                    .favoriteCount(favoriteCounts.getOrDefault(product.getId(), 0L))
+                    .isFavorited(favorited.contains(product.getId()))
+                    .build());
         }
-
         return responses;
     }
 
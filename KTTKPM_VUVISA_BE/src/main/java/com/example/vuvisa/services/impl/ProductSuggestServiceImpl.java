@@ -0,0 +1,249 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.responses.ProductSuggestionResponse;
+import com.example.vuvisa.events.ProductChangedEvent;
+import com.example.vuvisa.services.ProductCacheStore;
+import com.example.vuvisa.services.ProductSuggestService;
+import com.example.vuvisa.utils.SuggestionTrie;
+import com.example.vuvisa.utils.VietnameseTextAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link SuggestionTrie} of product and author names on this node.
+ * <p>
+ * Product and author names with their popularity (orders containing the product, from the sales rollup)
+ * are kept in memory and built into a base trie. Catalog changes committed on any node queue the product
+ * ids, this node's directly and other nodes' through the {@link ProductCacheStore}. A scheduled refresh
+ * re-reads only those products and their authors and builds them into a small overlay trie that hides
+ * their old entries in the base, so its cost follows the number of changes rather than the catalog size.
+ * Once the overlay grows large it is merged into a new base, from memory. A periodic full rebuild picks up
+ * popularity changes and authors that were deleted.
+ */
+@Service
+@Slf4j
+public class ProductSuggestServiceImpl implements ProductSuggestService {
+
+    private static final byte PRODUCT = 0;
+    private static final byte AUTHOR = 1;
+    private static final int CHUNK_SIZE = 1000;
+    // Changed entries kept beside the base before they are merged into it
+    private static final int MAX_OVERLAY_SIZE = 5000;
+    private static final SuggestionTrie EMPTY = SuggestionTrie.builder().build();
+
+    private static final String PRODUCTS_SQL = "SELECT p.id, p.product_name, COALESCE(r.order_count, 0) AS popularity "
+            + "FROM product p "
+            + "LEFT JOIN sales_product_rollup r ON r.product_id = p.id";
+    private static final String PRODUCTS_BY_ID_SQL = PRODUCTS_SQL + " WHERE p.id IN (:ids)";
+    // An author is as popular as their books together
+    private static final String AUTHORS_SQL = "SELECT a.id, a.author_name, COALESCE(SUM(r.order_count), 0) AS popularity "
+            + "FROM authors a "
+            + "LEFT JOIN book_authors ba ON ba.author_id = a.id "
+            + "LEFT JOIN sales_product_rollup r ON r.product_id = ba.book_id ";
+    private static final String ALL_AUTHORS_SQL = AUTHORS_SQL + "GROUP BY a.id, a.author_name";
+    private static final String AUTHORS_OF_BOOKS_SQL = AUTHORS_SQL
+            + "WHERE a.id IN (SELECT author_id FROM book_authors WHERE book_id IN (:ids)) GROUP BY a.id, a.author_name";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Products changed since the last refresh
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // What the base trie was built from; only touched by rebuild and refresh, which are synchronized
+    private Map<Long, Entry> products = new HashMap<>();
+    private Map<Long, Entry> authors = new HashMap<>();
+    // Entries re-read since the base was built; a null entry is a deleted product
+    private final Map<Long, Entry> changedProducts = new HashMap<>();
+    private final Map<Long, Entry> changedAuthors = new HashMap<>();
+    // Null until the first build has completed
+    private volatile Snapshot snapshot;
+
+    public ProductSuggestServiceImpl(DataSource dataSource, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            ProductCacheStore store) {
+        // MySQL only streams result sets row by row with this fetch size
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        store.subscribeCatalogChanges(pending::addAll);
+    }
+
+    @Override
+    public List<ProductSuggestionResponse> suggest(String query, int limit) {
+        Snapshot current = snapshot;
+        List<ProductSuggestionResponse> suggestions = new ArrayList<>();
+        if (current == null) {
+            return suggestions;
+        }
+        List<SuggestionTrie.Suggestion> candidates = new ArrayList<>(current.overlay().suggest(query, limit));
+        candidates.addAll(current.suggestFromBase(query, limit));
+        // Stable, so a changed entry comes before a base entry of the same weight
+        candidates.sort(Comparator.comparingInt(SuggestionTrie.Suggestion::weight).reversed());
+        Set<String> seenTexts = new HashSet<>();
+        for (SuggestionTrie.Suggestion suggestion : candidates) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            if (seenTexts.add(String.join(" ", VietnameseTextAnalyzer.tokenize(suggestion.text())))) {
+                suggestions.add(ProductSuggestionResponse.builder()
+                        .text(suggestion.text())
+                        .type(suggestion.kind() == AUTHOR ? ProductSuggestionResponse.AUTHOR : ProductSuggestionResponse.PRODUCT)
+                        .id(suggestion.id())
+                        .build());
+            }
+        }
+        return suggestions;
+    }
+
+    @Override
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        // Changes committed from here on are re-read by the next refresh
+        pending.clear();
+        Map<Long, Entry> loadedProducts = new HashMap<>();
+        streamingJdbcTemplate.query(PRODUCTS_SQL, rs -> {
+            loadedProducts.put(rs.getLong("id"), new Entry(rs.getString("product_name"), rs.getLong("popularity")));
+        });
+        Map<Long, Entry> loadedAuthors = new HashMap<>();
+        streamingJdbcTemplate.query(ALL_AUTHORS_SQL, rs -> {
+            loadedAuthors.put(rs.getLong("id"), new Entry(rs.getString("author_name"), rs.getLong("popularity")));
+        });
+        products = loadedProducts;
+        authors = loadedAuthors;
+        changedProducts.clear();
+        changedAuthors.clear();
+        int size = buildBase();
+        log.info("Built {} search suggestions in {} ms", size, System.currentTimeMillis() - start);
+        return size;
+    }
+
+    @Override
+    public synchronized int refresh() {
+        if (snapshot == null || pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(pending);
+        pending.removeAll(ids);
+        Map<Long, Entry> readProducts = new HashMap<>();
+        Map<Long, Entry> readAuthors = new HashMap<>();
+        try {
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                MapSqlParameterSource params = new MapSqlParameterSource("ids",
+                        ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+                namedParameterJdbcTemplate.query(PRODUCTS_BY_ID_SQL, params, rs -> {
+                    readProducts.put(rs.getLong("id"), new Entry(rs.getString("product_name"), rs.getLong("popularity")));
+                });
+                namedParameterJdbcTemplate.query(AUTHORS_OF_BOOKS_SQL, params, rs -> {
+                    readAuthors.put(rs.getLong("id"), new Entry(rs.getString("author_name"), rs.getLong("popularity")));
+                });
+            }
+        } catch (RuntimeException e) {
+            // Try these products again next time
+            pending.addAll(ids);
+            throw e;
+        }
+        for (Long productId : ids) {
+            changedProducts.put(productId, readProducts.get(productId));
+        }
+        changedAuthors.putAll(readAuthors);
+
+        if (changedProducts.size() + changedAuthors.size() > MAX_OVERLAY_SIZE) {
+            changedProducts.forEach((productId, entry) -> {
+                if (entry == null) {
+                    products.remove(productId);
+                } else {
+                    products.put(productId, entry);
+                }
+            });
+            authors.putAll(changedAuthors);
+            changedProducts.clear();
+            changedAuthors.clear();
+            buildBase();
+        } else {
+            buildOverlay();
+        }
+        return ids.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleProductChanged(ProductChangedEvent event) {
+        // Also queued here, so this node's own edits show up even when the store is unreachable
+        if (event.isCatalogChanged()) {
+            pending.addAll(event.getProductIds());
+        }
+    }
+
+    /**
+     * Build a trie from every product and author in memory, and swap it in without an overlay
+     */
+    private int buildBase() {
+        SuggestionTrie.Builder builder = SuggestionTrie.builder();
+        products.forEach((id, entry) -> builder.add(id, PRODUCT, entry.name(), entry.popularity()));
+        authors.forEach((id, entry) -> builder.add(id, AUTHOR, entry.name(), entry.popularity()));
+        SuggestionTrie base = builder.build();
+        snapshot = new Snapshot(base, EMPTY, Set.of(), Set.of());
+        return base.size();
+    }
+
+    /**
+     * Build a trie from the changed entries, and swap it in over the current base
+     */
+    private void buildOverlay() {
+        SuggestionTrie.Builder builder = SuggestionTrie.builder();
+        changedProducts.forEach((id, entry) -> {
+            if (entry != null) {
+                builder.add(id, PRODUCT, entry.name(), entry.popularity());
+            }
+        });
+        changedAuthors.forEach((id, entry) -> builder.add(id, AUTHOR, entry.name(), entry.popularity()));
+        snapshot = new Snapshot(snapshot.base(), builder.build(),
+                Set.copyOf(changedProducts.keySet()), Set.copyOf(changedAuthors.keySet()));
+    }
+
+    private record Entry(String name, long popularity) {
+    }
+
+    /**
+     * The base trie, the overlay of changed entries, and the base entries the overlay replaces
+     */
+    private record Snapshot(SuggestionTrie base, SuggestionTrie overlay, Set<Long> hiddenProducts,
+            Set<Long> hiddenAuthors) {
+
+        /**
+         * The heaviest base entries that the overlay does not replace
+         */
+        List<SuggestionTrie.Suggestion> suggestFromBase(String query, int limit) {
+            if (hiddenProducts.isEmpty() && hiddenAuthors.isEmpty()) {
+                return base.suggest(query, limit);
+            }
+            // Replaced entries may take some of the places; ask for more until enough are left
+            for (int wanted = limit; ; wanted *= 2) {
+                List<SuggestionTrie.Suggestion> found = base.suggest(query, wanted);
+                List<SuggestionTrie.Suggestion> visible = new ArrayList<>(found.size());
+                for (SuggestionTrie.Suggestion suggestion : found) {
+                    Set<Long> hidden = suggestion.kind() == AUTHOR ? hiddenAuthors : hiddenProducts;
+                    if (!hidden.contains(suggestion.id())) {
+                        visible.add(suggestion);
+                    }
+                }
+                if (visible.size() >= limit || found.size() < wanted) {
+                    return visible;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.services.ProductCacheStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Redis second level for the product detail cache.
+ * <p>
+ * Loader locks are {@code SET NX PX} keys released with a compare-and-delete script, so a loader that
+ * overran its lease never removes a lock taken by the next one. Versioned writes compare the version key and
+ * set the value in one script. Invalidations and catalog changes go out on pub/sub channels.
+ */
+@Service
+@ConditionalOnProperty(name = "product.cache.store", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisProductCacheStore implements ProductCacheStore, DisposableBean {
+
+    private static final String INVALIDATION_CHANNEL = "vuvisa:product-cache:invalidate";
+    private static final String CATALOG_CHANNEL = "vuvisa:product-catalog:changed";
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final DefaultRedisScript<Long> PUT_IF_VERSION_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('get', KEYS[2]) or '0') == ARGV[3] then "
+                    + "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisProductCacheStore(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(connectionFactory);
+        this.listenerContainer.afterPropertiesSet();
+    }
+
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        redisTemplate.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public boolean putIfVersion(String key, String value, Duration ttl, String versionKey, long version) {
+        Long stored = redisTemplate.execute(PUT_IF_VERSION_SCRIPT, List.of(key, versionKey),
+                value, String.valueOf(ttl.toMillis()), String.valueOf(version));
+        return Long.valueOf(1).equals(stored);
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        redisTemplate.delete(keys);
+    }
+
+    @Override
+    public long getVersion(String versionKey) {
+        String version = redisTemplate.opsForValue().get(versionKey);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    @Override
+    public void incrementVersions(Collection<String> versionKeys) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String versionKey : versionKeys) {
+                connection.stringCommands().incr(versionKey.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public String tryLock(String key, Duration lease) {
+        String token = UUID.randomUUID().toString();
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, lease)) ? token : null;
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        redisTemplate.execute(UNLOCK_SCRIPT, List.of(key), token);
+    }
+
+    @Override
+    public void publishInvalidation(Collection<Long> productIds) {
+        publish(INVALIDATION_CHANNEL, productIds);
+    }
+
+    @Override
+    public void subscribe(Consumer<Collection<Long>> listener) {
+        subscribe(INVALIDATION_CHANNEL, listener);
+    }
+
+    @Override
+    public void publishCatalogChange(Collection<Long> productIds) {
+        publish(CATALOG_CHANNEL, productIds);
+    }
+
+    @Override
+    public void subscribeCatalogChanges(Consumer<Collection<Long>> listener) {
+        subscribe(CATALOG_CHANNEL, listener);
+    }
+
+    private void publish(String channel, Collection<Long> productIds) {
+        redisTemplate.convertAndSend(channel, productIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    private void subscribe(String channel, Consumer<Collection<Long>> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            List<Long> productIds = new ArrayList<>();
+            for (String id : body.split(",")) {
+                if (!id.isBlank()) {
+                    productIds.add(Long.parseLong(id.trim()));
+                }
+            }
+            listener.accept(productIds);
+        }, new ChannelTopic(channel));
+        try {
+            // Keeps retrying the subscription in the background if Redis is not up yet
+            listenerContainer.start();
+        } catch (RuntimeException e) {
+            log.warn("Could not subscribe to {} yet: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        listenerContainer.destroy();
+    }
+}
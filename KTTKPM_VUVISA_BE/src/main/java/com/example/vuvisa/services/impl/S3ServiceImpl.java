@@ -1,6 +1,17 @@
 package com.example.vuvisa.services.impl;
 
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,17 +21,32 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.example.vuvisa.services.S3Service;
 
+import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.GetUrlRequest;
 import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
 @Service
+@Slf4j
 public class S3ServiceImpl implements S3Service {
+	// S3 requires every part except the last to be at least 5 MB
+	private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
 	@Value("${aws.s3.bucket-name}")
 	private String bucketName;
 
+	@Value("${aws.s3.multipart.part-size:8388608}")
+	private long partSize;
+
 	@Autowired
 	private S3Client s3Client;
 
@@ -61,4 +87,169 @@ public class S3ServiceImpl implements S3Service {
 				.getUrl(GetUrlRequest.builder().bucket(bucketName).key(key).build())
 				.toExternalForm();
 	}
+
+	@Override
+	public String uploadFile(Path file, String fileName, String contentType, String folderPath) throws IOException {
+		String key = folderPath + "/" + UUID.randomUUID() + "_" + fileName;
+		long size = Files.size(file);
+		long effectivePartSize = Math.max(partSize, MIN_PART_SIZE);
+
+		if (size <= effectivePartSize) {
+			PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+					.bucket(bucketName)
+					.key(key)
+					.acl(ObjectCannedACL.PUBLIC_READ)
+					.contentType(contentType)
+					.build();
+			s3Client.putObject(putObjectRequest, RequestBody.fromFile(file));
+		} else {
+			uploadMultipart(file, size, effectivePartSize, key, contentType);
+		}
+
+		return s3Client.utilities()
+				.getUrl(GetUrlRequest.builder().bucket(bucketName).key(key).build())
+				.toExternalForm();
+	}
+
+	private void uploadMultipart(Path file, long size, long partSize, String key, String contentType) throws IOException {
+		String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+						.bucket(bucketName)
+						.key(key)
+						.acl(ObjectCannedACL.PUBLIC_READ)
+						.contentType(contentType)
+						.build())
+				.uploadId();
+
+		List<CompletedPart> completedParts = new ArrayList<>();
+		try {
+			int partNumber = 1;
+			for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+				long length = Math.min(partSize, size - offset);
+				// Every attempt, including SDK retries, reads the part afresh from its offset in the file
+				try (FileSlice slice = new FileSlice(file, offset, length)) {
+					String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+									.bucket(bucketName)
+									.key(key)
+									.uploadId(uploadId)
+									.partNumber(partNumber)
+									.contentLength(length)
+									.build(),
+							RequestBody.fromContentProvider(slice, length, contentType))
+							.eTag();
+					completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+				}
+			}
+
+			s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+					.bucket(bucketName)
+					.key(key)
+					.uploadId(uploadId)
+					.multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+					.build());
+		} catch (IOException | RuntimeException e) {
+			try {
+				s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+						.bucket(bucketName)
+						.key(key)
+						.uploadId(uploadId)
+						.build());
+			} catch (RuntimeException abortError) {
+				log.warn("Could not abort multipart upload {} for {}: {}", uploadId, key, abortError.getMessage());
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * One part of a file, re-readable from the start as many times as the SDK needs.
+	 * Opening a new stream closes the previous one; closing the slice closes the last.
+	 */
+	private static final class FileSlice implements ContentStreamProvider, Closeable {
+
+		private final Path file;
+		private final long offset;
+		private final long length;
+		private InputStream current;
+
+		private FileSlice(Path file, long offset, long length) {
+			this.file = file;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public InputStream newStream() {
+			try {
+				close();
+				FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+				channel.position(offset);
+				current = new BoundedInputStream(Channels.newInputStream(channel), length);
+				return current;
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not read part of " + file, e);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (current != null) {
+				current.close();
+				current = null;
+			}
+		}
+	}
+
+	/**
+	 * Stops after a number of bytes, as if the stream ended there
+	 */
+	private static final class BoundedInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		private BoundedInputStream(InputStream in, long length) {
+			super(in);
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int read = super.read(b, off, (int) Math.min(len, remaining));
+			if (read > 0) {
+				remaining -= read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), remaining);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
 }
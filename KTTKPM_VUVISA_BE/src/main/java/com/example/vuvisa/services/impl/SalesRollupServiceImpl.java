@@ -0,0 +1,228 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.responses.SalesRollupResponse;
+import com.example.vuvisa.entities.Category;
+import com.example.vuvisa.entities.Product;
+import com.example.vuvisa.entities.SalesCategoryRollup;
+import com.example.vuvisa.entities.SalesProductRollup;
+import com.example.vuvisa.repositories.CategoryRepository;
+import com.example.vuvisa.repositories.ProductRepository;
+import com.example.vuvisa.repositories.SalesCategoryRollupRepository;
+import com.example.vuvisa.repositories.SalesDailyRollupRepository;
+import com.example.vuvisa.repositories.SalesProductRollupRepository;
+import com.example.vuvisa.services.SalesRollupService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sales rollups maintained with set-based upserts.
+ * <p>
+ * Every change is applied as {@code INSERT ... SELECT ... ON DUPLICATE KEY UPDATE} that adds
+ * (sign +1) or subtracts (sign -1) the aggregated lines of the affected orders, so the cost is
+ * proportional to the orders being changed and never to the size of the orders table. The work
+ * runs inside the order's own transaction, so rollups and orders always commit together.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+
+    private static final RollupStatements ACTIVE = RollupStatements.over("orders", "order_details");
+    // Rebuilds also count the orders the archive job has moved out of the active tables
+    private static final RollupStatements ARCHIVE = RollupStatements.over("orders_archive", "order_details_archive");
+
+    /**
+     * The rollup upserts over one pair of order tables, and the id scan used by rebuilds
+     */
+    private record RollupStatements(String daily, String product, String category, String countedOrderIds) {
+
+        static RollupStatements over(String orders, String details) {
+            return new RollupStatements(
+                    "INSERT INTO sales_daily_rollup (sales_date, revenue, units, order_count, updated_at) "
+                            + "SELECT dt.d_date, dt.d_revenue, dt.d_units, dt.d_orders, NOW() FROM ("
+                            + "SELECT DATE(o.order_date) AS d_date, :sign * SUM(d.price * d.quantity) AS d_revenue, "
+                            + ":sign * SUM(d.quantity) AS d_units, :sign * COUNT(DISTINCT o.id) AS d_orders "
+                            + "FROM " + orders + " o JOIN " + details + " d ON d.order_id = o.id "
+                            + "WHERE o.id IN (:ids) AND o.order_date IS NOT NULL GROUP BY DATE(o.order_date)) dt "
+                            + "ON DUPLICATE KEY UPDATE revenue = sales_daily_rollup.revenue + dt.d_revenue, "
+                            + "units = sales_daily_rollup.units + dt.d_units, "
+                            + "order_count = sales_daily_rollup.order_count + dt.d_orders, updated_at = NOW()",
+                    "INSERT INTO sales_product_rollup (product_id, revenue, units, order_count, updated_at) "
+                            + "SELECT dt.d_product, dt.d_revenue, dt.d_units, dt.d_orders, NOW() FROM ("
+                            + "SELECT d.product_id AS d_product, :sign * SUM(d.price * d.quantity) AS d_revenue, "
+                            + ":sign * SUM(d.quantity) AS d_units, :sign * COUNT(DISTINCT d.order_id) AS d_orders "
+                            + "FROM " + details + " d WHERE d.order_id IN (:ids) GROUP BY d.product_id) dt "
+                            + "ON DUPLICATE KEY UPDATE revenue = sales_product_rollup.revenue + dt.d_revenue, "
+                            + "units = sales_product_rollup.units + dt.d_units, "
+                            + "order_count = sales_product_rollup.order_count + dt.d_orders, updated_at = NOW()",
+                    // Lines carry no category, so they count under their product's current one; a rebuild
+                    // is needed after recategorizing products (see SalesRollupService#getCategorySales)
+                    "INSERT INTO sales_category_rollup (category_id, revenue, units, order_count, updated_at) "
+                            + "SELECT dt.d_category, dt.d_revenue, dt.d_units, dt.d_orders, NOW() FROM ("
+                            + "SELECT p.category_id AS d_category, :sign * SUM(d.price * d.quantity) AS d_revenue, "
+                            + ":sign * SUM(d.quantity) AS d_units, :sign * COUNT(DISTINCT d.order_id) AS d_orders "
+                            + "FROM " + details + " d JOIN product p ON p.id = d.product_id "
+                            + "WHERE d.order_id IN (:ids) AND p.category_id IS NOT NULL GROUP BY p.category_id) dt "
+                            + "ON DUPLICATE KEY UPDATE revenue = sales_category_rollup.revenue + dt.d_revenue, "
+                            + "units = sales_category_rollup.units + dt.d_units, "
+                            + "order_count = sales_category_rollup.order_count + dt.d_orders, updated_at = NOW()",
+                    // A locking read, like the upserts: an order the archive job moves mid-rebuild is counted
+                    // in exactly one of the two tables
+                    "SELECT id FROM " + orders + " "
+                            + "WHERE id > :after AND (status IS NULL OR status <> 'CANCELLED') ORDER BY id LIMIT :limit FOR SHARE");
+        }
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManager entityManager;
+    private final SalesDailyRollupRepository salesDailyRollupRepository;
+    private final SalesProductRollupRepository salesProductRollupRepository;
+    private final SalesCategoryRollupRepository salesCategoryRollupRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addOrders(Collection<Long> orderIds) {
+        apply(ACTIVE, orderIds, 1);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeOrders(Collection<Long> orderIds) {
+        apply(ACTIVE, orderIds, -1);
+    }
+
+    private void apply(RollupStatements statements, Collection<Long> orderIds, int sign) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        // The SQL reads order_details, so pending JPA inserts and deletes must reach the database first
+        entityManager.flush();
+
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("sign", sign)
+                    .addValue("ids", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+            namedParameterJdbcTemplate.update(statements.daily(), params);
+            namedParameterJdbcTemplate.update(statements.product(), params);
+            namedParameterJdbcTemplate.update(statements.category(), params);
+        }
+    }
+
+    @Override
+    @Transactional
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        entityManager.flush();
+        namedParameterJdbcTemplate.getJdbcTemplate().update("DELETE FROM sales_daily_rollup");
+        namedParameterJdbcTemplate.getJdbcTemplate().update("DELETE FROM sales_product_rollup");
+        namedParameterJdbcTemplate.getJdbcTemplate().update("DELETE FROM sales_category_rollup");
+
+        long counted = rebuildFrom(ACTIVE) + rebuildFrom(ARCHIVE);
+
+        log.info("Rebuilt sales rollups from {} orders in {} ms", counted, System.currentTimeMillis() - start);
+        return counted;
+    }
+
+    /**
+     * Add every counted order of one pair of tables to the rollups, a chunk of ids at a time
+     */
+    private long rebuildFrom(RollupStatements statements) {
+        long counted = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Long> chunk = namedParameterJdbcTemplate.queryForList(statements.countedOrderIds(),
+                    new MapSqlParameterSource().addValue("after", after).addValue("limit", REBUILD_CHUNK_SIZE),
+                    Long.class);
+            if (chunk.isEmpty()) {
+                return counted;
+            }
+            apply(statements, chunk, 1);
+            counted += chunk.size();
+            after = chunk.get(chunk.size() - 1);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return salesDailyRollupRepository.count() == 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponse> getDailySales(LocalDate from, LocalDate to) {
+        return salesDailyRollupRepository.findBySalesDateBetweenOrderBySalesDateAsc(from, to).stream()
+                .map(rollup -> SalesRollupResponse.builder()
+                        .date(rollup.getSalesDate())
+                        .revenue(rollup.getRevenue())
+                        .units(rollup.getUnits())
+                        .orderCount(rollup.getOrderCount())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponse> getTopProducts(int limit, String sortBy) {
+        String sortField = "units".equals(sortBy) ? "units" : "orders".equals(sortBy) ? "orderCount" : "revenue";
+        List<SalesProductRollup> rollups = salesProductRollupRepository.findAll(
+                PageRequest.of(0, Math.max(1, Math.min(limit, 100)), Sort.by(Sort.Direction.DESC, sortField))).getContent();
+
+        Map<Long, String> names = productRepository.findAllById(
+                        rollups.stream().map(SalesProductRollup::getProductId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getProductName, (a, b) -> a));
+
+        return rollups.stream()
+                .map(rollup -> SalesRollupResponse.builder()
+                        .productId(rollup.getProductId())
+                        .name(names.get(rollup.getProductId()))
+                        .revenue(rollup.getRevenue())
+                        .units(rollup.getUnits())
+                        .orderCount(rollup.getOrderCount())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponse> getCategorySales() {
+        List<SalesCategoryRollup> rollups = salesCategoryRollupRepository.findAll(Sort.by(Sort.Direction.DESC, "revenue"));
+
+        Map<Long, Category> categories = categoryRepository.findAllById(
+                        rollups.stream().map(SalesCategoryRollup::getCategoryId).toList()).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        return rollups.stream()
+                .map(rollup -> SalesRollupResponse.builder()
+                        .categoryId(rollup.getCategoryId())
+                        .name(categories.containsKey(rollup.getCategoryId())
+                                ? categories.get(rollup.getCategoryId()).getCategoryName() : null)
+                        .revenue(rollup.getRevenue())
+                        .units(rollup.getUnits())
+                        .orderCount(rollup.getOrderCount())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.requests.SampleOrderGenerationRequest;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.enums.PaymentMethod;
+import com.example.vuvisa.enums.ShippingMethod;
+import com.example.vuvisa.services.OrderSummaryService;
+import com.example.vuvisa.services.SalesRollupService;
+import com.example.vuvisa.services.SampleDataService;
+import com.example.vuvisa.services.UserOrderStatsService;
+import com.example.vuvisa.utils.OrderIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic order generator that bypasses JPA.
+ * <p>
+ * Product ids and prices are streamed once into primitive arrays. Orders are then produced in
+ * independent chunks on a fixed thread pool. Each chunk is one transaction with two JDBC batch
+ * inserts (orders, then order_details) and the orders' summaries, so the persistence context never grows.
+ * Product popularity follows a Zipf distribution over a shuffled product ranking, and order dates are
+ * spread over the requested number of months.
+ * <p>
+ * The sales rollups and user statistics are added once all chunks are written, on the calling thread in a
+ * few large transactions: chunks would otherwise upsert the same rollup rows from every thread and have to
+ * take turns. Until then the new orders are missing from the rollups.
+ */
+@Service
+@Slf4j
+public class SampleDataServiceImpl implements SampleDataService {
+
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders (id, user_id, full_name, email, phone_number, "
+            + "city, district, ward, address, order_date, status, payment_method, shipping_date, shipping_method, "
+            + "note, discount_code, subtotal, discount_total, grand_total, status_changed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DETAIL_SQL =
+            "INSERT INTO order_details (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+
+    private static final String[] CITIES = {"Hồ Chí Minh", "Hà Nội", "Đà Nẵng", "Cần Thơ", "Hải Phòng", "Nha Trang"};
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    // Orders added to the rollups per transaction; the services split them into statements themselves
+    private static final int ROLLUP_BATCH_SIZE = 20_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesRollupService salesRollupService;
+    private final UserOrderStatsService userOrderStatsService;
+    private final OrderSummaryService orderSummaryService;
+
+    public SampleDataServiceImpl(JdbcTemplate jdbcTemplate, DataSource dataSource,
+            PlatformTransactionManager transactionManager, SalesRollupService salesRollupService,
+            UserOrderStatsService userOrderStatsService, OrderSummaryService orderSummaryService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.salesRollupService = salesRollupService;
+        this.userOrderStatsService = userOrderStatsService;
+        this.orderSummaryService = orderSummaryService;
+        // MySQL only streams result sets row by row with this fetch size
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int generateOrders(SampleOrderGenerationRequest request) throws Exception {
+        long[] userIds = loadUserIds();
+        if (userIds.length == 0) {
+            throw new Exception("No user found for sample order creation");
+        }
+        ProductCatalog catalog = loadProducts();
+        if (catalog.size() == 0) {
+            throw new Exception("No products available to create order items.");
+        }
+
+        long seed = request.getSeed() != null ? request.getSeed() : System.nanoTime();
+        ZipfSampler sampler = new ZipfSampler(catalog.size(), request.getZipfExponent(), new SplittableRandom(seed));
+        long now = System.currentTimeMillis();
+        long spanMillis = request.getMonths() * 30L * DAY_MILLIS;
+
+        int chunkSize = request.getChunkSize();
+        int chunks = (request.getCount() + chunkSize - 1) / chunkSize;
+        long start = System.currentTimeMillis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(request.getThreads(), chunks));
+        Queue<WrittenChunk> written = new ConcurrentLinkedQueue<>();
+        int created = 0;
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int size = Math.min(chunkSize, request.getCount() - chunk * chunkSize);
+                SplittableRandom random = new SplittableRandom(seed + 31L * (chunk + 1));
+                futures.add(executor.submit(() -> writeChunk(size, random, userIds, catalog, sampler,
+                        request.getMaxItemsPerOrder(), now, spanMillis, written)));
+            }
+
+            try {
+                for (Future<Integer> future : futures) {
+                    created += future.get();
+                }
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        } finally {
+            executor.shutdownNow();
+            // A cancelled chunk may still commit; every committed chunk has to reach the rollups
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            addToRollups(written);
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        log.info("Generated {} sample orders in {} ms ({} orders/min)",
+                created, elapsed, created * 60_000L / elapsed);
+        return created;
+    }
+
+    /**
+     * Add the written orders to the sales rollups and user statistics, one batch of orders per transaction
+     */
+    private void addToRollups(Collection<WrittenChunk> chunks) {
+        List<Long> orderIds = new ArrayList<>(ROLLUP_BATCH_SIZE);
+        List<Long> countedOrderIds = new ArrayList<>(ROLLUP_BATCH_SIZE);
+        for (WrittenChunk chunk : chunks) {
+            orderIds.addAll(chunk.orderIds());
+            countedOrderIds.addAll(chunk.countedOrderIds());
+            if (orderIds.size() >= ROLLUP_BATCH_SIZE) {
+                addToRollups(orderIds, countedOrderIds);
+                orderIds.clear();
+                countedOrderIds.clear();
+            }
+        }
+        if (!orderIds.isEmpty()) {
+            addToRollups(orderIds, countedOrderIds);
+        }
+    }
+
+    private void addToRollups(List<Long> orderIds, List<Long> countedOrderIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            salesRollupService.addOrders(countedOrderIds);
+            userOrderStatsService.addOrders(orderIds);
+        });
+    }
+
+    private int writeChunk(int size, SplittableRandom random, long[] userIds, ProductCatalog catalog,
+            ZipfSampler sampler, int maxItems, long now, long spanMillis, Queue<WrittenChunk> written) {
+        List<Object[]> orders = new ArrayList<>(size);
+        List<Object[]> details = new ArrayList<>(size * (maxItems + 1) / 2);
+        List<Long> orderIds = new ArrayList<>(size);
+        List<Long> countedOrderIds = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            long orderId = OrderIdGenerator.nextId();
+            long orderTime = spanMillis > 0 ? now - random.nextLong(spanMillis) : now;
+            int city = random.nextInt(CITIES.length);
+            String suffix = Long.toString(orderId % 1_000_000);
+            OrderStatus orderStatus = statusFor(now - orderTime, random);
+            orderIds.add(orderId);
+            if (orderStatus != OrderStatus.CANCELLED) {
+                countedOrderIds.add(orderId);
+            }
+
+            Object[] order = new Object[] {
+                    orderId,
+                    userIds[random.nextInt(userIds.length)],
+                    "Customer " + suffix,
+                    "customer" + suffix + "@example.com",
+                    String.format("09%08d", random.nextInt(100_000_000)),
+                    CITIES[city],
+                    "Sample District " + random.nextInt(24),
+                    "Sample Ward " + random.nextInt(30),
+                    random.nextInt(1000) + " Sample Street",
+                    new Timestamp(orderTime),
+                    orderStatus.name(),
+                    (random.nextInt(10) < 7 ? PaymentMethod.CASH_ON_DELIVERY : PaymentMethod.VN_PAY).name(),
+                    new Timestamp(orderTime + 2 * DAY_MILLIS),
+                    (random.nextInt(10) < 8 ? ShippingMethod.STANDARD : ShippingMethod.EXPRESS).name(),
+                    "Sample order",
+                    null,
+                    0L, // subtotal, filled in below
+                    0L,
+                    0L,
+                    new Timestamp(orderTime)
+            };
+            orders.add(order);
+
+            // 1..maxItems distinct products per order
+            int items = 1 + random.nextInt(maxItems);
+            int[] chosen = new int[items];
+            int picked = 0;
+            long subtotal = 0L;
+            for (int attempt = 0; picked < items && attempt < items * 4; attempt++) {
+                int product = sampler.sample(random);
+                if (!contains(chosen, picked, product)) {
+                    chosen[picked++] = product;
+                    long quantity = 1L + random.nextInt(5);
+                    subtotal += quantity * catalog.prices[product];
+                    details.add(new Object[] {
+                            orderId, catalog.ids[product], quantity, catalog.prices[product]
+                    });
+                }
+            }
+            // Sample orders carry no vouchers, so the grand total equals the subtotal
+            order[16] = subtotal;
+            order[18] = subtotal;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orders);
+            jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, details);
+            orderSummaryService.refresh(orderIds);
+        });
+        written.add(new WrittenChunk(orderIds, countedOrderIds));
+        return size;
+    }
+
+    private OrderStatus statusFor(long ageMillis, SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (ageMillis > 14 * DAY_MILLIS) {
+            return roll < 85 ? OrderStatus.COMPLETED : roll < 95 ? OrderStatus.CANCELLED : OrderStatus.DELIVERING;
+        }
+        if (roll < 25) return OrderStatus.PENDING;
+        if (roll < 45) return OrderStatus.CONFIRMED;
+        if (roll < 60) return OrderStatus.PACKING;
+        if (roll < 80) return OrderStatus.DELIVERING;
+        if (roll < 95) return OrderStatus.COMPLETED;
+        return OrderStatus.CANCELLED;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] loadUserIds() {
+        LongBuffer ids = new LongBuffer();
+        streamingJdbcTemplate.query("SELECT id FROM users", rs -> {
+            ids.add(rs.getLong(1));
+        });
+        return ids.toArray();
+    }
+
+    private ProductCatalog loadProducts() {
+        LongBuffer ids = new LongBuffer();
+        LongBuffer prices = new LongBuffer();
+        streamingJdbcTemplate.query("SELECT id, price FROM product WHERE price IS NOT NULL ORDER BY id", rs -> {
+            ids.add(rs.getLong(1));
+            prices.add(rs.getLong(2));
+        });
+        return new ProductCatalog(ids.toArray(), prices.toArray());
+    }
+
+    /**
+     * Orders of a committed chunk, and those of them that count as sales
+     */
+    private record WrittenChunk(List<Long> orderIds, List<Long> countedOrderIds) {
+    }
+
+    private record ProductCatalog(long[] ids, long[] prices) {
+        int size() {
+            return ids.length;
+        }
+    }
+
+    /**
+     * Growable primitive long array, so streaming ids does not box every value
+     */
+    private static final class LongBuffer {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Samples product indexes with Zipf-distributed popularity.
+     * Ranks are assigned to a random permutation of the products, so the popular products
+     * are not simply the ones with the smallest ids.
+     */
+    private static final class ZipfSampler {
+        private final double[] cumulative;
+        private final int[] productByRank;
+
+        ZipfSampler(int size, double exponent, SplittableRandom random) {
+            cumulative = new double[size];
+            double total = 0;
+            for (int rank = 0; rank < size; rank++) {
+                total += 1.0 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < size; rank++) {
+                cumulative[rank] /= total;
+            }
+
+            productByRank = new int[size];
+            for (int i = 0; i < size; i++) {
+                productByRank[i] = i;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = productByRank[i];
+                productByRank[i] = productByRank[j];
+                productByRank[j] = swap;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            return productByRank[Math.min(rank, productByRank.length - 1)];
+        }
+    }
+}
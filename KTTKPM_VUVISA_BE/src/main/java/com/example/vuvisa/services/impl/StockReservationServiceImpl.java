@@ -0,0 +1,147 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.events.ProductChangedEvent;
+import com.example.vuvisa.exceptions.InsufficientStockException;
+import com.example.vuvisa.exceptions.ResourceNotFoundException;
+import com.example.vuvisa.services.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock reservation backed by conditional batch updates.
+ * <p>
+ * Every line is reserved with {@code stock_quantity = stock_quantity - ? WHERE stock_quantity >= ?},
+ * so the check and the decrement happen in the same row update and concurrent checkouts
+ * can never push stock below zero. Lines are applied in product id order to keep the
+ * row lock order stable between transactions. Cached details of the products are evicted once the
+ * transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final String RESERVE_SQL =
+            "UPDATE product SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String RELEASE_SQL =
+            "UPDATE product SET stock_quantity = stock_quantity + ? WHERE id = ?";
+    private static final String STOCK_SQL =
+            "SELECT id, product_name, stock_quantity FROM product WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Long> quantities) {
+        List<Map.Entry<Long, Long>> lines = sortedLines(quantities);
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Long> line = lines.get(i);
+                ps.setLong(1, line.getValue());
+                ps.setLong(2, line.getKey());
+                ps.setLong(3, line.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+
+        List<Long> failedIds = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                failedIds.add(lines.get(i).getKey());
+            }
+        }
+
+        if (!failedIds.isEmpty()) {
+            // Throwing a runtime exception marks the caller's transaction rollback-only,
+            // which undoes the lines that were already decremented in this batch.
+            throw shortageException(failedIds, quantities);
+        }
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(new HashSet<>(quantities.keySet()), false));
+        log.debug("Reserved stock for {} products", lines.size());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, Long> quantities) {
+        List<Map.Entry<Long, Long>> lines = sortedLines(quantities);
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(RELEASE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Long> line = lines.get(i);
+                ps.setLong(1, line.getValue());
+                ps.setLong(2, line.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(new HashSet<>(quantities.keySet()), false));
+        log.debug("Released stock for {} products", lines.size());
+    }
+
+    private List<Map.Entry<Long, Long>> sortedLines(Map<Long, Long> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Long>> lines = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : new TreeMap<>(quantities).entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product id = " + entry.getKey());
+            }
+            lines.add(entry);
+        }
+        return lines;
+    }
+
+    private RuntimeException shortageException(List<Long> failedIds, Map<Long, Long> quantities) {
+        Map<Long, Object[]> stock = new HashMap<>();
+        namedParameterJdbcTemplate.query(STOCK_SQL, Map.of("ids", failedIds), rs -> {
+            stock.put(rs.getLong("id"), new Object[] {rs.getString("product_name"), rs.getObject("stock_quantity")});
+        });
+
+        List<Long> missingIds = failedIds.stream().filter(id -> !stock.containsKey(id)).toList();
+        if (!missingIds.isEmpty()) {
+            return new ResourceNotFoundException("Product not found with id = " + missingIds);
+        }
+
+        List<String> shortages = new ArrayList<>();
+        for (Long productId : failedIds) {
+            Object[] row = stock.get(productId);
+            shortages.add(row[0] + ". Available: " + row[1] + ", Requested: " + quantities.get(productId));
+        }
+        return new InsufficientStockException(failedIds, "Not enough stock for product: " + String.join("; ", shortages));
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.dtos.responses.UserOrderStatsResponse;
+import com.example.vuvisa.repositories.UserOrderStatsRepository;
+import com.example.vuvisa.services.UserOrderStatsService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user order statistics maintained with set-based upserts.
+ * <p>
+ * Like the sales rollups, every change adds or subtracts the aggregated orders being changed inside
+ * the order's own transaction. Reads go to the table, one primary key lookup: a per-node cache would
+ * keep serving a user's old figures after an order placed through another node.
+ */
+@Service
+@Slf4j
+public class UserOrderStatsServiceImpl implements UserOrderStatsService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String NOT_CANCELLED = "(o.status IS NULL OR o.status <> 'CANCELLED')";
+
+    private static final String ORDERS_SQL = "INSERT INTO user_order_stats (user_id, order_count, lifetime_spend, last_order_date, updated_at) "
+            + "SELECT dt.d_user, dt.d_orders, dt.d_spend, dt.d_last, NOW() FROM ("
+            + "SELECT o.user_id AS d_user, :sign * COUNT(*) AS d_orders, "
+            + ":sign * COALESCE(SUM(CASE WHEN " + NOT_CANCELLED + " THEN o.grand_total END), 0) AS d_spend, "
+            + "MAX(o.order_date) AS d_last "
+            + "FROM orders o WHERE o.id IN (:ids) AND o.user_id IS NOT NULL GROUP BY o.user_id) dt "
+            + "ON DUPLICATE KEY UPDATE order_count = user_order_stats.order_count + dt.d_orders, "
+            + "lifetime_spend = user_order_stats.lifetime_spend + dt.d_spend, "
+            + "last_order_date = GREATEST(COALESCE(user_order_stats.last_order_date, dt.d_last), dt.d_last), "
+            + "updated_at = NOW()";
+
+    // A removed order may have been the latest one. The latest of the active and the archived orders is taken,
+    // as orders are archived by date and sample orders can be dated in the past, so either side may hold it
+    private static final String LAST_ORDER_DATE_SQL = "UPDATE user_order_stats s "
+            + "LEFT JOIN (SELECT o.user_id, MAX(o.order_date) AS d FROM orders o "
+            + "WHERE o.user_id IN (:userIds) AND o.id NOT IN (:ids) GROUP BY o.user_id) active ON active.user_id = s.user_id "
+            + "LEFT JOIN (SELECT a.user_id, MAX(a.order_date) AS d FROM orders_archive a "
+            + "WHERE a.user_id IN (:userIds) GROUP BY a.user_id) archived ON archived.user_id = s.user_id "
+            + "SET s.last_order_date = CASE WHEN archived.d IS NULL OR active.d >= archived.d THEN active.d ELSE archived.d END "
+            + "WHERE s.user_id IN (:userIds)";
+
+    private static final String SPEND_SQL = "INSERT INTO user_order_stats (user_id, order_count, lifetime_spend, last_order_date, updated_at) "
+            + "SELECT dt.d_user, 0, dt.d_spend, NULL, NOW() FROM ("
+            + "SELECT o.user_id AS d_user, :sign * COALESCE(SUM(o.grand_total), 0) AS d_spend "
+            + "FROM orders o WHERE o.id IN (:ids) AND o.user_id IS NOT NULL GROUP BY o.user_id) dt "
+            + "ON DUPLICATE KEY UPDATE lifetime_spend = user_order_stats.lifetime_spend + dt.d_spend, updated_at = NOW()";
+
+    private static final String USER_IDS_SQL =
+            "SELECT DISTINCT user_id FROM orders WHERE id IN (:ids) AND user_id IS NOT NULL";
+
+    private static final String USER_CHUNK_SQL = "SELECT id FROM users WHERE id > :after ORDER BY id LIMIT :limit";
+    private static final String DELETE_USERS_SQL = "DELETE FROM user_order_stats WHERE user_id IN (:ids)";
+    private static final String REBUILD_SQL = "INSERT INTO user_order_stats (user_id, order_count, lifetime_spend, last_order_date, updated_at) "
+            + "SELECT t.user_id, SUM(t.orders), SUM(t.spend), MAX(t.last_date), NOW() FROM ("
+            + "SELECT o.user_id, COUNT(*) AS orders, "
+            + "COALESCE(SUM(CASE WHEN " + NOT_CANCELLED + " THEN o.grand_total END), 0) AS spend, MAX(o.order_date) AS last_date "
+            + "FROM orders o WHERE o.user_id IN (:ids) GROUP BY o.user_id "
+            + "UNION ALL "
+            + "SELECT o.user_id, COUNT(*), "
+            + "COALESCE(SUM(CASE WHEN " + NOT_CANCELLED + " THEN o.grand_total END), 0), MAX(o.order_date) "
+            + "FROM orders_archive o WHERE o.user_id IN (:ids) GROUP BY o.user_id) t "
+            + "GROUP BY t.user_id";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManager entityManager;
+    private final UserOrderStatsRepository userOrderStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserOrderStatsServiceImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, EntityManager entityManager,
+            UserOrderStatsRepository userOrderStatsRepository, PlatformTransactionManager transactionManager) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.entityManager = entityManager;
+        this.userOrderStatsRepository = userOrderStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addOrders(Collection<Long> orderIds) {
+        apply(orderIds, ORDERS_SQL, 1);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeOrders(Collection<Long> orderIds) {
+        Set<Long> userIds = apply(orderIds, ORDERS_SQL, -1);
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            namedParameterJdbcTemplate.update(LAST_ORDER_DATE_SQL, new MapSqlParameterSource()
+                    .addValue("ids", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))
+                    .addValue("userIds", userIds));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addSpend(Collection<Long> orderIds) {
+        apply(orderIds, SPEND_SQL, 1);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeSpend(Collection<Long> orderIds) {
+        apply(orderIds, SPEND_SQL, -1);
+    }
+
+    /**
+     * Run one of the upserts over the orders in chunks
+     *
+     * @return the users whose statistics changed
+     */
+    private Set<Long> apply(Collection<Long> orderIds, String sql, int sign) {
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+        // The SQL reads the orders, so pending JPA changes must reach the database first
+        entityManager.flush();
+
+        Set<Long> userIds = new HashSet<>();
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            Map<String, Object> chunk = Map.of("ids", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+            userIds.addAll(namedParameterJdbcTemplate.queryForList(USER_IDS_SQL, chunk, Long.class));
+            namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource(chunk).addValue("sign", sign));
+        }
+        return userIds;
+    }
+
+    @Override
+    public UserOrderStatsResponse getStats(Long userId) {
+        return userOrderStatsRepository.findById(userId)
+                .map(stats -> UserOrderStatsResponse.builder()
+                        .userId(userId)
+                        .orderCount(stats.getOrderCount())
+                        .lifetimeSpend(stats.getLifetimeSpend())
+                        .lastOrderDate(stats.getLastOrderDate())
+                        .build())
+                .orElseGet(() -> UserOrderStatsResponse.builder().userId(userId).build());
+    }
+
+    @Override
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        long users = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Long> chunk = namedParameterJdbcTemplate.queryForList(USER_CHUNK_SQL,
+                    new MapSqlParameterSource().addValue("after", after).addValue("limit", CHUNK_SIZE), Long.class);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            // Delete and recompute in one transaction, so a user's row never shows a half-built value
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Object> params = Map.of("ids", chunk);
+                namedParameterJdbcTemplate.update(DELETE_USERS_SQL, params);
+                namedParameterJdbcTemplate.update(REBUILD_SQL, params);
+            });
+            users += chunk.size();
+            after = chunk.get(chunk.size() - 1);
+        }
+
+        log.info("Rebuilt order statistics of {} users in {} ms", users, System.currentTimeMillis() - start);
+        return users;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return userOrderStatsRepository.count() == 0;
+    }
+}
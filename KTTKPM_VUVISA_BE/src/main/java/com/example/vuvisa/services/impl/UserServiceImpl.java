@@ -20,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.vuvisa.dtos.requests.*;
+import com.example.vuvisa.dtos.responses.UserOrderStatsResponse;
 import com.example.vuvisa.dtos.responses.UserResponse;
 import com.example.vuvisa.entities.ConfirmationToken;
 import com.example.vuvisa.entities.Role;
@@ -50,6 +51,7 @@ public class UserServiceImpl implements UserService {
 	EmailService emailService;
 	ConfirmationTokenService confirmationTokenService;
 	MessageService messageService;
+	UserOrderStatsService userOrderStatsService;
 
 	@Autowired
 	private EventPublisher eventPublisher;
@@ -309,6 +311,35 @@ public class UserServiceImpl implements UserService {
 	}
 
 
+	@Override
+	public UserOrderStatsResponse getOrderStats(Long userId) {
+		UserOrderStatsResponse stats = userOrderStatsService.getStats(userId);
+		// A user with orders certainly exists; only empty statistics need the extra check
+		if (stats.getOrderCount() == 0 && !userRepository.existsById(userId)) {
+			throw new AppException(ErrorCode.USER_NOT_FOUND);
+		}
+		return stats;
+	}
+
+	@Override
+	public UserOrderStatsResponse getOrderStatsFromToken() {
+		var authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || !authentication.isAuthenticated()) {
+			throw new AppException(ErrorCode.UNAUTHORIZED);
+		}
+
+		User user = userRepository
+				.findByUsername(authentication.getName())
+				.orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
+		return userOrderStatsService.getStats(user.getId());
+	}
+
+	@PreAuthorize("hasAuthority('APPROVE_POST')")
+	@Override
+	public long rebuildOrderStats() {
+		return userOrderStatsService.rebuild();
+	}
+
 	@PreAuthorize("hasAuthority('APPROVE_POST')")
 	@Override
 	public Page<UserResponse> getAllUsers(String keyword, Boolean state, PageRequest pageRequest) {
@@ -53,6 +53,7 @@ public class VoucherImpl implements VoucherService {
                 .discountAmount(createVoucherRequest.getDiscountAmount())
                 .minOrderValue(createVoucherRequest.getMinOrderValue())
                 .maxUses(createVoucherRequest.getMaxUses().doubleValue())
+                .maxUsesPerUser(createVoucherRequest.getMaxUsesPerUser())
                 .startDate(createVoucherRequest.getStartDate())
                 .endDate(createVoucherRequest.getEndDate())
                 .build();
@@ -119,6 +120,7 @@ public class VoucherImpl implements VoucherService {
         existingVoucher.setDiscountAmount(updateVoucherRequest.getDiscountAmount());
         existingVoucher.setMinOrderValue(updateVoucherRequest.getMinOrderValue());
         existingVoucher.setMaxUses(updateVoucherRequest.getMaxUses().doubleValue());
+        existingVoucher.setMaxUsesPerUser(updateVoucherRequest.getMaxUsesPerUser());
         existingVoucher.setStartDate(updateVoucherRequest.getStartDate());
         existingVoucher.setEndDate(updateVoucherRequest.getEndDate());
 
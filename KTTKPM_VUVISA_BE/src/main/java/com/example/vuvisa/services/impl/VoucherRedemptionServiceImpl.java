@@ -0,0 +1,107 @@
+package com.example.vuvisa.services.impl;
+
+import com.example.vuvisa.entities.Voucher;
+import com.example.vuvisa.entities.VoucherRedemption;
+import com.example.vuvisa.exceptions.VoucherUnavailableException;
+import com.example.vuvisa.repositories.VoucherRedemptionRepository;
+import com.example.vuvisa.repositories.VoucherRepository;
+import com.example.vuvisa.repositories.VoucherUserUsageRepository;
+import com.example.vuvisa.services.VoucherRedemptionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Voucher redemption backed by atomic counters and a redemption ledger.
+ * <p>
+ * The global limit is enforced by {@code used_count = used_count + 1 WHERE used_count < max_uses}
+ * on the voucher row and the per-user limit by the same pattern on {@code voucher_user_usage},
+ * so the check and the increment are one row update and concurrent orders cannot over-redeem.
+ * Vouchers are processed in id order, and each voucher row is updated before its per-user row, to keep
+ * the row lock order stable between transactions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
+
+    private final VoucherRepository voucherRepository;
+    private final VoucherUserUsageRepository voucherUserUsageRepository;
+    private final VoucherRedemptionRepository voucherRedemptionRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void redeem(Collection<Voucher> vouchers, Long userId, Long orderId) {
+        List<Voucher> sorted = vouchers.stream().sorted(Comparator.comparing(Voucher::getId)).toList();
+
+        for (Voucher voucher : sorted) {
+            // Throwing marks the caller's transaction rollback-only, undoing the counters already taken
+            if (voucherRepository.incrementUsedCount(voucher.getId()) == 0) {
+                throw new VoucherUnavailableException(voucher.getId(),
+                        "Voucher " + voucher.getCode() + " đã đạt đến giới hạn số lần sử dụng.");
+            }
+
+            // The voucher row is locked until commit, so redemptions of the same user never race on the
+            // usage row (INSERT IGNORE takes a shared lock that two callers could not both upgrade)
+            if (userId != null && voucher.getMaxUsesPerUser() != null) {
+                voucherUserUsageRepository.insertIfMissing(voucher.getId(), userId);
+                if (voucherUserUsageRepository.incrementIfBelow(voucher.getId(), userId, voucher.getMaxUsesPerUser()) == 0) {
+                    throw new VoucherUnavailableException(voucher.getId(),
+                            "Bạn đã dùng hết số lần sử dụng voucher " + voucher.getCode() + ".");
+                }
+            }
+
+            voucherRedemptionRepository.save(VoucherRedemption.builder()
+                    .voucherId(voucher.getId())
+                    .orderId(orderId)
+                    .userId(userId)
+                    .build());
+        }
+        log.debug("Redeemed {} vouchers for order #{}", sorted.size(), orderId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Collection<Long> voucherIds, Long orderId) {
+        if (voucherIds.isEmpty()) {
+            return;
+        }
+
+        List<VoucherRedemption> redemptions = voucherRedemptionRepository.findByOrderId(orderId).stream()
+                .filter(redemption -> voucherIds.contains(redemption.getVoucherId()))
+                .sorted(Comparator.comparing(VoucherRedemption::getVoucherId))
+                .toList();
+
+        for (VoucherRedemption redemption : redemptions) {
+            voucherRepository.decrementUsedCount(redemption.getVoucherId());
+            if (redemption.getUserId() != null) {
+                voucherUserUsageRepository.decrement(redemption.getVoucherId(), redemption.getUserId());
+            }
+            voucherRedemptionRepository.delete(redemption);
+        }
+        log.debug("Released {} vouchers for order #{}", redemptions.size(), orderId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        // Per voucher, in id order like redeem: the voucher's counter, then its users' counters
+        List<VoucherRedemptionRepository.VoucherUses> uses = voucherRedemptionRepository.countUsesByOrderIdIn(orderIds);
+        for (VoucherRedemptionRepository.VoucherUses voucherUses : uses) {
+            voucherRepository.decrementUsedCount(voucherUses.getVoucherId(), voucherUses.getUses());
+            voucherUserUsageRepository.releaseOrders(voucherUses.getVoucherId(), orderIds);
+        }
+        int deleted = voucherRedemptionRepository.deleteByOrderIdIn(orderIds);
+        log.debug("Released {} voucher uses of {} orders", deleted, orderIds.size());
+    }
+}
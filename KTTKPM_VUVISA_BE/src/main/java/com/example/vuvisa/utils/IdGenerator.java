@@ -0,0 +1,12 @@
+package com.example.vuvisa.utils;
+
+/**
+ * Source of unique, monotonically increasing entity ids
+ */
+public interface IdGenerator {
+
+    /**
+     * @return the next id; never returns the same value twice for a generator instance
+     */
+    long nextId();
+}
@@ -0,0 +1,546 @@
+package com.example.vuvisa.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, author names and description, ranked with BM25.
+ * <p>
+ * Every product is a document with an internal doc id handed out in increasing order, so each posting
+ * list stays sorted just by appending. A posting is one int: the doc id in the upper 24 bits and the
+ * weighted term frequency (capped at 255) in the lower 8. Name terms count three times and author terms
+ * twice, a simple form of per-field weighting. Updates append a new document and tombstone the old one;
+ * tombstones are compacted away once they make up a quarter of the index.
+ * <p>
+ * A query matches products containing every query term, the last one also as a prefix, so results
+ * narrow down while the user is typing. Scoring starts from the rarest term and intersects the others
+ * into that candidate list. Only a prefix that expands to several common terms is scored into a
+ * per-document array, which is cheaper than merging its posting lists.
+ * <p>
+ * Reads share a read lock; writes take the write lock for the time of one product.
+ */
+public final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_DESCRIPTION_TERMS = 300;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MAX_QUERY_TERMS = 10;
+    private static final int DOC_BITS = 24;
+    private static final int MAX_DOCS = 1 << DOC_BITS;
+    private static final int FREQ_MASK = 0xFF;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] productIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private int docCount;
+    private int liveDocs;
+    private long liveLength;
+
+    /**
+     * Index a product, replacing what was indexed for it before.
+     *
+     * @param productId the product id
+     * @param name product name
+     * @param authors author names, for books
+     * @param description product description, may contain markup
+     */
+    public void put(long productId, String name, String authors, String description) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        int length = count(frequencies, VietnameseTextAnalyzer.tokenize(name), NAME_WEIGHT)
+                + count(frequencies, VietnameseTextAnalyzer.tokenize(authors), AUTHOR_WEIGHT)
+                + count(frequencies, VietnameseTextAnalyzer.tokenize(description, MAX_DESCRIPTION_TERMS, true),
+                DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            if (docCount == MAX_DOCS) {
+                compact();
+                if (docCount == MAX_DOCS) {
+                    throw new IllegalStateException("Search index is full at " + MAX_DOCS + " products");
+                }
+            }
+            int doc = docCount++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, Math.min(doc * 2, MAX_DOCS));
+                lengths = Arrays.copyOf(lengths, productIds.length);
+            }
+            productIds[doc] = productId;
+            lengths[doc] = length;
+            docByProduct.put(productId, doc);
+            liveDocs++;
+            liveLength += length;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings())
+                        .add(doc, Math.min(entry.getValue(), FREQ_MASK));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param productId the product to drop from the index
+     */
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the products matching every term of the query, best first.
+     *
+     * @param query the text typed by the user
+     * @param offset number of hits to skip
+     * @param limit max number of hits to return
+     * @return the requested page of product ids and the total number of matches
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(VietnameseTextAnalyzer.tokenize(query)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+        if (queryTerms.size() > MAX_QUERY_TERMS) {
+            queryTerms = queryTerms.subList(0, MAX_QUERY_TERMS);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return SearchResult.EMPTY;
+            }
+            List<QueryTerm> resolved = new ArrayList<>(queryTerms.size());
+            for (int i = 0; i < queryTerms.size(); i++) {
+                QueryTerm term = resolve(queryTerms.get(i), i == queryTerms.size() - 1);
+                if (term.postings.isEmpty()) {
+                    return SearchResult.EMPTY;
+                }
+                resolved.add(term);
+            }
+            resolved.sort((a, b) -> Long.compare(a.documentFrequency(), b.documentFrequency()));
+
+            float averageLength = (float) liveLength / liveDocs;
+            Candidates candidates = firstTerm(resolved.get(0), averageLength);
+            for (int i = 1; i < resolved.size() && candidates.size > 0; i++) {
+                QueryTerm term = resolved.get(i);
+                if (term.postings.size() == 1) {
+                    candidates.intersect(term.postings.get(0), this, averageLength);
+                } else {
+                    candidates.intersect(accumulate(term, averageLength));
+                }
+            }
+            return candidates.top(offset, limit, productIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of products in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of distinct terms in the index
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private QueryTerm resolve(String term, boolean prefix) {
+        List<Postings> postings = new ArrayList<>();
+        Postings exact = terms.get(term);
+        if (exact != null) {
+            postings.add(exact);
+        }
+        if (prefix) {
+            // The most common completions; rare ones would add little but cost a posting list each
+            List<Postings> completions = new ArrayList<>();
+            NavigableMap<String, Postings> range = terms.subMap(term, false, term + Character.MAX_VALUE, false);
+            for (Postings completion : range.values()) {
+                completions.add(completion);
+            }
+            if (completions.size() > MAX_PREFIX_EXPANSIONS) {
+                completions.sort((a, b) -> Integer.compare(b.size, a.size));
+                completions = completions.subList(0, MAX_PREFIX_EXPANSIONS);
+            }
+            postings.addAll(completions);
+        }
+        return new QueryTerm(postings);
+    }
+
+    private Candidates firstTerm(QueryTerm term, float averageLength) {
+        if (term.postings.size() == 1) {
+            Postings postings = term.postings.get(0);
+            float idf = idf(postings.size);
+            Candidates candidates = new Candidates(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.values[i] >>> (32 - DOC_BITS);
+                if (!deleted.get(doc)) {
+                    candidates.append(doc, score(idf, postings.values[i] & FREQ_MASK, doc, averageLength));
+                }
+            }
+            return candidates;
+        }
+
+        if (term.documentFrequency() * 8 >= docCount) {
+            // Completions of a short prefix covering much of the catalog: add up per doc, then collect in order
+            float[] scores = accumulate(term, averageLength);
+            int matches = 0;
+            for (float score : scores) {
+                if (score > 0) {
+                    matches++;
+                }
+            }
+            Candidates candidates = new Candidates(matches);
+            for (int doc = 0; doc < docCount && candidates.size < matches; doc++) {
+                if (scores[doc] > 0) {
+                    candidates.append(doc, scores[doc]);
+                }
+            }
+            return candidates;
+        }
+
+        // Fewer completions: sort their postings by doc id and add up the scores of a doc
+        long[] merged = new long[(int) term.documentFrequency()];
+        int count = 0;
+        for (Postings postings : term.postings) {
+            float idf = idf(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.values[i] >>> (32 - DOC_BITS);
+                if (!deleted.get(doc)) {
+                    float score = score(idf, postings.values[i] & FREQ_MASK, doc, averageLength);
+                    merged[count++] = ((long) doc << 32) | (Float.floatToIntBits(score) & 0xFFFFFFFFL);
+                }
+            }
+        }
+        Arrays.sort(merged, 0, count);
+        Candidates candidates = new Candidates(count);
+        for (int i = 0; i < count; i++) {
+            int doc = (int) (merged[i] >>> 32);
+            float score = Float.intBitsToFloat((int) merged[i]);
+            if (candidates.size > 0 && candidates.docs[candidates.size - 1] == doc) {
+                candidates.scores[candidates.size - 1] += score;
+            } else {
+                candidates.append(doc, score);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Scores of a term with several posting lists, indexed by doc id; zero where the term does not occur.
+     * One pass over the postings, instead of merging or seeking through each list separately.
+     */
+    private float[] accumulate(QueryTerm term, float averageLength) {
+        float[] scores = new float[docCount];
+        for (Postings postings : term.postings) {
+            float idf = idf(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.values[i] >>> (32 - DOC_BITS);
+                if (!deleted.get(doc)) {
+                    scores[doc] += score(idf, postings.values[i] & FREQ_MASK, doc, averageLength);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private float idf(int documentFrequency) {
+        // Tombstones still count in the posting list sizes, which can push a very common term below zero
+        return Math.max(0.0001f,
+                (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5)));
+    }
+
+    private float score(float idf, int frequency, int doc, float averageLength) {
+        float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private void removeDoc(long productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        liveDocs--;
+        liveLength -= lengths[doc];
+        int tombstones = docCount - liveDocs;
+        if (tombstones >= MIN_COMPACTION_TOMBSTONES && tombstones * 4 >= docCount) {
+            compact();
+        }
+    }
+
+    /**
+     * Drop tombstoned docs and renumber the live ones densely, keeping their order
+     */
+    private void compact() {
+        int[] newDoc = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                newDoc[doc] = -1;
+            } else {
+                newDoc[doc] = live;
+                productIds[live] = productIds[doc];
+                lengths[live] = lengths[doc];
+                docByProduct.put(productIds[live], live);
+                live++;
+            }
+        }
+
+        Iterator<Postings> iterator = terms.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            postings.remap(newDoc);
+            if (postings.size == 0) {
+                iterator.remove();
+            }
+        }
+        docCount = live;
+        deleted.clear();
+    }
+
+    private static int count(Map<String, Integer> frequencies, List<String> tokens, int weight) {
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * One page of search hits
+     *
+     * @param productIds product ids, best match first
+     * @param totalHits number of products matching the query
+     */
+    public record SearchResult(List<Long> productIds, int totalHits) {
+        static final SearchResult EMPTY = new SearchResult(List.of(), 0);
+    }
+
+    private static final class Postings {
+        int[] values = new int[4];
+        int size;
+
+        void add(int doc, int frequency) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = (doc << (32 - DOC_BITS)) | frequency;
+        }
+
+        void remap(int[] newDoc) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = newDoc[values[i] >>> (32 - DOC_BITS)];
+                if (doc >= 0) {
+                    values[kept++] = (doc << (32 - DOC_BITS)) | (values[i] & FREQ_MASK);
+                }
+            }
+            size = kept;
+            if (values.length > 16 && size < values.length / 2) {
+                values = Arrays.copyOf(values, Math.max(4, size));
+            }
+        }
+    }
+
+    /**
+     * A query term with the posting lists it matches: the exact term and, for the last term, its completions
+     */
+    private record QueryTerm(List<Postings> postings) {
+        long documentFrequency() {
+            long total = 0;
+            for (Postings p : postings) {
+                total += p.size;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Docs matching every term so far, sorted by doc id, with their accumulated scores
+     */
+    private static final class Candidates {
+        int[] docs;
+        float[] scores;
+        int size;
+
+        Candidates(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void append(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        /**
+         * Keep the candidates found in the posting list and add their scores for it
+         */
+        void intersect(Postings postings, InvertedIndex index, float averageLength) {
+            float idf = index.idf(postings.size);
+            int kept = 0;
+            int p = 0;
+            for (int c = 0; c < size && p < postings.size; c++) {
+                int doc = docs[c];
+                p = seek(postings, p, doc);
+                if (p < postings.size && postings.values[p] >>> (32 - DOC_BITS) == doc) {
+                    docs[kept] = doc;
+                    scores[kept] = scores[c] + index.score(idf, postings.values[p] & FREQ_MASK, doc, averageLength);
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Keep the candidates with a score for the term and add it
+         *
+         * @param termScores the term's scores by doc id, from {@link InvertedIndex#accumulate}
+         */
+        void intersect(float[] termScores) {
+            int kept = 0;
+            for (int c = 0; c < size; c++) {
+                float termScore = termScores[docs[c]];
+                if (termScore > 0) {
+                    docs[kept] = docs[c];
+                    scores[kept] = scores[c] + termScore;
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * First position at or after {@code from} whose doc is not below {@code doc}, galloping then bisecting
+         */
+        private static int seek(Postings postings, int from, int doc) {
+            int[] values = postings.values;
+            int target = doc << (32 - DOC_BITS);
+            if (from >= postings.size || Integer.compareUnsigned(values[from], target) >= 0) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < postings.size && Integer.compareUnsigned(values[high], target) < 0) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, postings.size);
+            // values[low] < target <= values[high] (or high == size)
+            while (low + 1 < high) {
+                int mid = (low + high) >>> 1;
+                if (Integer.compareUnsigned(values[mid], target) < 0) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            return high;
+        }
+
+        SearchResult top(int offset, int limit, long[] productIds) {
+            int wanted = (int) Math.min((long) offset + limit, size);
+            if (offset >= wanted) {
+                return new SearchResult(List.of(), size);
+            }
+            // Min-heap of the best `wanted` candidates, by position in the candidate arrays
+            int[] heap = new int[wanted];
+            int heapSize = 0;
+            for (int c = 0; c < size; c++) {
+                if (heapSize < wanted) {
+                    heap[heapSize] = c;
+                    siftUp(heap, heapSize++);
+                } else if (better(c, heap[0])) {
+                    heap[0] = c;
+                    siftDown(heap, heapSize);
+                }
+            }
+            Long[] ranked = new Long[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                ranked[i] = productIds[docs[heap[0]]];
+                heap[0] = heap[i];
+                siftDown(heap, i);
+            }
+            return new SearchResult(List.of(ranked).subList(offset, heapSize), size);
+        }
+
+        /**
+         * Higher score first; on a tie the older document
+         */
+        private boolean better(int a, int b) {
+            return scores[a] > scores[b] || (scores[a] == scores[b] && docs[a] < docs[b]);
+        }
+
+        private void siftUp(int[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(heap[parent], heap[i])) {
+                    break;
+                }
+                swap(heap, i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= heapSize) {
+                    break;
+                }
+                int worst = left + 1 < heapSize && better(heap[left], heap[left + 1]) ? left + 1 : left;
+                if (!better(heap[i], heap[worst])) {
+                    break;
+                }
+                swap(heap, i, worst);
+                i = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int i, int j) {
+            int tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+    }
+}
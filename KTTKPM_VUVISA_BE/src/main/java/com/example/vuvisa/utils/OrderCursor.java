@@ -0,0 +1,36 @@
+package com.example.vuvisa.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset cursor over orders sorted by (orderDate desc, id desc).
+ * Encoded as URL-safe base64 of {@code <orderDate millis>:<id>} so clients treat it as a token.
+ * Orders without a date sort last; their cursors leave the millis empty and decode to a null orderDate.
+ */
+public record OrderCursor(Date orderDate, Long id) {
+
+    public String encode() {
+        String raw = (orderDate != null ? String.valueOf(orderDate.getTime()) : "") + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor the encoded cursor
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            String millis = raw.substring(0, separator);
+            return new OrderCursor(
+                    millis.isEmpty() ? null : new Date(Long.parseLong(millis)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
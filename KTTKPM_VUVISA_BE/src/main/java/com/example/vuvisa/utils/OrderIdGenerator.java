@@ -0,0 +1,22 @@
+package com.example.vuvisa.utils;
+
+/**
+ * Static access to the order id generator for {@link com.example.vuvisa.entities.Order#prePersist()},
+ * which is not a Spring bean. The generator is replaced at startup by
+ * {@link com.example.vuvisa.configurations.IdGeneratorConfig} with the configured node id.
+ */
+public final class OrderIdGenerator {
+
+    private static volatile IdGenerator generator = new SnowflakeIdGenerator(0);
+
+    private OrderIdGenerator() {
+    }
+
+    public static long nextId() {
+        return generator.nextId();
+    }
+
+    public static void install(IdGenerator idGenerator) {
+        generator = idGenerator;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.vuvisa.utils;
+
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.entities.OrderDetail;
+import com.example.vuvisa.entities.Voucher;
+
+import java.util.Collection;
+
+/**
+ * Order total rules, shared by order writes and the totals backfill.
+ * <ul>
+ *     <li>subtotal = sum of price x quantity over the order lines</li>
+ *     <li>discount = per voucher its fixed amount, or its percentage of the subtotal when no amount is set,
+ *     rounded once and capped at the subtotal</li>
+ *     <li>grand total = subtotal - discount</li>
+ * </ul>
+ */
+public final class OrderTotals {
+
+    private OrderTotals() {
+    }
+
+    /**
+     * Compute and set subtotal, discount total and grand total from the order's lines and vouchers
+     */
+    public static void apply(Order order) {
+        long subtotal = subtotal(order.getOrderDetails());
+        long discount = discount(order.getVouchers(), subtotal);
+        order.setSubtotal(subtotal);
+        order.setDiscountTotal(discount);
+        order.setGrandTotal(subtotal - discount);
+    }
+
+    public static long subtotal(Collection<OrderDetail> details) {
+        if (details == null) {
+            return 0L;
+        }
+        long subtotal = 0L;
+        for (OrderDetail detail : details) {
+            if (detail.getPrice() != null && detail.getQuantity() != null) {
+                subtotal += detail.getPrice() * detail.getQuantity();
+            }
+        }
+        return subtotal;
+    }
+
+    public static long discount(Collection<Voucher> vouchers, long subtotal) {
+        if (vouchers == null || vouchers.isEmpty()) {
+            return 0L;
+        }
+        double discount = 0.0;
+        for (Voucher voucher : vouchers) {
+            if (voucher.getDiscountAmount() != null) {
+                discount += voucher.getDiscountAmount();
+            } else if (voucher.getDiscountPercentage() != null) {
+                discount += subtotal * voucher.getDiscountPercentage() / 100.0;
+            }
+        }
+        return Math.min(subtotal, Math.max(0L, Math.round(discount)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.vuvisa.utils;
+
+import com.lowagie.text.pdf.BaseFont;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.xhtmlrenderer.pdf.ITextFontResolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fonts available to the PDF renderer, resolved once per JVM.
+ * <p>
+ * Every {@code fonts/*.ttf} on the classpath is copied to a temp directory (the renderer needs
+ * real file paths, which a packaged jar does not have) and parsed once; OpenPDF keeps the parsed
+ * {@link BaseFont} in its font cache, so registering the same path with further renderers is cheap.
+ * The bundled DejaVu Serif covers Vietnamese; without a usable font the renderer would fall back to
+ * Helvetica, which has no Vietnamese glyphs, so {@link #requireFonts()} fails startup instead.
+ * The Windows Times New Roman / Arial / Tahoma files are still picked up when they exist, which keeps
+ * the output identical on developer machines.
+ */
+@Slf4j
+public final class PdfFontRegistry {
+
+    private static final String CLASSPATH_FONTS = "classpath*:fonts/*.ttf";
+
+    private static final String[] SYSTEM_FONTS = {
+            "C:/Windows/Fonts/times.ttf",
+            "C:/Windows/Fonts/timesbd.ttf",
+            "C:/Windows/Fonts/timesi.ttf",
+            "C:/Windows/Fonts/timesbi.ttf",
+            "C:/Windows/Fonts/Arial.ttf",
+            "C:/Windows/Fonts/Tahoma.ttf"
+    };
+
+    private static final List<String> FONT_PATHS = loadFonts();
+
+    private PdfFontRegistry() {
+    }
+
+    /**
+     * @return absolute paths of every font that parsed successfully
+     */
+    public static List<String> getFontPaths() {
+        return FONT_PATHS;
+    }
+
+    /**
+     * Fail unless at least one font parsed, so invoices are never rendered without Vietnamese glyphs
+     * @return absolute paths of every font that parsed successfully
+     * @throws IllegalStateException if no font could be loaded
+     */
+    public static List<String> requireFonts() {
+        if (FONT_PATHS.isEmpty()) {
+            throw new IllegalStateException("No PDF font could be loaded from " + CLASSPATH_FONTS
+                    + "; invoices cannot render Vietnamese text");
+        }
+        return FONT_PATHS;
+    }
+
+    /**
+     * Register every known font with a renderer's font resolver
+     * @param fontResolver the renderer's font resolver
+     */
+    public static void registerFonts(ITextFontResolver fontResolver) {
+        for (String fontPath : FONT_PATHS) {
+            try {
+                fontResolver.addFont(fontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            } catch (Exception e) {
+                log.warn("Could not register font {}: {}", fontPath, e.getMessage());
+            }
+        }
+    }
+
+    private static List<String> loadFonts() {
+        List<String> fontPaths = new ArrayList<>();
+
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(CLASSPATH_FONTS);
+            Path fontDir = null;
+            for (Resource resource : resources) {
+                if (fontDir == null) {
+                    fontDir = Files.createTempDirectory("vuvisa-fonts");
+                    fontDir.toFile().deleteOnExit();
+                }
+                Path target = fontDir.resolve(resource.getFilename());
+                try (InputStream in = resource.getInputStream()) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                target.toFile().deleteOnExit();
+                addIfParsable(fontPaths, target.toAbsolutePath().toString());
+            }
+        } catch (IOException e) {
+            log.error("Could not load bundled PDF fonts: {}", e.getMessage());
+        }
+
+        for (String systemFont : SYSTEM_FONTS) {
+            if (new File(systemFont).exists()) {
+                addIfParsable(fontPaths, systemFont);
+            }
+        }
+
+        log.info("Loaded {} PDF fonts", fontPaths.size());
+        return Collections.unmodifiableList(fontPaths);
+    }
+
+    private static void addIfParsable(List<String> fontPaths, String fontPath) {
+        try {
+            // Parses the TTF once and leaves it in OpenPDF's font cache
+            BaseFont.createFont(fontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            fontPaths.add(fontPath);
+        } catch (Exception e) {
+            log.warn("Skipping unreadable font {}: {}", fontPath, e.getMessage());
+        }
+    }
+}
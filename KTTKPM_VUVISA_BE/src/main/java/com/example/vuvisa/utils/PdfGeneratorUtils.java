@@ -3,17 +3,25 @@ package com.example.vuvisa.utils;
 
 import org.xhtmlrenderer.pdf.ITextRenderer;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import com.lowagie.text.Document;
-import com.lowagie.text.pdf.BaseFont;
 import com.lowagie.text.pdf.PdfCopy;
 import com.lowagie.text.pdf.PdfReader;
 
 public class PdfGeneratorUtils {
 
+    // ITextRenderer is not thread-safe: a render borrows one, with the fonts already registered, and returns it.
+    // At most one idle renderer per core is kept, whichever threads render
+    private static final BlockingQueue<ITextRenderer> IDLE_RENDERERS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    // Laid out by a returned renderer so that it does not hold on to the last invoice's document and boxes
+    private static final String BLANK_HTML = "<html><head></head><body></body></html>";
+
     /**
      * Generates a PDF from HTML content
      * @param htmlContent HTML content to convert to PDF
@@ -22,70 +30,48 @@ public class PdfGeneratorUtils {
      */
     public static byte[] generatePdfFromHtml(String htmlContent) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ITextRenderer renderer = new ITextRenderer();
+        String modifiedHtmlContent = prepareHtml(htmlContent);
 
-        // Configure font resolver for Vietnamese characters
-        try {
-            // Add Times New Roman font with proper encoding for Vietnamese
-            File timesFont = new File("C:/Windows/Fonts/Times New Roman.ttf");
-            if (timesFont.exists()) {
-                renderer.getFontResolver().addFont(timesFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            } else {
-                // Try standard Windows filename
-                File timesStdFont = new File("C:/Windows/Fonts/times.ttf");
-                if (timesStdFont.exists()) {
-                    renderer.getFontResolver().addFont(timesStdFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-                } else {
-                    System.err.println("Times New Roman font not found at any expected location");
-                }
-            }
-
-            // Add Times New Roman Bold for headings
-            File timesBoldFont = new File("C:/Windows/Fonts/timesbd.ttf"); // Standard Windows filename for Times New Roman Bold
-            if (timesBoldFont.exists()) {
-                renderer.getFontResolver().addFont(timesBoldFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            } else {
-                // Try alternative filename
-                File timesBoldAltFont = new File("C:/Windows/Fonts/Times New Roman Bold.ttf");
-                if (timesBoldAltFont.exists()) {
-                    renderer.getFontResolver().addFont(timesBoldAltFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-                }
-            }
-
-            // Add Times New Roman Italic
-            File timesItalicFont = new File("C:/Windows/Fonts/timesi.ttf");
-            if (timesItalicFont.exists()) {
-                renderer.getFontResolver().addFont(timesItalicFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            }
-
-            // Add Times New Roman Bold Italic
-            File timesBoldItalicFont = new File("C:/Windows/Fonts/timesbi.ttf");
-            if (timesBoldItalicFont.exists()) {
-                renderer.getFontResolver().addFont(timesBoldItalicFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            }
+        ITextRenderer renderer = IDLE_RENDERERS.poll();
+        if (renderer == null) {
+            renderer = createRenderer();
+        }
+        // A renderer that failed half way through a document is dropped, not returned
+        renderer.setDocumentFromString(modifiedHtmlContent);
+        renderer.layout();
+        renderer.createPDF(baos);
+        release(renderer);
 
-            File arialFont = new File("C:/Windows/Fonts/Arial.ttf");
-            if (arialFont.exists()) {
-                renderer.getFontResolver().addFont(arialFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            }
+        return baos.toByteArray();
+    }
 
-            File tahomaFont = new File("C:/Windows/Fonts/Tahoma.ttf");
-            if (tahomaFont.exists()) {
-                renderer.getFontResolver().addFont(tahomaFont.getAbsolutePath(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            }
+    private static void release(ITextRenderer renderer) {
+        try {
+            renderer.setDocumentFromString(BLANK_HTML);
+            renderer.layout();
         } catch (Exception e) {
-            System.err.println("Error loading fonts: " + e.getMessage());
-            e.printStackTrace();
+            return;
         }
+        IDLE_RENDERERS.offer(renderer);
+    }
 
-        // Update CSS to explicitly set font-family for Vietnamese text
+    private static ITextRenderer createRenderer() {
+        ITextRenderer renderer = new ITextRenderer();
+        // Configure font resolver for Vietnamese characters
+        PdfFontRegistry.registerFonts(renderer.getFontResolver());
+        return renderer;
+    }
+
+    static String prepareHtml(String htmlContent) {
+        // Update CSS to explicitly set font-family for Vietnamese text,
+        // falling back to the bundled DejaVu Serif where Times New Roman is not installed
         // First try with double quotes
         String modifiedHtmlContent = htmlContent.replace("font-family: \"Times New Roman\", sans-serif;",
-                "font-family: \"Times New Roman\"; font-language-override: normal;");
+                "font-family: \"Times New Roman\", \"DejaVu Serif\"; font-language-override: normal;");
 
         // Also try with single quotes in case the HTML uses those
         modifiedHtmlContent = modifiedHtmlContent.replace("font-family: 'Times New Roman', sans-serif;",
-                "font-family: 'Times New Roman'; font-language-override: normal;");
+                "font-family: 'Times New Roman', 'DejaVu Serif'; font-language-override: normal;");
 
         // Add meta tag for Vietnamese character encoding if not already present
         if (!modifiedHtmlContent.contains("<meta charset=\"UTF-8\"")) {
@@ -103,18 +89,13 @@ public class PdfGeneratorUtils {
                     "  font-style: normal;\n" +
                     "}\n" +
                     "body {\n" +
-                    "  font-family: 'Times New Roman', serif;\n" +
+                    "  font-family: 'Times New Roman', 'DejaVu Serif', serif;\n" +
                     "}\n" +
                     "</style>";
 
             modifiedHtmlContent = modifiedHtmlContent.replace("</head>", fontFaceCSS + "\n</head>");
         }
-
-        renderer.setDocumentFromString(modifiedHtmlContent);
-        renderer.layout();
-        renderer.createPDF(baos);
-
-        return baos.toByteArray();
+        return modifiedHtmlContent;
     }
 
     /**
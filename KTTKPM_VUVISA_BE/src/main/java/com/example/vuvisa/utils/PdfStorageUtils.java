@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -72,4 +73,21 @@ public class PdfStorageUtils {
         // Store the merged PDF in a different folder
         return s3Service.uploadBytes(mergedPdfBytes, fileName, PDF_CONTENT_TYPE, MERGED_PDF_FOLDER);
     }
+
+    /**
+     * Store a merged PDF file in S3 and return the URL to access it.
+     * The file is streamed, so it is never loaded into memory as a whole.
+     * @param mergedPdf The merged PDF file
+     * @param orderIds List of order IDs included in the merged PDF
+     * @return URL to access the merged PDF
+     * @throws IOException If an I/O error occurs
+     */
+    public String storeMergedPdf(Path mergedPdf, List<Long> orderIds) throws IOException {
+        // Keep the key short for big batches: first id, last id and how many invoices are inside
+        String fileName = orderIds.size() == 1
+                ? "invoices_" + orderIds.get(0) + ".pdf"
+                : "invoices_" + orderIds.get(0) + "_" + orderIds.get(orderIds.size() - 1) + "_" + orderIds.size() + ".pdf";
+
+        return s3Service.uploadFile(mergedPdf, fileName, PDF_CONTENT_TYPE, MERGED_PDF_FOLDER);
+    }
 }
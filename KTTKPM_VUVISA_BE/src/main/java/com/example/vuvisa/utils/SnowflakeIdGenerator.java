@@ -0,0 +1,94 @@
+package com.example.vuvisa.utils;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free Snowflake-style id generator.
+ * <p>
+ * Layout (52 bits above {@link #ID_OFFSET}): 40 bits of milliseconds since {@link #EPOCH},
+ * 4 bits of node id and 8 bits of per-millisecond sequence. Ids stay below 2^53 so the
+ * frontend can handle them as plain JavaScript numbers, and the offset puts every new id
+ * above the legacy {@code ddMMyyyyHHmmss + 2 digits} ids (which top out around 3.1e15).
+ * <p>
+ * The clock and the sequence share one {@link AtomicLong}, advanced with a CAS loop. When a
+ * millisecond runs out of sequence numbers the generator borrows the next millisecond instead
+ * of spinning, and a clock that steps backwards is absorbed the same way, so ids are strictly
+ * increasing per instance and ordered by creation time across nodes to the millisecond.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    public static final long ID_OFFSET = 3_200_000_000_000_000L;
+    public static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    static final int SEQUENCE_BITS = 8;
+    static final int NODE_BITS = 4;
+    static final int TIMESTAMP_BITS = 40;
+
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = (1L << TIMESTAMP_BITS) - 1;
+
+    private final long nodeId;
+    private final long epochMillis;
+    private final LongSupplier clock;
+
+    /** (elapsed millis << SEQUENCE_BITS) | sequence of the last id handed out */
+    private final AtomicLong state = new AtomicLong(-1);
+
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.epochMillis = EPOCH.toEpochMilli();
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long floor = (clock.getAsLong() - epochMillis) << SEQUENCE_BITS;
+            next = Math.max(current + 1, floor);
+        } while (!state.compareAndSet(current, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        if (timestamp > MAX_TIMESTAMP) {
+            throw new IllegalStateException("Id timestamp space exhausted");
+        }
+        return ID_OFFSET
+                + ((timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK));
+    }
+
+    /**
+     * Smallest id that can be generated at or after the given instant, handy for id range scans
+     *
+     * @param instant the instant
+     * @return the lower id bound for that instant
+     */
+    public static long lowerBound(Instant instant) {
+        long timestamp = Math.max(0, instant.toEpochMilli() - EPOCH.toEpochMilli());
+        return ID_OFFSET + (timestamp << (NODE_BITS + SEQUENCE_BITS));
+    }
+
+    /**
+     * Creation time encoded in an id produced by this generator
+     *
+     * @param id the id
+     * @return the creation instant, or null for legacy ids
+     */
+    public static Instant timestampOf(long id) {
+        if (id < ID_OFFSET) {
+            return null;
+        }
+        return EPOCH.plusMillis((id - ID_OFFSET) >>> (NODE_BITS + SEQUENCE_BITS));
+    }
+}
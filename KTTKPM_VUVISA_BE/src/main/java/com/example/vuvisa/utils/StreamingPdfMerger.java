@@ -0,0 +1,60 @@
+package com.example.vuvisa.utils;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Appends PDFs one by one to a single merged document written straight to an output stream.
+ * Each source PDF is released as soon as its pages have been copied, so memory use does not
+ * grow with the number of documents.
+ */
+public class StreamingPdfMerger implements Closeable {
+
+    private final Document document;
+    private final PdfCopy copy;
+    private int documentCount;
+
+    public StreamingPdfMerger(OutputStream outputStream) throws Exception {
+        this.document = new Document();
+        this.copy = new PdfCopy(document, outputStream);
+        this.document.open();
+    }
+
+    /**
+     * Append every page of a PDF to the merged document
+     * @param pdfBytes The PDF to append
+     * @throws IOException if the PDF cannot be read
+     */
+    public void append(byte[] pdfBytes) throws IOException {
+        PdfReader reader = new PdfReader(pdfBytes);
+        try {
+            int numPages = reader.getNumberOfPages();
+            for (int pageNum = 1; pageNum <= numPages; pageNum++) {
+                copy.addPage(copy.getImportedPage(reader, pageNum));
+            }
+            copy.freeReader(reader);
+        } finally {
+            reader.close();
+        }
+        documentCount++;
+    }
+
+    /**
+     * @return number of PDFs appended so far
+     */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    @Override
+    public void close() {
+        if (document.isOpen()) {
+            document.close();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.vuvisa.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable popularity-weighted completion index for a search box.
+ * <p>
+ * This is a prefix trie flattened into sorted arrays: every entry's folded text (see
+ * {@link VietnameseTextAnalyzer}) is stored once in a shared char array, and the positions where its
+ * first few words start are sorted by the text that follows them. All completions of a prefix then lie
+ * in one contiguous range of that order, found by binary search, as they would lie under one trie node.
+ * A max-tree over the entries' weights in the same order picks the heaviest completions of the range
+ * best-first, so a lookup costs O(log n + k log n) whatever the number of completions. Matching from
+ * each word start means "nhan tam" completes "Đắc Nhân Tâm".
+ * <p>
+ * Rebuild it to change entries; build a new one and swap the reference.
+ */
+public final class SuggestionTrie {
+
+    private static final int MAX_WORD_STARTS = 4;
+
+    private final String[] texts;
+    private final long[] ids;
+    private final byte[] kinds;
+    private final int[] weights;
+    // Folded texts, one after the other; entry i is [entryStarts[i], entryStarts[i + 1])
+    private final char[] folded;
+    private final int[] entryStarts;
+    // Entry (upper half) and position in folded (lower half) of each word start,
+    // sorted by the text from there to the end of its entry
+    private final long[] suffixes;
+    // Max weight per node; node 1 is the root, the leaves start at leafCount and follow the suffix order
+    private final int[] tree;
+    private final int leafCount;
+
+    private SuggestionTrie(Builder builder) {
+        int size = builder.size;
+        this.texts = Arrays.copyOf(builder.texts, size);
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.kinds = Arrays.copyOf(builder.kinds, size);
+        this.weights = Arrays.copyOf(builder.weights, size);
+
+        StringBuilder all = new StringBuilder();
+        int[] starts = new int[size + 1];
+        long[] wordStarts = new long[size * 2 + 16];
+        int suffixCount = 0;
+        for (int i = 0; i < size; i++) {
+            starts[i] = all.length();
+            List<String> terms = VietnameseTextAnalyzer.tokenize(texts[i]);
+            for (int t = 0; t < terms.size(); t++) {
+                if (t > 0) {
+                    all.append(' ');
+                }
+                if (t < MAX_WORD_STARTS) {
+                    if (suffixCount == wordStarts.length) {
+                        wordStarts = Arrays.copyOf(wordStarts, suffixCount * 2);
+                    }
+                    wordStarts[suffixCount++] = ((long) i << 32) | all.length();
+                }
+                all.append(terms.get(t));
+            }
+        }
+        starts[size] = all.length();
+        this.folded = new char[all.length()];
+        all.getChars(0, all.length(), folded, 0);
+        this.entryStarts = starts;
+        this.suffixes = Arrays.copyOf(wordStarts, suffixCount);
+        sort(suffixes, new long[suffixCount], 0, suffixCount);
+
+        int leaves = 1;
+        while (leaves < Math.max(1, suffixCount)) {
+            leaves <<= 1;
+        }
+        this.leafCount = leaves;
+        this.tree = new int[leaves * 2];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < suffixCount; i++) {
+            tree[leaves + i] = weights[(int) (suffixes[i] >>> 32)];
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            tree[node] = Math.max(tree[node * 2], tree[node * 2 + 1]);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Find the heaviest entries having a word, among their first few, that starts with the query.
+     * Entries with the same folded text are returned once.
+     *
+     * @param query the text typed so far
+     * @param limit max number of suggestions
+     * @return the suggestions, heaviest first
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = VietnameseTextAnalyzer.fold(query);
+        List<Suggestion> result = new ArrayList<>(Math.max(0, Math.min(limit, 16)));
+        if (prefix.isEmpty() || limit <= 0 || suffixes.length == 0) {
+            return result;
+        }
+        int from = lowerBound(prefix);
+        int to = upperBound(prefix, from);
+        if (from >= to) {
+            return result;
+        }
+
+        // Best-first walk of the max-tree, restricted to the leaves [from, to)
+        NodeHeap heap = new NodeHeap();
+        for (int lo = from + leafCount, hi = to + leafCount; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                heap.push(lo, tree[lo]);
+                lo++;
+            }
+            if ((hi & 1) == 1) {
+                hi--;
+                heap.push(hi, tree[hi]);
+            }
+        }
+        Set<Integer> seenEntries = new HashSet<>();
+        Set<String> seenTexts = new HashSet<>();
+        while (result.size() < limit && !heap.isEmpty()) {
+            int node = heap.pop();
+            if (node < leafCount) {
+                heap.push(node * 2, tree[node * 2]);
+                heap.push(node * 2 + 1, tree[node * 2 + 1]);
+                continue;
+            }
+            int entry = (int) (suffixes[node - leafCount] >>> 32);
+            if (seenEntries.add(entry)
+                    && seenTexts.add(new String(folded, entryStarts[entry], entryStarts[entry + 1] - entryStarts[entry]))) {
+                result.add(new Suggestion(ids[entry], kinds[entry], texts[entry], weights[entry]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * First suffix not ordered before the prefix
+     */
+    private int lowerBound(String prefix) {
+        int lo = 0;
+        int hi = suffixes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(suffixes[mid], prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * First suffix from {@code from} on that does not start with the prefix
+     */
+    private int upperBound(String prefix, int from) {
+        int lo = from;
+        int hi = suffixes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(suffixes[mid], prefix) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Compare the suffix, cut to the prefix length, with the prefix
+     */
+    private int comparePrefix(long suffix, String prefix) {
+        int position = (int) suffix;
+        int end = entryStarts[(int) (suffix >>> 32) + 1];
+        for (int i = 0; i < prefix.length(); i++) {
+            if (position + i == end) {
+                return -1;
+            }
+            int diff = folded[position + i] - prefix.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private int compareSuffixes(long suffixA, long suffixB) {
+        int a = (int) suffixA;
+        int b = (int) suffixB;
+        int endA = entryStarts[(int) (suffixA >>> 32) + 1];
+        int endB = entryStarts[(int) (suffixB >>> 32) + 1];
+        while (a < endA && b < endB) {
+            int diff = folded[a++] - folded[b++];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return (endA - a) - (endB - b);
+    }
+
+    /**
+     * Merge sort, as the suffixes are compared by text rather than by value
+     */
+    private void sort(long[] values, long[] scratch, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(values, scratch, from, mid);
+        sort(values, scratch, mid, to);
+        if (compareSuffixes(values[mid - 1], values[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(values, from, scratch, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && compareSuffixes(scratch[left], scratch[right]) <= 0)) {
+                values[i] = scratch[left++];
+            } else {
+                values[i] = scratch[right++];
+            }
+        }
+    }
+
+    /**
+     * @param id the id given to the builder
+     * @param kind the kind given to the builder
+     * @param text the text as given to the builder
+     * @param weight the weight given to the builder
+     */
+    public record Suggestion(long id, byte kind, String text, int weight) {
+    }
+
+    /**
+     * Collects the entries of a {@link SuggestionTrie}
+     */
+    public static final class Builder {
+
+        private String[] texts = new String[1024];
+        private long[] ids = new long[1024];
+        private byte[] kinds = new byte[1024];
+        private int[] weights = new int[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * @param id id of what the entry stands for, e.g. a product id
+         * @param kind caller-defined kind of the entry, e.g. product or author
+         * @param text the text to complete and show
+         * @param weight popularity, heavier entries come first; negative values count as 0
+         * @return this builder
+         */
+        public Builder add(long id, byte kind, String text, long weight) {
+            if (text == null || text.isBlank()) {
+                return this;
+            }
+            if (size == texts.length) {
+                int capacity = size * 2;
+                texts = Arrays.copyOf(texts, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            texts[size] = text;
+            ids[size] = id;
+            kinds[size] = kind;
+            weights[size] = (int) Math.max(0, Math.min(weight, Integer.MAX_VALUE));
+            size++;
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            return new SuggestionTrie(this);
+        }
+    }
+
+    /**
+     * Max-heap of tree nodes by weight; equal weights come out in node order
+     */
+    private static final class NodeHeap {
+
+        private long[] keys = new long[64];
+        private int size;
+
+        void push(int node, int weight) {
+            if (weight < 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            long key = ((long) weight << 32) | (Integer.MAX_VALUE - node);
+            int i = size++;
+            while (i > 0 && keys[(i - 1) / 2] < key) {
+                keys[i] = keys[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            keys[i] = key;
+        }
+
+        int pop() {
+            long top = keys[0];
+            long last = keys[--size];
+            int i = 0;
+            while (i * 2 + 1 < size) {
+                int child = i * 2 + 1;
+                if (child + 1 < size && keys[child + 1] > keys[child]) {
+                    child++;
+                }
+                if (keys[child] <= last) {
+                    break;
+                }
+                keys[i] = keys[child];
+                i = child;
+            }
+            keys[i] = last;
+            return Integer.MAX_VALUE - (int) (top & 0xFFFFFFFFL);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.vuvisa.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns catalog text and search queries into index terms.
+ * <p>
+ * Text is decomposed (NFD) and its combining marks dropped, so tones and vowel marks fold away
+ * ("sách" and "sach" give the same term, as do "ươ" and "uo"); "đ" becomes "d". Terms are the
+ * lower-cased runs of letters and digits, so Vietnamese is split per syllable.
+ */
+public final class VietnameseTextAnalyzer {
+
+    private VietnameseTextAnalyzer() {
+    }
+
+    /**
+     * @param text any text, may be null
+     * @return the folded terms in order, duplicates included
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * @param text any text, may be null
+     * @param maxTerms stop after this many terms
+     * @param skipMarkup ignore anything between '<' and '>', for descriptions written in a rich text editor
+     * @return the folded terms in order, duplicates included
+     */
+    public static List<String> tokenize(String text, int maxTerms, boolean skipMarkup) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder term = new StringBuilder(16);
+        boolean inMarkup = false;
+        for (int i = 0; i < decomposed.length() && terms.size() < maxTerms; i++) {
+            char c = decomposed.charAt(i);
+            if (skipMarkup && (inMarkup || c == '<')) {
+                inMarkup = c != '>';
+                flush(term, terms);
+                continue;
+            }
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                term.append('d');
+            } else if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else {
+                flush(term, terms);
+            }
+        }
+        if (terms.size() < maxTerms) {
+            flush(term, terms);
+        }
+        return terms;
+    }
+
+    /**
+     * @param text any text, may be null
+     * @return the folded terms joined by single spaces
+     */
+    public static String fold(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    private static void flush(StringBuilder term, List<String> terms) {
+        if (term.length() > 0) {
+            terms.add(term.toString());
+            term.setLength(0);
+        }
+    }
+}
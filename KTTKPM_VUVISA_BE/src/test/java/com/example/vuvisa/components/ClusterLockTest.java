@@ -0,0 +1,95 @@
+package com.example.vuvisa.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Named locks taken from two threads, standing in for two nodes on the same MySQL.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(ClusterLock.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClusterLockTest {
+
+	private static final String LOCK = "vuvisa:test-lock";
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private ClusterLock clusterLock;
+
+	@Test
+	void secondNodeSkipsWhileTheFirstHoldsTheLock() throws Exception {
+		CountDownLatch held = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> first = executor.submit(() -> clusterLock.tryRun(LOCK, () -> {
+				held.countDown();
+				await(release);
+			}));
+			assertTrue(held.await(10, TimeUnit.SECONDS));
+
+			assertFalse(clusterLock.tryRun(LOCK, () -> {
+				throw new AssertionError("Ran while another node held the lock");
+			}));
+
+			release.countDown();
+			assertTrue(first.get(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Released once the first node is done
+		assertEquals(Optional.of(42), clusterLock.tryCall(LOCK, () -> 42));
+	}
+
+	@Test
+	void failedWorkReleasesTheLock() {
+		assertThrows(IllegalStateException.class, () -> clusterLock.tryRun(LOCK, () -> {
+			throw new IllegalStateException("Work failed");
+		}));
+
+		assertTrue(clusterLock.tryRun(LOCK, () -> { }));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.example.vuvisa.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.services.OrderService;
+import com.example.vuvisa.utils.PdfStorageUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+
+/**
+ * Export jobs completed on a node whose work directory lacks some of the parts, as after a resume on
+ * another node. One page is rendered per order, so the merged PDF shows which orders made it in.
+ */
+class ExportOrderPdfsJobHandlerTest {
+
+	private static final int ORDERS = 500;
+
+	@TempDir
+	private Path workDir;
+
+	private OrderService orderService;
+	private PdfStorageUtils pdfStorageUtils;
+	private ExportOrderPdfsJobHandler handler;
+	private final AtomicInteger mergedPages = new AtomicInteger();
+	private final BatchJob job = BatchJob.builder().id(7L).type(BatchJobType.EXPORT_ORDER_PDFS).build();
+	private final BatchJobRequest request = BatchJobRequest.builder()
+			.type(BatchJobType.EXPORT_ORDER_PDFS)
+			.orderIds(LongStream.rangeClosed(1, ORDERS).boxed().toList())
+			.build();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		orderService = mock(OrderService.class);
+		when(orderService.renderOrderPdfs(anyList())).thenAnswer(invocation -> render(invocation.getArgument(0)));
+
+		pdfStorageUtils = mock(PdfStorageUtils.class);
+		when(pdfStorageUtils.storeMergedPdf(any(Path.class), anyList())).thenAnswer(invocation -> {
+			PdfReader reader = new PdfReader(Files.readAllBytes(invocation.<Path>getArgument(0)));
+			mergedPages.set(reader.getNumberOfPages());
+			reader.close();
+			return "https://files.example/invoices.pdf";
+		});
+
+		handler = new ExportOrderPdfsJobHandler(orderService, pdfStorageUtils, new ObjectMapper(), workDir.toString());
+	}
+
+	@Test
+	void allPartsPresentAreMergedAsTheyAre() throws Exception {
+		processAllChunks();
+
+		handler.complete(job, request);
+
+		assertEquals(ORDERS, mergedPages.get());
+		verify(orderService, times(3)).renderOrderPdfs(anyList());
+		assertFalse(Files.exists(workDir.resolve("job-7")));
+	}
+
+	@Test
+	void missingPartIsRenderedAgainWithoutChangingStatus() throws Exception {
+		processAllChunks();
+		Files.delete(workDir.resolve("job-7").resolve("part-000000200.pdf"));
+
+		handler.complete(job, request);
+
+		assertEquals(ORDERS, mergedPages.get());
+		verify(orderService, times(2)).renderOrderPdfs(request.getOrderIds().subList(200, 400));
+		verify(orderService).markOrdersPacking(request.getOrderIds().subList(200, 400));
+	}
+
+	@Test
+	void jobResumedOnAnotherNodeRendersEveryPart() throws Exception {
+		// Checkpoints say done, but this node's work directory never saw the job
+		handler.complete(job, request);
+
+		assertEquals(ORDERS, mergedPages.get());
+		verify(orderService).renderOrderPdfs(request.getOrderIds().subList(0, 200));
+		verify(orderService).renderOrderPdfs(request.getOrderIds().subList(200, 400));
+		verify(orderService).renderOrderPdfs(request.getOrderIds().subList(400, 500));
+		verify(orderService, never()).markOrdersPacking(anyList());
+	}
+
+	@Test
+	void strayFilesInTheJobDirectoryAreNotMerged() throws Exception {
+		processAllChunks();
+		// Left by an older run with a different chunk size
+		Files.copy(workDir.resolve("job-7").resolve("part-000000000.pdf"),
+				workDir.resolve("job-7").resolve("part-000000100.pdf"));
+
+		handler.complete(job, request);
+
+		assertEquals(ORDERS, mergedPages.get());
+	}
+
+	private void processAllChunks() throws Exception {
+		for (int from = 0; from < ORDERS; from += handler.getChunkSize()) {
+			handler.processChunk(job, request, from, Math.min(from + handler.getChunkSize(), ORDERS));
+		}
+	}
+
+	private static Path render(List<Long> orderIds) throws Exception {
+		Path pdf = Files.createTempFile("invoices_", ".pdf");
+		try (OutputStream out = Files.newOutputStream(pdf)) {
+			Document document = new Document();
+			PdfWriter.getInstance(document, out);
+			document.open();
+			for (Long orderId : orderIds) {
+				document.add(new Paragraph("Order #" + orderId));
+				document.newPage();
+			}
+			document.close();
+		}
+		return pdf;
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.vuvisa.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.example.vuvisa.configurations.AsyncConfig;
+import com.example.vuvisa.utils.PdfGeneratorUtils;
+import com.example.vuvisa.utils.SyntheticInvoices;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+
+/**
+ * Bulk invoice rendering, one invoice after the other versus on the invoice render pool as configured
+ * in production. The speedup is bounded by the number of cores, which is printed with the results.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class InvoicePdfRendererBenchmarkTest {
+
+	private ThreadPoolTaskExecutor renderExecutor;
+	private InvoicePdfRenderer invoicePdfRenderer;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		renderExecutor = new AsyncConfig().invoiceRenderExecutor(0, 200);
+		invoicePdfRenderer = new InvoicePdfRenderer(renderExecutor, 32);
+		// Warm up the fonts, the JIT and a renderer per worker
+		invoicePdfRenderer.renderAll(new SyntheticInvoices(1).html(50));
+		PdfGeneratorUtils.generatePdfsFromHtmlList(new SyntheticInvoices(2).html(20));
+	}
+
+	@AfterEach
+	void tearDown() {
+		renderExecutor.shutdown();
+	}
+
+	@Test
+	void oneInvoice() throws Exception {
+		run(1);
+	}
+
+	@Test
+	void hundredInvoices() throws Exception {
+		run(100);
+	}
+
+	@Test
+	void thousandInvoices() throws Exception {
+		run(1000);
+	}
+
+	private void run(int invoices) throws Exception {
+		List<String> htmlContents = new SyntheticInvoices(42).html(invoices);
+
+		long start = System.nanoTime();
+		List<byte[]> serial = PdfGeneratorUtils.generatePdfsFromHtmlList(htmlContents);
+		long serialNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		List<byte[]> parallel = invoicePdfRenderer.renderAll(htmlContents);
+		long parallelNanos = System.nanoTime() - start;
+
+		System.out.printf("%,d invoices on %d cores: serial %,d ms (%.1f/s), parallel %,d ms (%.1f/s), speedup %.2fx%n",
+				invoices, Runtime.getRuntime().availableProcessors(),
+				serialNanos / 1_000_000, invoices * 1e9 / serialNanos,
+				parallelNanos / 1_000_000, invoices * 1e9 / parallelNanos,
+				(double) serialNanos / parallelNanos);
+
+		// The parallel output is in input order: every sampled invoice reads the same as its serial twin,
+		// and the sampled invoices all read differently
+		assertEquals(serial.size(), parallel.size());
+		Set<String> texts = new HashSet<>();
+		int samples = 0;
+		for (int i = 0; i < invoices; i += Math.max(1, invoices / 20)) {
+			String text = text(serial.get(i));
+			assertEquals(text, text(parallel.get(i)));
+			texts.add(text);
+			samples++;
+		}
+		assertEquals(samples, texts.size());
+	}
+
+	private static String text(byte[] pdf) throws Exception {
+		PdfReader reader = new PdfReader(pdf);
+		try {
+			return new PdfTextExtractor(reader).getTextFromPage(1);
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.example.vuvisa.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.enums.OrderStatus;
+
+/**
+ * The dwell-time SQL against MySQL: dwell measured with TIMESTAMPDIFF when orders move on, nearest-rank
+ * percentiles over a window of transitions, and orders stuck in a status.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class OrderStatusHistoryRepositoryTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private OrderStatusHistoryRepository orderStatusHistoryRepository;
+	@Autowired
+	private OrderRepository orderRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void transitionsMeasureTheDwellSinceTheStatusWasEntered() {
+		// Entered PENDING 1 to 20 minutes ago; odd orders predate status_changed_at and fall back to order_date
+		List<Long> ids = new ArrayList<>();
+		for (long i = 1; i <= 20; i++) {
+			LocalDateTime entered = NOW.minusMinutes(i);
+			order(i, OrderStatus.PENDING, entered, i % 2 == 0 ? entered : null);
+			ids.add(i);
+		}
+		order(21, OrderStatus.CONFIRMED, NOW.minusHours(1), NOW.minusHours(1));
+		ids.add(21L);
+
+		// The order already in the new status is skipped
+		assertEquals(20, orderStatusHistoryRepository.insertTransitions(ids, "CONFIRMED", NOW, "system"));
+
+		assertEquals(List.of(60L, 120L, 1140L, 1200L), jdbcTemplate.queryForList(
+				"SELECT dwell_seconds FROM order_status_history WHERE order_id IN (1, 2, 19, 20) ORDER BY order_id",
+				Long.class));
+
+		OrderStatusHistoryRepository.DwellView stats =
+				orderStatusHistoryRepository.findDwellStats("PENDING", NOW.minusHours(1), NOW.plusHours(1));
+		assertEquals(20, stats.getSamples());
+		assertEquals(630.0, stats.getAvgSeconds(), 0.001);
+		// Nearest rank over 20 samples: the 10th, 18th and 20th smallest
+		assertEquals(600, stats.getP50Seconds());
+		assertEquals(1080, stats.getP90Seconds());
+		assertEquals(1200, stats.getP99Seconds());
+		assertEquals(1200, stats.getMaxSeconds());
+	}
+
+	@Test
+	void percentilesAreTakenByNearestRankWithinTheWindow() {
+		transition(OrderStatus.CONFIRMED, NOW.minusMinutes(30), 10L);
+		transition(OrderStatus.CONFIRMED, NOW.minusMinutes(20), 30L);
+		transition(OrderStatus.CONFIRMED, NOW.minusMinutes(10), 20L);
+		// Outside the window, or without a dwell
+		transition(OrderStatus.CONFIRMED, NOW.minusDays(2), 99_999L);
+		transition(OrderStatus.CONFIRMED, NOW, 99_999L);
+		transition(OrderStatus.CONFIRMED, NOW.minusMinutes(5), null);
+		// Another status
+		transition(OrderStatus.PACKING, NOW.minusMinutes(5), 5_000L);
+
+		OrderStatusHistoryRepository.DwellView stats =
+				orderStatusHistoryRepository.findDwellStats("CONFIRMED", NOW.minusDays(1), NOW);
+		assertEquals(3, stats.getSamples());
+		assertEquals(20.0, stats.getAvgSeconds(), 0.001);
+		// Ranks 2, 3 and 3: recorded values, where interpolation would give 28 for p90
+		assertEquals(20, stats.getP50Seconds());
+		assertEquals(30, stats.getP90Seconds());
+		assertEquals(30, stats.getP99Seconds());
+		assertEquals(30, stats.getMaxSeconds());
+	}
+
+	@Test
+	void emptyWindowHasNoPercentiles() {
+		transition(OrderStatus.CONFIRMED, NOW.minusDays(2), 10L);
+
+		OrderStatusHistoryRepository.DwellView stats =
+				orderStatusHistoryRepository.findDwellStats("CONFIRMED", NOW.minusDays(1), NOW);
+		assertEquals(0, stats.getSamples());
+		assertNull(stats.getP50Seconds());
+		assertNull(stats.getMaxSeconds());
+	}
+
+	@Test
+	void stuckOrdersAreTheLongestWaitingFirst() {
+		order(31, OrderStatus.PENDING, NOW.minusDays(1), NOW.minusHours(3));
+		order(32, OrderStatus.PENDING, NOW.minusDays(1), NOW.minusHours(5));
+		order(33, OrderStatus.PENDING, NOW.minusDays(1), NOW.minusHours(1));
+		order(34, OrderStatus.CONFIRMED, NOW.minusDays(1), NOW.minusHours(10));
+		order(35, OrderStatus.PENDING, NOW.minusDays(1), NOW.minusHours(4));
+
+		Date before = date(NOW.minusHours(2));
+		assertEquals(List.of(32L, 35L, 31L),
+				orderRepository.findIdsStuckInStatus(OrderStatus.PENDING, before, PageRequest.of(0, 10)));
+		assertEquals(List.of(32L, 35L),
+				orderRepository.findIdsStuckInStatus(OrderStatus.PENDING, before, PageRequest.of(0, 2)));
+		assertEquals(List.of(34L),
+				orderRepository.findIdsStuckInStatus(OrderStatus.CONFIRMED, before, PageRequest.of(0, 10)));
+	}
+
+	private void order(long id, OrderStatus status, LocalDateTime orderDate, LocalDateTime statusChangedAt) {
+		jdbcTemplate.update("INSERT INTO orders (id, full_name, order_date, status, status_changed_at) "
+				+ "VALUES (?, 'Khách Quen', ?, ?, ?)", id, orderDate, status.name(), statusChangedAt);
+	}
+
+	private void transition(OrderStatus from, LocalDateTime changedAt, Long dwellSeconds) {
+		jdbcTemplate.update("INSERT INTO order_status_history (order_id, from_status, to_status, changed_at, dwell_seconds) "
+				+ "VALUES (1, ?, 'COMPLETED', ?, ?)", from.name(), changedAt, dwellSeconds);
+	}
+
+	private static Date date(LocalDateTime time) {
+		return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+	}
+}
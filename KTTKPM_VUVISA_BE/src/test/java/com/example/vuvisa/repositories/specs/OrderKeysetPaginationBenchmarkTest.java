@@ -0,0 +1,174 @@
+package com.example.vuvisa.repositories.specs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.utils.SyntheticCatalog;
+
+/**
+ * Latency of keyset paging over the (order_date, id) index, from the first to the 10,000th page of 50
+ * orders, next to offset paging at the same depths. Runs the statements Hibernate generates for
+ * {@link OrderSpecification#before} with the scroll sort against MySQL 8 in a container.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark} where Docker is available.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class OrderKeysetPaginationBenchmarkTest {
+
+	private static final int PAGE_SIZE = 50;
+	private static final int PAGES = 10_000;
+	private static final int ORDERS = PAGE_SIZE * PAGES + 10_000;
+	private static final int INSERT_BATCH = 1000;
+
+	private static final String COLUMNS = "id, user_id, full_name, address, order_date, status, grand_total";
+	// scrollOrders reads the keys of a page and then loads those orders by id
+	private static final String KEY_COLUMNS = "id, order_date";
+	private static final String FIRST_PAGE_SQL = "SELECT " + KEY_COLUMNS + " FROM orders "
+			+ "ORDER BY order_date DESC, id DESC LIMIT ?";
+	private static final String NEXT_PAGE_SQL = "SELECT " + KEY_COLUMNS + " FROM orders "
+			+ "WHERE order_date < ? OR (order_date = ? AND id < ?) OR order_date IS NULL "
+			+ "ORDER BY order_date DESC, id DESC LIMIT ?";
+	private static final String OFFSET_PAGE_SQL = "SELECT " + KEY_COLUMNS + " FROM orders "
+			+ "ORDER BY order_date DESC, id DESC LIMIT ? OFFSET ?";
+
+	// Large enough to keep the whole table in memory, so the numbers show the access path and not the disk
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+			.withCommand("--innodb-buffer-pool-size=1073741824")
+			.withUrlParam("rewriteBatchedStatements", "true");
+
+	private static SingleConnectionDataSource dataSource;
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void loadOrders() {
+		dataSource = new SingleConnectionDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword(), true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE orders ("
+				+ "id BIGINT PRIMARY KEY, user_id BIGINT, full_name VARCHAR(255), address VARCHAR(255), "
+				+ "order_date DATETIME(6), status VARCHAR(32), grand_total BIGINT, "
+				+ "INDEX idx_orders_order_date_id (order_date, id))");
+
+		long start = System.nanoTime();
+		SplittableRandom random = new SplittableRandom(42);
+		long orderDate = System.currentTimeMillis() - ORDERS * 2000L;
+		List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+		for (long id = 1; id <= ORDERS; id++) {
+			// About one order every two seconds, with some in the same second so the id breaks the tie
+			orderDate += random.nextInt(3) * 1000L;
+			batch.add(new Object[] {id, 1 + random.nextInt(50_000), "Khách hàng " + id,
+					random.nextInt(500) + " Nguyễn Văn Cừ, Quận 5, Thành phố Hồ Chí Minh", new Timestamp(orderDate),
+					"DELIVERED", 1000L * (20 + random.nextInt(2000))});
+			if (batch.size() == INSERT_BATCH) {
+				jdbcTemplate.batchUpdate("INSERT INTO orders (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			jdbcTemplate.batchUpdate("INSERT INTO orders (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+		}
+		jdbcTemplate.execute("ANALYZE TABLE orders");
+		System.out.printf("Loaded %,d orders in %,d ms%n", ORDERS, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	@AfterAll
+	static void close() {
+		if (dataSource != null) {
+			dataSource.destroy();
+		}
+	}
+
+	@Test
+	void keysetLatencyIsFlatToPage10000() {
+		// Once untimed to warm up the buffer pool and the statement path, then timed
+		scroll();
+		long[] latencies = scroll();
+
+		long[] first = Arrays.copyOfRange(latencies, 0, 100);
+		long[] middle = Arrays.copyOfRange(latencies, PAGES / 2 - 50, PAGES / 2 + 50);
+		long[] last = Arrays.copyOfRange(latencies, PAGES - 100, PAGES);
+		System.out.printf("Keyset, pages 1-100: %s%n", SyntheticCatalog.percentiles(first));
+		System.out.printf("Keyset, pages %d-%d: %s%n", PAGES / 2 - 49, PAGES / 2 + 50,
+				SyntheticCatalog.percentiles(middle));
+		System.out.printf("Keyset, pages %d-%d: %s%n", PAGES - 99, PAGES, SyntheticCatalog.percentiles(last));
+
+		for (int page : new int[] {1, 100, 1000, 5000, PAGES}) {
+			long[] offsetLatencies = new long[5];
+			for (int run = 0; run < offsetLatencies.length; run++) {
+				long start = System.nanoTime();
+				jdbcTemplate.queryForList(OFFSET_PAGE_SQL, PAGE_SIZE, (long) (page - 1) * PAGE_SIZE);
+				offsetLatencies[run] = System.nanoTime() - start;
+			}
+			Arrays.sort(offsetLatencies);
+			System.out.printf("Offset, page %,d: median %.3f ms%n", page, offsetLatencies[2] / 1e6);
+		}
+		long countStart = System.nanoTime();
+		jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+		System.out.printf("COUNT(*) run by every offset page: %.3f ms%n", (System.nanoTime() - countStart) / 1e6);
+
+		// The last pages cost about what the first ones do; a millisecond of slack absorbs timer and GC noise
+		assertTrue(median(last) <= 2 * median(first) + 1_000_000,
+				"Keyset paging slowed down: " + SyntheticCatalog.percentiles(first)
+						+ " vs " + SyntheticCatalog.percentiles(last));
+	}
+
+	@Test
+	void deepPageIsARangeScanOfTheIndex() {
+		Map<String, Object> cursor = jdbcTemplate.queryForMap(OFFSET_PAGE_SQL, 1, (long) (PAGES - 1) * PAGE_SIZE);
+
+		Map<String, Object> plan = jdbcTemplate.queryForMap("EXPLAIN " + NEXT_PAGE_SQL,
+				cursor.get("order_date"), cursor.get("order_date"), cursor.get("id"), PAGE_SIZE + 1);
+
+		assertEquals("idx_orders_order_date_id", plan.get("key"));
+		assertEquals("range", plan.get("type"));
+		assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"));
+	}
+
+	/**
+	 * Walk every page the way scrollOrders does, one extra row per page and the cursor from the last row
+	 *
+	 * @return latency of each page
+	 */
+	private static long[] scroll() {
+		long[] latencies = new long[PAGES];
+		Object cursorDate = null;
+		Object cursorId = null;
+		for (int page = 0; page < PAGES; page++) {
+			long start = System.nanoTime();
+			List<Map<String, Object>> rows = cursorDate == null
+					? jdbcTemplate.queryForList(FIRST_PAGE_SQL, PAGE_SIZE + 1)
+					: jdbcTemplate.queryForList(NEXT_PAGE_SQL, cursorDate, cursorDate, cursorId, PAGE_SIZE + 1);
+			latencies[page] = System.nanoTime() - start;
+
+			assertEquals(PAGE_SIZE + 1, rows.size());
+			Map<String, Object> lastRow = rows.get(PAGE_SIZE - 1);
+			cursorDate = lastRow.get("order_date");
+			cursorId = lastRow.get("id");
+		}
+		return latencies;
+	}
+
+	private static long median(long[] latencies) {
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.vuvisa.repositories.specs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+
+/**
+ * Pages over active and archived orders merged by {@link OrderSortKeys#mergedSlice}, checked against the
+ * order a single sorted table would give, with pages falling on either side of the table boundary.
+ */
+class OrderSortKeysTest {
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	@Test
+	void grandTotalDescendingInterleavesActiveAndArchived() {
+		Sort sort = OrderSpecification.sortOf(filter("grand_total", "desc"));
+		List<OrderSortKeys.SortKey> active = List.of(key(1, 900L), key(2, 500L), key(3, 100L));
+		List<OrderSortKeys.SortKey> archived = List.of(key(11, 1000L), key(12, 700L), key(13, 300L));
+
+		assertEquals(List.of(11L, 1L), page(active, archived, sort, 0, 2));
+		assertEquals(List.of(12L, 2L), page(active, archived, sort, 1, 2));
+		assertEquals(List.of(13L, 3L), page(active, archived, sort, 2, 2));
+		assertEquals(List.of(), page(active, archived, sort, 3, 2));
+	}
+
+	@Test
+	void ascendingDatesStartInTheArchive() {
+		Sort sort = OrderSpecification.sortOf(filter(null, "asc"));
+		// Archived orders are older than every active one
+		List<OrderSortKeys.SortKey> active = List.of(key(1, date(10)), key(2, date(11)), key(3, date(12)));
+		List<OrderSortKeys.SortKey> archived = List.of(key(11, date(1)), key(12, date(2)), key(13, date(3)));
+
+		assertEquals(List.of(11L, 12L), page(active, archived, sort, 0, 2));
+		// The page on the boundary holds the last archived order and the first active one
+		assertEquals(List.of(13L, 1L), page(active, archived, sort, 1, 2));
+		assertEquals(List.of(2L, 3L), page(active, archived, sort, 2, 2));
+	}
+
+	@Test
+	void newestFirstContinuesIntoTheArchive() {
+		Sort sort = OrderSpecification.sortOf(null);
+		List<OrderSortKeys.SortKey> active = List.of(key(3, date(12)), key(2, date(11)), key(1, date(10)));
+		List<OrderSortKeys.SortKey> archived = List.of(key(13, date(3)), key(12, date(2)), key(11, date(1)));
+
+		assertEquals(List.of(3L, 2L, 1L, 13L), page(active, archived, sort, 0, 4));
+		assertEquals(List.of(12L, 11L), page(active, archived, sort, 1, 4));
+	}
+
+	@Test
+	void pastDatedActiveOrdersInterleaveWithArchivedOnes() {
+		// Sample orders can be dated before the newest archived order
+		Sort sort = OrderSpecification.sortOf(null);
+		List<OrderSortKeys.SortKey> active = List.of(key(3, date(12)), key(2, date(5)), key(1, date(1)));
+		List<OrderSortKeys.SortKey> archived = List.of(key(13, date(6)), key(12, date(4)), key(11, date(2)));
+
+		assertEquals(List.of(3L, 13L, 2L), page(active, archived, sort, 0, 3));
+		assertEquals(List.of(12L, 11L, 1L), page(active, archived, sort, 1, 3));
+	}
+
+	@Test
+	void equalTotalsAreOrderedByIdAcrossTables() {
+		Sort sort = OrderSpecification.sortOf(filter("grand_total", "desc"));
+		List<OrderSortKeys.SortKey> active = List.of(key(12, 500L), key(10, 500L));
+		List<OrderSortKeys.SortKey> archived = List.of(key(11, 500L), key(9, 500L));
+
+		assertEquals(List.of(12L, 11L, 10L, 9L), page(active, archived, sort, 0, 10));
+	}
+
+	@Test
+	void ordersWithoutTotalSortLikeMySqlNulls() {
+		List<OrderSortKeys.SortKey> activeDesc = List.of(key(1, 200L), key(2, null));
+		List<OrderSortKeys.SortKey> archivedDesc = List.of(key(11, 100L), key(12, null));
+		assertEquals(List.of(1L, 11L, 12L, 2L), page(activeDesc, archivedDesc,
+				OrderSpecification.sortOf(filter("grand_total", "desc")), 0, 10));
+
+		List<OrderSortKeys.SortKey> activeAsc = List.of(key(2, null), key(1, 200L));
+		List<OrderSortKeys.SortKey> archivedAsc = List.of(key(11, null), key(12, 100L));
+		assertEquals(List.of(2L, 11L, 12L, 1L), page(activeAsc, archivedAsc,
+				OrderSpecification.sortOf(filter("grand_total", "asc")), 0, 10));
+	}
+
+	@Test
+	void orderReadFromBothTablesIsListedOnce() {
+		// Archived between the two reads
+		Sort sort = OrderSpecification.sortOf(null);
+		List<OrderSortKeys.SortKey> active = List.of(key(3, date(12)), key(2, date(11)));
+		List<OrderSortKeys.SortKey> archived = List.of(key(2, date(11)), key(1, date(10)));
+
+		assertEquals(List.of(3L, 2L), page(active, archived, sort, 0, 2));
+		assertEquals(List.of(1L), page(active, archived, sort, 1, 2));
+	}
+
+	/**
+	 * Page of ids the way OrderServiceImpl reads it: both lists from their start, cut to the end of the page
+	 */
+	private static List<Long> page(List<OrderSortKeys.SortKey> active, List<OrderSortKeys.SortKey> archived, Sort sort,
+			int page, int size) {
+		int limit = (page + 1) * size;
+		List<OrderSortKeys.SortKey> slice = OrderSortKeys.mergedSlice(
+				active.subList(0, Math.min(limit, active.size())),
+				archived.subList(0, Math.min(limit, archived.size())),
+				sort, (long) page * size, size);
+		List<Long> ids = new ArrayList<>();
+		for (OrderSortKeys.SortKey key : slice) {
+			ids.add(key.id());
+		}
+		return ids;
+	}
+
+	private static OrderSortKeys.SortKey key(long id, Object sortValue) {
+		// Values in the order of the sort: the filter's property, then the id
+		return new OrderSortKeys.SortKey(id, Arrays.asList(sortValue, id));
+	}
+
+	private static Date date(int day) {
+		return new Date(day * DAY);
+	}
+
+	private static OrderFilterRequest filter(String sortBy, String sortDirection) {
+		OrderFilterRequest filter = new OrderFilterRequest();
+		filter.setSortBy(sortBy);
+		filter.setSortDirection(sortDirection);
+		return filter;
+	}
+}
@@ -0,0 +1,244 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobStatus;
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.repositories.BatchJobRepository;
+import com.example.vuvisa.services.BatchJobHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Job claims and leases against MySQL. Each node is its own {@link BatchJobServiceImpl} on the same database.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+// Claims and chunks commit on their own, as they do across nodes
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BatchJobServiceImplLeaseTest {
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Autowired
+	private BatchJobRepository batchJobRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private RecordingHandler handlerA;
+	private RecordingHandler handlerB;
+	private BatchJobServiceImpl nodeA;
+	private BatchJobServiceImpl nodeB;
+
+	@BeforeEach
+	void setUp() {
+		handlerA = new RecordingHandler();
+		handlerB = new RecordingHandler();
+		nodeA = newNode(handlerA);
+		nodeB = newNode(handlerB);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM batch_jobs");
+	}
+
+	@Test
+	void twoNodesRacingForAJobRunEachChunkOnce() throws Exception {
+		long jobId = createJob();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<?>> runs = new ArrayList<>();
+			for (BatchJobServiceImpl node : List.of(nodeA, nodeB)) {
+				runs.add(executor.submit(() -> {
+					start.await();
+					node.run(jobId);
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> run : runs) {
+				run.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<Integer> chunks = new ArrayList<>(handlerA.chunks);
+		chunks.addAll(handlerB.chunks);
+		Collections.sort(chunks);
+		assertEquals(List.of(0, 2, 4), chunks);
+		assertEquals(BatchJobStatus.COMPLETED, stored(jobId).getStatus());
+		assertNull(stored(jobId).getOwner());
+	}
+
+	@Test
+	void nodeClaimingDuringAChunkWaitsAndThenLeavesTheJob() throws Exception {
+		long jobId = createJob();
+		CountDownLatch inChunk = new CountDownLatch(1);
+		CountDownLatch finishChunk = new CountDownLatch(1);
+		handlerA.onFirstChunk = () -> {
+			inChunk.countDown();
+			await(finishChunk);
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> runA = executor.submit(() -> nodeA.run(jobId));
+			assertTrue(inChunk.await(10, TimeUnit.SECONDS));
+			// Blocks on the job row until node A's chunk commits, then finds A's lease live
+			Future<?> runB = executor.submit(() -> nodeB.run(jobId));
+			Thread.sleep(200);
+			finishChunk.countDown();
+
+			runA.get(30, TimeUnit.SECONDS);
+			runB.get(30, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(List.of(0, 2, 4), handlerA.chunks);
+		assertEquals(List.of(), handlerB.chunks);
+		assertEquals(BatchJobStatus.COMPLETED, stored(jobId).getStatus());
+	}
+
+	@Test
+	void expiredLeaseIsTakenOver() {
+		long jobId = createJob();
+		// The node running the job crashed after the first chunk
+		jdbcTemplate.update("UPDATE batch_jobs SET status = 'RUNNING', total_items = 6, processed_items = 2, "
+				+ "owner = 'crashed-node', lease_until = NOW(3) - INTERVAL 1 SECOND WHERE id = ?", jobId);
+
+		assertEquals(1, nodeB.resumeInterrupted());
+
+		assertEquals(List.of(2, 4), handlerB.chunks);
+		assertEquals(BatchJobStatus.COMPLETED, stored(jobId).getStatus());
+		assertEquals(6, stored(jobId).getProcessedItems());
+	}
+
+	@Test
+	void liveLeaseIsNotTakenOver() {
+		long jobId = createJob();
+		jdbcTemplate.update("UPDATE batch_jobs SET status = 'RUNNING', total_items = 6, processed_items = 2, "
+				+ "owner = 'busy-node', lease_until = NOW(3) + INTERVAL 1 MINUTE WHERE id = ?", jobId);
+
+		assertEquals(0, nodeB.resumeInterrupted());
+		nodeB.run(jobId);
+
+		assertEquals(List.of(), handlerB.chunks);
+		assertEquals(2, stored(jobId).getProcessedItems());
+		assertEquals("busy-node", stored(jobId).getOwner());
+	}
+
+	private BatchJobServiceImpl newNode(RecordingHandler handler) {
+		return new BatchJobServiceImpl(batchJobRepository, List.of(handler), new SyncTaskExecutor(),
+				transactionManager, mock(SimpMessagingTemplate.class), objectMapper, 120);
+	}
+
+	private long createJob() {
+		try {
+			return batchJobRepository.save(BatchJob.builder()
+					.type(BatchJobType.DELETE_ORDERS)
+					.params(objectMapper.writeValueAsString(BatchJobRequest.builder()
+							.type(BatchJobType.DELETE_ORDERS)
+							.orderIds(List.of(1L, 2L, 3L, 4L, 5L, 6L))
+							.build()))
+					.build()).getId();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private BatchJob stored(long jobId) {
+		return batchJobRepository.findById(jobId).orElseThrow();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Handler with chunks of two items that records which chunks ran on its node
+	 */
+	private static class RecordingHandler implements BatchJobHandler {
+
+		final List<Integer> chunks = Collections.synchronizedList(new ArrayList<>());
+		Runnable onFirstChunk = () -> { };
+
+		@Override
+		public BatchJobType getType() {
+			return BatchJobType.DELETE_ORDERS;
+		}
+
+		@Override
+		public int getChunkSize() {
+			return 2;
+		}
+
+		@Override
+		public void validate(BatchJobRequest request) {
+		}
+
+		@Override
+		public int countItems(BatchJobRequest request) {
+			return request.getOrderIds().size();
+		}
+
+		@Override
+		public void processChunk(BatchJob job, BatchJobRequest request, int from, int to) {
+			if (from == 0) {
+				onFirstChunk.run();
+			}
+			chunks.add(from);
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.vuvisa.dtos.requests.BatchJobRequest;
+import com.example.vuvisa.entities.BatchJob;
+import com.example.vuvisa.enums.BatchJobStatus;
+import com.example.vuvisa.enums.BatchJobType;
+import com.example.vuvisa.repositories.BatchJobRepository;
+import com.example.vuvisa.services.BatchJobHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BatchJobServiceImplTest {
+
+	private static final long JOB_ID = 1L;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicReference<BatchJob> stored = new AtomicReference<>();
+	private final AtomicBoolean cancelRequested = new AtomicBoolean();
+	private final List<Integer> processedChunks = new ArrayList<>();
+
+	private BatchJobRepository repository;
+	private RecordingHandler handler;
+	private BatchJobServiceImpl batchJobService;
+
+	@BeforeEach
+	void setUp() {
+		// In-memory stand-in for the batch_jobs table
+		repository = mock(BatchJobRepository.class);
+		when(repository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(copy(stored.get())));
+		when(repository.save(any(BatchJob.class))).thenAnswer(invocation -> {
+			stored.set(copy(invocation.getArgument(0)));
+			return invocation.getArgument(0);
+		});
+		when(repository.isCancelRequested(anyLong())).thenAnswer(invocation -> cancelRequested.get());
+		when(repository.updateCancelRequested(anyLong(), anyBoolean())).thenAnswer(invocation -> {
+			cancelRequested.set(invocation.getArgument(1));
+			return 1;
+		});
+		// A single node: its claims and renewals always succeed
+		when(repository.claim(anyLong(), anyString(), anyInt())).thenReturn(1);
+		when(repository.renewLease(anyLong(), anyString(), anyInt())).thenReturn(1);
+
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		handler = new RecordingHandler();
+		batchJobService = new BatchJobServiceImpl(repository, List.of(handler), new SyncTaskExecutor(),
+				transactionManager, mock(SimpMessagingTemplate.class), objectMapper, 120);
+	}
+
+	@Test
+	void cancelStopsBeforeNextChunk() throws Exception {
+		storeJob(BatchJobStatus.QUEUED, null, 0);
+		// Cancel while the second chunk is being processed
+		handler.onChunk = from -> {
+			if (from == 2) {
+				cancelRequested.set(true);
+			}
+		};
+
+		batchJobService.run(JOB_ID);
+
+		assertEquals(List.of(0, 2), processedChunks);
+		assertEquals(BatchJobStatus.CANCELLED, stored.get().getStatus());
+		assertEquals(4, stored.get().getProcessedItems());
+	}
+
+	@Test
+	void interruptedJobResumesAfterLastCheckpoint() {
+		// The application stopped while the job was running, after two committed chunks
+		storeJob(BatchJobStatus.RUNNING, 6, 4);
+
+		when(repository.findClaimable()).thenReturn(List.of(copy(stored.get())));
+
+		assertEquals(1, batchJobService.resumeInterrupted());
+
+		assertEquals(List.of(4), processedChunks);
+		assertEquals(BatchJobStatus.COMPLETED, stored.get().getStatus());
+		assertEquals(6, stored.get().getProcessedItems());
+	}
+
+	@Test
+	void cancelledJobResumesFromCheckpoint() throws Exception {
+		storeJob(BatchJobStatus.QUEUED, null, 0);
+		handler.onChunk = from -> {
+			if (from == 0) {
+				cancelRequested.set(true);
+			}
+		};
+		batchJobService.run(JOB_ID);
+		assertEquals(BatchJobStatus.CANCELLED, stored.get().getStatus());
+
+		handler.onChunk = from -> { };
+		batchJobService.resume(JOB_ID);
+
+		assertEquals(List.of(0, 2, 4), processedChunks);
+		assertEquals(BatchJobStatus.COMPLETED, stored.get().getStatus());
+		assertEquals(6, stored.get().getProcessedItems());
+	}
+
+	@Test
+	void failedChunkKeepsPreviousCheckpoint() throws Exception {
+		storeJob(BatchJobStatus.QUEUED, null, 0);
+		handler.onChunk = from -> {
+			if (from == 2) {
+				throw new IllegalStateException("boom");
+			}
+		};
+
+		batchJobService.run(JOB_ID);
+
+		assertEquals(BatchJobStatus.FAILED, stored.get().getStatus());
+		assertEquals(2, stored.get().getProcessedItems());
+		assertEquals("boom", stored.get().getError());
+	}
+
+	private void storeJob(BatchJobStatus status, Integer totalItems, int processedItems) {
+		try {
+			stored.set(BatchJob.builder()
+					.id(JOB_ID)
+					.type(BatchJobType.DELETE_ORDERS)
+					.status(status)
+					.params(objectMapper.writeValueAsString(BatchJobRequest.builder()
+							.type(BatchJobType.DELETE_ORDERS)
+							.orderIds(List.of(1L, 2L, 3L, 4L, 5L, 6L))
+							.build()))
+					.totalItems(totalItems)
+					.processedItems(processedItems)
+					.build());
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static BatchJob copy(BatchJob job) {
+		if (job == null) {
+			return null;
+		}
+		return BatchJob.builder()
+				.id(job.getId())
+				.type(job.getType())
+				.status(job.getStatus())
+				.params(job.getParams())
+				.totalItems(job.getTotalItems())
+				.processedItems(job.getProcessedItems())
+				.result(job.getResult())
+				.error(job.getError())
+				.createdAt(job.getCreatedAt())
+				.startedAt(job.getStartedAt())
+				.updatedAt(job.getUpdatedAt())
+				.finishedAt(job.getFinishedAt())
+				.build();
+	}
+
+	/**
+	 * Handler with chunks of two items that records which chunks ran
+	 */
+	private class RecordingHandler implements BatchJobHandler {
+
+		IntConsumer onChunk = from -> { };
+
+		@Override
+		public BatchJobType getType() {
+			return BatchJobType.DELETE_ORDERS;
+		}
+
+		@Override
+		public int getChunkSize() {
+			return 2;
+		}
+
+		@Override
+		public void validate(BatchJobRequest request) {
+		}
+
+		@Override
+		public int countItems(BatchJobRequest request) {
+			return request.getOrderIds().size();
+		}
+
+		@Override
+		public void processChunk(BatchJob job, BatchJobRequest request, int from, int to) {
+			onChunk.accept(from);
+			processedChunks.add(from);
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.components.ClusterLock;
+
+/**
+ * Reconciliation of the favorite counts against MySQL while other nodes still hold changes in memory.
+ * Each node is its own {@link FavoriteCountServiceImpl} on the same database.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+// Favorites, flushes and the reconciliation commit on their own, as they do across nodes
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FavoriteCountServiceImplReconcileTest {
+
+	private static final long PRODUCT_ID = 1L;
+	private static final long SETTLE_MILLIS = 1000;
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private FavoriteCountServiceImpl nodeA;
+	private FavoriteCountServiceImpl nodeB;
+
+	@BeforeEach
+	void setUp() {
+		nodeA = newNode();
+		nodeB = newNode();
+		jdbcTemplate.update("INSERT INTO product (id, product_name) VALUES (?, 'Đắc Nhân Tâm')", PRODUCT_ID);
+		for (long user = 1; user <= 5; user++) {
+			jdbcTemplate.update("INSERT INTO users (id, username, email) VALUES (?, ?, ?)",
+					user, "user" + user, "user" + user + "@vuvisa.vn");
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM favorites");
+		jdbcTemplate.update("DELETE FROM product");
+		jdbcTemplate.update("DELETE FROM users");
+	}
+
+	@Test
+	void changeLostInACrashIsCorrected() {
+		favorite(1);
+		favorite(2);
+		favorite(3);
+		// The node that counted the third favorite died before flushing it
+		jdbcTemplate.update("UPDATE product SET favorite_count = 2 WHERE id = ?", PRODUCT_ID);
+
+		assertEquals(1, nodeA.reconcile());
+
+		assertEquals(3, storedCount());
+	}
+
+	@Test
+	void changeHeldByAnotherNodeIsNotCountedTwice() throws Exception {
+		favorite(1);
+		favorite(2);
+		jdbcTemplate.update("UPDATE product SET favorite_count = 2 WHERE id = ?", PRODUCT_ID);
+		// Committed, but node B has not flushed it yet
+		favorite(3);
+		nodeB.add(PRODUCT_ID, 1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Long> reconciled = executor.submit(nodeA::reconcile);
+			// Node B's scheduled flush runs while node A waits for it
+			Thread.sleep(SETTLE_MILLIS / 4);
+			assertEquals(1, nodeB.flush());
+
+			assertEquals(0L, reconciled.get(30, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(3, storedCount());
+	}
+
+	@Test
+	void removalAndAdditionThatCancelOutAreNotCountedTwice() throws Exception {
+		favorite(1);
+		favorite(2);
+		jdbcTemplate.update("UPDATE product SET favorite_count = 2 WHERE id = ?", PRODUCT_ID);
+		// Node B holds a removal committed before the drift is measured...
+		jdbcTemplate.update("DELETE FROM favorites WHERE user_id = 1");
+		nodeB.add(PRODUCT_ID, -1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Long> reconciled = executor.submit(nodeA::reconcile);
+			Thread.sleep(SETTLE_MILLIS / 4);
+			// ...and an addition committed after; its flush writes no change, only the stamp
+			favorite(3);
+			nodeB.add(PRODUCT_ID, 1);
+			assertEquals(1, nodeB.flush());
+
+			reconciled.get(30, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(2, storedCount());
+	}
+
+	@Test
+	void firstFillDoesNotWaitForOtherNodes() {
+		favorite(1);
+		favorite(2);
+		assertTrue(nodeA.needsBackfill());
+
+		long start = System.currentTimeMillis();
+		assertEquals(1, nodeA.backfill());
+
+		assertTrue(System.currentTimeMillis() - start < SETTLE_MILLIS, "The first fill waited for the nodes to settle");
+		assertEquals(2, storedCount());
+	}
+
+	@Test
+	void onlyOneNodeReconcilesAtATime() throws Exception {
+		favorite(1);
+		jdbcTemplate.update("UPDATE product SET favorite_count = 5 WHERE id = ?", PRODUCT_ID);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<Long>> runs = new ArrayList<>();
+			for (FavoriteCountServiceImpl node : List.of(nodeA, nodeB)) {
+				runs.add(executor.submit(() -> {
+					start.await();
+					return node.reconcile();
+				}));
+			}
+			start.countDown();
+
+			long corrected = 0;
+			for (Future<Long> run : runs) {
+				corrected += run.get(30, TimeUnit.SECONDS);
+			}
+			// The second node returned at once instead of correcting the same product again
+			assertEquals(1, corrected);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, storedCount());
+	}
+
+	private FavoriteCountServiceImpl newNode() {
+		return new FavoriteCountServiceImpl(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate),
+				transactionManager, new ClusterLock(jdbcTemplate), SETTLE_MILLIS);
+	}
+
+	private void favorite(long userId) {
+		jdbcTemplate.update("INSERT INTO favorites (user_id, product_id, created_date) VALUES (?, ?, NOW())",
+				userId, PRODUCT_ID);
+	}
+
+	private long storedCount() {
+		return jdbcTemplate.queryForObject("SELECT favorite_count FROM product WHERE id = ?", Long.class, PRODUCT_ID);
+	}
+}
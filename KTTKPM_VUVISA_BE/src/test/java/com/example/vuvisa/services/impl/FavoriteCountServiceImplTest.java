@@ -0,0 +1,111 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.vuvisa.components.ClusterLock;
+import com.example.vuvisa.events.FavoriteChangedEvent;
+
+class FavoriteCountServiceImplTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private FavoriteCountServiceImpl service;
+	private final List<Object[]> written = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+			List<Object[]> args = invocation.getArgument(1);
+			written.addAll(args);
+			return new int[args.size()];
+		});
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		service = new FavoriteCountServiceImpl(jdbcTemplate, mock(NamedParameterJdbcTemplate.class), transactionManager,
+				mock(ClusterLock.class), 0);
+	}
+
+	@Test
+	void concurrentChangesAreFlushedAsOneUpdatePerProduct() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < 1000; i++) {
+						service.handleFavoriteChanged(new FavoriteChangedEvent(7L, 1));
+					}
+					service.handleFavoriteChanged(new FavoriteChangedEvent(3L, -1));
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(5, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(2, service.flush());
+
+		// In product id order: delta, product id
+		assertEquals(2, written.size());
+		assertArrayEquals(new Object[]{-8L, 3L}, written.get(0));
+		assertArrayEquals(new Object[]{8000L, 7L}, written.get(1));
+		assertEquals(0, service.flush());
+	}
+
+	@Test
+	void changesThatCancelOutStillStampTheProduct() {
+		service.add(5L, 1);
+		service.add(5L, -1);
+
+		// The reconciliation must know the product changed, even if its count did not
+		assertEquals(1, service.flush());
+		assertArrayEquals(new Object[]{0L, 5L}, written.get(0));
+		assertEquals(0, service.flush());
+	}
+
+	@Test
+	void failedFlushKeepsChanges() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+				.thenThrow(new IllegalStateException("Database is down"))
+				.thenAnswer(invocation -> {
+					List<Object[]> args = invocation.getArgument(1);
+					written.addAll(args);
+					return new int[args.size()];
+				});
+		service.add(5L, 2);
+
+		assertThrows(IllegalStateException.class, () -> service.flush());
+		service.add(5L, 1);
+
+		assertEquals(1, service.flush());
+		assertArrayEquals(new Object[]{3L, 5L}, written.get(0));
+	}
+}
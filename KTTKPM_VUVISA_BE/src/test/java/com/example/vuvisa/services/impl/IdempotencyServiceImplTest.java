@@ -0,0 +1,196 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.exceptions.IdempotencyConflictException;
+import com.example.vuvisa.repositories.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Idempotency keys against MySQL. Each service instance stands for one node; they share the table.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+// Claims and responses are committed in their own transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceImplTest {
+
+	private static final String SCOPE = "order.create";
+	private static final Map<String, Object> REQUEST = Map.of("productId", 1, "quantity", 2);
+	private static final int LEASE_SECONDS = 120;
+	private static final int DUPLICATES = 32;
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private IdempotencyServiceImpl node;
+	private IdempotencyServiceImpl otherNode;
+
+	@BeforeEach
+	void setUp() {
+		node = newNode();
+		otherNode = newNode();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM idempotency_records");
+	}
+
+	@Test
+	void concurrentDuplicatesShareOneExecution() throws Exception {
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES);
+		List<Future<Receipt>> futures = new ArrayList<>();
+
+		for (int i = 0; i < DUPLICATES; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				return node.execute(SCOPE, "retry-storm", REQUEST, Receipt.class, () -> {
+					// Long enough for the other duplicates to arrive while it runs
+					Thread.sleep(300);
+					return new Receipt(executions.incrementAndGet(), "created");
+				});
+			}));
+		}
+		start.countDown();
+		for (Future<Receipt> future : futures) {
+			assertEquals(new Receipt(1, "created"), future.get());
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		assertEquals(1, executions.get());
+		assertEquals(1, count("SELECT COUNT(*) FROM idempotency_records WHERE status = 'COMPLETED'"));
+		// A repeat on another node is answered from the table
+		assertEquals(new Receipt(1, "created"), otherNode.execute(SCOPE, "retry-storm", REQUEST, Receipt.class,
+				() -> new Receipt(executions.incrementAndGet(), "created")));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void keyReusedForADifferentRequestConflicts() throws Exception {
+		node.execute(SCOPE, "reused", REQUEST, Receipt.class, () -> new Receipt(1, "created"));
+		Map<String, Object> otherRequest = Map.of("productId", 1, "quantity", 3);
+
+		// Answered with 409 by the controllers, whether the key is found in the cache or in the table
+		assertThrows(IdempotencyConflictException.class, () ->
+				node.execute(SCOPE, "reused", otherRequest, Receipt.class, () -> new Receipt(2, "created")));
+		assertThrows(IdempotencyConflictException.class, () ->
+				otherNode.execute(SCOPE, "reused", otherRequest, Receipt.class, () -> new Receipt(2, "created")));
+		// Property order is not a different request
+		assertEquals(new Receipt(1, "created"), otherNode.execute(SCOPE, "reused",
+				Map.of("quantity", 2, "productId", 1), Receipt.class, () -> new Receipt(2, "created")));
+	}
+
+	@Test
+	void staleClaimIsTakenOverAndAFreshOneIsNot() throws Exception {
+		// The hash covers the scope and the request, not the key, so a finished key lends it to the claims below
+		node.execute(SCOPE, "finished", REQUEST, Receipt.class, () -> new Receipt(1, "created"));
+		String requestHash = jdbcTemplate.queryForObject(
+				"SELECT request_hash FROM idempotency_records WHERE idempotency_key = 'finished'", String.class);
+		claim("crashed", requestHash, LEASE_SECONDS + 1);
+		claim("running", requestHash, 10);
+
+		assertEquals(new Receipt(2, "created"), otherNode.execute(SCOPE, "crashed", REQUEST, Receipt.class,
+				() -> new Receipt(2, "created")));
+		assertEquals("COMPLETED", status("crashed"));
+
+		assertThrows(IdempotencyConflictException.class, () ->
+				otherNode.execute(SCOPE, "running", REQUEST, Receipt.class, () -> new Receipt(3, "created")));
+		assertEquals("IN_PROGRESS", status("running"));
+	}
+
+	@Test
+	void failedActionReleasesTheKey() throws Exception {
+		IOException failure = new IOException("payment gateway unavailable");
+		IOException thrown = assertThrows(IOException.class, () ->
+				node.execute(SCOPE, "flaky", REQUEST, Receipt.class, () -> {
+					throw failure;
+				}));
+		assertEquals(failure, thrown);
+		assertEquals(0, count("SELECT COUNT(*) FROM idempotency_records WHERE idempotency_key = 'flaky'"));
+
+		assertThrows(IllegalStateException.class, () ->
+				otherNode.execute(SCOPE, "flaky", REQUEST, Receipt.class, () -> {
+					throw new IllegalStateException("out of stock");
+				}));
+		assertEquals(0, count("SELECT COUNT(*) FROM idempotency_records WHERE idempotency_key = 'flaky'"));
+
+		// The retry runs the action again and its response is kept
+		assertEquals(new Receipt(3, "created"), node.execute(SCOPE, "flaky", REQUEST, Receipt.class,
+				() -> new Receipt(3, "created")));
+		assertEquals("COMPLETED", status("flaky"));
+	}
+
+	private IdempotencyServiceImpl newNode() {
+		return new IdempotencyServiceImpl(idempotencyRecordRepository, new ObjectMapper(), transactionManager,
+				100, 24, LEASE_SECONDS, 30);
+	}
+
+	private void claim(String key, String requestHash, int secondsAgo) {
+		LocalDateTime claimedAt = LocalDateTime.now().minusSeconds(secondsAgo);
+		jdbcTemplate.update("INSERT INTO idempotency_records (scope, idempotency_key, request_hash, status, "
+						+ "created_at, updated_at, expires_at) VALUES (?, ?, ?, 'IN_PROGRESS', ?, ?, ?)",
+				SCOPE, key, requestHash, claimedAt, claimedAt, claimedAt.plusHours(24));
+	}
+
+	private String status(String key) {
+		return jdbcTemplate.queryForObject("SELECT status FROM idempotency_records WHERE idempotency_key = ?",
+				String.class, key);
+	}
+
+	private long count(String sql) {
+		Long value = jdbcTemplate.queryForObject(sql, Long.class);
+		return value == null ? 0 : value;
+	}
+
+	record Receipt(long orderId, String note) {
+	}
+}
@@ -0,0 +1,184 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import com.example.vuvisa.entities.InvoiceDelivery;
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.enums.InvoiceDeliveryStatus;
+import com.example.vuvisa.repositories.InvoiceDeliveryRepository;
+import com.example.vuvisa.repositories.OrderRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.BodyPart;
+import jakarta.mail.Multipart;
+import jakarta.mail.internet.MimeMessage;
+
+class InvoiceDeliveryServiceImplTest {
+
+	private static final long ORDER_ID = 7L;
+	private static final long DELIVERY_ID = 1L;
+	private static final String RECIPIENT = "customer@vuvisa.test";
+	private static final byte[] PDF = "%PDF-1.4 invoice".getBytes();
+
+	// Local SMTP stand-in, one fresh mailbox per test
+	@RegisterExtension
+	static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private final AtomicReference<InvoiceDelivery> stored = new AtomicReference<>();
+
+	private JavaMailSenderImpl mailSender;
+	private InvoiceDeliveryRepository invoiceDeliveryRepository;
+	private InvoiceDeliveryServiceImpl invoiceDeliveryService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("localhost");
+		mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+		// Rendering is covered elsewhere; this test is about getting the PDF to the mail server
+		MailServiceImpl mailService = spy(new MailServiceImpl(mailSender, mock(SpringTemplateEngine.class)));
+		doReturn(PDF).when(mailService).renderInvoicePdf(any());
+
+		Order order = new Order();
+		order.setId(ORDER_ID);
+		order.setEmail(RECIPIENT);
+		order.setFullName("Nguyễn Văn A");
+		OrderRepository orderRepository = mock(OrderRepository.class);
+		when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+
+		// In-memory stand-in for the invoice_deliveries row
+		stored.set(InvoiceDelivery.builder()
+				.id(DELIVERY_ID)
+				.orderId(ORDER_ID)
+				.recipientEmail(RECIPIENT)
+				.status(InvoiceDeliveryStatus.PENDING)
+				.attempts(0)
+				.nextAttemptAt(LocalDateTime.now())
+				.build());
+		invoiceDeliveryRepository = mock(InvoiceDeliveryRepository.class);
+		when(invoiceDeliveryRepository.findById(DELIVERY_ID)).thenAnswer(invocation -> Optional.of(stored.get()));
+		when(invoiceDeliveryRepository.findByOrderId(ORDER_ID)).thenAnswer(invocation -> Optional.of(stored.get()));
+		when(invoiceDeliveryRepository.claim(anyLong(), any())).thenAnswer(invocation -> {
+			if (stored.get().getStatus() != InvoiceDeliveryStatus.PENDING) {
+				return 0;
+			}
+			stored.get().setStatus(InvoiceDeliveryStatus.SENDING);
+			return 1;
+		});
+
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		invoiceDeliveryService = new InvoiceDeliveryServiceImpl(invoiceDeliveryRepository, orderRepository, mailService,
+				new SyncTaskExecutor(), transactionManager);
+		ReflectionTestUtils.setField(invoiceDeliveryService, "maxAttempts", 5);
+		ReflectionTestUtils.setField(invoiceDeliveryService, "initialBackoffSeconds", 30L);
+		ReflectionTestUtils.setField(invoiceDeliveryService, "maxBackoffSeconds", 3600L);
+		ReflectionTestUtils.setField(invoiceDeliveryService, "batchSize", 50);
+		ReflectionTestUtils.setField(invoiceDeliveryService, "staleAfterMinutes", 15L);
+	}
+
+	@Test
+	void dispatchSendsInvoiceOverSmtp() throws Exception {
+		invoiceDeliveryService.dispatch(ORDER_ID);
+
+		MimeMessage[] received = greenMail.getReceivedMessages();
+		assertEquals(1, received.length);
+		assertEquals(RECIPIENT, received[0].getAllRecipients()[0].toString());
+		assertTrue(received[0].getSubject().contains("Nguyễn Văn A"));
+		assertNotNull(findAttachment(received[0], "invoice.pdf"));
+
+		InvoiceDelivery delivery = stored.get();
+		assertEquals(InvoiceDeliveryStatus.SENT, delivery.getStatus());
+		assertEquals(1, delivery.getAttempts());
+		assertNotNull(delivery.getSentAt());
+	}
+
+	@Test
+	void unreachableSmtpIsRetriedWithBackoff() throws Exception {
+		mailSender.setPort(closedPort());
+
+		invoiceDeliveryService.dispatch(ORDER_ID);
+
+		InvoiceDelivery delivery = stored.get();
+		assertEquals(InvoiceDeliveryStatus.PENDING, delivery.getStatus());
+		assertEquals(1, delivery.getAttempts());
+		assertNotNull(delivery.getLastError());
+		assertTrue(delivery.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+		assertEquals(0, greenMail.getReceivedMessages().length);
+
+		// The mail server is back and the retry poller finds the row due
+		mailSender.setPort(ServerSetupTest.SMTP.getPort());
+		when(invoiceDeliveryRepository.findDueIds(any(), any(), any())).thenReturn(List.of(DELIVERY_ID));
+
+		assertEquals(1, invoiceDeliveryService.dispatchDueDeliveries());
+
+		assertEquals(InvoiceDeliveryStatus.SENT, stored.get().getStatus());
+		assertEquals(2, stored.get().getAttempts());
+		assertEquals(1, greenMail.getReceivedMessages().length);
+	}
+
+	@Test
+	void sentDeliveryIsNotSentTwice() {
+		invoiceDeliveryService.dispatch(ORDER_ID);
+		invoiceDeliveryService.dispatch(ORDER_ID);
+
+		assertEquals(1, greenMail.getReceivedMessages().length);
+	}
+
+	private static BodyPart findAttachment(MimeMessage message, String fileName) throws Exception {
+		return findAttachment((Multipart) message.getContent(), fileName);
+	}
+
+	private static BodyPart findAttachment(Multipart multipart, String fileName) throws Exception {
+		for (int i = 0; i < multipart.getCount(); i++) {
+			BodyPart part = multipart.getBodyPart(i);
+			if (fileName.equals(part.getFileName())) {
+				return part;
+			}
+			if (part.getContent() instanceof Multipart nested) {
+				BodyPart found = findAttachment(nested, fileName);
+				if (found != null) {
+					return found;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A port nothing listens on, so connecting is refused right away
+	 */
+	private static int closedPort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
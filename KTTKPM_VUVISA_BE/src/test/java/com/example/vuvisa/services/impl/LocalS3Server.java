@@ -0,0 +1,208 @@
+package com.example.vuvisa.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Just enough of the S3 REST API, path-style, for the upload tests: PutObject and the multipart upload calls.
+ * Part uploads can be made to fail, so that the client has to send a part again.
+ */
+final class LocalS3Server implements AutoCloseable {
+
+	private static final Pattern PART = Pattern.compile("<PartNumber>(\\d+)</PartNumber>\\s*<ETag>([^<]*)</ETag>|"
+			+ "<ETag>([^<]*)</ETag>\\s*<PartNumber>(\\d+)</PartNumber>");
+
+	private final HttpServer server;
+	private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+	private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+	private final Set<String> abortedUploads = ConcurrentHashMap.newKeySet();
+	private final List<Integer> partAttempts = new CopyOnWriteArrayList<>();
+	private final AtomicInteger uploadIds = new AtomicInteger();
+	// Decides, per attempt of a part, whether it fails with a 500
+	private volatile IntPredicate failPart = partNumber -> false;
+
+	LocalS3Server() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	URI endpoint() {
+		return URI.create("http://localhost:" + server.getAddress().getPort());
+	}
+
+	void failPart(IntPredicate failPart) {
+		this.failPart = failPart;
+	}
+
+	/**
+	 * @return the stored objects by "bucket/key"
+	 */
+	Map<String, byte[]> objects() {
+		return objects;
+	}
+
+	/**
+	 * @return the part number of every part upload received, failed ones included
+	 */
+	List<Integer> partAttempts() {
+		return partAttempts;
+	}
+
+	Set<String> abortedUploads() {
+		return abortedUploads;
+	}
+
+	Set<String> openUploads() {
+		return uploads.keySet();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			String path = exchange.getRequestURI().getPath().substring(1);
+			Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+			byte[] body = body(exchange);
+			String method = exchange.getRequestMethod();
+
+			if ("POST".equals(method) && query.containsKey("uploads")) {
+				String uploadId = "upload-" + uploadIds.incrementAndGet();
+				uploads.put(uploadId, new TreeMap<>());
+				xml(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + path.substring(0, path.indexOf('/'))
+						+ "</Bucket><Key>" + path.substring(path.indexOf('/') + 1) + "</Key><UploadId>" + uploadId
+						+ "</UploadId></InitiateMultipartUploadResult>");
+			} else if ("PUT".equals(method) && query.containsKey("partNumber")) {
+				int partNumber = Integer.parseInt(query.get("partNumber"));
+				partAttempts.add(partNumber);
+				Map<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+				if (parts == null) {
+					xml(exchange, 404, "<Error><Code>NoSuchUpload</Code><Message>No such upload</Message></Error>");
+				} else if (failPart.test(partNumber)) {
+					xml(exchange, 500, "<Error><Code>InternalError</Code><Message>Injected failure</Message></Error>");
+				} else {
+					parts.put(partNumber, body);
+					etag(exchange, body);
+					exchange.sendResponseHeaders(200, -1);
+				}
+			} else if ("POST".equals(method) && query.containsKey("uploadId")) {
+				Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+				ByteArrayOutputStream object = new ByteArrayOutputStream();
+				Matcher matcher = PART.matcher(new String(body, StandardCharsets.UTF_8));
+				int expected = 1;
+				while (matcher.find()) {
+					int partNumber = Integer.parseInt(matcher.group(1) != null ? matcher.group(1) : matcher.group(4));
+					String eTag = matcher.group(1) != null ? matcher.group(2) : matcher.group(3);
+					byte[] part = parts == null ? null : parts.get(partNumber);
+					if (partNumber != expected++ || part == null || !eTag.replace("&quot;", "\"").equals(quotedMd5(part))) {
+						xml(exchange, 400, "<Error><Code>InvalidPart</Code><Message>Bad part " + partNumber + "</Message></Error>");
+						return;
+					}
+					object.write(part);
+				}
+				objects.put(path, object.toByteArray());
+				xml(exchange, 200, "<CompleteMultipartUploadResult><Key>" + path + "</Key><ETag>&quot;multipart&quot;</ETag>"
+						+ "</CompleteMultipartUploadResult>");
+			} else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+				uploads.remove(query.get("uploadId"));
+				abortedUploads.add(query.get("uploadId"));
+				exchange.sendResponseHeaders(204, -1);
+			} else if ("PUT".equals(method)) {
+				objects.put(path, body);
+				etag(exchange, body);
+				exchange.sendResponseHeaders(200, -1);
+			} else {
+				xml(exchange, 501, "<Error><Code>NotImplemented</Code><Message>" + method + "</Message></Error>");
+			}
+		}
+	}
+
+	/**
+	 * Request payload, with the aws-chunked framing of signed streaming uploads removed
+	 */
+	private static byte[] body(HttpExchange exchange) throws IOException {
+		byte[] raw;
+		try (InputStream in = exchange.getRequestBody()) {
+			raw = in.readAllBytes();
+		}
+		String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+		String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+		boolean chunked = (contentSha != null && contentSha.startsWith("STREAMING-"))
+				|| (contentEncoding != null && contentEncoding.contains("aws-chunked"));
+		if (!chunked) {
+			return raw;
+		}
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream(raw.length);
+		int position = 0;
+		while (position < raw.length) {
+			int lineEnd = position;
+			while (raw[lineEnd] != '\r' || raw[lineEnd + 1] != '\n') {
+				lineEnd++;
+			}
+			String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+			int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+			position = lineEnd + 2;
+			if (size == 0) {
+				// Trailing checksum headers, if any, follow the last chunk
+				break;
+			}
+			decoded.write(raw, position, size);
+			position += size + 2;
+		}
+		return decoded.toByteArray();
+	}
+
+	private static Map<String, String> query(String rawQuery) {
+		Map<String, String> query = new HashMap<>();
+		if (rawQuery != null) {
+			for (String parameter : rawQuery.split("&")) {
+				int equals = parameter.indexOf('=');
+				query.put(equals < 0 ? parameter : parameter.substring(0, equals), equals < 0 ? "" : parameter.substring(equals + 1));
+			}
+		}
+		return query;
+	}
+
+	private static void etag(HttpExchange exchange, byte[] body) {
+		exchange.getResponseHeaders().add("ETag", quotedMd5(body));
+	}
+
+	private static void xml(HttpExchange exchange, int status, String xml) throws IOException {
+		byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/xml");
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+	}
+
+	private static String quotedMd5(byte[] bytes) {
+		try {
+			return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(bytes)) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import com.example.vuvisa.components.InvoicePdfRenderer;
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.OrderResponse;
+import com.example.vuvisa.entities.Book;
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.entities.OrderDetail;
+import com.example.vuvisa.entities.User;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.events.EventPublisher;
+import com.example.vuvisa.services.InvoiceDeliveryService;
+import com.example.vuvisa.services.OrderStatusHistoryService;
+import com.example.vuvisa.services.OrderSummaryService;
+import com.example.vuvisa.services.SalesRollupService;
+import com.example.vuvisa.services.SampleDataService;
+import com.example.vuvisa.services.StockReservationService;
+import com.example.vuvisa.services.UserOrderStatsService;
+import com.example.vuvisa.services.VoucherRedemptionService;
+
+/**
+ * Archiving against MySQL and the order reads that route to the archive: by id, a user's history and the
+ * admin filter, which only reaches into the archive when its date range can hold archived orders.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({OrderServiceImpl.class, OrderArchiveServiceImpl.class})
+class OrderArchiveServiceImplTest {
+
+	private static final int RETENTION_DAYS = 365;
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@MockitoBean
+	private InvoiceDeliveryService invoiceDeliveryService;
+	@MockitoBean
+	private EventPublisher eventPublisher;
+	@MockitoBean
+	private SpringTemplateEngine templateEngine;
+	@MockitoBean
+	private StockReservationService stockReservationService;
+	@MockitoBean
+	private VoucherRedemptionService voucherRedemptionService;
+	@MockitoBean
+	private SampleDataService sampleDataService;
+	@MockitoBean
+	private SalesRollupService salesRollupService;
+	@MockitoBean
+	private OrderStatusHistoryService orderStatusHistoryService;
+	@MockitoBean
+	private UserOrderStatsService userOrderStatsService;
+	@MockitoBean
+	private OrderSummaryService orderSummaryService;
+	@MockitoBean
+	private InvoicePdfRenderer invoicePdfRenderer;
+
+	@Autowired
+	private OrderServiceImpl orderService;
+	@Autowired
+	private OrderArchiveServiceImpl orderArchiveService;
+	@Autowired
+	private TestEntityManager entityManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User customer;
+	private List<Order> oldOrders;
+	private List<Order> recentOrders;
+
+	@BeforeEach
+	void setUp() {
+		Book book = new Book();
+		book.setProductName("Sách Cũ");
+		book.setPrice(80_000L);
+		book.setStockQuantity(100L);
+		entityManager.persist(book);
+
+		customer = new User();
+		customer.setUsername("Khách Quen");
+		customer.setFullName("Khách Quen");
+		entityManager.persist(customer);
+
+		oldOrders = placeOrders(3, RETENTION_DAYS + 30, book);
+		recentOrders = placeOrders(2, 10, book);
+		entityManager.flush();
+	}
+
+	@Test
+	void archivingMovesOrdersWithTheirDetails() throws Exception {
+		assertEquals(3, archive());
+
+		assertEquals(2, count("orders"));
+		assertEquals(3, count("orders_archive"));
+		assertEquals(3, count("order_details_archive"));
+
+		OrderResponse archived = orderService.getOrderById(oldOrders.get(0).getId());
+		assertEquals(oldOrders.get(0).getId(), archived.getId());
+		assertEquals(1, archived.getOrderDetails().size());
+	}
+
+	@Test
+	void orderHistoryMergesTheArchive() throws Exception {
+		archive();
+
+		Page<OrderResponse> history = orderService.getOrdersByUserId(customer.getId(), 0, 10);
+
+		assertEquals(5, history.getTotalElements());
+		// Newest first across both tables
+		List<Long> expected = new ArrayList<>();
+		recentOrders.forEach(order -> expected.add(order.getId()));
+		oldOrders.forEach(order -> expected.add(order.getId()));
+		assertEquals(expected, history.getContent().stream().map(OrderResponse::getId).toList());
+	}
+
+	@Test
+	void filterReachesIntoTheArchiveOnlyForOldRanges() {
+		archive();
+
+		Page<OrderResponse> recent = orderService.filterOrders(filterSince(daysAgo(RETENTION_DAYS)), 0, 10);
+		assertEquals(2, recent.getTotalElements());
+
+		Page<OrderResponse> all = orderService.filterOrders(filterSince(daysAgo(RETENTION_DAYS + 60)), 0, 10);
+		assertEquals(5, all.getTotalElements());
+		assertEquals(5, all.getContent().size());
+	}
+
+	@Test
+	void archivingOnAnotherNodeIsSeenAtOnce() {
+		Date since = daysAgo(RETENTION_DAYS + 60);
+		assertFalse(orderArchiveService.mayHoldOrdersSince(since));
+
+		// Another node archives; nothing on this node hears of it
+		jdbcTemplate.update("INSERT INTO orders_archive (id, full_name, order_date, status, user_id) "
+				+ "VALUES (?, 'Khách Quen', ?, 'COMPLETED', ?)", 999_999L, daysAgo(RETENTION_DAYS + 30), customer.getId());
+
+		assertTrue(orderArchiveService.mayHoldOrdersSince(since));
+		assertFalse(orderArchiveService.mayHoldOrdersSince(daysAgo(RETENTION_DAYS)));
+	}
+
+	private int archive() {
+		int archived = orderArchiveService.archiveOrdersBefore(daysAgo(RETENTION_DAYS));
+		entityManager.clear();
+		return archived;
+	}
+
+	private List<Order> placeOrders(int count, int daysAgo, Book book) {
+		List<Order> orders = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Order order = Order.builder()
+					.user(customer)
+					.fullName(customer.getFullName())
+					.orderDate(new Date(daysAgo(daysAgo).getTime() - i * 60_000L))
+					.status(OrderStatus.COMPLETED)
+					.build();
+			entityManager.persist(order);
+			entityManager.persist(OrderDetail.builder().order(order).product(book).quantity(1L).price(book.getPrice()).build());
+			orders.add(order);
+		}
+		return orders;
+	}
+
+	private long count(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+	}
+
+	private static OrderFilterRequest filterSince(Date startDate) {
+		OrderFilterRequest filter = new OrderFilterRequest();
+		filter.setStartDate(startDate);
+		return filter;
+	}
+
+	private static Date daysAgo(int days) {
+		return Date.from(Instant.now().minus(Duration.ofDays(days)));
+	}
+}
@@ -0,0 +1,204 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import com.example.vuvisa.components.InvoicePdfRenderer;
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.OrderResponse;
+import com.example.vuvisa.entities.Book;
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.entities.OrderDetail;
+import com.example.vuvisa.entities.User;
+import com.example.vuvisa.entities.Voucher;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.events.EventPublisher;
+import com.example.vuvisa.services.InvoiceDeliveryService;
+import com.example.vuvisa.services.OrderArchiveService;
+import com.example.vuvisa.services.OrderStatusHistoryService;
+import com.example.vuvisa.services.OrderSummaryService;
+import com.example.vuvisa.services.SalesRollupService;
+import com.example.vuvisa.services.SampleDataService;
+import com.example.vuvisa.services.StockReservationService;
+import com.example.vuvisa.services.UserOrderStatsService;
+import com.example.vuvisa.services.VoucherRedemptionService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Statements run by the order read paths against MySQL, counted by Hibernate. A page costs the same
+ * number of statements whether the user has a page of orders or ten times that.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(OrderServiceImpl.class)
+class OrderServiceImplQueryCountTest {
+
+	private static final int PAGE_SIZE = 20;
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@MockitoBean
+	private InvoiceDeliveryService invoiceDeliveryService;
+	@MockitoBean
+	private EventPublisher eventPublisher;
+	@MockitoBean
+	private SpringTemplateEngine templateEngine;
+	@MockitoBean
+	private StockReservationService stockReservationService;
+	@MockitoBean
+	private VoucherRedemptionService voucherRedemptionService;
+	@MockitoBean
+	private SampleDataService sampleDataService;
+	@MockitoBean
+	private SalesRollupService salesRollupService;
+	@MockitoBean
+	private OrderArchiveService orderArchiveService;
+	@MockitoBean
+	private OrderStatusHistoryService orderStatusHistoryService;
+	@MockitoBean
+	private UserOrderStatsService userOrderStatsService;
+	@MockitoBean
+	private OrderSummaryService orderSummaryService;
+	@MockitoBean
+	private InvoicePdfRenderer invoicePdfRenderer;
+	@MockitoBean
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private OrderServiceImpl orderService;
+	@Autowired
+	private TestEntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private User fewOrders;
+	private User manyOrders;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		List<Book> books = new ArrayList<>();
+		for (int i = 1; i <= 3; i++) {
+			Book book = new Book();
+			book.setProductName("Sách " + i);
+			book.setPrice(50_000L * i);
+			book.setStockQuantity(100L);
+			books.add(entityManager.persist(book));
+		}
+		Voucher voucher = entityManager.persist(Voucher.builder().code("SALE10").discountPercentage(10.0).build());
+
+		// One page of orders against ten pages
+		fewOrders = placeOrders("Khách Một", PAGE_SIZE, books, voucher);
+		manyOrders = placeOrders("Khách Hai", PAGE_SIZE * 10, books, voucher);
+		entityManager.flush();
+	}
+
+	@Test
+	void orderHistoryRunsTheSameStatementsAsOrdersAccumulate() throws Exception {
+		long few = statementsOf(() -> assertFullPage(orderService.getOrdersByUserId(fewOrders.getId(), 0, PAGE_SIZE)));
+		long many = statementsOf(() -> assertFullPage(orderService.getOrdersByUserId(manyOrders.getId(), 0, PAGE_SIZE)));
+		long deep = statementsOf(() -> assertFullPage(orderService.getOrdersByUserId(manyOrders.getId(), 9, PAGE_SIZE)));
+
+		assertEquals(few, many);
+		assertEquals(few, deep);
+		// User check, page of ids, count, orders with details and products, vouchers, user roles
+		assertTrue(few <= 6, "Order history ran " + few + " statements");
+	}
+
+	@Test
+	void filterRunsTheSameStatementsAsOrdersAccumulate() throws Exception {
+		long few = statementsOf(() -> assertFullPage(orderService.filterOrders(filter("Khách Một"), 0, PAGE_SIZE)));
+		long many = statementsOf(() -> assertFullPage(orderService.filterOrders(filter("Khách Hai"), 0, PAGE_SIZE)));
+		long deep = statementsOf(() -> assertFullPage(orderService.filterOrders(filter("Khách Hai"), 9, PAGE_SIZE)));
+
+		assertEquals(few, many);
+		assertEquals(few, deep);
+		// Page of ids, count, orders with details and products, vouchers, user roles
+		assertTrue(few <= 5, "Order filter ran " + few + " statements");
+	}
+
+	private long statementsOf(Callable<?> read) throws Exception {
+		entityManager.clear();
+		statistics.clear();
+		read.call();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static Object assertFullPage(Page<OrderResponse> page) {
+		assertEquals(PAGE_SIZE, page.getContent().size());
+		for (OrderResponse order : page.getContent()) {
+			assertEquals(2, order.getOrderDetails().size());
+			assertEquals(1, order.getVouchers().size());
+		}
+		return page;
+	}
+
+	private static OrderFilterRequest filter(String fullName) {
+		// The product name joins the details and makes the id query DISTINCT
+		OrderFilterRequest filter = new OrderFilterRequest();
+		filter.setFullName(fullName);
+		filter.setProductName("sách");
+		return filter;
+	}
+
+	private User placeOrders(String fullName, int count, List<Book> books, Voucher voucher) {
+		User user = new User();
+		user.setUsername(fullName);
+		user.setFullName(fullName);
+		entityManager.persist(user);
+
+		long orderDate = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			Order order = Order.builder()
+					.user(user)
+					.fullName(fullName)
+					.orderDate(new Date(orderDate - i * 60_000L))
+					.status(OrderStatus.PENDING)
+					.vouchers(new HashSet<>(List.of(voucher)))
+					.build();
+			entityManager.persist(order);
+			for (int line = 0; line < 2; line++) {
+				Book book = books.get((i + line) % books.size());
+				entityManager.persist(OrderDetail.builder().order(order).product(book).quantity(1L).price(book.getPrice()).build());
+			}
+		}
+		return user;
+	}
+}
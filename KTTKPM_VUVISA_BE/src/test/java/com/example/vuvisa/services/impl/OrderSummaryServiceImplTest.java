@@ -0,0 +1,227 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import com.example.vuvisa.components.InvoicePdfRenderer;
+import com.example.vuvisa.components.OrderSummaryBackfillRunner;
+import com.example.vuvisa.dtos.requests.OrderFilterRequest;
+import com.example.vuvisa.dtos.responses.OrderSummaryResponse;
+import com.example.vuvisa.enums.OrderStatus;
+import com.example.vuvisa.events.EventPublisher;
+import com.example.vuvisa.repositories.OrderRepository;
+import com.example.vuvisa.services.InvoiceDeliveryService;
+import com.example.vuvisa.services.OrderArchiveService;
+import com.example.vuvisa.services.OrderStatusHistoryService;
+import com.example.vuvisa.services.SalesRollupService;
+import com.example.vuvisa.services.SampleDataService;
+import com.example.vuvisa.services.StockReservationService;
+import com.example.vuvisa.services.UserOrderStatsService;
+import com.example.vuvisa.services.VoucherRedemptionService;
+
+/**
+ * The order grid against MySQL with its ngram FULLTEXT indexes, kept in step by the order write paths.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({OrderServiceImpl.class, OrderSummaryServiceImpl.class})
+// InnoDB adds rows to a FULLTEXT index when they commit, so the summaries must be committed to be found
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderSummaryServiceImplTest {
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@MockitoBean
+	private InvoiceDeliveryService invoiceDeliveryService;
+	@MockitoBean
+	private EventPublisher eventPublisher;
+	@MockitoBean
+	private SpringTemplateEngine templateEngine;
+	@MockitoBean
+	private StockReservationService stockReservationService;
+	@MockitoBean
+	private VoucherRedemptionService voucherRedemptionService;
+	@MockitoBean
+	private SampleDataService sampleDataService;
+	@MockitoBean
+	private SalesRollupService salesRollupService;
+	@MockitoBean
+	private OrderArchiveService orderArchiveService;
+	@MockitoBean
+	private OrderStatusHistoryService orderStatusHistoryService;
+	@MockitoBean
+	private UserOrderStatsService userOrderStatsService;
+	@MockitoBean
+	private InvoicePdfRenderer invoicePdfRenderer;
+
+	@Autowired
+	private OrderServiceImpl orderService;
+	@Autowired
+	private OrderSummaryServiceImpl orderSummaryService;
+	@Autowired
+	private OrderRepository orderRepository;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		new OrderSummaryBackfillRunner(orderSummaryService, orderRepository, jdbcTemplate, false)
+				.onApplicationEvent(null);
+
+		product(1, "Nhà Giả Kim", 60_000);
+		product(2, "Đắc Nhân Tâm", 80_000);
+		product(3, "Bút bi Thiên Long", 5_000);
+		order(1, "Phạm Thu Hương", "0912345678", 1);
+		line(1, 1, 2);
+		line(1, 2, 1);
+		order(2, "Đỗ Minh Khoa", "0987654321", 2);
+		line(2, 3, 5);
+		order(3, "Lê Văn Tùng", "0909000111", 3);
+		line(3, 2, 1);
+		// As the order is created: the summary is written in the creating transaction
+		inTransaction(() -> orderSummaryService.refresh(List.of(1L, 2L, 3L)));
+	}
+
+	@AfterEach
+	void tearDown() {
+		for (String table : new String[] {"order_summary", "order_details", "orders", "books", "product"}) {
+			jdbcTemplate.update("DELETE FROM " + table);
+		}
+	}
+
+	@Test
+	void termsOfTheNgramSizeOrLongerAreLookedUpInTheFullTextIndex() {
+		assertEquals(List.of(1L), ids(filter -> filter.setProductName("Kim")));
+		assertEquals(List.of(1L, 3L), ids(filter -> filter.setProductName("nhân tâm")));
+		assertEquals(List.of(2L), ids(filter -> filter.setFullName("Khoa")));
+		// Two characters, one ngram: "78" is in the first phone number only, "87" in the second
+		assertEquals(List.of(1L), ids(filter -> filter.setPhoneNumber("78")));
+		assertEquals(List.of(2L), ids(filter -> filter.setPhoneNumber("87")));
+		// A quote cannot end the phrase early
+		assertEquals(List.of(1L), ids(filter -> filter.setProductName("Kim\"")));
+	}
+
+	@Test
+	void termsShorterThanTheNgramSizeFallBackToLike() {
+		// The index holds no single-character tokens, so these are only found by the LIKE scan
+		assertEquals(List.of(1L, 2L), ids(filter -> filter.setPhoneNumber("5")));
+		assertEquals(List.of(2L), ids(filter -> filter.setFullName("K")));
+		assertEquals(List.of(1L, 2L, 3L), ids(filter -> filter.setPhoneNumber(" 0 ")));
+	}
+
+	@Test
+	void editedOrdersAreRewrittenInTheEditingTransaction() {
+		// As updateOrder does: the lines change, then the summary is rewritten before the commit
+		inTransaction(() -> {
+			jdbcTemplate.update("DELETE FROM order_details WHERE order_id = 1 AND product_id = 2");
+			line(1, 3, 1);
+			orderSummaryService.refresh(List.of(1L));
+		});
+
+		OrderSummaryResponse edited = only(filter -> filter.setId(1L));
+		assertEquals(3, edited.getItemCount());
+		assertEquals("Bút bi Thiên Long | Nhà Giả Kim", edited.getProductNames());
+		assertEquals(List.of(1L, 2L), ids(filter -> filter.setProductName("Thiên Long")));
+		assertEquals(List.of(3L), ids(filter -> filter.setProductName("Nhân Tâm")));
+	}
+
+	@Test
+	void rolledBackWritesLeaveTheGridAlone() {
+		try {
+			inTransaction(() -> {
+				jdbcTemplate.update("UPDATE orders SET full_name = 'Người Khác' WHERE id = 2");
+				orderSummaryService.refresh(List.of(2L));
+				throw new IllegalStateException("payment failed");
+			});
+		} catch (IllegalStateException expected) {
+			// rolled back
+		}
+
+		assertEquals("Đỗ Minh Khoa", only(filter -> filter.setId(2L)).getFullName());
+		assertEquals(List.of(), ids(filter -> filter.setFullName("Người Khác")));
+	}
+
+	@Test
+	void statusChangesAndDeletesReachTheGrid() throws Exception {
+		orderService.updateOrdersStatus(List.of(2L, 3L), OrderStatus.CANCELLED);
+		assertEquals(List.of(2L, 3L), ids(filter -> filter.setStatus(List.of(OrderStatus.CANCELLED))));
+		assertEquals(List.of(1L), ids(filter -> filter.setStatus(List.of(OrderStatus.PENDING))));
+
+		orderService.deleteOrders(List.of(3L));
+		assertEquals(List.of(1L, 2L), ids(filter -> { }));
+		assertEquals(List.of(), ids(filter -> filter.setId(3L)));
+	}
+
+	private List<Long> ids(Consumer<OrderFilterRequest> criteria) {
+		return page(criteria).getContent().stream().map(OrderSummaryResponse::getId).toList();
+	}
+
+	private OrderSummaryResponse only(Consumer<OrderFilterRequest> criteria) {
+		Page<OrderSummaryResponse> page = page(criteria);
+		assertEquals(1, page.getTotalElements());
+		return page.getContent().get(0);
+	}
+
+	private Page<OrderSummaryResponse> page(Consumer<OrderFilterRequest> criteria) {
+		OrderFilterRequest filter = new OrderFilterRequest();
+		criteria.accept(filter);
+		return orderSummaryService.filter(filter, 0, 20);
+	}
+
+	private void inTransaction(Runnable work) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+	}
+
+	private void product(long id, String name, long price) {
+		jdbcTemplate.update("INSERT INTO product (id, product_name, price) VALUES (?, ?, ?)", id, name, price);
+		jdbcTemplate.update("INSERT INTO books (id) VALUES (?)", id);
+	}
+
+	private void order(long id, String fullName, String phoneNumber, int daysAgo) {
+		jdbcTemplate.update("INSERT INTO orders (id, full_name, phone_number, order_date, status) "
+						+ "VALUES (?, ?, ?, ?, 'PENDING')",
+				id, fullName, phoneNumber, Date.from(Instant.now().minus(Duration.ofDays(daysAgo))));
+	}
+
+	private void line(long orderId, long productId, long quantity) {
+		jdbcTemplate.update("INSERT INTO order_details (order_id, product_id, quantity, price) "
+				+ "SELECT ?, id, ?, price FROM product WHERE id = ?", orderId, quantity, productId);
+	}
+}
@@ -0,0 +1,293 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.vuvisa.dtos.responses.ProductCacheStatsResponse;
+import com.example.vuvisa.entities.Book;
+import com.example.vuvisa.entities.Product;
+import com.example.vuvisa.events.ProductChangedEvent;
+import com.example.vuvisa.services.ProductCacheStore;
+import com.example.vuvisa.services.ProductDetailCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ProductDetailCacheImplTest {
+
+	private static final long PRODUCT_ID = 42L;
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private PlatformTransactionManager transactionManager;
+	// Shared second level, as Redis is shared between nodes
+	private InMemoryProductCacheStore store;
+
+	@BeforeEach
+	void setUp() {
+		transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		store = new InMemoryProductCacheStore();
+	}
+
+	@Test
+	void secondReadIsServedFromFirstLevel() {
+		ProductDetailCacheImpl cache = newNode(store);
+
+		Product first = cache.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+		Product second = cache.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+
+		assertEquals(1, loads.get());
+		// The abstract Product comes back as the subclass it was loaded as
+		assertInstanceOf(Book.class, first);
+		assertEquals(5L, second.getStockQuantity());
+		ProductCacheStatsResponse stats = cache.getStats();
+		assertEquals(1, stats.getL1Hits());
+		assertEquals(1, stats.getDbLoads());
+	}
+
+	@Test
+	void otherNodeReadsSecondLevel() {
+		ProductDetailCacheImpl nodeA = newNode(store);
+		ProductDetailCacheImpl nodeB = newNode(store);
+
+		nodeA.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+		Product fromB = nodeB.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+
+		assertEquals(1, loads.get());
+		assertEquals("Book 42", fromB.getProductName());
+		assertEquals(1, nodeB.getStats().getL2Hits());
+	}
+
+	@Test
+	void changeEvictsEveryNode() {
+		ProductDetailCacheImpl nodeA = newNode(store);
+		ProductDetailCacheImpl nodeB = newNode(store);
+		nodeA.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+		nodeB.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+
+		// Stock changed by an order on node A
+		nodeA.handleProductChanged(new ProductChangedEvent(Set.of(PRODUCT_ID)));
+
+		Product fromB = nodeB.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(3L));
+		assertEquals(3L, fromB.getStockQuantity());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void concurrentMissesLoadOnce() throws Exception {
+		List<ProductDetailCacheImpl> nodes = List.of(newNode(store), newNode(store));
+		CountDownLatch start = new CountDownLatch(1);
+		Supplier<Product> slowLoader = () -> {
+			sleep(100);
+			return bookLoader(5L).get();
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Product>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				ProductDetailCacheImpl node = nodes.get(i % 2);
+				futures.add(executor.submit(() -> {
+					start.await();
+					return node.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, slowLoader);
+				}));
+			}
+			start.countDown();
+			for (Future<Product> future : futures) {
+				assertEquals(5L, future.get(5, TimeUnit.SECONDS).getStockQuantity());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(1, nodes.get(0).getStats().getLockWaits() + nodes.get(1).getStats().getLockWaits());
+	}
+
+	@Test
+	void evictionDuringLoadIsNotCached() throws Exception {
+		ProductDetailCacheImpl nodeA = newNode(store);
+		ProductDetailCacheImpl nodeB = newNode(store);
+		Thread[] evicting = new Thread[1];
+
+		// Node B commits a change while node A is still loading the old row
+		Product stale = nodeA.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, () -> {
+			Product product = bookLoader(5L).get();
+			evicting[0] = new Thread(() -> nodeB.evict(Set.of(PRODUCT_ID)));
+			evicting[0].start();
+			sleep(100);
+			return product;
+		});
+		evicting[0].join(5000);
+
+		assertEquals(5L, stale.getStockQuantity());
+		assertEquals(3L, nodeA.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(3L)).getStockQuantity());
+		assertEquals(3L, nodeB.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(3L)).getStockQuantity());
+	}
+
+	@Test
+	void staleLoadIsNotWrittenWhenTheInvalidationMessageIsLate() throws Exception {
+		// Pub/sub delivers nothing, so node A's first level never hears of node B's change
+		InMemoryProductCacheStore silentStore = new InMemoryProductCacheStore() {
+			@Override
+			public void publishInvalidation(Collection<Long> productIds) {
+			}
+		};
+		ProductDetailCacheImpl nodeA = newNode(silentStore);
+		ProductDetailCacheImpl nodeB = newNode(silentStore);
+		Thread[] evicting = new Thread[1];
+
+		Product stale = nodeA.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, () -> {
+			Product product = bookLoader(5L).get();
+			evicting[0] = new Thread(() -> nodeB.evict(Set.of(PRODUCT_ID)));
+			evicting[0].start();
+			sleep(100);
+			return product;
+		});
+		evicting[0].join(5000);
+
+		assertEquals(5L, stale.getStockQuantity());
+		// Node A's old row did not reach the second level, so node B loads the new one
+		assertEquals(3L, nodeB.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(3L)).getStockQuantity());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void failingStoreFallsBackToDatabase() {
+		ProductDetailCacheImpl cache = newNode(new FailingStore());
+
+		Product product = cache.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+
+		assertEquals(5L, product.getStockQuantity());
+		ProductCacheStatsResponse stats = cache.getStats();
+		assertEquals(1, stats.getDbLoads());
+		assertTrue(stats.getL2Errors() > 0);
+		assertTrue(!stats.isL2Available());
+	}
+
+	@Test
+	void loaderFailureIsNotCached() {
+		ProductDetailCacheImpl cache = newNode(store);
+
+		assertThrows(RuntimeException.class, () -> cache.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class,
+				() -> {
+					throw new RuntimeException("Product not found");
+				}));
+		Product product = cache.get(ProductDetailCache.PRODUCT, PRODUCT_ID, Product.class, bookLoader(5L));
+
+		assertEquals(5L, product.getStockQuantity());
+	}
+
+	private ProductDetailCacheImpl newNode(ProductCacheStore store) {
+		return new ProductDetailCacheImpl(store, new ObjectMapper(), transactionManager,
+				1000, 60, 30, 10, 3000, 2000);
+	}
+
+	private Supplier<Product> bookLoader(long stock) {
+		return () -> {
+			loads.incrementAndGet();
+			Book book = new Book();
+			book.setId(PRODUCT_ID);
+			book.setProductName("Book " + PRODUCT_ID);
+			book.setPrice(100_000L);
+			book.setStockQuantity(stock);
+			book.setIsbn("978-0000000000");
+			return book;
+		};
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Store whose every call fails, like Redis while it is down
+	 */
+	private static final class FailingStore implements ProductCacheStore {
+
+		@Override
+		public String get(String key) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public void put(String key, String value, Duration ttl) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public boolean putIfVersion(String key, String value, Duration ttl, String versionKey, long version) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public void delete(Collection<String> keys) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public long getVersion(String versionKey) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public void incrementVersions(Collection<String> versionKeys) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public String tryLock(String key, Duration lease) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public void unlock(String key, String token) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public void publishInvalidation(Collection<Long> productIds) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public void subscribe(Consumer<Collection<Long>> listener) {
+		}
+
+		@Override
+		public void publishCatalogChange(Collection<Long> productIds) {
+			throw new IllegalStateException("Redis is down");
+		}
+
+		@Override
+		public void subscribeCatalogChanges(Consumer<Collection<Long>> listener) {
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.dtos.responses.ProductFavoriteResponse;
+import com.example.vuvisa.entities.Book;
+import com.example.vuvisa.entities.Category;
+import com.example.vuvisa.entities.Favorite;
+import com.example.vuvisa.entities.Publisher;
+import com.example.vuvisa.entities.Supplier;
+import com.example.vuvisa.entities.User;
+import com.example.vuvisa.services.FavoriteCountService;
+import com.example.vuvisa.services.ProductDetailCache;
+import com.example.vuvisa.services.ProductSearchService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Statements run by the product listing with favorite info against MySQL, counted by Hibernate. Every product
+ * has its own category, supplier and publisher, so a page of 100 costs what a page of 1 does only because
+ * the eager associations are batch-fetched.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(ProductServiceImpl.class)
+class ProductServiceImplQueryCountTest {
+
+	private static final int PRODUCTS = 120;
+	private static final int MAX_PAGE_SIZE = 100;
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	// Reads the counts with plain JDBC, outside what Hibernate counts; called once per page
+	@MockitoBean
+	private FavoriteCountService favoriteCountService;
+	@MockitoBean
+	private ProductDetailCache productDetailCache;
+	@MockitoBean
+	private ProductSearchService productSearchService;
+
+	@Autowired
+	private ProductServiceImpl productService;
+	@Autowired
+	private TestEntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		customer = new User();
+		customer.setUsername("Khách Quen");
+		customer.setFullName("Khách Quen");
+		entityManager.persist(customer);
+
+		Map<Long, Long> counts = new HashMap<>();
+		for (int i = 1; i <= PRODUCTS; i++) {
+			Book book = new Book();
+			book.setProductName("Sách " + i);
+			book.setPrice(10_000L * i);
+			book.setStockQuantity(100L);
+			book.setCategory(entityManager.persist(Category.builder().categoryName("Thể loại " + i).build()));
+			book.setSupplier(entityManager.persist(Supplier.builder().supplierName("Nhà cung cấp " + i).build()));
+			book.setPublisher(entityManager.persist(Publisher.builder().publisherName("Nhà xuất bản " + i).build()));
+			entityManager.persist(book);
+			if (i % 3 == 0) {
+				entityManager.persist(Favorite.builder().user(customer).product(book).build());
+			}
+			counts.put(book.getId(), (long) i);
+		}
+		entityManager.flush();
+		when(favoriteCountService.getCounts(anyCollection())).thenReturn(counts);
+	}
+
+	@Test
+	void pageOfOneAndPageOfAHundredRunTheSameStatements() {
+		long one = statementsOf(() -> productService.getProductsWithFavoriteInfo(customer.getId(), 0, 1), 1);
+		long hundred = statementsOf(() -> productService.getProductsWithFavoriteInfo(customer.getId(), 0, 100), 100);
+		long anonymous = statementsOf(() -> productService.getProductsWithFavoriteInfo(null, 0, 100), 100);
+
+		assertEquals(one, hundred);
+		// Page, count, category, supplier, publisher, the user's favorites
+		assertTrue(hundred <= 6, "Product listing ran " + hundred + " statements");
+		// No user, no favorites to look up
+		assertEquals(hundred - 1, anonymous);
+		verify(favoriteCountService, times(3)).getCounts(anyCollection());
+	}
+
+	@Test
+	void favoriteInfoIsMappedPerProduct() {
+		Page<ProductFavoriteResponse> page = productService.getProductsWithFavoriteInfo(customer.getId(), 0, 6);
+
+		assertEquals(PRODUCTS, page.getTotalElements());
+		for (ProductFavoriteResponse product : page.getContent()) {
+			int i = Integer.parseInt(product.getProductName().substring("Sách ".length()));
+			assertEquals("Thể loại " + i, product.getCategoryName());
+			assertEquals(i, product.getFavoriteCount());
+			assertEquals(i % 3 == 0, product.getIsFavorited());
+		}
+	}
+
+	@Test
+	void pageAndSizeAreClamped() {
+		Page<ProductFavoriteResponse> negative = productService.getProductsWithFavoriteInfo(null, -3, 10);
+		assertEquals(0, negative.getNumber());
+		assertEquals(10, negative.getContent().size());
+
+		Page<ProductFavoriteResponse> huge = productService.getProductsWithFavoriteInfo(null, 0, 10_000);
+		assertEquals(MAX_PAGE_SIZE, huge.getContent().size());
+
+		Page<ProductFavoriteResponse> empty = productService.getProductsWithFavoriteInfo(null, 0, 0);
+		assertEquals(1, empty.getContent().size());
+	}
+
+	private long statementsOf(Supplier<Page<ProductFavoriteResponse>> read, int expectedSize) {
+		entityManager.clear();
+		statistics.clear();
+		Page<ProductFavoriteResponse> page = read.get();
+		long statements = statistics.getPrepareStatementCount();
+		assertEquals(expectedSize, page.getContent().size());
+		return statements;
+	}
+}
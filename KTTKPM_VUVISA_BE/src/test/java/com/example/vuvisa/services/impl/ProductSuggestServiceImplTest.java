@@ -0,0 +1,125 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.dtos.responses.ProductSuggestionResponse;
+import com.example.vuvisa.events.ProductChangedEvent;
+
+/**
+ * Suggestions refreshed from the products changed on any node, against MySQL. The in-memory store stands in
+ * for Redis, delivering a published catalog change as another node's message would arrive.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "product.cache.store=local")
+@Import({ProductSuggestServiceImpl.class, InMemoryProductCacheStore.class})
+// The suggestions are read over their own connections, so the data must be committed
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSuggestServiceImplTest {
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private ProductSuggestServiceImpl productSuggestService;
+	@Autowired
+	private InMemoryProductCacheStore store;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		product(1, "Đắc Nhân Tâm", 50);
+		product(2, "Nhà Giả Kim", 30);
+		product(3, "Nhật Ký Trong Tù", 10);
+		jdbcTemplate.update("INSERT INTO authors (id, author_name) VALUES (1, 'Dale Carnegie')");
+		jdbcTemplate.update("INSERT INTO book_authors (book_id, author_id) VALUES (1, 1)");
+		productSuggestService.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM book_authors");
+		jdbcTemplate.update("DELETE FROM authors");
+		jdbcTemplate.update("DELETE FROM sales_product_rollup");
+		jdbcTemplate.update("DELETE FROM books");
+		jdbcTemplate.update("DELETE FROM product");
+	}
+
+	@Test
+	void suggestsByPopularity() {
+		assertEquals(List.of("Đắc Nhân Tâm", "Nhà Giả Kim", "Nhật Ký Trong Tù"), texts("nha"));
+		assertEquals(List.of("Dale Carnegie"), texts("dale"));
+	}
+
+	@Test
+	void renameOnAnotherNodeReplacesTheOldName() {
+		jdbcTemplate.update("UPDATE product SET product_name = 'Nhà Giả Kim (Tái Bản)' WHERE id = 2");
+		store.publishCatalogChange(List.of(2L));
+
+		assertEquals(1, productSuggestService.refresh());
+
+		assertEquals(List.of("Đắc Nhân Tâm", "Nhà Giả Kim (Tái Bản)", "Nhật Ký Trong Tù"), texts("nha"));
+		assertEquals(List.of("Nhà Giả Kim (Tái Bản)"), texts("tai ban"));
+	}
+
+	@Test
+	void deletedProductIsNoLongerSuggested() {
+		jdbcTemplate.update("DELETE FROM books WHERE id = 3");
+		jdbcTemplate.update("DELETE FROM product WHERE id = 3");
+		productSuggestService.handleProductChanged(new ProductChangedEvent(Set.of(3L)));
+
+		productSuggestService.refresh();
+
+		assertEquals(List.of("Đắc Nhân Tâm", "Nhà Giả Kim"), texts("nha"));
+	}
+
+	@Test
+	void renamedAuthorIsReadWithTheirBooks() {
+		jdbcTemplate.update("UPDATE authors SET author_name = 'Dale Breckenridge Carnegie' WHERE id = 1");
+		store.publishCatalogChange(List.of(1L));
+
+		productSuggestService.refresh();
+
+		assertEquals(List.of("Dale Breckenridge Carnegie"), texts("dale"));
+	}
+
+	private List<String> texts(String query) {
+		return productSuggestService.suggest(query, 8).stream().map(ProductSuggestionResponse::getText).toList();
+	}
+
+	private void product(long id, String name, long orders) {
+		jdbcTemplate.update("INSERT INTO product (id, product_name) VALUES (?, ?)", id, name);
+		jdbcTemplate.update("INSERT INTO books (id) VALUES (?)", id);
+		jdbcTemplate.update("INSERT INTO sales_product_rollup (product_id, revenue, units, order_count) VALUES (?, 0, ?, ?)",
+				id, orders, orders);
+	}
+}
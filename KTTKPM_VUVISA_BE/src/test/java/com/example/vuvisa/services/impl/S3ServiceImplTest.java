@@ -0,0 +1,133 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class S3ServiceImplTest {
+
+	private static final String BUCKET = "vuvisa-test";
+	private static final int PART_SIZE = 5 * 1024 * 1024;
+
+	@TempDir
+	Path tempDir;
+
+	private LocalS3Server server;
+	private S3Client s3Client;
+	private S3ServiceImpl s3Service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new LocalS3Server();
+		s3Client = S3Client.builder()
+				.region(Region.AP_SOUTHEAST_1)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+				.endpointOverride(server.endpoint())
+				.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+				// Three retries, without waiting in between
+				.overrideConfiguration(configuration -> configuration.retryPolicy(RetryPolicy.builder()
+						.numRetries(3)
+						.backoffStrategy(BackoffStrategy.none())
+						.build()))
+				.build();
+
+		s3Service = new S3ServiceImpl();
+		ReflectionTestUtils.setField(s3Service, "s3Client", s3Client);
+		ReflectionTestUtils.setField(s3Service, "bucketName", BUCKET);
+		ReflectionTestUtils.setField(s3Service, "partSize", (long) PART_SIZE);
+	}
+
+	@AfterEach
+	void tearDown() {
+		s3Client.close();
+		server.close();
+	}
+
+	@Test
+	void smallFileIsUploadedInOnePut() throws Exception {
+		Path file = randomFile(1024 * 1024);
+
+		String url = s3Service.uploadFile(file, "invoices.pdf", "application/pdf", "exports");
+
+		assertTrue(url.contains("/exports/"));
+		assertArrayEquals(Files.readAllBytes(file), onlyObject());
+		assertTrue(server.partAttempts().isEmpty());
+	}
+
+	@Test
+	void multipartUploadReassemblesTheFile() throws Exception {
+		// Two full parts and a short last one
+		Path file = randomFile(PART_SIZE * 2 + 123_457);
+
+		s3Service.uploadFile(file, "invoices.pdf", "application/pdf", "exports");
+
+		assertArrayEquals(Files.readAllBytes(file), onlyObject());
+		assertEquals(List.of(1, 2, 3), server.partAttempts());
+	}
+
+	@Test
+	void retriedPartIsSentAgainFromItsOffset() throws Exception {
+		Path file = randomFile(PART_SIZE * 2 + 123_457);
+		// The first two attempts of the middle part fail after the server has read the whole body
+		AtomicInteger failures = new AtomicInteger();
+		server.failPart(partNumber -> partNumber == 2 && failures.getAndIncrement() < 2);
+
+		s3Service.uploadFile(file, "invoices.pdf", "application/pdf", "exports");
+
+		assertArrayEquals(Files.readAllBytes(file), onlyObject());
+		assertEquals(List.of(1, 2, 2, 2, 3), server.partAttempts());
+	}
+
+	@Test
+	void partThatKeepsFailingAbortsTheUpload() throws Exception {
+		Path file = randomFile(PART_SIZE * 2 + 123_457);
+		server.failPart(partNumber -> partNumber == 2);
+
+		assertThrows(S3Exception.class, () -> s3Service.uploadFile(file, "invoices.pdf", "application/pdf", "exports"));
+
+		assertTrue(server.objects().isEmpty());
+		assertEquals(1, server.abortedUploads().size());
+		assertTrue(server.openUploads().isEmpty());
+		// Part 2 is given up after the retries and part 3 is never sent
+		assertEquals(List.of(1, 2, 2, 2, 2), server.partAttempts());
+	}
+
+	private byte[] onlyObject() {
+		Map<String, byte[]> objects = server.objects();
+		assertEquals(1, objects.size());
+		Map.Entry<String, byte[]> object = objects.entrySet().iterator().next();
+		assertTrue(object.getKey().startsWith(BUCKET + "/exports/"));
+		return object.getValue();
+	}
+
+	private Path randomFile(int size) throws Exception {
+		byte[] bytes = new byte[size];
+		new SplittableRandom(size).nextBytes(bytes);
+		Path file = tempDir.resolve("upload-" + size + ".bin");
+		Files.write(file, bytes);
+		return file;
+	}
+}
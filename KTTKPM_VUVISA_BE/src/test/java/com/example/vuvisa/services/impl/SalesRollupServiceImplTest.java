@@ -0,0 +1,171 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * The signed upserts against MySQL: the rollups follow orders as they are created, cancelled, restored
+ * and deleted, and a rebuild from the orders agrees with them.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(SalesRollupServiceImpl.class)
+class SalesRollupServiceImplTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+	private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private SalesRollupServiceImpl salesRollupService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("INSERT INTO categories (id, category_name) VALUES (1, 'Sách'), (2, 'Văn phòng phẩm')");
+		jdbcTemplate.update("INSERT INTO product (id, product_name, price, category_id) VALUES "
+				+ "(1, 'Đắc Nhân Tâm', 80000, 1), (2, 'Nhà Giả Kim', 60000, 1), (3, 'Bút bi', 5000, 2)");
+	}
+
+	@Test
+	void createdOrdersAreAddedToEveryRollup() {
+		order(1, MONDAY, "PENDING", line(1, 2, 80_000), line(3, 10, 5_000));
+		order(2, MONDAY, "COMPLETED", line(1, 1, 80_000));
+		order(3, TUESDAY, "PENDING", line(2, 1, 60_000));
+
+		salesRollupService.addOrders(List.of(1L));
+		salesRollupService.addOrders(List.of(2L, 3L));
+
+		assertRollup("sales_daily_rollup", "sales_date", MONDAY, 290_000, 13, 2);
+		assertRollup("sales_daily_rollup", "sales_date", TUESDAY, 60_000, 1, 1);
+		assertRollup("sales_product_rollup", "product_id", 1, 240_000, 3, 2);
+		assertRollup("sales_product_rollup", "product_id", 3, 50_000, 10, 1);
+		assertRollup("sales_category_rollup", "category_id", 1, 300_000, 4, 3);
+		assertRollup("sales_category_rollup", "category_id", 2, 50_000, 10, 1);
+	}
+
+	@Test
+	void cancellingSubtractsTheOrderAndRestoringAddsItBack() {
+		order(1, MONDAY, "PENDING", line(1, 2, 80_000), line(3, 10, 5_000));
+		order(2, MONDAY, "PENDING", line(1, 1, 80_000));
+		salesRollupService.addOrders(List.of(1L, 2L));
+
+		salesRollupService.removeOrders(List.of(1L));
+		jdbcTemplate.update("UPDATE orders SET status = 'CANCELLED' WHERE id = 1");
+
+		assertRollup("sales_daily_rollup", "sales_date", MONDAY, 80_000, 1, 1);
+		assertRollup("sales_product_rollup", "product_id", 1, 80_000, 1, 1);
+		assertRollup("sales_product_rollup", "product_id", 3, 0, 0, 0);
+		assertRollup("sales_category_rollup", "category_id", 2, 0, 0, 0);
+
+		jdbcTemplate.update("UPDATE orders SET status = 'PENDING' WHERE id = 1");
+		salesRollupService.addOrders(List.of(1L));
+
+		assertRollup("sales_daily_rollup", "sales_date", MONDAY, 290_000, 13, 2);
+		assertRollup("sales_product_rollup", "product_id", 3, 50_000, 10, 1);
+	}
+
+	@Test
+	void deletedOrdersAreSubtractedBeforeTheirLinesGo() {
+		order(1, MONDAY, "PENDING", line(1, 2, 80_000));
+		order(2, TUESDAY, "PENDING", line(1, 1, 80_000), line(2, 1, 60_000));
+		salesRollupService.addOrders(List.of(1L, 2L));
+
+		salesRollupService.removeOrders(List.of(2L));
+		jdbcTemplate.update("DELETE FROM order_details WHERE order_id = 2");
+		jdbcTemplate.update("DELETE FROM orders WHERE id = 2");
+
+		assertRollup("sales_daily_rollup", "sales_date", TUESDAY, 0, 0, 0);
+		assertRollup("sales_product_rollup", "product_id", 1, 160_000, 2, 1);
+		assertRollup("sales_product_rollup", "product_id", 2, 0, 0, 0);
+		assertRollup("sales_category_rollup", "category_id", 1, 160_000, 2, 1);
+	}
+
+	@Test
+	void rebuildMatchesTheIncrementalRollupsAndSkipsCancelledOrders() {
+		order(1, MONDAY, "PENDING", line(1, 2, 80_000), line(3, 10, 5_000));
+		order(2, TUESDAY, "COMPLETED", line(2, 1, 60_000));
+		order(3, TUESDAY, "CANCELLED", line(2, 5, 60_000));
+		salesRollupService.addOrders(List.of(1L, 2L));
+		List<Map<String, Object>> incremental = rows();
+
+		assertEquals(2, salesRollupService.rebuild());
+
+		assertEquals(incremental, rows());
+	}
+
+	@Test
+	void movedProductsAreCountedUnderTheirNewCategoryOnlyAfterARebuild() {
+		order(1, MONDAY, "PENDING", line(3, 10, 5_000));
+		salesRollupService.addOrders(List.of(1L));
+
+		jdbcTemplate.update("UPDATE product SET category_id = 1 WHERE id = 3");
+		assertRollup("sales_category_rollup", "category_id", 2, 50_000, 10, 1);
+
+		salesRollupService.rebuild();
+
+		assertRollup("sales_category_rollup", "category_id", 1, 50_000, 10, 1);
+		assertEquals(0, count("SELECT COUNT(*) FROM sales_category_rollup WHERE category_id = 2"));
+	}
+
+	private void order(long id, LocalDate date, String status, Object[]... lines) {
+		jdbcTemplate.update("INSERT INTO orders (id, full_name, order_date, status) VALUES (?, 'Khách Quen', ?, ?)",
+				id, date.atTime(10, 30), status);
+		for (Object[] line : lines) {
+			jdbcTemplate.update("INSERT INTO order_details (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)",
+					id, line[0], line[1], line[2]);
+		}
+	}
+
+	private static Object[] line(long productId, long quantity, long price) {
+		return new Object[] {productId, quantity, price};
+	}
+
+	private void assertRollup(String table, String key, Object value, long revenue, long units, long orders) {
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+				"SELECT revenue, units, order_count FROM " + table + " WHERE " + key + " = ?", value);
+		assertEquals(revenue, ((Number) row.get("revenue")).longValue(), table + " revenue of " + value);
+		assertEquals(units, ((Number) row.get("units")).longValue(), table + " units of " + value);
+		assertEquals(orders, ((Number) row.get("order_count")).longValue(), table + " orders of " + value);
+	}
+
+	private List<Map<String, Object>> rows() {
+		return jdbcTemplate.queryForList("SELECT 'd' AS t, CAST(sales_date AS CHAR) AS k, revenue, units, order_count "
+				+ "FROM sales_daily_rollup UNION ALL "
+				+ "SELECT 'p', CAST(product_id AS CHAR), revenue, units, order_count FROM sales_product_rollup UNION ALL "
+				+ "SELECT 'c', CAST(category_id AS CHAR), revenue, units, order_count FROM sales_category_rollup "
+				+ "ORDER BY t, k");
+	}
+
+	private long count(String sql) {
+		Long value = jdbcTemplate.queryForObject(sql, Long.class);
+		return value == null ? 0 : value;
+	}
+}
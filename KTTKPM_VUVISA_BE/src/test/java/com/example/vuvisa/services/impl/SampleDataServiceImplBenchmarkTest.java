@@ -0,0 +1,115 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.dtos.requests.SampleOrderGenerationRequest;
+
+/**
+ * Throughput of the sample order generator against MySQL 8 in a container, with the summaries, sales rollups
+ * and user statistics it maintains, over 10,000 products and 50,000 users.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark} where Docker is available.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({SampleDataServiceImpl.class, SalesRollupServiceImpl.class, UserOrderStatsServiceImpl.class,
+		OrderSummaryServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SampleDataServiceImplBenchmarkTest {
+
+	private static final int PRODUCTS = 10_000;
+	private static final int USERS = 50_000;
+	private static final int INSERT_BATCH = 1000;
+
+	// Large enough to keep the tables in memory, so the numbers show the write path and not the disk
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+			.withCommand("--innodb-buffer-pool-size=1073741824");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+		registry.add("spring.datasource.hikari.data-source-properties.rewriteBatchedStatements", () -> "true");
+	}
+
+	@Autowired
+	private SampleDataServiceImpl sampleDataService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void loadCatalog() {
+		if (count("SELECT COUNT(*) FROM product") > 0) {
+			return;
+		}
+		List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+		for (long id = 1; id <= PRODUCTS; id++) {
+			batch.add(new Object[] {id, "Sản phẩm " + id, 1000L * (20 + id % 500)});
+			if (batch.size() == INSERT_BATCH) {
+				jdbcTemplate.batchUpdate("INSERT INTO product (id, product_name, price) VALUES (?, ?, ?)", batch);
+				batch.clear();
+			}
+		}
+		for (long id = 1; id <= USERS; id++) {
+			batch.add(new Object[] {id, "user" + id, "user" + id + "@vuvisa.vn"});
+			if (batch.size() == INSERT_BATCH) {
+				jdbcTemplate.batchUpdate("INSERT INTO users (id, username, email) VALUES (?, ?, ?)", batch);
+				batch.clear();
+			}
+		}
+	}
+
+	@Test
+	void generate200kOrdersOn4Threads() throws Exception {
+		run(200_000, 4);
+	}
+
+	@Test
+	void generate200kOrdersOn8Threads() throws Exception {
+		run(200_000, 8);
+	}
+
+	private void run(int orders, int threads) throws Exception {
+		long before = count("SELECT COUNT(*) FROM orders");
+		long start = System.nanoTime();
+		int created = sampleDataService.generateOrders(SampleOrderGenerationRequest.builder()
+				.count(orders)
+				.threads(threads)
+				.seed(42L)
+				.build());
+		long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+		assertEquals(orders, created);
+		assertEquals(before + orders, count("SELECT COUNT(*) FROM orders"));
+		assertEquals(before + orders, count("SELECT SUM(order_count) FROM user_order_stats"));
+		System.out.printf("%,d orders on %d threads, with summaries and rollups: %,d ms, %,d orders/min%n",
+				orders, threads, millis, orders * 60_000L / millis);
+	}
+
+	private long count(String sql) {
+		Long value = jdbcTemplate.queryForObject(sql, Long.class);
+		return value == null ? 0 : value;
+	}
+}
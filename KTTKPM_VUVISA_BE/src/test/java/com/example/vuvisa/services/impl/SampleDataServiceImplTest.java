@@ -0,0 +1,133 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.dtos.requests.SampleOrderGenerationRequest;
+
+/**
+ * A small generation against MySQL with the real rollup, statistics and summary services: the orders,
+ * their lines and every read model built from them have to agree.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({SampleDataServiceImpl.class, SalesRollupServiceImpl.class, UserOrderStatsServiceImpl.class,
+		OrderSummaryServiceImpl.class})
+// Chunks are written on their own threads and commit on their own
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SampleDataServiceImplTest {
+
+	private static final int ORDERS = 1000;
+	private static final String COUNTED = "(o.status IS NULL OR o.status <> 'CANCELLED')";
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private SampleDataServiceImpl sampleDataService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("INSERT INTO categories (id, category_name) VALUES (1, 'Sách'), (2, 'Văn phòng phẩm')");
+		for (long id = 1; id <= 20; id++) {
+			jdbcTemplate.update("INSERT INTO product (id, product_name, price, category_id) VALUES (?, ?, ?, ?)",
+					id, "Sản phẩm " + id, 10_000L * id, id % 2 + 1);
+		}
+		for (long id = 1; id <= 30; id++) {
+			jdbcTemplate.update("INSERT INTO users (id, username, email) VALUES (?, ?, ?)",
+					id, "user" + id, "user" + id + "@vuvisa.vn");
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		for (String table : new String[] {"order_summary", "user_order_stats", "sales_daily_rollup",
+				"sales_product_rollup", "sales_category_rollup", "order_details", "orders", "users", "product",
+				"categories"}) {
+			jdbcTemplate.update("DELETE FROM " + table);
+		}
+	}
+
+	@Test
+	void generatedOrdersAgreeWithTheirLinesAndReadModels() throws Exception {
+		int created = sampleDataService.generateOrders(SampleOrderGenerationRequest.builder()
+				.count(ORDERS)
+				.chunkSize(64)
+				.threads(4)
+				.months(3)
+				.maxItemsPerOrder(4)
+				.seed(42L)
+				.build());
+
+		assertEquals(ORDERS, created);
+		assertEquals(ORDERS, count("SELECT COUNT(*) FROM orders"));
+		assertEquals(0, count("SELECT COUNT(*) FROM orders o WHERE NOT EXISTS "
+				+ "(SELECT 1 FROM order_details d WHERE d.order_id = o.id)"));
+		// Totals are the sums of the lines, and sample orders carry no discount
+		assertEquals(0, count("SELECT COUNT(*) FROM orders o WHERE o.subtotal <> "
+				+ "(SELECT SUM(d.price * d.quantity) FROM order_details d WHERE d.order_id = o.id) "
+				+ "OR o.grand_total <> o.subtotal OR o.discount_total <> 0"));
+
+		// One summary per order, with the order's total and item count
+		assertEquals(ORDERS, count("SELECT COUNT(*) FROM order_summary"));
+		assertEquals(0, count("SELECT COUNT(*) FROM order_summary s JOIN orders o ON o.id = s.order_id "
+				+ "WHERE s.grand_total <> o.grand_total OR s.status <> o.status OR s.item_count <> "
+				+ "(SELECT SUM(d.quantity) FROM order_details d WHERE d.order_id = o.id)"));
+
+		// Every rollup adds up to the lines of the orders that are not cancelled
+		Map<String, Object> sales = jdbcTemplate.queryForMap("SELECT COUNT(DISTINCT o.id) AS orders, "
+				+ "SUM(d.price * d.quantity) AS revenue, SUM(d.quantity) AS units "
+				+ "FROM orders o JOIN order_details d ON d.order_id = o.id WHERE " + COUNTED);
+		for (String rollup : new String[] {"sales_daily_rollup", "sales_product_rollup", "sales_category_rollup"}) {
+			assertEquals(number(sales.get("revenue")), count("SELECT SUM(revenue) FROM " + rollup), rollup);
+			assertEquals(number(sales.get("units")), count("SELECT SUM(units) FROM " + rollup), rollup);
+		}
+		// An order is on one day, but in the rollup of every product and category it contains
+		assertEquals(number(sales.get("orders")), count("SELECT SUM(order_count) FROM sales_daily_rollup"));
+		assertEquals(count("SELECT COUNT(*) FROM orders o JOIN order_details d ON d.order_id = o.id WHERE " + COUNTED),
+				count("SELECT SUM(order_count) FROM sales_product_rollup"));
+
+		// Every order counts for its user; cancelled ones add nothing to the spend
+		assertEquals(ORDERS, count("SELECT SUM(order_count) FROM user_order_stats"));
+		assertEquals(count("SELECT SUM(o.grand_total) FROM orders o WHERE " + COUNTED),
+				count("SELECT SUM(lifetime_spend) FROM user_order_stats"));
+		assertEquals(0, count("SELECT COUNT(*) FROM user_order_stats s WHERE s.last_order_date <> "
+				+ "(SELECT MAX(o.order_date) FROM orders o WHERE o.user_id = s.user_id)"));
+	}
+
+	private long count(String sql) {
+		Long value = jdbcTemplate.queryForObject(sql, Long.class);
+		return value == null ? 0 : value;
+	}
+
+	private static long number(Object value) {
+		return ((Number) value).longValue();
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.vuvisa.exceptions.InsufficientStockException;
+
+class StockReservationServiceImplTest {
+
+	private static final long HOT = 1L;
+	private static final long SCARCE = 2L;
+	private static final long HOT_STOCK = 500;
+	private static final long SCARCE_STOCK = 50;
+	private static final int CALLS = 5000;
+	private static final int THREADS = 64;
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+	private StockReservationServiceImpl stockReservationService;
+
+	@BeforeEach
+	void setUp() {
+		// Row locks wait instead of failing while the other threads hold the hot row
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:stock;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, product_name VARCHAR(255), stock_quantity BIGINT)");
+		jdbcTemplate.update("INSERT INTO product VALUES (?, 'Hot', ?), (?, 'Scarce', ?)", HOT, HOT_STOCK, SCARCE, SCARCE_STOCK);
+
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		stockReservationService = new StockReservationServiceImpl(jdbcTemplate,
+				new NamedParameterJdbcTemplate(jdbcTemplate), event -> {});
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP TABLE product");
+	}
+
+	@Test
+	void parallelReservationsNeverOversell() throws Exception {
+		AtomicLong hotReserved = new AtomicLong();
+		AtomicLong scarceReserved = new AtomicLong();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+
+		for (int i = 0; i < CALLS; i++) {
+			// Every tenth order also takes the scarce product, so a shortage there has to roll back the hot line
+			Map<Long, Long> quantities = i % 10 == 0 ? Map.of(HOT, 1L, SCARCE, 1L) : Map.of(HOT, 1L + i % 3);
+			futures.add(executor.submit(() -> {
+				start.await();
+				try {
+					transactionTemplate.executeWithoutResult(status -> stockReservationService.reserve(quantities));
+					hotReserved.addAndGet(quantities.get(HOT));
+					scarceReserved.addAndGet(quantities.getOrDefault(SCARCE, 0L));
+				} catch (InsufficientStockException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			// Anything but a shortage fails the test
+			future.get();
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		long hotLeft = stock(HOT);
+		long scarceLeft = stock(SCARCE);
+		assertTrue(hotLeft >= 0);
+		assertTrue(scarceLeft >= 0);
+		// Every unit taken belongs to an order that was told it succeeded, and no more
+		assertEquals(HOT_STOCK - hotReserved.get(), hotLeft);
+		assertEquals(SCARCE_STOCK - scarceReserved.get(), scarceLeft);
+		assertTrue(rejected.get() > 0);
+		// Demand is about twenty times the hot stock, so it sells out down to less than the largest order
+		assertTrue(hotLeft < 3);
+	}
+
+	@Test
+	void shortageRollsBackEveryLine() {
+		InsufficientStockException e = assertThrows(InsufficientStockException.class, () ->
+				transactionTemplate.executeWithoutResult(status ->
+						stockReservationService.reserve(Map.of(HOT, 1L, SCARCE, SCARCE_STOCK + 1))));
+
+		assertEquals(List.of(SCARCE), e.getProductIds());
+		assertEquals(HOT_STOCK, stock(HOT));
+		assertEquals(SCARCE_STOCK, stock(SCARCE));
+	}
+
+	private long stock(long productId) {
+		return jdbcTemplate.queryForObject("SELECT stock_quantity FROM product WHERE id = ?", Long.class, productId);
+	}
+}
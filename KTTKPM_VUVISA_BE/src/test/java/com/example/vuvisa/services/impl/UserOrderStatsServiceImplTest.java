@@ -0,0 +1,188 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.dtos.responses.UserOrderStatsResponse;
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.entities.User;
+import com.example.vuvisa.enums.OrderStatus;
+
+/**
+ * The signed upserts against MySQL, checked against a full rebuild from the orders and the archive.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(UserOrderStatsServiceImpl.class)
+class UserOrderStatsServiceImplTest {
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private UserOrderStatsServiceImpl userOrderStatsService;
+	@Autowired
+	private TestEntityManager entityManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		customer = new User();
+		customer.setUsername("Khách Quen");
+		customer.setFullName("Khách Quen");
+		entityManager.persist(customer);
+	}
+
+	@Test
+	void addedOrdersAreCountedAndCancelledOnesAddNoSpend() {
+		Order first = placeOrder(100_000L, 5, OrderStatus.COMPLETED);
+		Order second = placeOrder(50_000L, 2, OrderStatus.PENDING);
+		Order cancelled = placeOrder(30_000L, 1, OrderStatus.CANCELLED);
+
+		userOrderStatsService.addOrders(List.of(first.getId()));
+		userOrderStatsService.addOrders(List.of(second.getId(), cancelled.getId()));
+
+		UserOrderStatsResponse stats = stats();
+		assertEquals(3, stats.getOrderCount());
+		assertEquals(150_000L, stats.getLifetimeSpend());
+		assertEquals(cancelled.getOrderDate().getTime(), stats.getLastOrderDate().getTime());
+	}
+
+	@Test
+	void cancellingAndRestoringMovesOnlyTheSpend() {
+		Order order = placeOrder(100_000L, 1, OrderStatus.PENDING);
+		userOrderStatsService.addOrders(List.of(order.getId()));
+
+		userOrderStatsService.removeSpend(List.of(order.getId()));
+		assertEquals(1, stats().getOrderCount());
+		assertEquals(0L, stats().getLifetimeSpend());
+
+		userOrderStatsService.addSpend(List.of(order.getId()));
+		assertEquals(1, stats().getOrderCount());
+		assertEquals(100_000L, stats().getLifetimeSpend());
+	}
+
+	@Test
+	void removingTheLatestOrderFallsBackToTheNextOne() {
+		Order older = placeOrder(40_000L, 10, OrderStatus.COMPLETED);
+		Order latest = placeOrder(60_000L, 1, OrderStatus.COMPLETED);
+		userOrderStatsService.addOrders(List.of(older.getId(), latest.getId()));
+
+		userOrderStatsService.removeOrders(List.of(latest.getId()));
+
+		UserOrderStatsResponse stats = stats();
+		assertEquals(1, stats.getOrderCount());
+		assertEquals(40_000L, stats.getLifetimeSpend());
+		assertEquals(older.getOrderDate().getTime(), stats.getLastOrderDate().getTime());
+	}
+
+	@Test
+	void removingTheLatestOrderFallsBackToANewerArchivedOne() {
+		// Sample orders can be dated in the past, so the archive may hold a newer order than the active table
+		Order old = placeOrder(40_000L, 400, OrderStatus.COMPLETED);
+		Order latest = placeOrder(60_000L, 1, OrderStatus.COMPLETED);
+		userOrderStatsService.addOrders(List.of(old.getId(), latest.getId()));
+		Date archived = daysAgo(30);
+		archiveOrder(999_999L, 20_000L, archived);
+
+		userOrderStatsService.removeOrders(List.of(latest.getId()));
+
+		assertEquals(archived.getTime(), stats().getLastOrderDate().getTime());
+	}
+
+	@Test
+	void removingEveryOrderClearsTheLastOrderDate() {
+		Order order = placeOrder(60_000L, 1, OrderStatus.COMPLETED);
+		userOrderStatsService.addOrders(List.of(order.getId()));
+
+		userOrderStatsService.removeOrders(List.of(order.getId()));
+
+		UserOrderStatsResponse stats = stats();
+		assertEquals(0, stats.getOrderCount());
+		assertEquals(0L, stats.getLifetimeSpend());
+		assertNull(stats.getLastOrderDate());
+	}
+
+	@Test
+	void rebuildMatchesTheIncrementalStatistics() {
+		Order first = placeOrder(100_000L, 5, OrderStatus.COMPLETED);
+		Order cancelled = placeOrder(30_000L, 3, OrderStatus.CANCELLED);
+		Order removed = placeOrder(70_000L, 1, OrderStatus.PENDING);
+		userOrderStatsService.addOrders(List.of(first.getId(), cancelled.getId(), removed.getId()));
+		archiveOrder(999_998L, 20_000L, daysAgo(400));
+		userOrderStatsService.removeOrders(List.of(removed.getId()));
+		jdbcTemplate.update("DELETE FROM orders WHERE id = ?", removed.getId());
+		// The archived order reached the statistics when it was placed, before it was archived
+		jdbcTemplate.update("UPDATE user_order_stats SET order_count = order_count + 1, "
+				+ "lifetime_spend = lifetime_spend + 20000 WHERE user_id = ?", customer.getId());
+		UserOrderStatsResponse incremental = stats();
+
+		userOrderStatsService.rebuild();
+
+		UserOrderStatsResponse rebuilt = stats();
+		assertEquals(3, rebuilt.getOrderCount());
+		assertEquals(120_000L, rebuilt.getLifetimeSpend());
+		assertEquals(incremental.getOrderCount(), rebuilt.getOrderCount());
+		assertEquals(incremental.getLifetimeSpend(), rebuilt.getLifetimeSpend());
+		assertEquals(incremental.getLastOrderDate().getTime(), rebuilt.getLastOrderDate().getTime());
+	}
+
+	private UserOrderStatsResponse stats() {
+		entityManager.clear();
+		return userOrderStatsService.getStats(customer.getId());
+	}
+
+	private Order placeOrder(long grandTotal, int daysAgo, OrderStatus status) {
+		Order order = Order.builder()
+				.user(customer)
+				.fullName(customer.getFullName())
+				.orderDate(daysAgo(daysAgo))
+				.status(status)
+				.grandTotal(grandTotal)
+				.build();
+		entityManager.persist(order);
+		entityManager.flush();
+		return order;
+	}
+
+	private void archiveOrder(long id, long grandTotal, Date orderDate) {
+		jdbcTemplate.update("INSERT INTO orders_archive (id, full_name, order_date, status, user_id, grand_total) "
+				+ "VALUES (?, 'Khách Quen', ?, 'COMPLETED', ?, ?)", id, orderDate, customer.getId(), grandTotal);
+	}
+
+	private static Date daysAgo(int days) {
+		// Whole seconds, as DATETIME columns store them
+		return Date.from(Instant.now().minus(Duration.ofDays(days)).truncatedTo(ChronoUnit.SECONDS));
+	}
+}
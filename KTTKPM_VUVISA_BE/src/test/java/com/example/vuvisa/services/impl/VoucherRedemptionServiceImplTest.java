@@ -0,0 +1,181 @@
+package com.example.vuvisa.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongUnaryOperator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.vuvisa.entities.Voucher;
+import com.example.vuvisa.exceptions.VoucherUnavailableException;
+import com.example.vuvisa.repositories.VoucherRedemptionRepository;
+import com.example.vuvisa.repositories.VoucherRepository;
+
+/**
+ * Many threads redeeming one voucher code at once against MySQL, each redemption in its own transaction
+ * as in checkout. The counters and the ledger must agree and stay within the limits.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(VoucherRedemptionServiceImpl.class)
+// Each redemption commits on its own, as it does in checkout
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VoucherRedemptionServiceImplTest {
+
+	private static final int THREADS = 32;
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private VoucherRedemptionServiceImpl voucherRedemptionService;
+	@Autowired
+	private VoucherRepository voucherRepository;
+	@Autowired
+	private VoucherRedemptionRepository voucherRedemptionRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM voucher_redemptions");
+		jdbcTemplate.update("DELETE FROM voucher_user_usage");
+		jdbcTemplate.update("DELETE FROM vouchers");
+	}
+
+	@Test
+	void hotVoucherIsNeverOverRedeemed() throws Exception {
+		Voucher voucher = voucher("HOT50", 50, null);
+
+		// 400 orders from 100 users race for 50 uses
+		int redeemed = redeemConcurrently(voucher, 400, order -> 1 + order % 100);
+
+		assertEquals(50, redeemed);
+		assertCountersMatchLedger(voucher, 50);
+	}
+
+	@Test
+	void perUserLimitHoldsWhenTheSameUserRedeemsInParallel() throws Exception {
+		Voucher voucher = voucher("TWICE", 1000, 2);
+
+		// 10 users, 20 orders each, all at once
+		int redeemed = redeemConcurrently(voucher, 200, order -> 1 + order % 10);
+
+		assertEquals(20, redeemed);
+		assertCountersMatchLedger(voucher, 20);
+		assertEquals(List.of(2), jdbcTemplate.queryForList(
+				"SELECT DISTINCT used_count FROM voucher_user_usage WHERE voucher_id = ?", Integer.class, voucher.getId()));
+	}
+
+	@Test
+	void releasingOrdersGivesTheirUsesBack() throws Exception {
+		Voucher voucher = voucher("BACK", 100, 1);
+		assertEquals(60, redeemConcurrently(voucher, 60, order -> 1 + order));
+
+		transactionTemplate.executeWithoutResult(status -> voucherRedemptionService.releaseOrders(
+				List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L)));
+
+		assertCountersMatchLedger(voucher, 50);
+		// Users 2 to 11 may use the voucher again
+		assertEquals(10, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM voucher_user_usage WHERE voucher_id = ? AND used_count = 0", Integer.class, voucher.getId()));
+	}
+
+	/**
+	 * Redeem the voucher for orders 1..orders from {@link #THREADS} threads released together
+	 *
+	 * @return number of successful redemptions
+	 */
+	private int redeemConcurrently(Voucher voucher, int orders, LongUnaryOperator userOfOrder) throws Exception {
+		AtomicInteger redeemed = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (long order = 1; order <= orders; order++) {
+			long orderId = order;
+			futures.add(executor.submit(() -> {
+				start.await();
+				try {
+					transactionTemplate.executeWithoutResult(status -> voucherRedemptionService.redeem(
+							Set.of(voucher), userOfOrder.applyAsLong(orderId), orderId));
+					redeemed.incrementAndGet();
+				} catch (VoucherUnavailableException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			// Anything but a used-up voucher, a deadlock included, fails the test
+			future.get();
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+		assertEquals(orders, redeemed.get() + rejected.get());
+		return redeemed.get();
+	}
+
+	private void assertCountersMatchLedger(Voucher voucher, int expectedUses) {
+		assertEquals(expectedUses, jdbcTemplate.queryForObject(
+				"SELECT used_count FROM vouchers WHERE id = ?", Integer.class, voucher.getId()));
+		assertEquals(expectedUses, voucherRedemptionRepository.countByVoucherId(voucher.getId()));
+		if (voucher.getMaxUsesPerUser() != null) {
+			assertEquals(expectedUses, jdbcTemplate.queryForObject(
+					"SELECT SUM(used_count) FROM voucher_user_usage WHERE voucher_id = ?", Integer.class, voucher.getId()));
+		}
+	}
+
+	private Voucher voucher(String code, int maxUses, Integer maxUsesPerUser) {
+		return voucherRepository.save(Voucher.builder()
+				.code(code)
+				.discountPercentage(10.0)
+				.maxUses((double) maxUses)
+				.maxUsesPerUser(maxUsesPerUser)
+				.build());
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Build time, heap size and query latency of the search index over a synthetic Vietnamese catalog.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class InvertedIndexBenchmarkTest {
+
+	private static final int QUERIES = 5000;
+
+	@Test
+	void catalogOf100kProducts() {
+		run(100_000);
+	}
+
+	@Test
+	void catalogOf1mProducts() {
+		run(1_000_000);
+	}
+
+	private static void run(int products) {
+		SyntheticCatalog catalog = new SyntheticCatalog(42);
+
+		long heapBefore = SyntheticCatalog.usedHeap();
+		long start = System.nanoTime();
+		InvertedIndex index = new InvertedIndex();
+		for (int i = 1; i <= products; i++) {
+			String name = catalog.words(3 + catalog.nextInt(6));
+			String authors = catalog.nextInt(10) < 6 ? catalog.words(2 + catalog.nextInt(2)) : null;
+			String description = "<p>" + catalog.words(20 + catalog.nextInt(40)) + "</p>";
+			index.put(i, name, authors, description);
+		}
+		long buildMillis = (System.nanoTime() - start) / 1_000_000;
+		long heapMegabytes = (SyntheticCatalog.usedHeap() - heapBefore) / (1024 * 1024);
+
+		List<String> queries = new ArrayList<>(QUERIES);
+		for (int i = 0; i < QUERIES; i++) {
+			String query = switch (i % 5) {
+				case 0, 1 -> catalog.words(1);
+				case 2, 3 -> catalog.words(2);
+				default -> {
+					// Still typing: two words, the last one cut short
+					String last = VietnameseTextAnalyzer.fold(catalog.words(1));
+					yield catalog.words(1) + " " + last.substring(0, Math.min(2, last.length()));
+				}
+			};
+			// Half of the users type without diacritics
+			queries.add(i % 2 == 0 ? query : VietnameseTextAnalyzer.fold(query));
+		}
+
+		long hits = 0;
+		for (String query : queries) {
+			hits += index.search(query, 0, 12).totalHits();
+		}
+		long[] latencies = new long[QUERIES];
+		long queryStart = System.nanoTime();
+		for (int i = 0; i < QUERIES; i++) {
+			long t = System.nanoTime();
+			hits += index.search(queries.get(i), 0, 12).totalHits();
+			latencies[i] = System.nanoTime() - t;
+		}
+		long queryNanos = System.nanoTime() - queryStart;
+
+		System.out.printf("%,d products: built in %,d ms, ~%,d MB heap, %,d terms%n",
+				products, buildMillis, heapMegabytes, index.termCount());
+		System.out.printf("  %,d queries: %s, %,.0f queries/s, avg %,d hits%n",
+				QUERIES, SyntheticCatalog.percentiles(latencies), QUERIES / (queryNanos / 1e9), hits / (2L * QUERIES));
+		assertEquals(products, index.size());
+	}
+}
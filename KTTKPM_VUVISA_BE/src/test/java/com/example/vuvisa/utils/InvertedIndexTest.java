@@ -0,0 +1,84 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+	private InvertedIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new InvertedIndex();
+		index.put(1, "Sách giáo khoa Toán 5", null, "<p>Sách học cho lớp 5</p>");
+		index.put(2, "Bút bi Thiên Long", null, "Bút viết êm");
+		index.put(3, "Đắc Nhân Tâm", "Dale Carnegie", "Sách kỹ năng sống");
+		index.put(4, "Sách tô màu", null, null);
+	}
+
+	@Test
+	void diacriticsAreIgnored() {
+		assertEquals(List.of(3L), index.search("dac nhan tam", 0, 10).productIds());
+		assertEquals(List.of(3L), index.search("ĐẮC NHÂN", 0, 10).productIds());
+	}
+
+	@Test
+	void everyWordHasToMatch() {
+		assertEquals(List.of(1L), index.search("sách toán", 0, 10).productIds());
+		assertEquals(0, index.search("sách bút", 0, 10).totalHits());
+	}
+
+	@Test
+	void lastWordMatchesAsPrefix() {
+		assertEquals(List.of(3L), index.search("carn", 0, 10).productIds());
+		assertEquals(List.of(2L), index.search("bút thi", 0, 10).productIds());
+	}
+
+	@Test
+	void nameMatchesRankAboveDescriptionMatches() {
+		InvertedIndex.SearchResult result = index.search("sach", 0, 10);
+
+		assertEquals(3, result.totalHits());
+		// Product 3 only mentions it in its description
+		assertEquals(3L, result.productIds().get(2));
+	}
+
+	@Test
+	void pagesThroughHits() {
+		InvertedIndex.SearchResult all = index.search("sach", 0, 10);
+		InvertedIndex.SearchResult second = index.search("sach", 1, 1);
+
+		assertEquals(3, second.totalHits());
+		assertEquals(List.of(all.productIds().get(1)), second.productIds());
+	}
+
+	@Test
+	void updateReplacesAndRemoveDrops() {
+		index.put(4, "Vở ô ly", null, null);
+		index.remove(1);
+
+		assertEquals(List.of(3L), index.search("sach", 0, 10).productIds());
+		assertEquals(List.of(4L), index.search("vo o ly", 0, 10).productIds());
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void survivesCompaction() {
+		for (int i = 0; i < 5000; i++) {
+			index.put(100 + i, "Sản phẩm số " + i, null, "Mô tả " + i);
+		}
+		for (int i = 0; i < 3000; i++) {
+			index.remove(100 + i);
+		}
+
+		assertEquals(2004, index.size());
+		assertEquals(2000, index.search("san pham", 0, 3).totalHits());
+		assertEquals(List.of(4099L), index.search("3999", 0, 5).productIds());
+		assertTrue(index.search("sach", 0, 10).productIds().containsAll(List.of(1L, 3L, 4L)));
+	}
+}
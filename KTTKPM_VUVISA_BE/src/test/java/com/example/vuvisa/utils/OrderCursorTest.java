@@ -0,0 +1,30 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+class OrderCursorTest {
+
+	@Test
+	void roundTripsDatedAndUndatedOrders() {
+		OrderCursor dated = new OrderCursor(new Date(1_740_000_000_123L), 42L);
+		OrderCursor undated = new OrderCursor(null, 7L);
+
+		assertEquals(dated, OrderCursor.decode(dated.encode()));
+		assertEquals(undated, OrderCursor.decode(undated.encode()));
+	}
+
+	@Test
+	void malformedCursorsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not a cursor"));
+		// Valid base64 without the separator
+		String noSeparator = Base64.getUrlEncoder().withoutPadding().encodeToString("12345".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(noSeparator));
+	}
+}
@@ -0,0 +1,67 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+/**
+ * Per-invoice PDF latency with a new renderer set up for every invoice, as before the renderers were
+ * pooled, and with the pooled renderers now used. Both register the same fonts, so the
+ * difference is the renderer and font setup alone.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class PdfGeneratorUtilsBenchmarkTest {
+
+	private static final int WARMUP = 100;
+	private static final int INVOICES = 500;
+
+	@Test
+	void renderLatencyBeforeAndAfter() throws Exception {
+		List<String> htmlContents = new SyntheticInvoices(42).html(INVOICES);
+		long fontStart = System.nanoTime();
+		int fonts = PdfFontRegistry.getFontPaths().size();
+		System.out.printf("Loaded %d fonts once in %,d ms%n", fonts, (System.nanoTime() - fontStart) / 1_000_000);
+
+		for (int i = 0; i < WARMUP; i++) {
+			renderWithNewRenderer(htmlContents.get(i));
+			PdfGeneratorUtils.generatePdfFromHtml(htmlContents.get(i));
+		}
+
+		long[] before = new long[INVOICES];
+		long[] after = new long[INVOICES];
+		long bytes = 0;
+		// Interleaved, so that both see the same JIT and GC conditions
+		for (int i = 0; i < INVOICES; i++) {
+			long start = System.nanoTime();
+			bytes += renderWithNewRenderer(htmlContents.get(i)).length;
+			before[i] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			bytes += PdfGeneratorUtils.generatePdfFromHtml(htmlContents.get(i)).length;
+			after[i] = System.nanoTime() - start;
+		}
+
+		System.out.printf("%d invoices, new renderer per invoice: %s%n", INVOICES, SyntheticCatalog.percentiles(before));
+		System.out.printf("%d invoices, pooled renderer: %s%n", INVOICES, SyntheticCatalog.percentiles(after));
+		assertTrue(bytes > 0);
+	}
+
+	/**
+	 * What generatePdfFromHtml did for every invoice before renderers were pooled
+	 */
+	private static byte[] renderWithNewRenderer(String htmlContent) throws Exception {
+		ITextRenderer renderer = new ITextRenderer();
+		PdfFontRegistry.registerFonts(renderer.getFontResolver());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.setDocumentFromString(PdfGeneratorUtils.prepareHtml(htmlContent));
+		renderer.layout();
+		renderer.createPDF(out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.lowagie.text.pdf.PdfArray;
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+
+class PdfGeneratorUtilsTest {
+
+	private static final String CUSTOMER = "Nguyễn Thị Hường";
+	private static final String ADDRESS = "Phường Đa Kao, Quận 1, Thành phố Hồ Chí Minh";
+
+	private static final String INVOICE_HTML = "<!DOCTYPE html><html><head><style>\n"
+			+ "body { font-family: \"Times New Roman\", sans-serif; }\n"
+			+ "</style></head><body>\n"
+			+ "<h1>Hóa đơn bán hàng</h1>\n"
+			+ "<p>" + CUSTOMER + "</p>\n"
+			+ "<p>" + ADDRESS + "</p>\n"
+			+ "<p>Đắc Nhân Tâm – Sách kỹ năng sống</p>\n"
+			+ "</body></html>";
+
+	@Test
+	void bundledFontIsLoaded() {
+		assertFalse(PdfFontRegistry.requireFonts().isEmpty());
+		assertTrue(PdfFontRegistry.getFontPaths().stream().anyMatch(path -> path.endsWith("DejaVuSerif.ttf")));
+	}
+
+	@Test
+	void vietnameseTextIsRenderedWithAnEmbeddedFont() throws Exception {
+		// Twice, so the second render runs on a renderer returned to the pool
+		PdfGeneratorUtils.generatePdfFromHtml(INVOICE_HTML);
+		byte[] pdf = PdfGeneratorUtils.generatePdfFromHtml(INVOICE_HTML);
+
+		PdfReader reader = new PdfReader(pdf);
+		try {
+			PdfDictionary fonts = reader.getPageN(1).getAsDict(PdfName.RESOURCES).getAsDict(PdfName.FONT);
+			assertNotNull(fonts, "The page uses no font");
+			for (PdfName name : fonts.getKeys()) {
+				PdfDictionary font = fonts.getAsDict(name);
+				// Identity-H fonts are Type0 fonts whose descendant carries the embedded TrueType program
+				PdfArray descendants = font.getAsArray(PdfName.DESCENDANTFONTS);
+				assertNotNull(descendants, "Font " + font.get(PdfName.BASEFONT) + " is not a Unicode font");
+				PdfDictionary descriptor = descendants.getAsDict(0).getAsDict(PdfName.FONTDESCRIPTOR);
+				assertNotNull(descriptor.get(PdfName.FONTFILE2), "Font " + font.get(PdfName.BASEFONT) + " is not embedded");
+			}
+
+			String text = new PdfTextExtractor(reader).getTextFromPage(1);
+			assertTrue(text.contains(CUSTOMER), text);
+			assertTrue(text.contains("Hóa đơn"), text);
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Id generation throughput on the real clock, from one and from several threads.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class SnowflakeIdGeneratorBenchmarkTest {
+
+	private static final int IDS = 5_000_000;
+
+	@Test
+	void oneThread() throws Exception {
+		run(1);
+	}
+
+	@Test
+	void eightThreads() throws Exception {
+		run(8);
+	}
+
+	private static void run(int threads) throws Exception {
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+		// Warm up, then let the clock overtake the milliseconds borrowed while warming up
+		for (int i = 0; i < 1_000_000; i++) {
+			generator.nextId();
+		}
+		Thread.sleep(5000);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Long>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				long last = 0;
+				for (int i = 0; i < IDS / threads; i++) {
+					last = Math.max(last, generator.nextId());
+				}
+				return last;
+			}));
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		long last = 0;
+		for (Future<Long> future : futures) {
+			last = Math.max(last, future.get());
+		}
+		long nanos = System.nanoTime() - begin;
+		Instant finished = Instant.now();
+		executor.shutdown();
+
+		// Past 256 ids per millisecond the generator stamps ids ahead of the clock instead of waiting
+		Duration ahead = Duration.between(finished, SnowflakeIdGenerator.timestampOf(last));
+		System.out.printf("%d thread(s): %,d ids in %d ms, %,.0f ids/s, last id stamped %d ms ahead of the clock%n",
+				threads, IDS, nanos / 1_000_000, IDS * 1e9 / nanos, Math.max(0, ahead.toMillis()));
+		assertTrue(last > SnowflakeIdGenerator.ID_OFFSET);
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SnowflakeIdGeneratorTest {
+
+	private static final long START = SnowflakeIdGenerator.EPOCH.toEpochMilli() + 1_000_000;
+	private static final int SEQUENCE_PER_MILLI = 1 << SnowflakeIdGenerator.SEQUENCE_BITS;
+
+	@Test
+	void idsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+		int threads = 8;
+		int idsPerThread = 200_000;
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<long[]>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				long[] ids = new long[idsPerThread];
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = generator.nextId();
+				}
+				return ids;
+			}));
+		}
+		start.countDown();
+
+		long[] all = new long[threads * idsPerThread];
+		for (int t = 0; t < threads; t++) {
+			long[] ids = futures.get(t).get();
+			for (int i = 1; i < ids.length; i++) {
+				// Each caller sees strictly increasing ids
+				assertTrue(ids[i] > ids[i - 1]);
+			}
+			System.arraycopy(ids, 0, all, t * idsPerThread, idsPerThread);
+		}
+		executor.shutdown();
+
+		Arrays.sort(all);
+		for (int i = 1; i < all.length; i++) {
+			assertTrue(all[i] != all[i - 1]);
+		}
+		assertTrue(all[0] > SnowflakeIdGenerator.ID_OFFSET);
+		assertTrue(all[all.length - 1] < 1L << 53);
+	}
+
+	@Test
+	void clockRollbackDoesNotGoBackwards() {
+		AtomicLong clock = new AtomicLong(START);
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+		long before = generator.nextId();
+
+		// NTP steps the clock back by five seconds
+		clock.set(START - 5000);
+		long last = before;
+		for (int i = 0; i < 1000; i++) {
+			long id = generator.nextId();
+			assertTrue(id > last);
+			last = id;
+		}
+		// The ids keep the time of the last id handed out rather than the rolled back clock
+		assertTrue(!SnowflakeIdGenerator.timestampOf(last).isBefore(Instant.ofEpochMilli(START)));
+
+		// Once the clock passes the old time again, ids follow it
+		clock.set(START + 10_000);
+		long after = generator.nextId();
+		assertTrue(after > last);
+		assertEquals(Instant.ofEpochMilli(START + 10_000), SnowflakeIdGenerator.timestampOf(after));
+	}
+
+	@Test
+	void sequenceOverflowBorrowsTheNextMillisecond() {
+		AtomicLong clock = new AtomicLong(START);
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+		long[] ids = new long[SEQUENCE_PER_MILLI * 3];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = generator.nextId();
+			if (i > 0) {
+				assertTrue(ids[i] > ids[i - 1]);
+			}
+		}
+		assertEquals(Instant.ofEpochMilli(START), SnowflakeIdGenerator.timestampOf(ids[SEQUENCE_PER_MILLI - 1]));
+		// The clock did not move, so the 257th id is stamped a millisecond ahead, and so on
+		assertEquals(Instant.ofEpochMilli(START + 1), SnowflakeIdGenerator.timestampOf(ids[SEQUENCE_PER_MILLI]));
+		assertEquals(Instant.ofEpochMilli(START + 2), SnowflakeIdGenerator.timestampOf(ids[ids.length - 1]));
+
+		// The clock catching up does not reuse the borrowed milliseconds
+		clock.set(START + 1);
+		assertTrue(generator.nextId() > ids[ids.length - 1]);
+	}
+
+	@Test
+	void nodesNeverCollideInTheSameMillisecond() {
+		List<Long> ids = new ArrayList<>();
+		for (long node = 0; node <= SnowflakeIdGenerator.MAX_NODE_ID; node++) {
+			SnowflakeIdGenerator generator = new SnowflakeIdGenerator(node, () -> START);
+			for (int i = 0; i < SEQUENCE_PER_MILLI; i++) {
+				ids.add(generator.nextId());
+			}
+		}
+
+		assertEquals(ids.size(), ids.stream().distinct().count());
+		assertEquals(SnowflakeIdGenerator.lowerBound(Instant.ofEpochMilli(START)), ids.stream().mapToLong(Long::longValue).min().getAsLong());
+		assertTrue(ids.stream().allMatch(id -> id < SnowflakeIdGenerator.lowerBound(Instant.ofEpochMilli(START + 1))));
+	}
+
+	@Test
+	void rejectsNodeIdOutOfRange() {
+		assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+		assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Build time, heap size and lookup latency of the search box suggestions over a synthetic Vietnamese
+ * catalog. Excluded from {@code test}; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class SuggestionTrieBenchmarkTest {
+
+	private static final int QUERIES = 50_000;
+	private static final int LIMIT = 8;
+
+	@Test
+	void catalogOf100kProducts() {
+		run(100_000);
+	}
+
+	@Test
+	void catalogOf1mProducts() {
+		run(1_000_000);
+	}
+
+	private static void run(int products) {
+		SyntheticCatalog catalog = new SyntheticCatalog(42);
+		List<String> names = new ArrayList<>(products);
+		for (int i = 0; i < products; i++) {
+			names.add(catalog.words(3 + catalog.nextInt(6)));
+		}
+		int authors = products / 10;
+
+		long heapBefore = SyntheticCatalog.usedHeap();
+		long start = System.nanoTime();
+		SuggestionTrie.Builder builder = SuggestionTrie.builder();
+		for (int i = 0; i < products; i++) {
+			// Most products sell little, a few sell a lot
+			builder.add(i + 1, (byte) 0, names.get(i), (long) Math.pow(catalog.nextInt(1000), 2) / 1000);
+		}
+		for (int i = 0; i < authors; i++) {
+			builder.add(i + 1, (byte) 1, catalog.words(2 + catalog.nextInt(2)), catalog.nextInt(5000));
+		}
+		SuggestionTrie trie = builder.build();
+		long buildMillis = (System.nanoTime() - start) / 1_000_000;
+		long heapMegabytes = (SyntheticCatalog.usedHeap() - heapBefore) / (1024 * 1024);
+
+		// What is in the box after each keystroke: the start of a name, or of one of its words
+		List<String> queries = new ArrayList<>(QUERIES);
+		for (int i = 0; i < QUERIES; i++) {
+			String name = names.get(catalog.nextInt(products));
+			String[] words = name.split(" ");
+			int from = name.indexOf(words[catalog.nextInt(Math.min(words.length, 4))]);
+			String typed = name.substring(from, Math.min(name.length(), from + 1 + catalog.nextInt(12)));
+			// Half of the users type without diacritics
+			queries.add(i % 2 == 0 ? typed : VietnameseTextAnalyzer.fold(typed));
+		}
+
+		long suggestions = 0;
+		for (String query : queries) {
+			suggestions += trie.suggest(query, LIMIT).size();
+		}
+		long[] latencies = new long[QUERIES];
+		long queryStart = System.nanoTime();
+		for (int i = 0; i < QUERIES; i++) {
+			long t = System.nanoTime();
+			suggestions += trie.suggest(queries.get(i), LIMIT).size();
+			latencies[i] = System.nanoTime() - t;
+		}
+		long queryNanos = System.nanoTime() - queryStart;
+
+		System.out.printf("%,d products and %,d authors: built in %,d ms, ~%,d MB heap%n",
+				products, authors, buildMillis, heapMegabytes);
+		System.out.printf("  %,d lookups: %s, %,.0f lookups/s, avg %.1f suggestions%n",
+				QUERIES, SyntheticCatalog.percentiles(latencies), QUERIES / (queryNanos / 1e9),
+				suggestions / (2.0 * QUERIES));
+		assertEquals(products + authors, trie.size());
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.vuvisa.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SuggestionTrieTest {
+
+	private static final byte PRODUCT = 0;
+	private static final byte AUTHOR = 1;
+
+	private SuggestionTrie trie;
+
+	@BeforeEach
+	void setUp() {
+		trie = SuggestionTrie.builder()
+				.add(1, PRODUCT, "Sách giáo khoa Toán 5", 10)
+				.add(2, PRODUCT, "Sách tô màu", 50)
+				.add(3, PRODUCT, "Đắc Nhân Tâm", 200)
+				.add(4, PRODUCT, "Bút bi Thiên Long", 80)
+				.add(5, PRODUCT, "Sách tô màu", 5)
+				.add(7, AUTHOR, "Dale Carnegie", 120)
+				.add(8, PRODUCT, "   ", 1000)
+				.build();
+	}
+
+	@Test
+	void heaviestCompletionsComeFirst() {
+		assertEquals(List.of("Sách tô màu", "Sách giáo khoa Toán 5"), texts(trie.suggest("sa", 10)));
+		assertEquals(List.of("Đắc Nhân Tâm", "Dale Carnegie"), texts(trie.suggest("D", 10)));
+	}
+
+	@Test
+	void diacriticsAreIgnored() {
+		assertEquals(List.of("Đắc Nhân Tâm"), texts(trie.suggest("đắc nh", 10)));
+		assertEquals(List.of("Đắc Nhân Tâm"), texts(trie.suggest("DAC NHAN", 10)));
+	}
+
+	@Test
+	void completesLaterWords() {
+		assertEquals(List.of("Đắc Nhân Tâm"), texts(trie.suggest("nhan tam", 10)));
+		assertEquals(List.of("Bút bi Thiên Long"), texts(trie.suggest("thien l", 10)));
+		assertTrue(trie.suggest("nhan tamx", 10).isEmpty());
+	}
+
+	@Test
+	void sameTextIsSuggestedOnceWithHeaviestEntry() {
+		List<SuggestionTrie.Suggestion> suggestions = trie.suggest("sach to", 10);
+
+		assertEquals(1, suggestions.size());
+		assertEquals(2L, suggestions.get(0).id());
+	}
+
+	@Test
+	void keepsIdAndKind() {
+		SuggestionTrie.Suggestion author = trie.suggest("carn", 10).get(0);
+
+		assertEquals(7L, author.id());
+		assertEquals(AUTHOR, author.kind());
+		assertEquals(120, author.weight());
+	}
+
+	@Test
+	void respectsLimit() {
+		assertEquals(List.of("Đắc Nhân Tâm"), texts(trie.suggest("d", 1)));
+		assertTrue(trie.suggest("", 10).isEmpty());
+		assertTrue(trie.suggest("s", 0).isEmpty());
+		assertEquals(6, trie.size());
+	}
+
+	private static List<String> texts(List<SuggestionTrie.Suggestion> suggestions) {
+		return suggestions.stream().map(SuggestionTrie.Suggestion::text).toList();
+	}
+}
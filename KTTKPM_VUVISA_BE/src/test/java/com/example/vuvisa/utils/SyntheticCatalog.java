@@ -0,0 +1,110 @@
+package com.example.vuvisa.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Random Vietnamese-looking catalog text for the benchmarks: words are drawn with a Zipf distribution
+ * from common syllables followed by a long tail of brand-like names and model codes.
+ */
+public final class SyntheticCatalog {
+
+	private static final String[] INITIALS = {"", "b", "c", "ch", "d", "đ", "g", "gi", "h", "k", "kh", "l", "m", "n",
+			"ng", "nh", "ph", "qu", "s", "t", "th", "tr", "v", "x"};
+	private static final String[] RHYMES = {"a", "á", "à", "ả", "ã", "ạ", "ăn", "ắc", "âm", "ấy", "e", "é", "ê", "ết",
+			"i", "ì", "inh", "o", "ó", "ô", "ối", "ơ", "ời", "u", "ú", "ư", "ước", "ương", "ang", "anh", "ao", "oa",
+			"oan", "uy", "yên", "iếu", "ai", "ài", "ong", "ông", "ung", "ừng"};
+	private static final int TAIL_WORDS = 50_000;
+
+	private final String[] vocabulary;
+	private final double[] zipf;
+	private final SplittableRandom random;
+
+	SyntheticCatalog(long seed) {
+		this.vocabulary = vocabulary();
+		this.zipf = zipf(vocabulary.length, 1.0);
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * @param count number of words
+	 * @return the words separated by spaces
+	 */
+	String words(int count) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			int rank = Arrays.binarySearch(zipf, random.nextDouble());
+			rank = Math.min(rank < 0 ? -rank - 1 : rank, vocabulary.length - 1);
+			if (i > 0) {
+				text.append(' ');
+			}
+			text.append(vocabulary[rank]);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * @param bound exclusive upper bound
+	 * @return a random int in [0, bound)
+	 */
+	int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * @param latencies latencies in nanoseconds
+	 * @return p50, p95 and p99 in milliseconds
+	 */
+	public static String percentiles(long[] latencies) {
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		return String.format("p50 %.3f ms, p95 %.3f ms, p99 %.3f ms", sorted[sorted.length / 2] / 1e6,
+				sorted[sorted.length * 95 / 100] / 1e6, sorted[sorted.length * 99 / 100] / 1e6);
+	}
+
+	private static String[] vocabulary() {
+		List<String> words = new ArrayList<>();
+		for (String initial : INITIALS) {
+			for (String rhyme : RHYMES) {
+				words.add(initial + rhyme);
+			}
+		}
+		// Shuffle so word popularity does not follow the spelling
+		SplittableRandom random = new SplittableRandom(7);
+		for (int i = words.size() - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			words.set(i, words.set(j, words.get(i)));
+		}
+		for (int i = 0; i < TAIL_WORDS; i++) {
+			StringBuilder word = new StringBuilder();
+			for (int syllable = 2 + random.nextInt(2); syllable > 0; syllable--) {
+				word.append("bcdfghklmnprstvx".charAt(random.nextInt(16))).append("aeiou".charAt(random.nextInt(5)));
+			}
+			words.add(i % 4 == 0 ? word.append(random.nextInt(1000)).toString() : word.toString());
+		}
+		return words.toArray(new String[0]);
+	}
+
+	private static double[] zipf(int size, double exponent) {
+		double[] cumulative = new double[size];
+		double total = 0;
+		for (int rank = 0; rank < size; rank++) {
+			total += 1.0 / Math.pow(rank + 1, exponent);
+			cumulative[rank] = total;
+		}
+		for (int rank = 0; rank < size; rank++) {
+			cumulative[rank] /= total;
+		}
+		return cumulative;
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.vuvisa.utils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import com.example.vuvisa.entities.Book;
+import com.example.vuvisa.entities.Order;
+import com.example.vuvisa.entities.OrderDetail;
+import com.example.vuvisa.enums.PaymentMethod;
+
+/**
+ * Invoice HTML for the PDF benchmarks, rendered from the real {@code templates/invoice.html} over random orders.
+ * The remote logo is left out so that the benchmarks measure rendering rather than the network.
+ */
+public final class SyntheticInvoices {
+
+	private final SpringTemplateEngine templateEngine;
+	private final SyntheticCatalog catalog;
+
+	public SyntheticInvoices(long seed) {
+		ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+		resolver.setPrefix("templates/");
+		resolver.setSuffix(".html");
+		resolver.setCharacterEncoding("UTF-8");
+		this.templateEngine = new SpringTemplateEngine();
+		this.templateEngine.setTemplateResolver(resolver);
+		this.catalog = new SyntheticCatalog(seed);
+	}
+
+	/**
+	 * @param count number of invoices
+	 * @return invoice HTML of orders with 1 to 8 lines each
+	 */
+	public List<String> html(int count) {
+		List<String> invoices = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			invoices.add(html(order(i + 1)));
+		}
+		return invoices;
+	}
+
+	private String html(Order order) {
+		Context context = new Context();
+		context.setVariable("order", order);
+		context.setVariable("discountAmount", order.getDiscountTotal().doubleValue());
+		context.setVariable("totalPrice", order.getSubtotal().doubleValue());
+		return templateEngine.process("invoice", context).replaceAll("<img[^>]*>", "");
+	}
+
+	private Order order(long id) {
+		List<OrderDetail> details = new ArrayList<>();
+		long subtotal = 0;
+		for (int line = 1 + catalog.nextInt(8); line > 0; line--) {
+			Book book = new Book();
+			book.setProductName(capitalize(catalog.words(3 + catalog.nextInt(6))));
+			long price = 1000L * (20 + catalog.nextInt(480));
+			long quantity = 1 + catalog.nextInt(3);
+			details.add(OrderDetail.builder().product(book).price(price).quantity(quantity).build());
+			subtotal += price * quantity;
+		}
+		long discount = subtotal / 10;
+		return Order.builder()
+				.id(id)
+				.fullName(capitalize(catalog.words(3)))
+				.email("customer" + id + "@vuvisa.test")
+				.phoneNumber("09" + (10_000_000 + catalog.nextInt(89_999_999)))
+				.address(catalog.nextInt(500) + " " + capitalize(catalog.words(2)))
+				.ward("Phường " + (1 + catalog.nextInt(20)))
+				.district("Quận " + (1 + catalog.nextInt(12)))
+				.city("Thành phố Hồ Chí Minh")
+				.orderDate(new Date())
+				.paymentMethod(id % 2 == 0 ? PaymentMethod.VN_PAY : PaymentMethod.CASH_ON_DELIVERY)
+				.orderDetails(details)
+				.subtotal(subtotal)
+				.discountTotal(discount)
+				.grandTotal(subtotal - discount)
+				.build();
+	}
+
+	private static String capitalize(String words) {
+		StringBuilder text = new StringBuilder(words.length());
+		for (String word : words.split(" ")) {
+			if (text.length() > 0) {
+				text.append(' ');
+			}
+			text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+		}
+		return text.toString();
+	}
+}